@@ -455,24 +455,37 @@ void Input::joy_connection_changed(int p_idx, bool p_connected, String p_name, S
 
 Vector3 Input::get_gravity() const {
 	_THREAD_SAFE_METHOD_
+	queried_sensors |= SENSOR_MASK_GRAVITY;
 	return gravity;
 }
 
 Vector3 Input::get_accelerometer() const {
 	_THREAD_SAFE_METHOD_
+	queried_sensors |= SENSOR_MASK_ACCELEROMETER;
 	return accelerometer;
 }
 
 Vector3 Input::get_magnetometer() const {
 	_THREAD_SAFE_METHOD_
+	queried_sensors |= SENSOR_MASK_MAGNETOMETER;
 	return magnetometer;
 }
 
 Vector3 Input::get_gyroscope() const {
 	_THREAD_SAFE_METHOD_
+	queried_sensors |= SENSOR_MASK_GYROSCOPE;
 	return gyroscope;
 }
 
+// Returns the SensorMask of the sensors read through the getters above since the last call,
+// so platforms which can power sensors down only keep the ones in use enabled.
+uint32_t Input::take_queried_sensors() {
+	_THREAD_SAFE_METHOD_
+	uint32_t sensors = queried_sensors;
+	queried_sensors = 0;
+	return sensors;
+}
+
 void Input::_parse_input_event_impl(const Ref<InputEvent> &p_event, bool p_is_emulated) {
 	// Notes on mouse-touch emulation:
 	// - Emulated mouse events are parsed, that is, re-routed to this method, so they make the same effects
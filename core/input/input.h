@@ -79,6 +79,13 @@ public:
 
 	typedef void (*EventDispatchFunc)(const Ref<InputEvent> &p_event);
 
+	enum SensorMask {
+		SENSOR_MASK_ACCELEROMETER = 1 << 0,
+		SENSOR_MASK_GRAVITY = 1 << 1,
+		SENSOR_MASK_MAGNETOMETER = 1 << 2,
+		SENSOR_MASK_GYROSCOPE = 1 << 3,
+	};
+
 private:
 	MouseButton mouse_button_mask = MouseButton::NONE;
 
@@ -91,6 +98,7 @@ private:
 	Vector3 accelerometer;
 	Vector3 magnetometer;
 	Vector3 gyroscope;
+	mutable uint32_t queried_sensors = 0; // SensorMask of the sensors read since the last call to take_queried_sensors().
 	Vector2 mouse_pos;
 	int64_t mouse_window = 0;
 
@@ -264,10 +272,12 @@ public:
 	uint64_t get_joy_vibration_timestamp(int p_device);
 	void joy_connection_changed(int p_idx, bool p_connected, String p_name, String p_guid = "");
 
+	// Reading a sensor records it as in use, see take_queried_sensors().
 	Vector3 get_gravity() const;
 	Vector3 get_accelerometer() const;
 	Vector3 get_magnetometer() const;
 	Vector3 get_gyroscope() const;
+	uint32_t take_queried_sensors();
 
 	Point2 get_mouse_position() const;
 	Vector2 get_last_mouse_velocity();
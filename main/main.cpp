@@ -1421,6 +1421,39 @@ Error Main::setup(const char *execpath, int argc, char *argv[], bool p_second_ph
 	{
 		window_vsync_mode = DisplayServer::VSyncMode(int(GLOBAL_DEF("display/window/vsync/vsync_mode", DisplayServer::VSyncMode::VSYNC_ENABLED)));
 	}
+	GLOBAL_DEF("display/window/android/frame_pacing_fps", 0);
+	ProjectSettings::get_singleton()->set_custom_property_info("display/window/android/frame_pacing_fps",
+			PropertyInfo(Variant::INT,
+					"display/window/android/frame_pacing_fps",
+					PROPERTY_HINT_ENUM,
+					"Disabled:0,30:30,45:45,60:60,90:90,120:120"));
+	GLOBAL_DEF("display/window/android/dynamic_resolution_enabled", false);
+	GLOBAL_DEF("display/window/android/dynamic_resolution_min_scale", 0.5);
+	ProjectSettings::get_singleton()->set_custom_property_info("display/window/android/dynamic_resolution_min_scale",
+			PropertyInfo(Variant::FLOAT,
+					"display/window/android/dynamic_resolution_min_scale",
+					PROPERTY_HINT_RANGE,
+					"0.1,1,0.05"));
+	GLOBAL_DEF("display/window/android/dynamic_resolution_max_scale", 1.0);
+	ProjectSettings::get_singleton()->set_custom_property_info("display/window/android/dynamic_resolution_max_scale",
+			PropertyInfo(Variant::FLOAT,
+					"display/window/android/dynamic_resolution_max_scale",
+					PROPERTY_HINT_RANGE,
+					"0.1,1,0.05"));
+	GLOBAL_DEF("display/window/android/dynamic_resolution_target_frame_time_msec", 16.6);
+	ProjectSettings::get_singleton()->set_custom_property_info("display/window/android/dynamic_resolution_target_frame_time_msec",
+			PropertyInfo(Variant::FLOAT,
+					"display/window/android/dynamic_resolution_target_frame_time_msec",
+					PROPERTY_HINT_RANGE,
+					"1,100,0.1,or_greater"));
+	GLOBAL_DEF("display/window/android/idle_render_enabled", false);
+	GLOBAL_DEF("display/window/android/idle_render_heartbeat_msec", 100);
+	ProjectSettings::get_singleton()->set_custom_property_info("display/window/android/idle_render_heartbeat_msec",
+			PropertyInfo(Variant::INT,
+					"display/window/android/idle_render_heartbeat_msec",
+					PROPERTY_HINT_RANGE,
+					"0,1000,1,or_greater"));
+	GLOBAL_DEF("display/window/android/thermal_governor_enabled", false);
 	Engine::get_singleton()->set_physics_ticks_per_second(GLOBAL_DEF_BASIC("physics/common/physics_ticks_per_second", 60));
 	ProjectSettings::get_singleton()->set_custom_property_info("physics/common/physics_ticks_per_second",
 			PropertyInfo(Variant::INT, "physics/common/physics_ticks_per_second",
@@ -1460,6 +1493,37 @@ Error Main::setup(const char *execpath, int argc, char *argv[], bool p_second_ph
 
 	GLOBAL_DEF("display/window/ios/hide_home_indicator", true);
 	GLOBAL_DEF("input_devices/pointing/ios/touch_delay", 0.150);
+	GLOBAL_DEF("input_devices/pointing/android/use_historical_samples", true);
+	GLOBAL_DEF("input_devices/joypads/android/axis_deadzone", 0.0);
+	ProjectSettings::get_singleton()->set_custom_property_info("input_devices/joypads/android/axis_deadzone",
+			PropertyInfo(Variant::FLOAT,
+					"input_devices/joypads/android/axis_deadzone",
+					PROPERTY_HINT_RANGE,
+					"0,0.99,0.01"));
+	GLOBAL_DEF("input_devices/joypads/android/axis_change_epsilon", 0.001);
+	ProjectSettings::get_singleton()->set_custom_property_info("input_devices/joypads/android/axis_change_epsilon",
+			PropertyInfo(Variant::FLOAT,
+					"input_devices/joypads/android/axis_change_epsilon",
+					PROPERTY_HINT_RANGE,
+					"0,0.1,0.0001"));
+	GLOBAL_DEF("input_devices/sensors/android/sampling_period_usec", 20000);
+	ProjectSettings::get_singleton()->set_custom_property_info("input_devices/sensors/android/sampling_period_usec",
+			PropertyInfo(Variant::INT,
+					"input_devices/sensors/android/sampling_period_usec",
+					PROPERTY_HINT_RANGE,
+					"0,200000,1,or_greater"));
+	GLOBAL_DEF("input_devices/sensors/android/max_report_latency_usec", 0);
+	ProjectSettings::get_singleton()->set_custom_property_info("input_devices/sensors/android/max_report_latency_usec",
+			PropertyInfo(Variant::INT,
+					"input_devices/sensors/android/max_report_latency_usec",
+					PROPERTY_HINT_RANGE,
+					"0,1000000,1,or_greater"));
+	GLOBAL_DEF("input_devices/sensors/android/idle_timeout_msec", 5000);
+	ProjectSettings::get_singleton()->set_custom_property_info("input_devices/sensors/android/idle_timeout_msec",
+			PropertyInfo(Variant::INT,
+					"input_devices/sensors/android/idle_timeout_msec",
+					PROPERTY_HINT_RANGE,
+					"0,60000,1,or_greater"));
 
 	Engine::get_singleton()->set_frame_delay(frame_delay);
 
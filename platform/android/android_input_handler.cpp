@@ -49,6 +49,66 @@ void AndroidInputHandler::process_joy_event(AndroidInputHandler::JoypadEvent p_e
 	}
 }
 
+void AndroidInputHandler::process_sensor_event(int p_sensor_type, const Vector3 &p_value) {
+	DisplayServerAndroid *display_server = DisplayServerAndroid::get_singleton();
+	ERR_FAIL_NULL(display_server);
+
+	switch (p_sensor_type) {
+		case SENSOR_TYPE_ACCELEROMETER:
+			display_server->process_accelerometer(p_value);
+			break;
+		case SENSOR_TYPE_GRAVITY:
+			display_server->process_gravity(p_value);
+			break;
+		case SENSOR_TYPE_MAGNETIC_FIELD:
+			display_server->process_magnetometer(p_value);
+			break;
+		case SENSOR_TYPE_GYROSCOPE:
+			display_server->process_gyroscope(p_value);
+			break;
+		default:
+			return;
+	}
+}
+
+HatMask AndroidInputHandler::_hat_mask_from_axes(int p_hat_x, int p_hat_y) {
+	HatMask hat = HatMask::CENTER;
+	if (p_hat_x != 0) {
+		if (p_hat_x < 0) {
+			hat |= HatMask::LEFT;
+		} else {
+			hat |= HatMask::RIGHT;
+		}
+	}
+	if (p_hat_y != 0) {
+		if (p_hat_y < 0) {
+			hat |= HatMask::UP;
+		} else {
+			hat |= HatMask::DOWN;
+		}
+	}
+	return hat;
+}
+
+void AndroidInputHandler::process_joypad_state(int p_pad_count, const int32_t *p_pad_states, int p_pad_states_size, const float *p_axis_values, int p_axis_values_size) {
+	ERR_FAIL_COND(p_pad_count * JOYPAD_STATE_STRIDE > p_pad_states_size);
+
+	int axis_offset = 0;
+	for (int i = 0; i < p_pad_count; i++) {
+		const int32_t *pad_state = p_pad_states + i * JOYPAD_STATE_STRIDE;
+		const int device = pad_state[0];
+		const int axis_count = pad_state[1];
+		ERR_FAIL_COND(axis_count < 0 || axis_offset + axis_count > p_axis_values_size);
+
+		// Input::joy_axis() filters out unchanged values, so the full state of the pad can be forwarded.
+		const int mapped_axis_count = MIN(axis_count, (int)JoyAxis::MAX);
+		for (int axis = 0; axis < mapped_axis_count; axis++) {
+			Input::get_singleton()->joy_axis(device, (JoyAxis)axis, p_axis_values[axis_offset + axis]);
+		}
+		axis_offset += axis_count;
+	}
+}
+
 void AndroidInputHandler::_set_key_modifier_state(Ref<InputEventWithModifiers> ev) {
 	ev->set_shift_pressed(shift_mem);
 	ev->set_alt_pressed(alt_mem);
@@ -391,3 +451,102 @@ void AndroidInputHandler::process_scroll(Point2 p_pos) {
 	Input::get_singleton()->parse_input_event(ev);
 	scroll_prev_pos = p_pos;
 }
+
+void AndroidInputHandler::_process_touch_event_record(const TouchEventRecord *p_record) {
+	const TouchPointRecord *points = reinterpret_cast<const TouchPointRecord *>(p_record + 1);
+
+	touch_event_points.resize(p_record->pointer_count);
+	TouchPos *w = touch_event_points.ptrw();
+	for (int i = 0; i < p_record->pointer_count; i++) {
+		w[i].id = points[i].id;
+		w[i].pos = Point2(points[i].x, points[i].y);
+	}
+
+	if ((p_record->source & AINPUT_SOURCE_MOUSE) == AINPUT_SOURCE_MOUSE || (p_record->source & AINPUT_SOURCE_MOUSE_RELATIVE) == AINPUT_SOURCE_MOUSE_RELATIVE) {
+		ERR_FAIL_COND(p_record->pointer_count < 1);
+		process_mouse_event(p_record->source, p_record->action, p_record->buttons_mask, touch_event_points[0].pos, p_record->vertical_factor, p_record->horizontal_factor);
+	} else {
+		process_touch(p_record->action, p_record->pointer, touch_event_points);
+	}
+}
+
+void AndroidInputHandler::_parse_text_key_event(Key p_keycode, Key p_physical_keycode, char32_t p_unicode, bool p_pressed) {
+	Ref<InputEventKey> ev;
+	ev.instantiate();
+	ev->set_keycode(p_keycode);
+	ev->set_physical_keycode(p_physical_keycode);
+	ev->set_unicode(p_unicode);
+	ev->set_pressed(p_pressed);
+	_set_key_modifier_state(ev);
+	Input::get_singleton()->parse_input_event(ev);
+}
+
+void AndroidInputHandler::process_text_commit(const int32_t *p_codepoints, int p_count, int p_delete_count) {
+	ERR_FAIL_COND(p_count > 0 && p_codepoints == nullptr);
+
+	// Produces the same key events as the per-character key path: a press and a release for every deletion and
+	// every inserted character. The codepoints are already decoded from UTF-16, so no surrogate handling is needed.
+	for (int i = 0; i < p_delete_count; i++) {
+		_parse_text_key_event(Key::BACKSPACE, Key::BACKSPACE, 0, true);
+		_parse_text_key_event(Key::BACKSPACE, Key::BACKSPACE, 0, false);
+	}
+
+	for (int i = 0; i < p_count; i++) {
+		const char32_t unicode = p_codepoints[i];
+		const Key keycode = unicode == '\n' ? Key::ENTER : Key::NONE;
+		_parse_text_key_event(keycode, Key::NONE, unicode, true);
+		_parse_text_key_event(keycode, Key::NONE, unicode, false);
+	}
+}
+
+void AndroidInputHandler::process_input_events(const uint8_t *p_buffer, uint32_t p_capacity, uint32_t p_read_index, uint32_t p_write_index) {
+	ERR_FAIL_NULL(p_buffer);
+	ERR_FAIL_COND((p_capacity & (p_capacity - 1)) != 0);
+
+	const uint32_t mask = p_capacity - 1;
+	while (p_read_index != p_write_index) {
+		const uint8_t *record = p_buffer + (p_read_index & mask);
+		const EventRecordHeader *header = reinterpret_cast<const EventRecordHeader *>(record);
+		ERR_FAIL_COND_MSG(header->size <= 0 || (p_read_index & mask) + header->size > p_capacity, "Corrupted input event buffer.");
+
+		switch (header->type) {
+			case EVENT_TYPE_TOUCH: {
+				_process_touch_event_record(reinterpret_cast<const TouchEventRecord *>(record));
+			} break;
+			case EVENT_TYPE_HOVER: {
+				const HoverEventRecord *hover = reinterpret_cast<const HoverEventRecord *>(record);
+				process_hover(hover->type, Point2(hover->x, hover->y));
+			} break;
+			case EVENT_TYPE_JOY_HAT: {
+				const JoyHatEventRecord *hat = reinterpret_cast<const JoyHatEventRecord *>(record);
+				Input::get_singleton()->joy_hat(hat->device, _hat_mask_from_axes(hat->hat_x, hat->hat_y));
+			} break;
+			case EVENT_TYPE_KEY: {
+				const KeyEventRecord *key = reinterpret_cast<const KeyEventRecord *>(record);
+				process_key_event(key->keycode, key->scancode, key->unicode_char, key->pressed != 0);
+			} break;
+			case EVENT_TYPE_JOY_BUTTON: {
+				const JoyButtonEventRecord *button = reinterpret_cast<const JoyButtonEventRecord *>(record);
+				JoypadEvent jevent;
+				jevent.device = button->device;
+				jevent.type = JOY_EVENT_BUTTON;
+				jevent.index = button->button;
+				jevent.pressed = button->pressed != 0;
+				process_joy_event(jevent);
+			} break;
+			case EVENT_TYPE_DOUBLE_TAP: {
+				const DoubleTapEventRecord *double_tap = reinterpret_cast<const DoubleTapEventRecord *>(record);
+				process_double_tap(double_tap->buttons_mask, Point2(double_tap->x, double_tap->y));
+			} break;
+			case EVENT_TYPE_SCROLL: {
+				const ScrollEventRecord *scroll = reinterpret_cast<const ScrollEventRecord *>(record);
+				process_scroll(Point2(scroll->x, scroll->y));
+			} break;
+			case EVENT_TYPE_PADDING:
+			default:
+				break;
+		}
+
+		p_read_index += header->size;
+	}
+}
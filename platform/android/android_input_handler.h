@@ -35,10 +35,113 @@
 
 // This class encapsulates all the handling of input events that come from the Android UI thread.
 // Remarks:
-// - It's not thread-safe by itself, so its functions must only be called on a single thread, which is the Android UI thread.
+// - It's not thread-safe by itself. The `process_*` functions share the modifier keys and mouse buttons state, so
+//   they must all be called on a single thread, which is the render thread: input events are queued by the UI
+//   thread and dispatched through `process_input_events`, while joypad axes, sensor values and text commits are
+//   forwarded once per frame through their own `process_*` function.
 // - Its functions must only call thread-safe methods.
 class AndroidInputHandler {
 public:
+	// Number of ints describing each pad in a joypad state snapshot.
+	// Must be kept in sync with 'java/lib/src/org/godotengine/godot/input/JoypadStateBuffer.java'.
+	static const int JOYPAD_STATE_STRIDE = 2;
+
+	// Input event records queued by the UI thread.
+	// Must be kept in sync with 'java/lib/src/org/godotengine/godot/input/InputEventBuffer.java'.
+	enum {
+		EVENT_TYPE_PADDING = 0,
+		EVENT_TYPE_TOUCH = 1,
+		EVENT_TYPE_HOVER = 2,
+		EVENT_TYPE_JOY_HAT = 3,
+		EVENT_TYPE_KEY = 4,
+		EVENT_TYPE_JOY_BUTTON = 5,
+		EVENT_TYPE_DOUBLE_TAP = 6,
+		EVENT_TYPE_SCROLL = 7,
+		EVENT_TYPE_TEXT_COMMIT = 8, // Marker only, the text is forwarded through `process_text_commit`.
+	};
+
+	// Sensor types, matching the 'android.hardware.Sensor' constants.
+	// Sensor values are forwarded once per frame by the render thread, outside of the queued events.
+	enum {
+		SENSOR_TYPE_ACCELEROMETER = 1,
+		SENSOR_TYPE_MAGNETIC_FIELD = 2,
+		SENSOR_TYPE_GYROSCOPE = 4,
+		SENSOR_TYPE_GRAVITY = 9,
+	};
+
+	struct EventRecordHeader {
+		int32_t type;
+		int32_t size; // In bytes, including the header.
+		int64_t event_time; // In nanoseconds, SystemClock.uptimeMillis() time base.
+		int64_t enqueue_time; // In nanoseconds, same time base; used for latency tracking on the Java side.
+	};
+
+	struct TouchEventRecord {
+		EventRecordHeader header;
+		int32_t source;
+		int32_t action;
+		int32_t pointer;
+		int32_t pointer_count;
+		int32_t buttons_mask;
+		float vertical_factor;
+		float horizontal_factor;
+		int32_t reserved;
+		// Followed by `pointer_count` TouchPointRecord.
+	};
+
+	struct TouchPointRecord {
+		int32_t id;
+		float x;
+		float y;
+	};
+
+	struct HoverEventRecord {
+		EventRecordHeader header;
+		int32_t type;
+		float x;
+		float y;
+		int32_t reserved;
+	};
+
+	struct KeyEventRecord {
+		EventRecordHeader header;
+		int32_t keycode;
+		int32_t scancode;
+		int32_t unicode_char;
+		int32_t pressed;
+	};
+
+	struct JoyButtonEventRecord {
+		EventRecordHeader header;
+		int32_t device;
+		int32_t button;
+		int32_t pressed;
+		int32_t reserved;
+	};
+
+	struct JoyHatEventRecord {
+		EventRecordHeader header;
+		int32_t device;
+		int32_t hat_x;
+		int32_t hat_y;
+		int32_t reserved;
+	};
+
+	struct DoubleTapEventRecord {
+		EventRecordHeader header;
+		int32_t buttons_mask;
+		int32_t x;
+		int32_t y;
+		int32_t reserved;
+	};
+
+	struct ScrollEventRecord {
+		EventRecordHeader header;
+		int32_t x;
+		int32_t y;
+		int32_t reserved[2];
+	};
+
 	struct TouchPos {
 		int id = 0;
 		Point2 pos;
@@ -68,6 +171,7 @@ private:
 	MouseButton buttons_state = MouseButton::NONE;
 
 	Vector<TouchPos> touch;
+	Vector<TouchPos> touch_event_points; // Reused across queued touch events to avoid allocations.
 	Point2 hover_prev_pos; // needed to calculate the relative position on hover events
 	Point2 scroll_prev_pos; // needed to calculate the relative position on scroll events
 
@@ -78,6 +182,12 @@ private:
 
 	void _wheel_button_click(MouseButton event_buttons_mask, const Ref<InputEventMouseButton> &ev, MouseButton wheel_button, float factor);
 
+	void _process_touch_event_record(const TouchEventRecord *p_record);
+
+	void _parse_text_key_event(Key p_keycode, Key p_physical_keycode, char32_t p_unicode, bool p_pressed);
+
+	static HatMask _hat_mask_from_axes(int p_hat_x, int p_hat_y);
+
 public:
 	void process_touch(int p_event, int p_pointer, const Vector<TouchPos> &p_points);
 	void process_hover(int p_type, Point2 p_pos);
@@ -85,7 +195,11 @@ public:
 	void process_double_tap(int event_android_button_mask, Point2 p_pos);
 	void process_scroll(Point2 p_pos);
 	void process_joy_event(JoypadEvent p_event);
+	void process_sensor_event(int p_sensor_type, const Vector3 &p_value);
 	void process_key_event(int p_keycode, int p_scancode, int p_unicode_char, bool p_pressed);
+	void process_text_commit(const int32_t *p_codepoints, int p_count, int p_delete_count);
+	void process_input_events(const uint8_t *p_buffer, uint32_t p_capacity, uint32_t p_read_index, uint32_t p_write_index);
+	void process_joypad_state(int p_pad_count, const int32_t *p_pad_states, int p_pad_states_size, const float *p_axis_values, int p_axis_values_size);
 };
 
 #endif
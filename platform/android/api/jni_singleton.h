@@ -45,10 +45,17 @@ class JNISingleton : public Object {
 		jmethodID method;
 		Variant::Type ret_type;
 		Vector<Variant::Type> argtypes;
+		// Bit i is set when argument i is a java.nio buffer.
+		uint64_t direct_buffer_args = 0;
 	};
 
 	jobject instance;
 	Map<StringName, MethodData> method_map;
+
+	// Lazy plugins are created on the first call to one of their methods.
+	String lazy_instance_name;
+	jclass lazy_instance_class;
+	void (*lazy_instance_provider)(const String &p_name);
 #endif
 
 public:
@@ -73,6 +80,11 @@ public:
 			return Object::callp(p_method, p_args, p_argcount, r_error);
 		}
 
+		if (!instance && lazy_instance_provider) {
+			// Sets the instance as the plugin registers itself.
+			lazy_instance_provider(lazy_instance_name);
+		}
+
 		ERR_FAIL_COND_V(!instance, Variant());
 
 		r_error.error = Callable::CallError::CALL_OK;
@@ -91,7 +103,8 @@ public:
 
 		List<jobject> to_erase;
 		for (int i = 0; i < p_argcount; i++) {
-			jvalret vr = _variant_to_jvalue(env, E->get().argtypes[i], p_args[i]);
+			const bool direct_buffer = i < 64 && (E->get().direct_buffer_args & (1ULL << i));
+			jvalret vr = direct_buffer ? _variant_to_direct_buffer(env, E->get().argtypes[i], p_args[i]) : _variant_to_jvalue(env, E->get().argtypes[i], p_args[i]);
 			v[i] = vr.val;
 			if (vr.obj) {
 				to_erase.push_back(vr.obj);
@@ -137,22 +150,15 @@ public:
 				ret = sarr;
 				env->DeleteLocalRef(arr);
 			} break;
-			case Variant::PACKED_FLOAT32_ARRAY: {
-				jfloatArray arr = (jfloatArray)env->CallObjectMethodA(instance, E->get().method, v);
-
-				int fCount = env->GetArrayLength(arr);
-				Vector<float> sarr;
-				sarr.resize(fCount);
-
-				float *w = sarr.ptrw();
-				env->GetFloatArrayRegion(arr, 0, fCount, w);
-				ret = sarr;
-				env->DeleteLocalRef(arr);
+			case Variant::PACKED_BYTE_ARRAY:
+			case Variant::PACKED_FLOAT32_ARRAY:
+			case Variant::PACKED_INT64_ARRAY:
+			case Variant::PACKED_FLOAT64_ARRAY: {
+				// Either an array or a java.nio buffer.
+				jobject obj = env->CallObjectMethodA(instance, E->get().method, v);
+				ret = _jobject_to_variant(env, obj);
+				env->DeleteLocalRef(obj);
 			} break;
-
-#ifndef _MSC_VER
-#warning This is missing 64 bits arrays, I have no idea how to do it in JNI
-#endif
 			case Variant::DICTIONARY: {
 				jobject obj = env->CallObjectMethodA(instance, E->get().method, v);
 				ret = _jobject_to_variant(env, obj);
@@ -189,11 +195,22 @@ public:
 		instance = p_instance;
 	}
 
-	void add_method(const StringName &p_name, jmethodID p_method, const Vector<Variant::Type> &p_args, Variant::Type p_ret_type) {
+	jclass get_lazy_instance_class() const {
+		return lazy_instance_class;
+	}
+
+	void set_lazy_instance(const String &p_name, jclass p_class, void (*p_provider)(const String &p_name)) {
+		lazy_instance_name = p_name;
+		lazy_instance_class = p_class;
+		lazy_instance_provider = p_provider;
+	}
+
+	void add_method(const StringName &p_name, jmethodID p_method, const Vector<Variant::Type> &p_args, Variant::Type p_ret_type, uint64_t p_direct_buffer_args = 0) {
 		MethodData md;
 		md.method = p_method;
 		md.argtypes = p_args;
 		md.ret_type = p_ret_type;
+		md.direct_buffer_args = p_direct_buffer_args;
 		method_map[p_name] = md;
 	}
 
@@ -218,6 +235,8 @@ public:
 	JNISingleton() {
 #ifdef ANDROID_ENABLED
 		instance = nullptr;
+		lazy_instance_class = nullptr;
+		lazy_instance_provider = nullptr;
 #endif
 	}
 };
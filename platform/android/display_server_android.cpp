@@ -377,6 +377,15 @@ bool DisplayServerAndroid::can_any_window_draw() const {
 	return true;
 }
 
+uint64_t DisplayServerAndroid::take_present_wait_usec() {
+#if defined(VULKAN_ENABLED)
+	if (context_vulkan) {
+		return context_vulkan->take_present_wait_usec();
+	}
+#endif
+	return 0;
+}
+
 void DisplayServerAndroid::process_events() {
 	Input::get_singleton()->flush_buffered_events();
 }
@@ -165,6 +165,9 @@ public:
 
 	virtual bool can_any_window_draw() const override;
 
+	// Time spent waiting for the GPU and the display to present frames since the last call.
+	uint64_t take_present_wait_usec();
+
 	virtual void window_set_vsync_mode(DisplayServer::VSyncMode p_vsync_mode, WindowID p_window = MAIN_WINDOW_ID) override;
 	virtual DisplayServer::VSyncMode window_get_vsync_mode(WindowID p_vsync_mode) const override;
 
@@ -0,0 +1,220 @@
+/*************************************************************************/
+/*  JniConversionBenchmark.java                                          */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot;
+
+import static org.junit.Assert.assertNotEquals;
+
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.HashMap;
+
+/**
+ * Measures the conversions per second of the Java values returned by plugin methods or emitted
+ * with plugin signals, for each supported type, through the native <code>_jobject_to_variant</code>.
+ * <p>
+ * The throughput of large packed arrays is measured both ways, as Java arrays and as direct
+ * {@link ByteBuffer} and {@link FloatBuffer}, in MB/s.
+ * <p>
+ * The conversions run in a native loop so the JNI transition of the benchmark itself isn't
+ * measured. The native side is only built with <code>scons tests=yes</code>, the benchmarks are
+ * skipped otherwise. Results are logged and reported as instrumentation status, e.g:
+ * <code>./gradlew :lib:connectedDebugAndroidTest</code>.
+ */
+public class JniConversionBenchmark {
+	private static final String TAG = JniConversionBenchmark.class.getSimpleName();
+
+	private static final int ARRAY_LENGTH = 256;
+	private static final int MAP_SIZE = 16;
+	private static final int ITERATIONS = 20000;
+	private static final int WARMUP_ITERATIONS = 1000;
+
+	private static final int BUFFER_SIZE = 1024 * 1024;
+	private static final int BUFFER_ITERATIONS = 200;
+	private static final int BUFFER_WARMUP_ITERATIONS = 10;
+
+	private static boolean nativeAvailable;
+
+	@BeforeClass
+	public static void loadNativeLibrary() {
+		try {
+			System.loadLibrary("godot_android");
+			nativeToVariant(null, 0);
+			nativeAvailable = true;
+		} catch (UnsatisfiedLinkError e) {
+			Log.w(TAG, "Benchmarks unavailable, the native library must be built with tests=yes", e);
+			nativeAvailable = false;
+		}
+	}
+
+	@Test
+	public void convertScalars() {
+		measure("boolean", Boolean.TRUE);
+		measure("int", 42);
+		measure("long", 42L);
+		measure("float", 4.2f);
+		measure("double", 4.2);
+		measure("string", "The quick brown fox jumps over the lazy dog");
+	}
+
+	@Test
+	public void convertArrays() {
+		final int[] ints = new int[ARRAY_LENGTH];
+		final long[] longs = new long[ARRAY_LENGTH];
+		final byte[] bytes = new byte[ARRAY_LENGTH];
+		final float[] floats = new float[ARRAY_LENGTH];
+		final double[] doubles = new double[ARRAY_LENGTH];
+		final String[] strings = new String[ARRAY_LENGTH];
+		final Object[] objects = new Object[ARRAY_LENGTH];
+		for (int i = 0; i < ARRAY_LENGTH; i++) {
+			ints[i] = i;
+			longs[i] = i;
+			bytes[i] = (byte)i;
+			floats[i] = i;
+			doubles[i] = i;
+			strings[i] = "item" + i;
+			objects[i] = i;
+		}
+
+		measure("int_array", ints);
+		measure("long_array", longs);
+		measure("byte_array", bytes);
+		measure("float_array", floats);
+		measure("double_array", doubles);
+		measure("string_array", strings);
+		measure("object_array", objects);
+	}
+
+	@Test
+	public void convertMaps() {
+		final Dictionary dictionary = new Dictionary();
+		final HashMap<String, Object> hashMap = new HashMap<>();
+		for (int i = 0; i < MAP_SIZE; i++) {
+			dictionary.put("key" + i, i);
+			hashMap.put("key" + i, i);
+		}
+
+		measure("dictionary", dictionary);
+		measure("hash_map", hashMap);
+	}
+
+	@Test
+	public void convertBuffersToVariant() {
+		final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		final FloatBuffer floatBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.nativeOrder()).asFloatBuffer();
+
+		measureThroughput("byte_array_to_variant", new byte[BUFFER_SIZE]);
+		measureThroughput("byte_buffer_to_variant", byteBuffer);
+		measureThroughput("float_array_to_variant", new float[BUFFER_SIZE / 4]);
+		measureThroughput("float_buffer_to_variant", floatBuffer);
+	}
+
+	@Test
+	public void passPackedArraysToJava() {
+		measureThroughput("packed_byte_array_to_array", false, false, false);
+		measureThroughput("packed_byte_array_to_buffer", false, true, false);
+		measureThroughput("packed_byte_array_to_buffer_zero_copy", false, true, true);
+		measureThroughput("packed_float32_array_to_array", true, false, false);
+		measureThroughput("packed_float32_array_to_buffer", true, true, false);
+		measureThroughput("packed_float32_array_to_buffer_zero_copy", true, true, true);
+	}
+
+	private static void measureThroughput(String name, Object value) {
+		Assume.assumeTrue(nativeAvailable);
+
+		nativeToVariant(value, BUFFER_WARMUP_ITERATIONS);
+		final long start = System.nanoTime();
+		final int type = nativeToVariant(value, BUFFER_ITERATIONS);
+		final long elapsedNs = System.nanoTime() - start;
+		assertNotEquals(name + " should convert to a non-nil Variant", 0, type);
+		reportThroughput(name, elapsedNs);
+	}
+
+	private static void measureThroughput(String name, boolean floats, boolean directBuffer, boolean zeroCopy) {
+		Assume.assumeTrue(nativeAvailable);
+
+		nativeFromPackedArray(floats, BUFFER_SIZE, directBuffer, zeroCopy, BUFFER_WARMUP_ITERATIONS);
+		final long start = System.nanoTime();
+		nativeFromPackedArray(floats, BUFFER_SIZE, directBuffer, zeroCopy, BUFFER_ITERATIONS);
+		reportThroughput(name, System.nanoTime() - start);
+	}
+
+	private static void reportThroughput(String name, long elapsedNs) {
+		final double megabytesPerSecond = (double)BUFFER_SIZE * BUFFER_ITERATIONS / (1024 * 1024) * 1e9 / elapsedNs;
+		Log.i(TAG, String.format("%s: %.1f MB/s", name, megabytesPerSecond));
+
+		Bundle status = new Bundle();
+		status.putDouble(name + "_mb_per_second", megabytesPerSecond);
+		InstrumentationRegistry.getInstrumentation().sendStatus(0, status);
+	}
+
+	private static void measure(String name, Object value) {
+		Assume.assumeTrue(nativeAvailable);
+
+		nativeToVariant(value, WARMUP_ITERATIONS);
+		final long start = System.nanoTime();
+		final int type = nativeToVariant(value, ITERATIONS);
+		final long elapsedNs = System.nanoTime() - start;
+		assertNotEquals(name + " should convert to a non-nil Variant", 0, type);
+
+		final double conversionsPerSecond = ITERATIONS * 1e9 / elapsedNs;
+		Log.i(TAG, String.format("%s: %.0f conversions/s", name, conversionsPerSecond));
+
+		Bundle status = new Bundle();
+		status.putDouble(name + "_conversions_per_second", conversionsPerSecond);
+		InstrumentationRegistry.getInstrumentation().sendStatus(0, status);
+	}
+
+	/**
+	 * Converts the value to a Variant the given number of times.
+	 *
+	 * @return the Variant type of the converted value
+	 */
+	private static native int nativeToVariant(Object value, int iterations);
+
+	/**
+	 * Passes a packed array of the given size in bytes to Java the given number of times.
+	 *
+	 * @param floats Whether to pass a <code>PackedFloat32Array</code> rather than a <code>PackedByteArray</code>
+	 * @param directBuffer Whether to pass it as a direct buffer rather than as a Java array
+	 * @param zeroCopy Whether the direct buffer wraps the array's memory rather than a copy of it
+	 */
+	private static native void nativeFromPackedArray(boolean floats, int size, boolean directBuffer, boolean zeroCopy, int iterations);
+}
@@ -0,0 +1,193 @@
+/*************************************************************************/
+/*  InputEventBufferBenchmark.java                                       */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot.input;
+
+import static org.junit.Assert.assertTrue;
+
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.InputDevice;
+import android.view.MotionEvent;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Measures the cost of queuing touch events on the UI thread, in events per second and bytes
+ * allocated per event.
+ * <p>
+ * The ring buffer path is compared with the previous one, which allocated a
+ * <code>float[pointerCount * 3]</code> per event before crossing JNI. Results are logged and
+ * reported as instrumentation status, e.g:
+ * <code>./gradlew :lib:connectedDebugAndroidTest</code>.
+ * <p>
+ * Allocations are read from the runtime's process wide allocation counter, so allocations made
+ * by other threads during a measure are counted as well.
+ */
+public class InputEventBufferBenchmark {
+	private static final String TAG = InputEventBufferBenchmark.class.getSimpleName();
+
+	private static final int POINTER_COUNT = 5;
+	private static final int EVENTS_PER_BUFFER = 256;
+	private static final int ROUNDS = 400;
+	private static final int WARMUP_ROUNDS = 20;
+
+	private MotionEvent event;
+	// Keeps the reference allocations observable.
+	private float sink;
+
+	@Before
+	public void setUp() {
+		// The runtime allocation counter is only available from Android M.
+		Assume.assumeTrue(Build.VERSION.SDK_INT >= Build.VERSION_CODES.M);
+
+		MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[POINTER_COUNT];
+		MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[POINTER_COUNT];
+		for (int i = 0; i < POINTER_COUNT; i++) {
+			properties[i] = new MotionEvent.PointerProperties();
+			properties[i].id = i;
+			properties[i].toolType = MotionEvent.TOOL_TYPE_FINGER;
+			coords[i] = new MotionEvent.PointerCoords();
+			coords[i].x = 100f * i;
+			coords[i].y = 50f * i;
+		}
+		long now = SystemClock.uptimeMillis();
+		event = MotionEvent.obtain(now, now, MotionEvent.ACTION_MOVE, POINTER_COUNT, properties, coords, 0, 0, 1f, 1f, 0, 0, InputDevice.SOURCE_TOUCHSCREEN, 0);
+	}
+
+	@After
+	public void tearDown() {
+		if (event != null) {
+			event.recycle();
+		}
+	}
+
+	@Test
+	public void queueTouchEvents() {
+		// Buffers are created outside of the measured sections so the measures only cover queuing.
+		InputEventBuffer[] buffers = new InputEventBuffer[ROUNDS + WARMUP_ROUNDS];
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = new InputEventBuffer(new InputLatencyTracker());
+		}
+
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			queueEvents(buffers[i]);
+		}
+
+		Result result = measure(() -> {
+			for (int i = WARMUP_ROUNDS; i < buffers.length; i++) {
+				queueEvents(buffers[i]);
+			}
+		});
+		report("ring_buffer", result);
+
+		// Tolerates background allocations from other threads, but not a single allocation per event.
+		assertTrue("Queuing touch events should not allocate", result.allocatedBytes < (long)ROUNDS * EVENTS_PER_BUFFER);
+	}
+
+	@Test
+	public void allocatePositionArrays() {
+		// Reference measure of the previous path, minus the JNI crossing.
+		for (int i = 0; i < WARMUP_ROUNDS; i++) {
+			sink += allocatePositions();
+		}
+
+		Result result = measure(() -> {
+			for (int i = 0; i < ROUNDS; i++) {
+				sink += allocatePositions();
+			}
+		});
+		report("float_arrays", result);
+	}
+
+	private void queueEvents(InputEventBuffer buffer) {
+		for (int i = 0; i < EVENTS_PER_BUFFER; i++) {
+			buffer.queueTouchEvent(event, MotionEvent.ACTION_MOVE, 0, false);
+		}
+	}
+
+	private float allocatePositions() {
+		float sum = 0;
+		for (int i = 0; i < EVENTS_PER_BUFFER; i++) {
+			final int pointerCount = event.getPointerCount();
+			final float[] positions = new float[pointerCount * 3];
+			for (int p = 0; p < pointerCount; p++) {
+				positions[p * 3] = event.getPointerId(p);
+				positions[p * 3 + 1] = event.getX(p);
+				positions[p * 3 + 2] = event.getY(p);
+			}
+			sum += positions[positions.length - 1];
+		}
+		return sum;
+	}
+
+	private static Result measure(Runnable work) {
+		final long allocatedBefore = getAllocatedBytes();
+		final long start = System.nanoTime();
+		work.run();
+		final long elapsedNs = System.nanoTime() - start;
+		final long allocatedBytes = getAllocatedBytes() - allocatedBefore;
+		return new Result(elapsedNs, allocatedBytes);
+	}
+
+	private static long getAllocatedBytes() {
+		return Long.parseLong(Debug.getRuntimeStat("art.gc.bytes-allocated"));
+	}
+
+	private static void report(String name, Result result) {
+		final long events = (long)ROUNDS * EVENTS_PER_BUFFER;
+		final double eventsPerSecond = events * 1e9 / result.elapsedNs;
+		final double bytesPerEvent = (double)result.allocatedBytes / events;
+		Log.i(TAG, String.format("%s: %.0f events/s, %.2f bytes allocated per event", name, eventsPerSecond, bytesPerEvent));
+
+		Bundle status = new Bundle();
+		status.putDouble(name + "_events_per_second", eventsPerSecond);
+		status.putDouble(name + "_bytes_per_event", bytesPerEvent);
+		InstrumentationRegistry.getInstrumentation().sendStatus(0, status);
+	}
+
+	private static class Result {
+		final long elapsedNs;
+		final long allocatedBytes;
+
+		Result(long elapsedNs, long allocatedBytes) {
+			this.elapsedNs = elapsedNs;
+			this.allocatedBytes = allocatedBytes;
+		}
+	}
+}
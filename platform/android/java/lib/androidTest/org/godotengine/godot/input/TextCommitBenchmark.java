@@ -0,0 +1,137 @@
+/*************************************************************************/
+/*  TextCommitBenchmark.java                                             */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot.input;
+
+import static org.junit.Assert.assertEquals;
+
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+
+/**
+ * Measures the UI thread cost of forwarding a large paste from the soft keyboard or IME.
+ * <p>
+ * A paste is converted to codepoints and queued as a single text commit, which the render
+ * thread forwards with one JNI call. The previous path queued a key press and a key release per
+ * character; it's measured here as key records queued in the same buffer, which is a lower bound
+ * of its cost since it used to cross JNI for each of them.
+ * <p>
+ * The engine still receives a key press and a key release per character. The cost of pasting
+ * them into a focused <code>LineEdit</code> or <code>TextEdit</code> is measured by the
+ * <code>[SceneTree]</code> paste tests in <code>tests/scene/test_text_paste.h</code>.
+ */
+public class TextCommitBenchmark {
+	private static final String TAG = TextCommitBenchmark.class.getSimpleName();
+
+	private static final int[] PASTE_SIZES = { 1024, 10 * 1024, 50 * 1024 };
+	private static final int ROUNDS = 20;
+
+	@Test
+	public void pasteText() {
+		for (int size : PASTE_SIZES) {
+			final String text = createText(size);
+
+			// Warm up both paths.
+			queueTextCommit(text);
+			queueKeyEvents(text);
+
+			long textCommitNs = 0;
+			long keyEventsNs = 0;
+			for (int i = 0; i < ROUNDS; i++) {
+				textCommitNs += queueTextCommit(text);
+				keyEventsNs += queueKeyEvents(text);
+			}
+			report(size, textCommitNs / ROUNDS, keyEventsNs / ROUNDS);
+		}
+	}
+
+	@Test
+	public void pasteIsSingleRecord() {
+		final String text = createText(50 * 1024);
+		final int[] codepoints = GodotTextInputWrapper.toCodepoints(text, 0, text.length(), false);
+		assertEquals(text.codePointCount(0, text.length()), codepoints.length);
+
+		final int[] queuedEvents = new int[1];
+		InputEventBuffer buffer = new InputEventBuffer(new InputLatencyTracker());
+		buffer.setOnEventQueuedListener(() -> queuedEvents[0]++);
+		buffer.queueTextCommit(SystemClock.uptimeMillis(), codepoints, 0);
+		assertEquals(1, queuedEvents[0]);
+	}
+
+	/**
+	 * @return the time taken to convert and queue the text as a single commit, in nanoseconds
+	 */
+	private static long queueTextCommit(String text) {
+		InputEventBuffer buffer = new InputEventBuffer(new InputLatencyTracker());
+		final long start = System.nanoTime();
+		final int[] codepoints = GodotTextInputWrapper.toCodepoints(text, 0, text.length(), false);
+		buffer.queueTextCommit(SystemClock.uptimeMillis(), codepoints, 0);
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * @return the time taken to queue a key press and release per character, in nanoseconds
+	 */
+	private static long queueKeyEvents(String text) {
+		// Large enough for two 40 bytes records per character.
+		InputEventBuffer buffer = new InputEventBuffer(128 * 64 * 1024, new InputLatencyTracker());
+		final long start = System.nanoTime();
+		final long eventTime = SystemClock.uptimeMillis();
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			buffer.queueKeyEvent(eventTime, 0, 0, c, true);
+			buffer.queueKeyEvent(eventTime, 0, 0, c, false);
+		}
+		return System.nanoTime() - start;
+	}
+
+	private static String createText(int size) {
+		final String sample = "The quick brown fox jumps over the lazy dog, \u00e9t\u00e9 \u4e2d\u6587 \ud83d\ude00. ";
+		StringBuilder builder = new StringBuilder(size + sample.length());
+		while (builder.length() < size) {
+			builder.append(sample);
+		}
+		return builder.substring(0, size);
+	}
+
+	private static void report(int size, long textCommitNs, long keyEventsNs) {
+		Log.i(TAG, String.format("%d chars: text commit %.3f ms, key events %.3f ms", size, textCommitNs / 1e6, keyEventsNs / 1e6));
+
+		Bundle status = new Bundle();
+		status.putDouble("text_commit_" + size + "_ms", textCommitNs / 1e6);
+		status.putDouble("key_events_" + size + "_ms", keyEventsNs / 1e6);
+		InstrumentationRegistry.getInstrumentation().sendStatus(0, status);
+	}
+}
@@ -0,0 +1,271 @@
+/*************************************************************************/
+/*  DynamicResolutionController.java                                     */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot;
+
+import org.godotengine.godot.input.GodotInputHandler;
+
+import android.view.SurfaceHolder;
+import android.view.SurfaceView;
+
+/**
+ * Scales the resolution of the render view's surface to keep the frame time on target.
+ * <p>
+ * The surface buffer is shrunk with {@link SurfaceHolder#setFixedSize(int, int)} and the
+ * compositor upscales it to the view's size, so the engine renders fewer pixels without any
+ * change to the rendering pipeline. The touch coordinates are rescaled by the
+ * {@link GodotInputHandler} to match the buffer's size.
+ * <p>
+ * The work time of the frames, from the start of the frame to the end of its work, is averaged
+ * over a rolling window of frames and compared to the target frame time. The time spent waiting
+ * for the GPU, the vsync or the engine's frame rate limit isn't work, so it's left out:
+ * <ul>
+ * <li>when the work time exceeds the target by more than the hysteresis margin, the scale is
+ * lowered by one step,</li>
+ * <li>when the work time keeps well within the target for several windows in a row, the scale is
+ * raised by one step.</li>
+ * </ul>
+ * The window following a scale change is ignored while the surface is resized. The scale stays
+ * within the configured bounds.
+ * <p>
+ * The controller is disabled by default. Frames are recorded on the render thread, while the
+ * surface size is updated on the UI thread.
+ */
+public class DynamicResolutionController {
+	private static final int WINDOW_SIZE = 30;
+	private static final int UPSCALE_WINDOWS = 3;
+	private static final float SCALE_STEP = 0.1f;
+	private static final float HYSTERESIS = 0.1f;
+	/**
+	 * Fraction of the target frame time under which the work time is considered to have headroom.
+	 */
+	private static final float UPSCALE_BUSY_RATIO = 0.7f;
+
+	private static final float DEFAULT_MIN_SCALE = 0.5f;
+	private static final float DEFAULT_MAX_SCALE = 1f;
+	private static final float DEFAULT_TARGET_FRAME_TIME_MS = 16.6f;
+
+	private final SurfaceView view;
+	private final GodotInputHandler inputHandler;
+
+	private volatile boolean enabled = false;
+	private volatile float minScale = DEFAULT_MIN_SCALE;
+	private volatile float maxScale = DEFAULT_MAX_SCALE;
+	private volatile long targetFrameTimeNs = (long)(DEFAULT_TARGET_FRAME_TIME_MS * 1000000L);
+	private volatile float scaleCap = 1f;
+	private volatile float scale = 1f;
+
+	// Only accessed on the render thread.
+	private long frameStartTime = 0;
+	private long workTotal = 0;
+	private int workCount = 0;
+	private int cooldownWindows = 0;
+	private int upscaleVotes = 0;
+
+	// Size of the surface buffer, or 0 when it's sized from the layout; only accessed on the UI thread.
+	private int fixedWidth = 0;
+	private int fixedHeight = 0;
+
+	DynamicResolutionController(SurfaceView view, GodotInputHandler inputHandler) {
+		this.view = view;
+		this.inputHandler = inputHandler;
+	}
+
+	/**
+	 * Enable or disable the dynamic resolution; disabling it restores the full resolution.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		setScale(clampScale(scale));
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Set the bounds of the resolution scale, as fractions of the view's size in ]0, 1].
+	 */
+	public void setScaleBounds(float minScale, float maxScale) {
+		this.minScale = Math.max(0.1f, Math.min(1f, minScale));
+		this.maxScale = Math.max(this.minScale, Math.min(1f, maxScale));
+		if (enabled) {
+			setScale(clampScale(scale));
+		}
+	}
+
+	/**
+	 * Cap the resolution scale, as a fraction of the view's size in ]0, 1], e.g: to reduce the
+	 * GPU load when the device heats up. The cap applies whether the dynamic resolution is
+	 * enabled or not, and takes precedence over the scale bounds.
+	 */
+	public void setScaleCap(float scaleCap) {
+		this.scaleCap = Math.max(0.1f, Math.min(1f, scaleCap));
+		setScale(clampScale(scale));
+	}
+
+	/**
+	 * Returns the scale within the bounds and cap, or the cap if the dynamic resolution is
+	 * disabled.
+	 */
+	private float clampScale(float newScale) {
+		final float cap = scaleCap;
+		if (!enabled) {
+			return cap;
+		}
+		return Math.min(cap, Math.max(minScale, Math.min(maxScale, newScale)));
+	}
+
+	/**
+	 * Set the frame time to keep to, in milliseconds.
+	 */
+	public void setTargetFrameTime(float frameTimeMs) {
+		if (frameTimeMs > 0) {
+			targetFrameTimeNs = (long)(frameTimeMs * 1000000L);
+		}
+	}
+
+	/**
+	 * Returns the current resolution scale, as a fraction of the view's size.
+	 */
+	public float getScale() {
+		return scale;
+	}
+
+	/**
+	 * Invoked on the render thread at the start of each frame.
+	 */
+	public void onFrameStart() {
+		frameStartTime = System.nanoTime();
+	}
+
+	/**
+	 * Invoked on the render thread at the end of each frame's work.
+	 *
+	 * @param waitTimeNs Time spent waiting within the frame, e.g: for the engine's frame rate
+	 *         limit, which isn't counted as work
+	 */
+	public void onFrameEnd(long waitTimeNs) {
+		workTotal += Math.max(0, System.nanoTime() - frameStartTime - waitTimeNs);
+		workCount++;
+		if (workCount < WINDOW_SIZE) {
+			return;
+		}
+
+		final long averageWork = workTotal / workCount;
+		workTotal = 0;
+		workCount = 0;
+
+		if (!enabled) {
+			return;
+		}
+		if (cooldownWindows > 0) {
+			// The surface was just resized, so this window isn't representative.
+			cooldownWindows--;
+			return;
+		}
+
+		final long target = targetFrameTimeNs;
+		if (averageWork > target * (1 + HYSTERESIS)) {
+			upscaleVotes = 0;
+			updateScale(scale - SCALE_STEP);
+		} else if (averageWork < target * UPSCALE_BUSY_RATIO) {
+			if (++upscaleVotes >= UPSCALE_WINDOWS) {
+				upscaleVotes = 0;
+				updateScale(scale + SCALE_STEP);
+			}
+		} else {
+			upscaleVotes = 0;
+		}
+	}
+
+	/**
+	 * Discard the frame time recorded so far, e.g: after the render thread was paused.
+	 *
+	 * Must be called on the render thread.
+	 */
+	public void resetFrameTimes() {
+		frameStartTime = 0;
+		workTotal = 0;
+		workCount = 0;
+		upscaleVotes = 0;
+	}
+
+	private void updateScale(float newScale) {
+		newScale = clampScale(newScale);
+		if (Math.abs(newScale - scale) < 0.001f) {
+			return;
+		}
+		cooldownWindows = 1;
+		setScale(newScale);
+	}
+
+	private void setScale(float newScale) {
+		scale = newScale;
+		view.post(this::applyScale);
+	}
+
+	/**
+	 * Invoked on the UI thread when the size of the view changes.
+	 */
+	void onViewSizeChanged() {
+		applyScale();
+	}
+
+	private void applyScale() {
+		final int viewWidth = view.getWidth();
+		final int viewHeight = view.getHeight();
+		if (viewWidth <= 0 || viewHeight <= 0) {
+			return;
+		}
+
+		final float currentScale = scale;
+		int width = Math.max(1, Math.round(viewWidth * currentScale));
+		int height = Math.max(1, Math.round(viewHeight * currentScale));
+		if (width == viewWidth && height == viewHeight) {
+			width = 0;
+			height = 0;
+		}
+		if (width == fixedWidth && height == fixedHeight) {
+			return;
+		}
+		fixedWidth = width;
+		fixedHeight = height;
+
+		final SurfaceHolder holder = view.getHolder();
+		if (width == 0) {
+			holder.setSizeFromLayout();
+			inputHandler.setCoordinateScale(1f, 1f);
+		} else {
+			holder.setFixedSize(width, height);
+			inputHandler.setCoordinateScale(width / (float)viewWidth, height / (float)viewHeight);
+		}
+	}
+}
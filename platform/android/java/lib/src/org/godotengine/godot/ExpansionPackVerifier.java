@@ -0,0 +1,165 @@
+/*************************************************************************/
+/*  ExpansionPackVerifier.java                                           */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Build;
+import android.os.Process;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Verifies the integrity of the apk expansion pack against its expected MD5 digest.
+ *
+ * A successful verification is cached against the pack path, size, modification time and expected
+ * digest, so the pack is only hashed again once it changes. Hashing maps the pack in large chunks
+ * rather than copying it through a small stream buffer.
+ */
+class ExpansionPackVerifier {
+	private static final String TAG = ExpansionPackVerifier.class.getSimpleName();
+
+	private static final String PREFS_NAME = "expansion_pack_verification";
+
+	/**
+	 * Size of the chunks the pack is mapped in.
+	 */
+	private static final long MAP_CHUNK_SIZE = 32 * 1024 * 1024;
+
+	/**
+	 * Size of the buffer the pack is read through when it's not mapped.
+	 */
+	private static final int READ_BUFFER_SIZE = 1024 * 1024;
+
+	/**
+	 * Receives the progress of a verification.
+	 */
+	interface ProgressListener {
+		/**
+		 * Invoked on the verifying thread after each chunk is hashed.
+		 */
+		void onVerifyProgress(long verifiedBytes, long totalBytes);
+	}
+
+	private final SharedPreferences prefs;
+
+	ExpansionPackVerifier(Context context) {
+		prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+	}
+
+	/**
+	 * Returns true if the pack was already verified against the expected digest, and hasn't changed
+	 * since.
+	 */
+	boolean isVerified(File pack, String expectedMd5) {
+		return getCacheEntry(pack, expectedMd5).equals(prefs.getString(pack.getPath(), null));
+	}
+
+	/**
+	 * Hash the pack and compare it to the expected digest; caches the result when it matches.
+	 *
+	 * @return true if the pack matches the expected digest
+	 */
+	boolean verify(File pack, String expectedMd5, ProgressListener listener) {
+		final String cacheEntry = getCacheEntry(pack, expectedMd5);
+		final String md5;
+		try {
+			md5 = computeMd5(pack, listener);
+		} catch (IOException | NoSuchAlgorithmException e) {
+			Log.w(TAG, "Unable to verify the expansion pack " + pack, e);
+			return false;
+		}
+
+		if (!md5.equalsIgnoreCase(expectedMd5)) {
+			prefs.edit().remove(pack.getPath()).apply();
+			return false;
+		}
+		prefs.edit().putString(pack.getPath(), cacheEntry).apply();
+		return true;
+	}
+
+	private static String getCacheEntry(File pack, String expectedMd5) {
+		return pack.length() + ":" + pack.lastModified() + ":" + expectedMd5;
+	}
+
+	private static String computeMd5(File pack, ProgressListener listener) throws IOException, NoSuchAlgorithmException {
+		final MessageDigest digest = MessageDigest.getInstance("MD5");
+		try (FileInputStream stream = new FileInputStream(pack); FileChannel channel = stream.getChannel()) {
+			final long size = channel.size();
+			long position = 0;
+			if (canMapPack()) {
+				while (position < size) {
+					final long chunkSize = Math.min(MAP_CHUNK_SIZE, size - position);
+					digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position, chunkSize));
+					position += chunkSize;
+					listener.onVerifyProgress(position, size);
+				}
+			} else {
+				final ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+				long lastProgress = 0;
+				int read;
+				while ((read = channel.read(buffer)) != -1) {
+					buffer.flip();
+					digest.update(buffer);
+					buffer.clear();
+					position += read;
+					if (position - lastProgress >= MAP_CHUNK_SIZE) {
+						lastProgress = position;
+						listener.onVerifyProgress(position, size);
+					}
+				}
+				listener.onVerifyProgress(position, size);
+			}
+		}
+
+		final byte[] messageDigest = digest.digest();
+		final StringBuilder hexString = new StringBuilder();
+		for (byte value : messageDigest) {
+			hexString.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+		}
+		return hexString.toString();
+	}
+
+	/**
+	 * Mapped chunks are only unmapped once garbage collected, so the pack is only mapped in 64-bit
+	 * processes, where the address space can't run out.
+	 */
+	private static boolean canMapPack() {
+		return Build.VERSION.SDK_INT >= Build.VERSION_CODES.M && Process.is64Bit();
+	}
+}
@@ -0,0 +1,476 @@
+/*************************************************************************/
+/*  FrameMetrics.java                                                    */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot;
+
+import org.godotengine.godot.plugin.GodotPluginInfoProvider;
+import org.godotengine.godot.plugin.UsedByGodot;
+import org.godotengine.godot.utils.JsonUtils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Records how long each phase of the render thread frames takes.
+ * <p>
+ * For every frame, the duration of the following phases is kept:
+ * <ul>
+ * <li>queued events: the events queued on the render thread and run since the previous frame,</li>
+ * <li>input: the dispatch of the queued input events to the native layer,</li>
+ * <li>step: the engine iteration ({@link GodotLib#step()}),</li>
+ * <li>plugins: the draw frame callbacks of the plugins, also kept per plugin,</li>
+ * <li>swap: the rest of the time since the previous frame, spent presenting the previous frame
+ * (e.g: buffer swap) and waiting for this one to start,</li>
+ * <li>frame: the whole draw frame callback.</li>
+ * </ul>
+ * The timings of the most recent frames are kept in a fixed-size ring of primitive arrays, so
+ * recording doesn't allocate. They can be queried from any thread, dumped as CSV or JSON, and are
+ * reported periodically to the {@link GodotHost}. The metrics are also exposed to GDScript through
+ * the <code>GodotFrameMetrics</code> singleton.
+ * <p>
+ * Recording is disabled by default; it only happens on the render thread, through the renderers
+ * calling {@link #beginFrame()}, {@link #endPhase(int)}, {@link #endPlugin(String)} and
+ * {@link #endFrame()} when {@link #isEnabled()} is true.
+ */
+public class FrameMetrics implements GodotPluginInfoProvider {
+	/**
+	 * Render thread events run since the previous frame.
+	 */
+	public static final int PHASE_QUEUED_EVENTS = 0;
+	/**
+	 * Input events dispatch.
+	 */
+	public static final int PHASE_INPUT = 1;
+	/**
+	 * Engine iteration.
+	 */
+	public static final int PHASE_STEP = 2;
+	/**
+	 * All plugins draw frame callbacks.
+	 */
+	public static final int PHASE_PLUGINS = 3;
+	/**
+	 * Presentation of the previous frame and wait until this one starts.
+	 */
+	public static final int PHASE_SWAP = 4;
+	/**
+	 * Whole draw frame callback.
+	 */
+	public static final int PHASE_FRAME = 5;
+	private static final int PHASE_COUNT = 6;
+
+	private static final String[] PHASE_NAMES = { "queued_events", "input", "step", "plugins", "swap", "frame" };
+
+	private static final int DEFAULT_CAPACITY = 300;
+
+	/**
+	 * Receives the periodic reports of the frame metrics.
+	 */
+	public interface ReportListener {
+		/**
+		 * Invoked on the render thread every time <code>reportInterval</code> frames were recorded.
+		 */
+		void onFrameMetricsReport(FrameMetrics frameMetrics);
+	}
+
+	private volatile boolean enabled = false;
+	// Set when the recording is enabled, the time since the previous recorded frame is then stale.
+	private volatile boolean previousFrameTimeStale = false;
+	private volatile int reportInterval = DEFAULT_CAPACITY;
+	@Nullable
+	private final ReportListener reportListener;
+
+	// Ring of the recorded frames, guarded by this.
+	private final int capacity;
+	private final long[] frameStartTimes;
+	private final long[] phaseDurations;
+	private long[] pluginDurations;
+	private String[] pluginNames = new String[0];
+	private long frameCount = 0;
+
+	// Frame being recorded, only accessed on the render thread.
+	private final long[] currentPhases = new long[PHASE_COUNT];
+	private long[] currentPlugins = new long[0];
+	private String[] currentPluginNames = new String[0];
+	private int currentPluginCount = 0;
+	private long frameStartTime = 0;
+	private long phaseStartTime = 0;
+	private long pluginsStartTime = 0;
+	private long previousFrameEndTime = 0;
+	private long queuedEventsDuration = 0;
+	private int framesSinceReport = 0;
+
+	FrameMetrics(@Nullable ReportListener reportListener) {
+		this(DEFAULT_CAPACITY, reportListener);
+	}
+
+	FrameMetrics(int capacity, @Nullable ReportListener reportListener) {
+		this.capacity = capacity;
+		this.reportListener = reportListener;
+		frameStartTimes = new long[capacity];
+		phaseDurations = new long[capacity * PHASE_COUNT];
+		pluginDurations = new long[0];
+	}
+
+	@NonNull
+	@Override
+	public String getPluginName() {
+		return "GodotFrameMetrics";
+	}
+
+	/**
+	 * Enable or disable the recording of the frame metrics.
+	 */
+	@UsedByGodot
+	public void setEnabled(boolean enabled) {
+		if (enabled && !this.enabled) {
+			// Can be called from any thread, so it's discarded on the render thread by the next
+			// recording call.
+			previousFrameTimeStale = true;
+		}
+		this.enabled = enabled;
+	}
+
+	@UsedByGodot
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Set the number of frames between two reports to the {@link ReportListener}.
+	 */
+	public void setReportInterval(int frames) {
+		reportInterval = Math.max(1, frames);
+	}
+
+	/**
+	 * Clear the frames recorded so far.
+	 */
+	@UsedByGodot
+	public synchronized void reset() {
+		frameCount = 0;
+	}
+
+	/**
+	 * Returns the number of frames currently held, up to the capacity of the ring.
+	 */
+	@UsedByGodot
+	public synchronized int getFrameCount() {
+		return (int)Math.min(frameCount, capacity);
+	}
+
+	/**
+	 * Returns the average duration of the given phase over the held frames, in microseconds.
+	 * @param phase One of the <code>PHASE_*</code> constants
+	 */
+	@UsedByGodot
+	public synchronized float getPhaseAverageUs(int phase) {
+		final int count = (int)Math.min(frameCount, capacity);
+		if (count == 0 || phase < 0 || phase >= PHASE_COUNT) {
+			return 0;
+		}
+		long total = 0;
+		for (int i = 0; i < count; i++) {
+			total += phaseDurations[i * PHASE_COUNT + phase];
+		}
+		return total / (count * 1000f);
+	}
+
+	/**
+	 * Returns the longest duration of the given phase over the held frames, in microseconds.
+	 * @param phase One of the <code>PHASE_*</code> constants
+	 */
+	@UsedByGodot
+	public synchronized float getPhaseMaxUs(int phase) {
+		final int count = (int)Math.min(frameCount, capacity);
+		if (phase < 0 || phase >= PHASE_COUNT) {
+			return 0;
+		}
+		long max = 0;
+		for (int i = 0; i < count; i++) {
+			max = Math.max(max, phaseDurations[i * PHASE_COUNT + phase]);
+		}
+		return max / 1000f;
+	}
+
+	/**
+	 * Returns the names of the plugins whose draw frame callbacks are timed.
+	 */
+	@UsedByGodot
+	public synchronized String[] getPluginNames() {
+		return pluginNames.clone();
+	}
+
+	/**
+	 * Returns the average duration of the given plugin's draw frame callback over the held frames,
+	 * in microseconds.
+	 * @param pluginIndex Index of the plugin in {@link #getPluginNames()}
+	 */
+	@UsedByGodot
+	public synchronized float getPluginAverageUs(int pluginIndex) {
+		final int count = (int)Math.min(frameCount, capacity);
+		final int pluginCount = pluginNames.length;
+		if (count == 0 || pluginIndex < 0 || pluginIndex >= pluginCount) {
+			return 0;
+		}
+		long total = 0;
+		for (int i = 0; i < count; i++) {
+			total += pluginDurations[i * pluginCount + pluginIndex];
+		}
+		return total / (count * 1000f);
+	}
+
+	/**
+	 * Returns the held frames as CSV.
+	 * @see #writeCsv(Writer)
+	 */
+	@UsedByGodot
+	public String toCsv() {
+		StringWriter writer = new StringWriter();
+		try {
+			writeCsv(writer);
+		} catch (IOException e) {
+			// StringWriter doesn't throw.
+		}
+		return writer.toString();
+	}
+
+	/**
+	 * Returns the held frames as JSON.
+	 * @see #writeJson(Writer)
+	 */
+	@UsedByGodot
+	public String toJson() {
+		StringWriter writer = new StringWriter();
+		try {
+			writeJson(writer);
+		} catch (IOException e) {
+			// StringWriter doesn't throw.
+		}
+		return writer.toString();
+	}
+
+	/**
+	 * Write the held frames as CSV, oldest first, one line per frame with its start timestamp
+	 * and the duration of each phase and plugin callback, in nanoseconds.
+	 */
+	public synchronized void writeCsv(Writer writer) throws IOException {
+		StringBuilder line = new StringBuilder("start_ns");
+		for (String phaseName : PHASE_NAMES) {
+			line.append(',').append(phaseName).append("_ns");
+		}
+		for (String pluginName : pluginNames) {
+			line.append(",plugin:").append(pluginName).append("_ns");
+		}
+		writer.write(line.append('\n').toString());
+
+		final int count = (int)Math.min(frameCount, capacity);
+		final int pluginCount = pluginNames.length;
+		for (long i = frameCount - count; i < frameCount; i++) {
+			final int index = (int)(i % capacity);
+			line.setLength(0);
+			line.append(frameStartTimes[index]);
+			for (int phase = 0; phase < PHASE_COUNT; phase++) {
+				line.append(',').append(phaseDurations[index * PHASE_COUNT + phase]);
+			}
+			for (int plugin = 0; plugin < pluginCount; plugin++) {
+				line.append(',').append(pluginDurations[index * pluginCount + plugin]);
+			}
+			writer.write(line.append('\n').toString());
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Write the held frames as a JSON object holding the phase and plugin names, and the frames,
+	 * oldest first, each with its start timestamp and the duration of each phase and plugin
+	 * callback, in nanoseconds.
+	 */
+	public synchronized void writeJson(Writer writer) throws IOException {
+		StringBuilder json = new StringBuilder("{\"phases\":[");
+		for (int phase = 0; phase < PHASE_COUNT; phase++) {
+			json.append(phase == 0 ? "\"" : ",\"").append(PHASE_NAMES[phase]).append('"');
+		}
+		json.append("],\"plugins\":[");
+		for (int plugin = 0; plugin < pluginNames.length; plugin++) {
+			JsonUtils.appendString(json.append(plugin == 0 ? "" : ","), pluginNames[plugin]);
+		}
+		json.append("],\"frames\":[");
+		writer.write(json.toString());
+
+		final int count = (int)Math.min(frameCount, capacity);
+		final int pluginCount = pluginNames.length;
+		for (long i = frameCount - count; i < frameCount; i++) {
+			final int index = (int)(i % capacity);
+			json.setLength(0);
+			json.append(i == frameCount - count ? "{" : ",{").append("\"start_ns\":").append(frameStartTimes[index]).append(",\"phases_ns\":[");
+			for (int phase = 0; phase < PHASE_COUNT; phase++) {
+				json.append(phase == 0 ? "" : ",").append(phaseDurations[index * PHASE_COUNT + phase]);
+			}
+			json.append("],\"plugins_ns\":[");
+			for (int plugin = 0; plugin < pluginCount; plugin++) {
+				json.append(plugin == 0 ? "" : ",").append(pluginDurations[index * pluginCount + plugin]);
+			}
+			writer.write(json.append("]}").toString());
+		}
+		writer.write("]}");
+		writer.flush();
+	}
+
+	/**
+	 * Add the time spent running an event queued on the render thread; it's attributed to the
+	 * next frame.
+	 *
+	 * Must be called on the render thread.
+	 */
+	public void addQueuedEventsTime(long durationNs) {
+		discardStalePreviousFrameTime();
+		queuedEventsDuration += durationNs;
+	}
+
+	/**
+	 * Start recording a frame.
+	 *
+	 * Must be called on the render thread, at the start of the draw frame callback.
+	 */
+	public void beginFrame() {
+		discardStalePreviousFrameTime();
+		frameStartTime = System.nanoTime();
+		phaseStartTime = frameStartTime;
+		currentPluginCount = 0;
+	}
+
+	/**
+	 * Mark the end of the given phase, which started at the end of the previous one.
+	 *
+	 * Must be called on the render thread.
+	 */
+	public void endPhase(int phase) {
+		final long now = System.nanoTime();
+		currentPhases[phase] = now - phaseStartTime;
+		phaseStartTime = now;
+		pluginsStartTime = now;
+	}
+
+	/**
+	 * Mark the end of the draw frame callback of the given plugin, which started at the end of the
+	 * previous phase or plugin callback.
+	 *
+	 * Must be called on the render thread.
+	 */
+	public void endPlugin(String pluginName) {
+		final long now = System.nanoTime();
+		final int index = currentPluginCount++;
+		if (index == currentPlugins.length) {
+			currentPlugins = Arrays.copyOf(currentPlugins, index + 1);
+			currentPluginNames = Arrays.copyOf(currentPluginNames, index + 1);
+		}
+		currentPlugins[index] = now - phaseStartTime;
+		currentPluginNames[index] = pluginName;
+		phaseStartTime = now;
+	}
+
+	/**
+	 * Complete the recording of the frame, and report the metrics if due.
+	 *
+	 * Must be called on the render thread, at the end of the draw frame callback.
+	 */
+	public void endFrame() {
+		final long now = System.nanoTime();
+		if (currentPluginCount > 0) {
+			currentPhases[PHASE_PLUGINS] = now - pluginsStartTime;
+		}
+		currentPhases[PHASE_FRAME] = now - frameStartTime;
+		currentPhases[PHASE_QUEUED_EVENTS] = queuedEventsDuration;
+		currentPhases[PHASE_SWAP] = previousFrameEndTime == 0 ? 0 : Math.max(0, frameStartTime - previousFrameEndTime - queuedEventsDuration);
+		queuedEventsDuration = 0;
+		previousFrameEndTime = now;
+
+		commitFrame();
+		Arrays.fill(currentPhases, 0);
+
+		if (++framesSinceReport >= reportInterval) {
+			framesSinceReport = 0;
+			if (reportListener != null) {
+				reportListener.onFrameMetricsReport(this);
+			}
+		}
+	}
+
+	/**
+	 * Stop the frame in progress from counting the time since the previous frame, e.g: after the
+	 * render thread was paused.
+	 *
+	 * Must be called on the render thread.
+	 */
+	public void discardPreviousFrameTime() {
+		previousFrameEndTime = 0;
+		queuedEventsDuration = 0;
+	}
+
+	private void discardStalePreviousFrameTime() {
+		if (previousFrameTimeStale) {
+			previousFrameTimeStale = false;
+			discardPreviousFrameTime();
+		}
+	}
+
+	private boolean hasSamePlugins() {
+		if (currentPluginCount != pluginNames.length) {
+			return false;
+		}
+		for (int i = 0; i < currentPluginCount; i++) {
+			if (!currentPluginNames[i].equals(pluginNames[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private synchronized void commitFrame() {
+		if (!hasSamePlugins()) {
+			// The set of plugins changed, start over.
+			pluginNames = Arrays.copyOf(currentPluginNames, currentPluginCount);
+			pluginDurations = new long[capacity * currentPluginCount];
+			frameCount = 0;
+		}
+
+		final int index = (int)(frameCount % capacity);
+		frameStartTimes[index] = frameStartTime;
+		System.arraycopy(currentPhases, 0, phaseDurations, index * PHASE_COUNT, PHASE_COUNT);
+		System.arraycopy(currentPlugins, 0, pluginDurations, index * currentPluginCount, currentPluginCount);
+		frameCount++;
+	}
+}
@@ -0,0 +1,257 @@
+/*************************************************************************/
+/*  FramePacer.java                                                      */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+import android.view.Choreographer;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Paces the frames drawn by the render loop on the display vsync, see {@link GodotRenderLoop}.
+ * <p>
+ * Vsync callbacks are received from {@link Choreographer} on a dedicated looper thread. Each
+ * vsync matching the target frame rate opens a frame slot, and the slot listener is invoked so
+ * the render loop can draw exactly one frame for it. For example, a 30 fps target on a 60 Hz panel
+ * draws on every other vsync, rather than drawing as soon as the swapchain unblocks and
+ * alternating 16 and 33 ms present intervals.
+ * <p>
+ * A frame slot opened while the frame for the previous slot is still outstanding, or skipped
+ * because the vsync callback came late, is counted as a missed deadline.
+ */
+public class FramePacer implements Choreographer.FrameCallback {
+	private static final String TAG = FramePacer.class.getSimpleName();
+
+	/**
+	 * Target frame rates supported by the pacer; 0 disables pacing.
+	 */
+	public static final int[] SUPPORTED_FRAME_RATES = { 0, 30, 45, 60, 90, 120 };
+
+	private static final float DEFAULT_REFRESH_RATE = 60f;
+
+	private final Runnable onFrameSlot;
+
+	private volatile int targetFrameRate = 0;
+	private volatile long frameSlotCount = 0;
+	private volatile long missedDeadlineCount = 0;
+	private volatile long vsyncPeriodNs = (long)(1_000_000_000L / DEFAULT_REFRESH_RATE);
+
+	private final AtomicBoolean frameOutstanding = new AtomicBoolean(false);
+
+	// Only accessed on the pacer thread.
+	private HandlerThread handlerThread;
+	private Handler handler;
+	private Choreographer choreographer;
+	private boolean running = false;
+	private long lastVsyncTimeNs = 0;
+	private long nextDeadlineNs = 0;
+
+	/**
+	 * @param onFrameSlot Invoked on the pacer thread when a frame slot opens
+	 */
+	FramePacer(Runnable onFrameSlot) {
+		this.onFrameSlot = onFrameSlot;
+	}
+
+	/**
+	 * Target frame rate, or 0 when pacing is disabled.
+	 */
+	public int getTargetFrameRate() {
+		return targetFrameRate;
+	}
+
+	public boolean isEnabled() {
+		return targetFrameRate > 0;
+	}
+
+	/**
+	 * Number of frame slots opened since the last {@link #resetMetrics()}.
+	 */
+	public long getFrameSlotCount() {
+		return frameSlotCount;
+	}
+
+	/**
+	 * Number of frame slots missed since the last {@link #resetMetrics()}.
+	 */
+	public long getMissedDeadlineCount() {
+		return missedDeadlineCount;
+	}
+
+	/**
+	 * Estimated vsync period of the display, in nanoseconds.
+	 */
+	public long getVsyncPeriodNs() {
+		return vsyncPeriodNs;
+	}
+
+	public void resetMetrics() {
+		frameSlotCount = 0;
+		missedDeadlineCount = 0;
+	}
+
+	/**
+	 * Set the target frame rate; must be one of {@link #SUPPORTED_FRAME_RATES}.
+	 */
+	synchronized void setTargetFrameRate(int frameRate) {
+		if (Arrays.binarySearch(SUPPORTED_FRAME_RATES, frameRate) < 0) {
+			Log.w(TAG, "Unsupported target frame rate " + frameRate + ", disabling frame pacing");
+			targetFrameRate = 0;
+		} else {
+			targetFrameRate = frameRate;
+		}
+		if (targetFrameRate > 0 && handlerThread == null) {
+			handlerThread = new HandlerThread(TAG);
+			handlerThread.start();
+			handler = new Handler(handlerThread.getLooper());
+		}
+		if (handler != null) {
+			// Reset the pacing phase so it takes effect on the next vsync.
+			handler.post(() -> nextDeadlineNs = 0);
+		}
+	}
+
+	/**
+	 * Update the vsync period estimate from the display refresh rate.
+	 */
+	void setRefreshRate(float refreshRate) {
+		if (refreshRate > 0f) {
+			vsyncPeriodNs = (long)(1_000_000_000L / refreshRate);
+		}
+	}
+
+	/**
+	 * Start receiving vsync callbacks, if pacing is enabled.
+	 */
+	synchronized void start() {
+		if (handler == null) {
+			return;
+		}
+		handler.post(() -> {
+			if (!running && isEnabled()) {
+				running = true;
+				lastVsyncTimeNs = 0;
+				nextDeadlineNs = 0;
+				if (choreographer == null) {
+					choreographer = Choreographer.getInstance();
+				}
+				choreographer.postFrameCallback(this);
+			}
+		});
+	}
+
+	/**
+	 * Stop receiving vsync callbacks.
+	 */
+	synchronized void stop() {
+		frameOutstanding.set(false);
+		if (handler == null) {
+			return;
+		}
+		handler.post(() -> {
+			if (running) {
+				running = false;
+				choreographer.removeFrameCallback(this);
+			}
+		});
+	}
+
+	/**
+	 * Stop the pacer thread; the pacer can't be restarted afterward.
+	 */
+	synchronized void quit() {
+		stop();
+		targetFrameRate = 0;
+		if (handlerThread != null) {
+			handlerThread.quitSafely();
+			handlerThread = null;
+			handler = null;
+		}
+	}
+
+	/**
+	 * Invoked by the render loop once the frame for the last opened slot has been drawn.
+	 */
+	void onFrameDrawn() {
+		frameOutstanding.set(false);
+	}
+
+	@Override
+	public void doFrame(long frameTimeNanos) {
+		if (!running) {
+			return;
+		}
+		if (!isEnabled()) {
+			running = false;
+			return;
+		}
+		choreographer.postFrameCallback(this);
+
+		// Refine the vsync period estimate, ignoring the gaps where vsyncs were skipped.
+		long vsyncPeriod = vsyncPeriodNs;
+		if (lastVsyncTimeNs != 0) {
+			final long delta = frameTimeNanos - lastVsyncTimeNs;
+			if (delta > 0 && delta < vsyncPeriod * 3 / 2) {
+				vsyncPeriod = (vsyncPeriod * 7 + delta) / 8;
+				vsyncPeriodNs = vsyncPeriod;
+			}
+		}
+		lastVsyncTimeNs = frameTimeNanos;
+
+		final long frameInterval = 1_000_000_000L / targetFrameRate;
+		// Vsyncs within half a period of the deadline open the slot, so rates which don't divide
+		// the refresh rate evenly (e.g. 45 fps at 60 Hz) alternate between the nearest intervals.
+		if (nextDeadlineNs != 0 && frameTimeNanos + vsyncPeriod / 2 < nextDeadlineNs) {
+			return;
+		}
+
+		if (nextDeadlineNs == 0) {
+			nextDeadlineNs = frameTimeNanos;
+		}
+		final long lateSlots = (frameTimeNanos - nextDeadlineNs) / frameInterval;
+		if (lateSlots > 0) {
+			// The vsync callback itself came late and slots went by without a frame.
+			missedDeadlineCount += lateSlots;
+			nextDeadlineNs += lateSlots * frameInterval;
+		}
+		nextDeadlineNs += frameInterval;
+
+		frameSlotCount++;
+		if (frameOutstanding.getAndSet(true)) {
+			// The frame for the previous slot hasn't been drawn yet.
+			missedDeadlineCount++;
+		}
+		onFrameSlot.run();
+	}
+}
@@ -31,13 +31,14 @@
 package org.godotengine.godot;
 
 import static android.content.Context.MODE_PRIVATE;
-import static android.content.Context.WINDOW_SERVICE;
 
 import org.godotengine.godot.input.GodotEditText;
+import org.godotengine.godot.input.InputLatencyTracker;
 import org.godotengine.godot.plugin.GodotPlugin;
 import org.godotengine.godot.plugin.GodotPluginRegistry;
 import org.godotengine.godot.utils.GodotNetUtils;
 import org.godotengine.godot.utils.PermissionsUtil;
+import org.godotengine.godot.utils.StartupTrace;
 import org.godotengine.godot.xr.XRMode;
 
 import android.annotation.SuppressLint;
@@ -55,16 +56,22 @@ import android.content.SharedPreferences.Editor;
 import android.content.pm.ConfigurationInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.PackageManager.NameNotFoundException;
+import android.content.res.AssetManager;
 import android.graphics.Point;
 import android.graphics.Rect;
 import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
+import android.hardware.display.DisplayManager;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Environment;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Messenger;
+import android.os.PowerManager;
+import android.os.SystemClock;
 import android.os.VibrationEffect;
 import android.os.Vibrator;
 import android.view.Display;
@@ -83,6 +90,7 @@ import android.widget.TextView;
 import androidx.annotation.CallSuper;
 import androidx.annotation.Keep;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
 import com.google.android.vending.expansion.downloader.DownloadProgressInfo;
@@ -94,13 +102,13 @@ import com.google.android.vending.expansion.downloader.IDownloaderService;
 import com.google.android.vending.expansion.downloader.IStub;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.InputStream;
-import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Future;
 
 public class Godot extends Fragment implements SensorEventListener, IDownloaderClient {
 	private IStub mDownloaderClientStub;
@@ -114,6 +122,10 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 
 	private View mDashboard;
 	private View mCellMessage;
+	private View mDownloadButtons;
+	private FrameLayout mExpansionPackLayout;
+	private boolean verifyingExpansionPack = false;
+	private long expansionPackVerifyStartTime;
 
 	private Button mPauseButton;
 	private Button mWiFiSettingsButton;
@@ -127,6 +139,17 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 
 	private GodotHost godotHost;
 	private GodotPluginRegistry pluginRegistry;
+	private volatile boolean godotSetupCompleted = false;
+	private volatile boolean godotMainLoopStarted = false;
+	private final FrameMetrics mFrameMetrics = new FrameMetrics(this::onFrameMetricsReport);
+
+	/**
+	 * Interval at which the thermal state is evaluated while the activity is resumed.
+	 */
+	private static final long THERMAL_UPDATE_INTERVAL_MS = 5000;
+	private final Handler mThermalHandler = new Handler(Looper.getMainLooper());
+	private final Runnable mThermalUpdate = this::updateThermalGovernor;
+	private ThermalGovernor mThermalGovernor;
 
 	static private Intent mCurrentIntent;
 
@@ -141,12 +164,17 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 	private void setState(int newState) {
 		if (mState != newState) {
 			mState = newState;
-			mStatusText.setText(Helpers.getDownloaderStringResourceIDFromState(newState));
+			if (mStatusText != null) {
+				mStatusText.setText(Helpers.getDownloaderStringResourceIDFromState(newState));
+			}
 		}
 	}
 
 	private void setButtonPausedState(boolean paused) {
 		mStatePaused = paused;
+		if (mPauseButton == null) {
+			return;
+		}
 		int stringResourceID = paused ? R.string.text_button_resume : R.string.text_button_pause;
 		mPauseButton.setText(stringResourceID);
 	}
@@ -164,6 +192,39 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 	private Sensor mMagnetometer;
 	private Sensor mGyroscope;
 
+	// Sensor masks, must be kept in sync with Input::SensorMask in 'core/input/input.h'.
+	private static final int SENSOR_MASK_ACCELEROMETER = 1 << 0;
+	private static final int SENSOR_MASK_GRAVITY = 1 << 1;
+	private static final int SENSOR_MASK_MAGNETOMETER = 1 << 2;
+	private static final int SENSOR_MASK_GYROSCOPE = 1 << 3;
+
+	/**
+	 * Mask of the sensors in use by the project; only those are registered.
+	 */
+	private int mActiveSensors = 0;
+	private volatile int mSensorSamplingPeriodUs = 20000;
+	private volatile int mSensorMaxReportLatencyUs = 0;
+
+	private DisplayManager mDisplayManager;
+	/**
+	 * Rotation of the default display, cached to avoid querying it on every sensor event.
+	 */
+	private int mDisplayRotation = Surface.ROTATION_0;
+	private final DisplayManager.DisplayListener mDisplayListener = new DisplayManager.DisplayListener() {
+		@Override
+		public void onDisplayAdded(int displayId) {}
+
+		@Override
+		public void onDisplayRemoved(int displayId) {}
+
+		@Override
+		public void onDisplayChanged(int displayId) {
+			if (displayId == Display.DEFAULT_DISPLAY) {
+				updateDisplayRotation();
+			}
+		}
+	};
+
 	public static GodotIO io;
 	public static GodotNetUtils netUtils;
 
@@ -197,6 +258,7 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 			result_callback = null;
 		}
 
+		pluginRegistry.createLazyPluginsOverriding("onMainActivityResult", int.class, int.class, Intent.class);
 		for (GodotPlugin plugin : pluginRegistry.getAllPlugins()) {
 			plugin.onMainActivityResult(requestCode, resultCode, data);
 		}
@@ -206,6 +268,7 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 	@Override
 	public void onRequestPermissionsResult(int requestCode, String[] permissions, int[] grantResults) {
 		super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+		pluginRegistry.createLazyPluginsOverriding("onMainRequestPermissionsResult", int.class, String[].class, int[].class);
 		for (GodotPlugin plugin : pluginRegistry.getAllPlugins()) {
 			plugin.onMainRequestPermissionsResult(requestCode, permissions, grantResults);
 		}
@@ -220,6 +283,8 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 	 */
 	@CallSuper
 	protected void onGodotSetupCompleted() {
+		StartupTrace.mark("Godot setup completed");
+		godotSetupCompleted = true;
 		for (GodotPlugin plugin : pluginRegistry.getAllPlugins()) {
 			plugin.onGodotSetupCompleted();
 		}
@@ -234,6 +299,8 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 	 */
 	@CallSuper
 	protected void onGodotMainLoopStarted() {
+		StartupTrace.markMainLoopStarted();
+		godotMainLoopStarted = true;
 		for (GodotPlugin plugin : pluginRegistry.getAllPlugins()) {
 			plugin.onGodotMainLoopStarted();
 		}
@@ -248,6 +315,7 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 	 */
 	@Keep
 	private void onVideoInit() {
+		StartupTrace.beginSection("Godot.onVideoInit");
 		final Activity activity = getActivity();
 		containerLayout = new FrameLayout(activity);
 		containerLayout.setLayoutParams(new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
@@ -259,7 +327,9 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 		// ...add to FrameLayout
 		containerLayout.addView(editText);
 
+		StartupTrace.beginSection("GodotLib.setup");
 		GodotLib.setup(command_line);
+		StartupTrace.endSection();
 
 		final String videoDriver = GodotLib.getGlobal("rendering/driver/driver_name");
 		if (videoDriver.equals("vulkan")) {
@@ -284,24 +354,171 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 
 		mRenderView.queueOnRenderThread(() -> {
 			for (GodotPlugin plugin : pluginRegistry.getAllPlugins()) {
+				StartupTrace.beginSection("Register plugin " + plugin.getPluginName());
 				plugin.onRegisterPluginWithGodotNative();
+				StartupTrace.endSection();
 			}
+			for (Map.Entry<String, Class<GodotPlugin>> entry : pluginRegistry.getLazyPluginClasses().entrySet()) {
+				GodotPlugin.registerLazyPluginWithGodotNative(entry.getKey(), entry.getValue());
+			}
+			GodotPlugin.registerPluginWithGodotNative(mFrameMetrics, mFrameMetrics);
 			setKeepScreenOn("True".equals(GodotLib.getGlobal("display/window/energy_saving/keep_screen_on")));
+			mRenderView.getInputHandler().setUseHistoricalSamples(Boolean.parseBoolean(GodotLib.getGlobal("input_devices/pointing/android/use_historical_samples")));
+			mSensorSamplingPeriodUs = (int)parseFloatSetting("input_devices/sensors/android/sampling_period_usec", 20000);
+			mSensorMaxReportLatencyUs = (int)parseFloatSetting("input_devices/sensors/android/max_report_latency_usec", 0);
+			mRenderView.getInputHandler().setJoypadAxisThresholds(parseFloatSetting("input_devices/joypads/android/axis_deadzone", 0f),
+					parseFloatSetting("input_devices/joypads/android/axis_change_epsilon", 0.001f));
+			mRenderView.getRenderLoop().setTargetFrameRate((int)parseFloatSetting("display/window/android/frame_pacing_fps", 0));
+			final DynamicResolutionController dynamicResolutionController = xrMode == XRMode.REGULAR ? mRenderView.getDynamicResolutionController() : null;
+			if (dynamicResolutionController != null) {
+				dynamicResolutionController.setScaleBounds(parseFloatSetting("display/window/android/dynamic_resolution_min_scale", 0.5f),
+						parseFloatSetting("display/window/android/dynamic_resolution_max_scale", 1f));
+				dynamicResolutionController.setTargetFrameTime(parseFloatSetting("display/window/android/dynamic_resolution_target_frame_time_msec", 16.6f));
+				dynamicResolutionController.setEnabled(Boolean.parseBoolean(GodotLib.getGlobal("display/window/android/dynamic_resolution_enabled")));
+			}
+			final IdleRenderController idleRenderController = mRenderView.getIdleRenderController();
+			idleRenderController.setHeartbeat((long)parseFloatSetting("display/window/android/idle_render_heartbeat_msec", 100));
+			idleRenderController.setEnabled(Boolean.parseBoolean(GodotLib.getGlobal("display/window/android/idle_render_enabled")) &&
+					Boolean.parseBoolean(GodotLib.getGlobal("application/run/low_processor_mode")));
+			if (Boolean.parseBoolean(GodotLib.getGlobal("display/window/android/thermal_governor_enabled"))) {
+				runOnUiThread(this::startThermalGovernor);
+			}
 		});
 
 		// Include the returned non-null views in the Godot view hierarchy.
 		for (GodotPlugin plugin : pluginRegistry.getAllPlugins()) {
-			View pluginView = plugin.onMainCreate(activity);
-			if (pluginView != null) {
-				if (plugin.shouldBeOnTop()) {
-					containerLayout.addView(pluginView);
-				} else {
-					containerLayout.addView(pluginView, 0);
-				}
+			addPluginView(activity, plugin);
+		}
+		StartupTrace.endSection();
+	}
+
+	private void addPluginView(Activity activity, GodotPlugin plugin) {
+		View pluginView = plugin.onMainCreate(activity);
+		if (pluginView != null) {
+			if (plugin.shouldBeOnTop()) {
+				containerLayout.addView(pluginView);
+			} else {
+				containerLayout.addView(pluginView, 0);
+			}
+		}
+	}
+
+	/**
+	 * Invoked on the UI thread when a lazy plugin is created on first use, to catch it up with the
+	 * plugins created along with Godot.
+	 */
+	private void onLazyPluginCreated(GodotPlugin plugin) {
+		if (mRenderView == null) {
+			// Created ahead of the render view, so it's set up along with the other plugins.
+			return;
+		}
+
+		final Activity activity = getActivity();
+		if (activity != null && containerLayout != null) {
+			addPluginView(activity, plugin);
+		}
+		if (activityResumed) {
+			plugin.onMainResume();
+		}
+		runOnRenderThread(() -> {
+			plugin.onRegisterPluginWithGodotNative();
+			if (godotSetupCompleted) {
+				plugin.onGodotSetupCompleted();
 			}
+			if (godotMainLoopStarted) {
+				plugin.onGodotMainLoopStarted();
+			}
+		});
+	}
+
+	/**
+	 * Returns the tracker measuring the touch-to-frame latency of the input events, or null if
+	 * the render view hasn't been created yet.
+	 * <p>
+	 * Tracking is disabled by default, see {@link InputLatencyTracker#setEnabled(boolean)}.
+	 */
+	@Nullable
+	public InputLatencyTracker getInputLatencyTracker() {
+		if (mRenderView == null) {
+			return null;
+		}
+		return mRenderView.getInputHandler().getInputLatencyTracker();
+	}
+
+	/**
+	 * Returns the per-frame timings of the render thread.
+	 * <p>
+	 * Recording is disabled by default, see {@link FrameMetrics#setEnabled(boolean)}.
+	 */
+	public FrameMetrics getFrameMetrics() {
+		return mFrameMetrics;
+	}
+
+	private void onFrameMetricsReport(FrameMetrics frameMetrics) {
+		final GodotHost host = godotHost;
+		if (host != null) {
+			host.onGodotFrameMetricsReport(frameMetrics);
+		}
+	}
+
+	/**
+	 * Wake the render loop up for a frame if it's idle, e.g: when a plugin changed some state the
+	 * engine needs to act on.
+	 *
+	 * @see IdleRenderController
+	 */
+	public void requestRenderFrame() {
+		if (mRenderView != null) {
+			mRenderView.getIdleRenderController().requestFrame();
 		}
 	}
 
+	/**
+	 * Start stepping the frame rate and render scale down as the device heats up.
+	 *
+	 * Must be called on the UI thread.
+	 */
+	private void startThermalGovernor() {
+		if (mThermalGovernor != null || !PowerManagerThermalStatusSource.isSupported()) {
+			return;
+		}
+
+		final Activity activity = getActivity();
+		if (activity == null) {
+			return;
+		}
+		final PowerManager powerManager = (PowerManager)activity.getSystemService(Context.POWER_SERVICE);
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && powerManager.isSustainedPerformanceModeSupported()) {
+			// Trade peak performance for a level the device can sustain without throttling.
+			activity.getWindow().setSustainedPerformanceMode(true);
+		}
+
+		mThermalGovernor = new ThermalGovernor(new PowerManagerThermalStatusSource(powerManager), this::onThrottleLevelChanged);
+		if (activityResumed) {
+			updateThermalGovernor();
+		}
+	}
+
+	private void updateThermalGovernor() {
+		mThermalHandler.removeCallbacks(mThermalUpdate);
+		if (mThermalGovernor == null || !activityResumed) {
+			return;
+		}
+		mThermalGovernor.update(SystemClock.elapsedRealtime());
+		mThermalHandler.postDelayed(mThermalUpdate, THERMAL_UPDATE_INTERVAL_MS);
+	}
+
+	private void onThrottleLevelChanged(int level, int maxFps, float maxRenderScale) {
+		if (mRenderView == null) {
+			return;
+		}
+		final DynamicResolutionController dynamicResolutionController = xrMode == XRMode.REGULAR ? mRenderView.getDynamicResolutionController() : null;
+		if (dynamicResolutionController != null) {
+			dynamicResolutionController.setScaleCap(maxRenderScale);
+		}
+		mRenderView.queueOnRenderThread(() -> GodotLib.setMaxFps(maxFps));
+	}
+
 	public void setKeepScreenOn(final boolean p_enabled) {
 		runOnUiThread(() -> {
 			if (p_enabled) {
@@ -312,6 +529,18 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 		});
 	}
 
+	/**
+	 * Returns the value of the given numeric project setting, or <code>defaultValue</code> if it's
+	 * missing or invalid.
+	 */
+	private static float parseFloatSetting(String settingKey, float defaultValue) {
+		try {
+			return Float.parseFloat(GodotLib.getGlobal(settingKey));
+		} catch (NumberFormatException | NullPointerException e) {
+			return defaultValue;
+		}
+	}
+
 	/**
 	 * Used by the native code (java_godot_wrapper.h) to vibrate the device.
 	 * @param durationMs
@@ -374,9 +603,16 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 	}
 
 	private String[] parseCommandLine() {
+		if (commandLineParse != null) {
+			return GodotStartup.await(commandLineParse);
+		}
+		return parseCommandLine(getActivity().getAssets());
+	}
+
+	private static String[] parseCommandLine(AssetManager assets) {
 		InputStream is;
 		try {
-			is = getActivity().getAssets().open("_cl_");
+			is = assets.open("_cl_");
 			byte[] len = new byte[4];
 			int r = is.read(len);
 			if (r < 4) {
@@ -433,6 +669,11 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 	}
 
 	String expansion_pack_path;
+	/**
+	 * Parse of the command line started in the background during {@link #onCreate(Bundle)}.
+	 */
+	private Future<String[]> commandLineParse;
+	private Future<Class<?>> nativeLibraryLoad;
 
 	private void initializeGodot() {
 		if (expansion_pack_path != null) {
@@ -458,14 +699,15 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 		GodotLib.io = io;
 		netUtils = new GodotNetUtils(activity);
 		mSensorManager = (SensorManager)activity.getSystemService(Context.SENSOR_SERVICE);
+		// Sensors are registered on demand, see onSensorUsageChanged().
 		mAccelerometer = mSensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER);
-		mSensorManager.registerListener(this, mAccelerometer, SensorManager.SENSOR_DELAY_GAME);
 		mGravity = mSensorManager.getDefaultSensor(Sensor.TYPE_GRAVITY);
-		mSensorManager.registerListener(this, mGravity, SensorManager.SENSOR_DELAY_GAME);
 		mMagnetometer = mSensorManager.getDefaultSensor(Sensor.TYPE_MAGNETIC_FIELD);
-		mSensorManager.registerListener(this, mMagnetometer, SensorManager.SENSOR_DELAY_GAME);
 		mGyroscope = mSensorManager.getDefaultSensor(Sensor.TYPE_GYROSCOPE);
-		mSensorManager.registerListener(this, mGyroscope, SensorManager.SENSOR_DELAY_GAME);
+
+		mDisplayManager = (DisplayManager)activity.getSystemService(Context.DISPLAY_SERVICE);
+		mDisplayManager.registerDisplayListener(mDisplayListener, null);
+		updateDisplayRotation();
 
 		GodotLib.initialize(activity, this, activity.getAssets(), use_apk_expansion);
 
@@ -485,10 +727,31 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 		super.onCreate(icicle);
 
 		final Activity activity = getActivity();
+		if (BuildConfig.DEBUG) {
+			StartupTrace.start(activity);
+		}
+		StartupTrace.beginSection("Godot.onCreate");
+		// The native library, command line and plugin classes load in the background, and are
+		// awaited right before they're needed.
+		final GodotStartup startup = new GodotStartup();
+		try {
+			final AssetManager assets = activity.getAssets();
+			commandLineParse = startup.submit("Parse command line", () -> parseCommandLine(assets));
+			final Future<Class<?>> nativeLibraryLoad = startup.submit("Load native library", () -> Class.forName(GodotLib.class.getName()));
+			final Future<Map<String, Class<GodotPlugin>>> pluginClassesLoad = startup.submit("Load plugin classes", () -> GodotPluginRegistry.loadPluginClasses(activity));
+
+			createGodot(activity, startup, nativeLibraryLoad, pluginClassesLoad);
+		} finally {
+			commandLineParse = null;
+			startup.shutdown();
+			StartupTrace.endSection();
+		}
+	}
+
+	private void createGodot(Activity activity, GodotStartup startup, Future<Class<?>> nativeLibraryLoad, Future<Map<String, Class<GodotPlugin>>> pluginClassesLoad) {
 		Window window = activity.getWindow();
 		window.addFlags(WindowManager.LayoutParams.FLAG_TURN_SCREEN_ON);
 		mClipboard = (ClipboardManager)activity.getSystemService(Context.CLIPBOARD_SERVICE);
-		pluginRegistry = GodotPluginRegistry.initializePluginRegistry(this);
 
 		// check for apk expansion API
 		boolean md5mismatch = false;
@@ -519,6 +782,8 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 
 					UiChangeListener();
 				}
+			} else if (command_line[i].equals(StartupTrace.COMMAND_LINE_ARG)) {
+				StartupTrace.start(activity);
 			} else if (command_line[i].equals("--use_apk_expansion")) {
 				use_apk_expansion = true;
 			} else if (has_extra && command_line[i].equals("--apk_expansion_md5")) {
@@ -543,6 +808,17 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 		} else {
 			command_line = new_args.toArray(new String[new_args.size()]);
 		}
+		StartupTrace.beginSection("Create plugins");
+		try {
+			pluginRegistry = GodotPluginRegistry.initializePluginRegistry(this, GodotStartup.await(pluginClassesLoad), startup.getExecutor());
+			pluginRegistry.setOnLazyPluginCreatedListener(this::onLazyPluginCreated);
+		} finally {
+			StartupTrace.endSection();
+		}
+
+		mCurrentIntent = activity.getIntent();
+		this.nativeLibraryLoad = nativeLibraryLoad;
+
 		if (use_apk_expansion && main_pack_md5 != null && main_pack_key != null) {
 			// check that environment is ok!
 			if (!Environment.getExternalStorageState().equals(Environment.MEDIA_MOUNTED)) {
@@ -557,57 +833,136 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 				e.printStackTrace();
 			}
 
-			File f = new File(expansion_pack_path);
+			final File f = new File(expansion_pack_path);
+			if (!f.exists()) {
+				if (startExpansionPackDownload()) {
+					return;
+				}
+			} else {
+				final ExpansionPackVerifier verifier = new ExpansionPackVerifier(activity);
+				final String pack_md5 = main_pack_md5;
+				if (!verifier.isVerified(f, pack_md5)) {
+					// The pack is new or changed, so it's hashed in the background with its progress
+					// displayed (next step in onCreateView), and the initialization completes once
+					// it's verified.
+					verifyingExpansionPack = true;
+					expansionPackVerifyStartTime = SystemClock.uptimeMillis();
+					startup.submit("Verify expansion pack", () -> {
+						final boolean pack_valid = verifier.verify(f, pack_md5, this::onExpansionPackVerifyProgress);
+						activity.runOnUiThread(() -> onExpansionPackVerified(f, pack_valid));
+						return null;
+					});
+					return;
+				}
+			}
+		}
 
-			boolean pack_valid = true;
+		completeInitialization();
+	}
 
-			if (!f.exists()) {
-				pack_valid = false;
+	private void completeInitialization() {
+		GodotStartup.await(nativeLibraryLoad);
+		StartupTrace.beginSection("Godot.initializeGodot");
+		try {
+			initializeGodot();
+		} finally {
+			StartupTrace.endSection();
+		}
+	}
 
-			} else if (obbIsCorrupted(expansion_pack_path, main_pack_md5)) {
-				pack_valid = false;
-				try {
-					f.delete();
-				} catch (Exception e) {
-				}
+	/**
+	 * Start downloading the expansion pack, if required.
+	 *
+	 * @return true if the download started, and its progress is displayed instead of Godot
+	 */
+	private boolean startExpansionPackDownload() {
+		final Activity activity = getActivity();
+		Intent notifierIntent = new Intent(activity, activity.getClass());
+		notifierIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+
+		PendingIntent pendingIntent = PendingIntent.getActivity(activity, 0,
+				notifierIntent, PendingIntent.FLAG_UPDATE_CURRENT);
+
+		int startResult;
+		try {
+			startResult = DownloaderClientMarshaller.startDownloadServiceIfRequired(
+					getContext(),
+					pendingIntent,
+					GodotDownloaderService.class);
+
+			if (startResult != DownloaderClientMarshaller.NO_DOWNLOAD_REQUIRED) {
+				// This is where you do set up to display the download
+				// progress (next step in onCreateView)
+				mDownloaderClientStub = DownloaderClientMarshaller.CreateStub(this,
+						GodotDownloaderService.class);
+
+				return true;
 			}
+		} catch (NameNotFoundException e) {
+			// TODO Auto-generated catch block
+		}
+		return false;
+	}
 
-			if (!pack_valid) {
-				Intent notifierIntent = new Intent(activity, activity.getClass());
-				notifierIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
-
-				PendingIntent pendingIntent = PendingIntent.getActivity(activity, 0,
-						notifierIntent, PendingIntent.FLAG_UPDATE_CURRENT);
-
-				int startResult;
-				try {
-					startResult = DownloaderClientMarshaller.startDownloadServiceIfRequired(
-							getContext(),
-							pendingIntent,
-							GodotDownloaderService.class);
-
-					if (startResult != DownloaderClientMarshaller.NO_DOWNLOAD_REQUIRED) {
-						// This is where you do set up to display the download
-						// progress (next step in onCreateView)
-						mDownloaderClientStub = DownloaderClientMarshaller.CreateStub(this,
-								GodotDownloaderService.class);
-
-						return;
-					}
-				} catch (NameNotFoundException e) {
-					// TODO Auto-generated catch block
-				}
+	/**
+	 * Invoked on the verifying thread to display the verification progress on the dashboard.
+	 */
+	private void onExpansionPackVerifyProgress(long verifiedBytes, long totalBytes) {
+		final long elapsedMs = Math.max(1, SystemClock.uptimeMillis() - expansionPackVerifyStartTime);
+		final float bytesPerMs = (float)verifiedBytes / elapsedMs;
+		final long timeRemainingMs = bytesPerMs > 0 ? (long)((totalBytes - verifiedBytes) / bytesPerMs) : 0;
+		final DownloadProgressInfo progress = new DownloadProgressInfo(totalBytes, verifiedBytes, timeRemainingMs, bytesPerMs);
+		runOnUiThread(() -> {
+			if (verifyingExpansionPack) {
+				onDownloadProgress(progress);
 			}
+		});
+	}
+
+	/**
+	 * Invoked on the UI thread once the expansion pack has been hashed.
+	 * <p>
+	 * The fragment's view may not exist at this point, either not created yet or destroyed, in
+	 * which case the next {@link #onCreateView} picks the views to display from the outcome.
+	 */
+	private void onExpansionPackVerified(File pack, boolean valid) {
+		if (!isAdded()) {
+			return;
 		}
+		verifyingExpansionPack = false;
 
-		mCurrentIntent = activity.getIntent();
+		if (!valid) {
+			try {
+				pack.delete();
+			} catch (Exception e) {
+			}
+
+			if (startExpansionPackDownload()) {
+				// When the dashboard is already displayed, the download progress takes over.
+				if (mDownloadButtons != null) {
+					mDownloadButtons.setVisibility(View.VISIBLE);
+				}
+				if (activityResumed) {
+					mDownloaderClientStub.connect(getActivity());
+				}
+				return;
+			}
+		}
 
-		initializeGodot();
+		completeInitialization();
+		// Replace the dashboard with the Godot views, and catch up with the lifecycle.
+		if (mExpansionPackLayout != null) {
+			mExpansionPackLayout.removeAllViews();
+			mExpansionPackLayout.addView(containerLayout);
+		}
+		if (activityResumed) {
+			resumeGodot();
+		}
 	}
 
 	@Override
 	public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle icicle) {
-		if (mDownloaderClientStub != null) {
+		if (mDownloaderClientStub != null || verifyingExpansionPack) {
 			View downloadingExpansionView =
 					inflater.inflate(R.layout.downloading_expansion, container, false);
 			mPB = (ProgressBar)downloadingExpansionView.findViewById(R.id.progressBar);
@@ -620,6 +975,16 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 			mCellMessage = downloadingExpansionView.findViewById(R.id.approveCellular);
 			mPauseButton = (Button)downloadingExpansionView.findViewById(R.id.pauseButton);
 			mWiFiSettingsButton = (Button)downloadingExpansionView.findViewById(R.id.wifiSettingsButton);
+			mDownloadButtons = downloadingExpansionView.findViewById(R.id.downloadButton);
+
+			if (verifyingExpansionPack) {
+				mStatusText.setText(R.string.text_verifying_download);
+				mDownloadButtons.setVisibility(View.GONE);
+				// Wrapped so it can be replaced by the Godot views once the pack is verified.
+				mExpansionPackLayout = new FrameLayout(getActivity());
+				mExpansionPackLayout.addView(downloadingExpansionView);
+				return mExpansionPackLayout;
+			}
 
 			return downloadingExpansionView;
 		}
@@ -627,6 +992,29 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 		return containerLayout;
 	}
 
+	@Override
+	public void onDestroyView() {
+		if (mExpansionPackLayout != null) {
+			// Release the Godot views, so the next view hierarchy can hold them.
+			mExpansionPackLayout.removeAllViews();
+			mExpansionPackLayout = null;
+		}
+		// Stop the expansion pack verification and download from updating the views until they're
+		// recreated; the dashboard views are all set, and cleared, together.
+		mPB = null;
+		mStatusText = null;
+		mProgressFraction = null;
+		mProgressPercent = null;
+		mAverageSpeed = null;
+		mTimeRemaining = null;
+		mDashboard = null;
+		mCellMessage = null;
+		mPauseButton = null;
+		mWiFiSettingsButton = null;
+		mDownloadButtons = null;
+		super.onDestroyView();
+	}
+
 	@Override
 	public void onDestroy() {
 		for (GodotPlugin plugin : pluginRegistry.getAllPlugins()) {
@@ -635,6 +1023,11 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 
 		GodotLib.ondestroy();
 
+		if (mDisplayManager != null) {
+			mDisplayManager.unregisterDisplayListener(mDisplayListener);
+		}
+		mThermalHandler.removeCallbacks(mThermalUpdate);
+
 		super.onDestroy();
 
 		forceQuit();
@@ -654,6 +1047,7 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 		mRenderView.onActivityPaused();
 
 		mSensorManager.unregisterListener(this);
+		mThermalHandler.removeCallbacks(mThermalUpdate);
 
 		for (GodotPlugin plugin : pluginRegistry.getAllPlugins()) {
 			plugin.onMainPause();
@@ -691,12 +1085,14 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 			return;
 		}
 
+		resumeGodot();
+	}
+
+	private void resumeGodot() {
 		mRenderView.onActivityResumed();
 
-		mSensorManager.registerListener(this, mAccelerometer, SensorManager.SENSOR_DELAY_GAME);
-		mSensorManager.registerListener(this, mGravity, SensorManager.SENSOR_DELAY_GAME);
-		mSensorManager.registerListener(this, mMagnetometer, SensorManager.SENSOR_DELAY_GAME);
-		mSensorManager.registerListener(this, mGyroscope, SensorManager.SENSOR_DELAY_GAME);
+		updateSensorRegistrations(0, mActiveSensors);
+		updateThermalGovernor();
 
 		if (use_immersive && Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) { // check if the application runs on an android 4.4+
 			Window window = getActivity().getWindow();
@@ -731,17 +1127,27 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 		});
 	}
 
+	private void updateDisplayRotation() {
+		final Activity activity = getActivity();
+		if (activity == null) {
+			return;
+		}
+		mDisplayRotation = activity.getWindowManager().getDefaultDisplay().getRotation();
+	}
+
+	/**
+	 * Rotates the given sensor values to match the display orientation.
+	 *
+	 * @deprecated The sensor values are rotated as they're received, without allocating.
+	 */
+	@Deprecated
 	public float[] getRotatedValues(float values[]) {
 		if (values == null || values.length != 3) {
 			return values;
 		}
 
-		Display display =
-				((WindowManager)getActivity().getSystemService(WINDOW_SERVICE)).getDefaultDisplay();
-		int displayRotation = display.getRotation();
-
 		float[] rotatedValues = new float[3];
-		switch (displayRotation) {
+		switch (mDisplayRotation) {
 			case Surface.ROTATION_0:
 				rotatedValues[0] = values[0];
 				rotatedValues[1] = values[1];
@@ -767,42 +1173,93 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 		return rotatedValues;
 	}
 
+	/**
+	 * Used by the native code (java_godot_lib_jni.cpp) to notify, on the render thread, that the set
+	 * of sensors read by the project changed.
+	 * @param sensorMask Mask of the sensors in use
+	 */
+	@Keep
+	private void onSensorUsageChanged(int sensorMask) {
+		runOnUiThread(() -> {
+			if (activityResumed) {
+				updateSensorRegistrations(mActiveSensors, sensorMask);
+			}
+			mActiveSensors = sensorMask;
+		});
+	}
+
+	/**
+	 * Register the sensors which are in <code>newSensors</code> but not in <code>oldSensors</code>,
+	 * and unregister the ones which are no longer used.
+	 */
+	private void updateSensorRegistrations(int oldSensors, int newSensors) {
+		if (mSensorManager == null) {
+			return;
+		}
+		updateSensorRegistration(mAccelerometer, SENSOR_MASK_ACCELEROMETER, oldSensors, newSensors);
+		updateSensorRegistration(mGravity, SENSOR_MASK_GRAVITY, oldSensors, newSensors);
+		updateSensorRegistration(mMagnetometer, SENSOR_MASK_MAGNETOMETER, oldSensors, newSensors);
+		updateSensorRegistration(mGyroscope, SENSOR_MASK_GYROSCOPE, oldSensors, newSensors);
+	}
+
+	private void updateSensorRegistration(Sensor sensor, int sensorMask, int oldSensors, int newSensors) {
+		if (sensor == null || (oldSensors & sensorMask) == (newSensors & sensorMask)) {
+			return;
+		}
+
+		if ((newSensors & sensorMask) != 0) {
+			// The report latency lets the sensor hub batch samples to save power.
+			mSensorManager.registerListener(this, sensor, mSensorSamplingPeriodUs, mSensorMaxReportLatencyUs);
+		} else {
+			mSensorManager.unregisterListener(this, sensor);
+		}
+	}
+
 	@Override
 	public void onSensorChanged(SensorEvent event) {
 		if (mRenderView == null) {
 			return;
 		}
 
-		final int typeOfSensor = event.sensor.getType();
-		switch (typeOfSensor) {
-			case Sensor.TYPE_ACCELEROMETER: {
-				float[] rotatedValues = getRotatedValues(event.values);
-				mRenderView.queueOnRenderThread(() -> {
-					GodotLib.accelerometer(-rotatedValues[0], -rotatedValues[1], -rotatedValues[2]);
-				});
+		final float[] values = event.values;
+		if (values == null || values.length < 3) {
+			return;
+		}
+
+		// Rotate the values to match the display orientation, without allocating.
+		final float x;
+		final float y;
+		final float z = values[2];
+		switch (mDisplayRotation) {
+			case Surface.ROTATION_90:
+				x = -values[1];
+				y = values[0];
 				break;
-			}
-			case Sensor.TYPE_GRAVITY: {
-				float[] rotatedValues = getRotatedValues(event.values);
-				mRenderView.queueOnRenderThread(() -> {
-					GodotLib.gravity(-rotatedValues[0], -rotatedValues[1], -rotatedValues[2]);
-				});
+			case Surface.ROTATION_180:
+				x = -values[0];
+				y = -values[1];
 				break;
-			}
-			case Sensor.TYPE_MAGNETIC_FIELD: {
-				float[] rotatedValues = getRotatedValues(event.values);
-				mRenderView.queueOnRenderThread(() -> {
-					GodotLib.magnetometer(-rotatedValues[0], -rotatedValues[1], -rotatedValues[2]);
-				});
+			case Surface.ROTATION_270:
+				x = values[1];
+				y = -values[0];
 				break;
-			}
-			case Sensor.TYPE_GYROSCOPE: {
-				float[] rotatedValues = getRotatedValues(event.values);
-				mRenderView.queueOnRenderThread(() -> {
-					GodotLib.gyroscope(rotatedValues[0], rotatedValues[1], rotatedValues[2]);
-				});
+			case Surface.ROTATION_0:
+			default:
+				x = values[0];
+				y = values[1];
+				break;
+		}
+
+		final int typeOfSensor = event.sensor.getType();
+		switch (typeOfSensor) {
+			case Sensor.TYPE_ACCELEROMETER:
+			case Sensor.TYPE_GRAVITY:
+			case Sensor.TYPE_MAGNETIC_FIELD:
+				mRenderView.getInputHandler().setSensorValue(typeOfSensor, -x, -y, -z);
+				break;
+			case Sensor.TYPE_GYROSCOPE:
+				mRenderView.getInputHandler().setSensorValue(typeOfSensor, x, y, z);
 				break;
-			}
 		}
 	}
 
@@ -828,6 +1285,7 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 	public void onBackPressed() {
 		boolean shouldQuit = true;
 
+		pluginRegistry.createLazyPluginsOverriding("onMainBackPressed");
 		for (GodotPlugin plugin : pluginRegistry.getAllPlugins()) {
 			if (plugin.onMainBackPressed()) {
 				shouldQuit = false;
@@ -850,6 +1308,14 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 		}
 	}
 
+	/**
+	 * Whether the given action is the last one queued on the render thread and it hasn't been
+	 * picked up by the render thread yet.
+	 */
+	public final boolean isLastQueuedOnRenderThread(@NonNull Runnable action) {
+		return mRenderView != null && mRenderView.getRenderLoop().getEventQueue().isLastPending(action);
+	}
+
 	public final void runOnUiThread(@NonNull Runnable action) {
 		if (getActivity() != null) {
 			getActivity().runOnUiThread(action);
@@ -864,47 +1330,6 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 		}
 	}
 
-	private boolean obbIsCorrupted(String f, String main_pack_md5) {
-		try {
-			InputStream fis = new FileInputStream(f);
-
-			// Create MD5 Hash
-			byte[] buffer = new byte[16384];
-
-			MessageDigest complete = MessageDigest.getInstance("MD5");
-			int numRead;
-			do {
-				numRead = fis.read(buffer);
-				if (numRead > 0) {
-					complete.update(buffer, 0, numRead);
-				}
-			} while (numRead != -1);
-
-			fis.close();
-			byte[] messageDigest = complete.digest();
-
-			// Create Hex String
-			StringBuilder hexString = new StringBuilder();
-			for (int i = 0; i < messageDigest.length; i++) {
-				String s = Integer.toHexString(0xFF & messageDigest[i]);
-
-				if (s.length() == 1) {
-					s = "0" + s;
-				}
-				hexString.append(s);
-			}
-			String md5str = hexString.toString();
-
-			if (!md5str.equals(main_pack_md5)) {
-				return true;
-			}
-			return false;
-		} catch (Exception e) {
-			e.printStackTrace();
-			return true;
-		}
-	}
-
 	public boolean requestPermission(String p_name) {
 		return PermissionsUtil.requestPermission(p_name, getActivity());
 	}
@@ -984,6 +1409,11 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 				indeterminate = true;
 				showDashboard = true;
 		}
+		setButtonPausedState(paused);
+		if (mPB == null) {
+			// The dashboard view was destroyed.
+			return;
+		}
 		int newDashboardVisibility = showDashboard ? View.VISIBLE : View.GONE;
 		if (mDashboard.getVisibility() != newDashboardVisibility) {
 			mDashboard.setVisibility(newDashboardVisibility);
@@ -994,11 +1424,15 @@ public class Godot extends Fragment implements SensorEventListener, IDownloaderC
 		}
 
 		mPB.setIndeterminate(indeterminate);
-		setButtonPausedState(paused);
 	}
 
 	@Override
 	public void onDownloadProgress(DownloadProgressInfo progress) {
+		if (mPB == null) {
+			// The dashboard isn't displayed, or its view was destroyed.
+			return;
+		}
+
 		mAverageSpeed.setText(getString(R.string.kilobytes_per_second,
 				Helpers.getSpeedString(progress.mCurrentSpeed)));
 		mTimeRemaining.setText(getString(R.string.time_remaining,
@@ -31,6 +31,7 @@
 package org.godotengine.godot;
 import org.godotengine.godot.input.GodotGestureHandler;
 import org.godotengine.godot.input.GodotInputHandler;
+import org.godotengine.godot.utils.CachedConfigChooser;
 import org.godotengine.godot.utils.GLUtils;
 import org.godotengine.godot.xr.XRMode;
 import org.godotengine.godot.xr.ovr.OvrConfigChooser;
@@ -39,24 +40,27 @@ import org.godotengine.godot.xr.ovr.OvrWindowSurfaceFactory;
 import org.godotengine.godot.xr.regular.RegularConfigChooser;
 import org.godotengine.godot.xr.regular.RegularContextFactory;
 import org.godotengine.godot.xr.regular.RegularFallbackConfigChooser;
+import org.godotengine.godot.xr.regular.RegularWindowSurfaceFactory;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.graphics.PixelFormat;
 import android.opengl.GLSurfaceView;
 import android.os.Build;
+import android.view.Display;
 import android.view.GestureDetector;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 import android.view.PointerIcon;
+import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 
 import androidx.annotation.Keep;
 
 /**
- * A simple GLSurfaceView sub-class that demonstrate how to perform
- * OpenGL ES 2.0 rendering into a GL Surface. Note the following important
- * details:
+ * A simple SurfaceView sub-class that demonstrate how to perform
+ * OpenGL ES 2.0 rendering into a GL Surface, on the render thread of a
+ * {@link GodotRenderLoop}. Note the following important details:
  *
  * - The class must use a custom context factory to enable 2.0 rendering.
  *   See ContextFactory class definition below.
@@ -71,11 +75,11 @@ import androidx.annotation.Keep;
  *   that matches it exactly (with regards to red/green/blue/alpha channels
  *   bit depths). Failure to do so would result in an EGL_BAD_MATCH error.
  */
-public class GodotGLRenderView extends GLSurfaceView implements GodotRenderView {
+public class GodotGLRenderView extends SurfaceView implements GodotRenderView, SurfaceHolder.Callback {
 	private final Godot godot;
 	private final GodotInputHandler inputHandler;
 	private final GestureDetector detector;
-	private final GodotRenderer godotRenderer;
+	private final GodotRenderLoop renderLoop;
 	private PointerIcon pointerIcon;
 
 	public GodotGLRenderView(Context context, Godot godot, XRMode xrMode, boolean p_use_debug_opengl) {
@@ -85,7 +89,7 @@ public class GodotGLRenderView extends GLSurfaceView implements GodotRenderView
 		this.godot = godot;
 		this.inputHandler = new GodotInputHandler(this);
 		this.detector = new GestureDetector(context, new GodotGestureHandler(this));
-		this.godotRenderer = new GodotRenderer();
+		this.renderLoop = new GodotRenderLoop(inputHandler, godot.getFrameMetrics(), new DynamicResolutionController(this, inputHandler));
 		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
 			pointerIcon = PointerIcon.getSystemIcon(getContext(), PointerIcon.TYPE_DEFAULT);
 		}
@@ -104,17 +108,69 @@ public class GodotGLRenderView extends GLSurfaceView implements GodotRenderView
 
 	@Override
 	public void queueOnRenderThread(Runnable event) {
-		queueEvent(event);
+		renderLoop.queueEvent(event);
+	}
+
+	@Override
+	public GodotRenderLoop getRenderLoop() {
+		return renderLoop;
+	}
+
+	@Override
+	public DynamicResolutionController getDynamicResolutionController() {
+		return renderLoop.getDynamicResolutionController();
+	}
+
+	@Override
+	public IdleRenderController getIdleRenderController() {
+		return renderLoop.getIdleRenderController();
+	}
+
+	@Override
+	public void surfaceCreated(SurfaceHolder holder) {
+		renderLoop.onSurfaceCreated(holder);
+	}
+
+	@Override
+	public void surfaceChanged(SurfaceHolder holder, int format, int w, int h) {
+		final Display display = getDisplay();
+		if (display != null) {
+			renderLoop.setRefreshRate(display.getRefreshRate());
+		}
+		renderLoop.onSurfaceChanged(holder, w, h);
+	}
+
+	@Override
+	public void surfaceDestroyed(SurfaceHolder holder) {
+		renderLoop.onSurfaceDestroyed();
+	}
+
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		renderLoop.onAttachedToWindow();
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		renderLoop.onDetachedFromWindow();
+		super.onDetachedFromWindow();
+	}
+
+	@Override
+	protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+		super.onSizeChanged(w, h, oldw, oldh);
+		renderLoop.getDynamicResolutionController().onViewSizeChanged();
 	}
 
 	@Override
 	public void onActivityPaused() {
-		onPause();
+		renderLoop.onPause();
 	}
 
 	@Override
 	public void onActivityResumed() {
-		onResume();
+		renderLoop.onResume();
 	}
 
 	@Override
@@ -171,23 +227,27 @@ public class GodotGLRenderView extends GLSurfaceView implements GodotRenderView
 	}
 
 	private void init(XRMode xrMode, boolean translucent) {
-		setPreserveEGLContextOnPause(true);
 		setFocusableInTouchMode(true);
+		getHolder().addCallback(this);
+
+		final GLSurfaceView.EGLConfigChooser configChooser;
+		final GLSurfaceView.EGLContextFactory contextFactory;
+		final GLSurfaceView.EGLWindowSurfaceFactory windowSurfaceFactory;
 		switch (xrMode) {
 			case OPENXR:
 				// Replace the default egl config chooser.
-				setEGLConfigChooser(new OvrConfigChooser());
+				configChooser = new CachedConfigChooser(getContext(), xrMode, new OvrConfigChooser());
 
 				// Replace the default context factory.
-				setEGLContextFactory(new OvrContextFactory());
+				contextFactory = new OvrContextFactory();
 
 				// Replace the default window surface factory.
-				setEGLWindowSurfaceFactory(new OvrWindowSurfaceFactory());
+				windowSurfaceFactory = new OvrWindowSurfaceFactory();
 				break;
 
 			case REGULAR:
 			default:
-				/* By default, GLSurfaceView() creates a RGB_565 opaque surface.
+				/* By default, the SurfaceView creates a RGB_565 opaque surface.
 				 * If we want a translucent one, we should change the surface's
 				 * format here, using PixelFormat.TRANSLUCENT for GL Surfaces
 				 * is interpreted as any 32-bit surface with alpha by SurfaceFlinger.
@@ -199,43 +259,25 @@ public class GodotGLRenderView extends GLSurfaceView implements GodotRenderView
 				/* Setup the context factory for 2.0 rendering.
 				 * See ContextFactory class definition below
 				 */
-				setEGLContextFactory(new RegularContextFactory());
+				contextFactory = new RegularContextFactory();
 
 				/* We need to choose an EGLConfig that matches the format of
 				 * our surface exactly. This is going to be done in our
 				 * custom config chooser. See ConfigChooser class definition
-				 * below.
+				 * below. The chosen config is cached across launches, so the
+				 * configs are only enumerated on the first launch.
 				 */
-
-				setEGLConfigChooser(
+				configChooser = new CachedConfigChooser(getContext(), XRMode.REGULAR,
 						new RegularFallbackConfigChooser(8, 8, 8, 8, 24, 0,
 								new RegularConfigChooser(8, 8, 8, 8, 16, 0)));
+
+				windowSurfaceFactory = new RegularWindowSurfaceFactory();
 				break;
 		}
 
-		/* Set the renderer responsible for frame rendering */
-		setRenderer(godotRenderer);
-	}
-
-	@Override
-	public void onResume() {
-		super.onResume();
-
-		queueEvent(() -> {
-			// Resume the renderer
-			godotRenderer.onActivityResumed();
-			GodotLib.focusin();
-		});
-	}
-
-	@Override
-	public void onPause() {
-		super.onPause();
-
-		queueEvent(() -> {
-			GodotLib.focusout();
-			// Pause the renderer
-			godotRenderer.onActivityPaused();
-		});
+		/* Start the render thread with the renderer responsible for frame rendering.
+		 * The EGL context is preserved when the app pauses.
+		 */
+		renderLoop.start(new GodotRenderer(renderLoop, configChooser, contextFactory, windowSurfaceFactory));
 	}
 }
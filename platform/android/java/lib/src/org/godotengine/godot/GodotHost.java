@@ -54,6 +54,15 @@ public interface GodotHost {
 	 */
 	default void onGodotMainLoopStarted() {}
 
+	/**
+	 * Invoked on the render thread with the recorded frame metrics, every time the report interval
+	 * elapses while recording is enabled.
+	 *
+	 * @see FrameMetrics#setEnabled(boolean)
+	 * @see FrameMetrics#setReportInterval(int)
+	 */
+	default void onGodotFrameMetricsReport(FrameMetrics frameMetrics) {}
+
 	/**
 	 * Invoked on the UI thread as the last step of the Godot instance clean up phase.
 	 */
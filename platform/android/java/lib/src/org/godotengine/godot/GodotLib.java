@@ -30,10 +30,14 @@
 
 package org.godotengine.godot;
 
+import org.godotengine.godot.input.LegacyInputEvents;
+
 import android.app.Activity;
 import android.hardware.SensorEvent;
 import android.view.Surface;
 
+import java.nio.ByteBuffer;
+
 import javax.microedition.khronos.opengles.GL10;
 
 /**
@@ -86,30 +90,79 @@ public class GodotLib {
 	/**
 	 * Invoked on the GL thread to draw the current frame.
 	 * @see android.opengl.GLSurfaceView.Renderer#onDrawFrame(GL10)
+	 * @return false if the engine didn't draw a frame because nothing changed (low processor usage mode)
+	 */
+	public static native boolean step();
+
+	/**
+	 * Invoked on the render thread after {@link #step()} to exclude the idle time from the frame's work.
+	 * @return Time the last step waited rather than worked, in microseconds: the sleep honoring the
+	 *         engine's frame rate limit, and with Vulkan, the waits for the GPU and the display to
+	 *         present the frame
 	 */
-	public static native void step();
+	public static native long getFrameDelay();
+
+	/**
+	 * Invoked on the render thread to forward the input events queued by the main thread.
+	 * @param buffer Direct buffer holding the queued input event records
+	 * @param readIndex Index of the first record to dispatch
+	 * @param writeIndex Index past the last record to dispatch
+	 * @return true if the events were dispatched, false if the engine isn't ready to process them yet
+	 * @see org.godotengine.godot.input.GodotInputHandler#dispatchQueuedInputEvents()
+	 */
+	public static native boolean dispatchInputEvents(ByteBuffer buffer, int readIndex, int writeIndex);
 
 	/**
 	 * Forward touch events from the main thread to the GL thread.
+	 * @deprecated The touch events are queued by the {@link org.godotengine.godot.input.GodotInputHandler}.
 	 */
-	public static native void touch(int inputDevice, int event, int pointer, int pointerCount, float[] positions);
-	public static native void touch(int inputDevice, int event, int pointer, int pointerCount, float[] positions, int buttonsMask);
-	public static native void touch(int inputDevice, int event, int pointer, int pointerCount, float[] positions, int buttonsMask, float verticalFactor, float horizontalFactor);
+	@Deprecated
+	public static void touch(int inputDevice, int event, int pointer, int pointerCount, float[] positions) {
+		LegacyInputEvents.touch(inputDevice, event, pointer, pointerCount, positions, 0, 0, 0);
+	}
+
+	/**
+	 * @deprecated The touch events are queued by the {@link org.godotengine.godot.input.GodotInputHandler}.
+	 */
+	@Deprecated
+	public static void touch(int inputDevice, int event, int pointer, int pointerCount, float[] positions, int buttonsMask) {
+		LegacyInputEvents.touch(inputDevice, event, pointer, pointerCount, positions, buttonsMask, 0, 0);
+	}
+
+	/**
+	 * @deprecated The touch events are queued by the {@link org.godotengine.godot.input.GodotInputHandler}.
+	 */
+	@Deprecated
+	public static void touch(int inputDevice, int event, int pointer, int pointerCount, float[] positions, int buttonsMask, float verticalFactor, float horizontalFactor) {
+		LegacyInputEvents.touch(inputDevice, event, pointer, pointerCount, positions, buttonsMask, verticalFactor, horizontalFactor);
+	}
 
 	/**
 	 * Forward hover events from the main thread to the GL thread.
+	 * @deprecated The hover events are queued by the {@link org.godotengine.godot.input.GodotInputHandler}.
 	 */
-	public static native void hover(int type, float x, float y);
+	@Deprecated
+	public static void hover(int type, float x, float y) {
+		LegacyInputEvents.hover(type, x, y);
+	}
 
 	/**
 	 * Forward double_tap events from the main thread to the GL thread.
+	 * @deprecated The double tap events are queued by the {@link org.godotengine.godot.input.GodotInputHandler}.
 	 */
-	public static native void doubleTap(int buttonMask, int x, int y);
+	@Deprecated
+	public static void doubleTap(int buttonMask, int x, int y) {
+		LegacyInputEvents.doubleTap(buttonMask, x, y);
+	}
 
 	/**
 	 * Forward scroll events from the main thread to the GL thread.
+	 * @deprecated The scroll events are queued by the {@link org.godotengine.godot.input.GodotInputHandler}.
 	 */
-	public static native void scroll(int x, int y);
+	@Deprecated
+	public static void scroll(int x, int y) {
+		LegacyInputEvents.scroll(x, y);
+	}
 
 	/**
 	 * Forward accelerometer sensor events from the main thread to the GL thread.
@@ -137,23 +190,54 @@ public class GodotLib {
 
 	/**
 	 * Forward regular key events from the main thread to the GL thread.
+	 * @deprecated The key events are queued by the {@link org.godotengine.godot.input.GodotInputHandler}.
+	 */
+	@Deprecated
+	public static void key(int p_keycode, int p_scancode, int p_unicode_char, boolean p_pressed) {
+		LegacyInputEvents.key(p_keycode, p_scancode, p_unicode_char, p_pressed);
+	}
+
+	/**
+	 * Forward a soft keyboard / IME text edit from the render thread, in a single call.
+	 * @param codepoints Unicode codepoints of the committed text
+	 * @param deleteCount Number of characters to delete before inserting the committed text
 	 */
-	public static native void key(int p_keycode, int p_scancode, int p_unicode_char, boolean p_pressed);
+	public static native void textCommit(int[] codepoints, int deleteCount);
 
 	/**
 	 * Forward game device's key events from the main thread to the GL thread.
+	 * @deprecated The joypad button events are queued by the {@link org.godotengine.godot.input.GodotInputHandler}.
 	 */
-	public static native void joybutton(int p_device, int p_but, boolean p_pressed);
+	@Deprecated
+	public static void joybutton(int p_device, int p_but, boolean p_pressed) {
+		LegacyInputEvents.joyButton(p_device, p_but, p_pressed);
+	}
 
 	/**
 	 * Forward joystick devices axis motion events from the main thread to the GL thread.
+	 * @deprecated The joypad axis values are sent once per frame by {@link #joypadState(int, int[], float[])}.
 	 */
-	public static native void joyaxis(int p_device, int p_axis, float p_value);
+	@Deprecated
+	public static void joyaxis(int p_device, int p_axis, float p_value) {
+		LegacyInputEvents.joyAxis(p_device, p_axis, p_value);
+	}
 
 	/**
 	 * Forward joystick devices hat motion events from the main thread to the GL thread.
+	 * @deprecated The joypad hat events are queued by the {@link org.godotengine.godot.input.GodotInputHandler}.
+	 */
+	@Deprecated
+	public static void joyhat(int p_device, int p_hat_x, int p_hat_y) {
+		LegacyInputEvents.joyHat(p_device, p_hat_x, p_hat_y);
+	}
+
+	/**
+	 * Forward the state of the joystick devices that changed since the last frame, from the render thread.
+	 * @param padCount Number of joystick devices described in the snapshot
+	 * @param padStates For each device: Godot device id and axis count
+	 * @param axisValues Axis values of each device, laid out consecutively in the order of <code>padStates</code>
 	 */
-	public static native void joyhat(int p_device, int p_hat_x, int p_hat_y);
+	public static native void joypadState(int padCount, int[] padStates, float[] axisValues);
 
 	/**
 	 * Fires when a joystick device is added or removed.
@@ -209,14 +293,21 @@ public class GodotLib {
 	public static native void setVirtualKeyboardHeight(int p_height);
 
 	/**
-	 * Invoked on the GL thread when the {@link GodotRenderer} has been resumed.
-	 * @see GodotRenderer#onActivityResumed()
+	 * Invoked on the render thread to cap the engine's frame rate, e.g: when the device heats up.
+	 * The cap applies on top of the project's frame rate limit, which it leaves untouched.
+	 * @param maxFps Frame rate cap, or 0 to lift it
+	 */
+	public static native void setMaxFps(int maxFps);
+
+	/**
+	 * Invoked on the render thread when the renderer has been resumed, with a valid surface.
+	 * @see GodotRenderLoop#onRendererResumed()
 	 */
 	public static native void onRendererResumed();
 
 	/**
-	 * Invoked on the GL thread when the {@link GodotRenderer} has been paused.
-	 * @see GodotRenderer#onActivityPaused()
+	 * Invoked on the render thread when the renderer has been paused.
+	 * @see GodotRenderLoop#onRendererPaused()
 	 */
 	public static native void onRendererPaused();
 }
@@ -0,0 +1,415 @@
+/*************************************************************************/
+/*  GodotRenderLoop.java                                                 */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot;
+
+import org.godotengine.godot.input.GodotInputHandler;
+import org.godotengine.godot.plugin.GodotPlugin;
+import org.godotengine.godot.utils.StartupTrace;
+
+import android.view.SurfaceHolder;
+
+/**
+ * Render loop shared by the GL and Vulkan render views.
+ * <p>
+ * The render loop owns the render thread and everything the frame loop does on it: the queue of
+ * events run on the thread and its time budget, the pause/resume and surface state reported by
+ * the render view, the engine iteration run for each frame along with its metrics and dynamic
+ * resolution, and the frame scheduling (continuous, vsync paced, or on demand while idle).
+ * <p>
+ * The render views are thin: they forward their lifecycle and {@link SurfaceHolder} callbacks,
+ * and provide a {@link Backend} which binds the surface to the graphics API (an EGL context and
+ * window surface for GL, the engine's swapchain for Vulkan) and presents the frames.
+ *
+ * <h3>Threading</h3>
+ * The lifecycle and surface methods must be called on the UI thread.
+ * {@link #queueEvent(Runnable)}, {@link #setTargetFrameRate(int)}, {@link #setRefreshRate(float)},
+ * {@link #setEventTimeBudget(long)}, the render requests and the metrics getters can be called
+ * from any thread. Everything else is called on the render thread.
+ */
+public class GodotRenderLoop implements IdleRenderController.RenderLoop {
+	private static final long DEFAULT_EVENT_TIME_BUDGET_MS = 4;
+
+	/**
+	 * Graphics API specific part of a render view, invoked on the render thread.
+	 */
+	public interface Backend {
+		/**
+		 * Bind a surface which became available, before the first frame is drawn on it.
+		 *
+		 * @return false if the surface can't be used, in which case drawing waits for a new surface
+		 */
+		boolean onSurfaceCreated(SurfaceHolder holder);
+
+		/**
+		 * Invoked after {@link #onSurfaceCreated(SurfaceHolder)} and whenever the surface size
+		 * changes.
+		 */
+		void onSurfaceChanged(SurfaceHolder holder, int width, int height);
+
+		/**
+		 * Draw the current frame with {@link GodotRenderLoop#drawFrame(GodotPlugin[], PluginDrawCallback)}
+		 * and present it.
+		 *
+		 * @return false if the surface can no longer be drawn to, in which case the backend has
+		 * released it and it's bound again before the next frame
+		 */
+		boolean onDrawFrame();
+
+		/**
+		 * Release the surface before it's destroyed.
+		 */
+		void onSurfaceDestroyed();
+
+		/**
+		 * Release the remaining resources when the render thread exits.
+		 */
+		void onRenderThreadExiting();
+	}
+
+	/**
+	 * Invokes the API specific draw frame callback of a plugin.
+	 */
+	public interface PluginDrawCallback {
+		void onPluginDrawFrame(GodotPlugin plugin);
+	}
+
+	private final GodotInputHandler inputHandler;
+	private final FrameMetrics frameMetrics;
+	private final DynamicResolutionController dynamicResolutionController;
+	private final IdleRenderController idleRenderController;
+	private final RenderEventQueue eventQueue = new RenderEventQueue();
+	private final FramePacer framePacer;
+
+	private volatile long eventTimeBudgetNs = DEFAULT_EVENT_TIME_BUDGET_MS * 1_000_000L;
+	private volatile int targetFrameRate = 0;
+	private volatile GodotRenderThread renderThread;
+
+	// Only accessed on the UI thread.
+	private Backend backend;
+	private boolean activityResumed = false;
+	private boolean detached = false;
+
+	// Only accessed on the render thread.
+	private boolean renderContinuously = true;
+	private boolean rendererResumed = false;
+
+	public GodotRenderLoop(GodotInputHandler inputHandler, FrameMetrics frameMetrics, DynamicResolutionController dynamicResolutionController) {
+		this.inputHandler = inputHandler;
+		this.frameMetrics = frameMetrics;
+		this.dynamicResolutionController = dynamicResolutionController;
+		this.idleRenderController = new IdleRenderController(this);
+		this.framePacer = new FramePacer(this::requestRender);
+	}
+
+	/**
+	 * Start the render thread, drawing frames with the given backend.
+	 * <p>
+	 * This method should be called once and only once in the life-cycle of the render view.
+	 */
+	public void start(Backend backend) {
+		if (this.backend != null) {
+			throw new IllegalStateException("start must only be invoked once");
+		}
+		this.backend = backend;
+		startRenderThread();
+	}
+
+	private void startRenderThread() {
+		GodotRenderThread thread = new GodotRenderThread(this, backend);
+		if (activityResumed) {
+			thread.onResume();
+		}
+		renderThread = thread;
+		thread.start();
+	}
+
+	/**
+	 * Invoked when the render view is attached to its window; restarts the render thread if it
+	 * exited when the view was detached.
+	 */
+	public void onAttachedToWindow() {
+		if (detached && backend != null) {
+			// The frame pacer stopped along with the previous render thread.
+			setTargetFrameRate(targetFrameRate);
+			startRenderThread();
+		}
+		detached = false;
+	}
+
+	/**
+	 * Invoked when the render view is detached from its window; blocks until the render thread
+	 * has exited.
+	 */
+	public void onDetachedFromWindow() {
+		if (renderThread != null) {
+			renderThread.requestExitAndWait();
+		}
+		detached = true;
+	}
+
+	/**
+	 * Invoked when the activity resumes.
+	 */
+	public void onResume() {
+		activityResumed = true;
+		renderThread.onResume();
+		queueEvent(GodotLib::focusin);
+	}
+
+	/**
+	 * Invoked when the activity pauses.
+	 */
+	public void onPause() {
+		activityResumed = false;
+		renderThread.onPause();
+		queueEvent(GodotLib::focusout);
+	}
+
+	/**
+	 * @see SurfaceHolder.Callback#surfaceCreated(SurfaceHolder)
+	 */
+	public void onSurfaceCreated(SurfaceHolder holder) {
+		renderThread.onSurfaceCreated(holder);
+	}
+
+	/**
+	 * @see SurfaceHolder.Callback#surfaceChanged(SurfaceHolder, int, int, int)
+	 */
+	public void onSurfaceChanged(SurfaceHolder holder, int width, int height) {
+		renderThread.onSurfaceChanged(holder, width, height);
+	}
+
+	/**
+	 * Blocks until the render thread has released the surface.
+	 *
+	 * @see SurfaceHolder.Callback#surfaceDestroyed(SurfaceHolder)
+	 */
+	public void onSurfaceDestroyed() {
+		renderThread.onSurfaceDestroyed();
+	}
+
+	public RenderEventQueue getEventQueue() {
+		return eventQueue;
+	}
+
+	public FramePacer getFramePacer() {
+		return framePacer;
+	}
+
+	public FrameMetrics getFrameMetrics() {
+		return frameMetrics;
+	}
+
+	public DynamicResolutionController getDynamicResolutionController() {
+		return dynamicResolutionController;
+	}
+
+	public IdleRenderController getIdleRenderController() {
+		return idleRenderController;
+	}
+
+	/**
+	 * Queue an event to run on the render thread; can be called from any thread.
+	 */
+	public void queueEvent(Runnable event) {
+		eventQueue.queueEvent(event);
+		final GodotRenderThread thread = renderThread;
+		if (thread != null) {
+			thread.wake();
+		}
+		// The event may change what's on screen, so the engine must iterate to act on it.
+		idleRenderController.requestFrame();
+	}
+
+	/**
+	 * Set the maximum time spent running queued events before each frame is drawn, in
+	 * milliseconds, or 0 for no limit. The events left over are run before the next frame.
+	 */
+	public void setEventTimeBudget(long budgetMs) {
+		eventTimeBudgetNs = Math.max(0, budgetMs) * 1_000_000L;
+	}
+
+	/**
+	 * Run the queued events, within the time budget while the renderer is resumed; the events left
+	 * over are run before the next frame.
+	 * <p>
+	 * While the renderer is paused, no frame is drawn to run the events left over by the budget,
+	 * so the whole batch is run.
+	 */
+	void runQueuedEvents() {
+		if (!eventQueue.swapBatch()) {
+			return;
+		}
+
+		if (frameMetrics.isEnabled()) {
+			final long startTime = System.nanoTime();
+			runBatch();
+			frameMetrics.addQueuedEventsTime(System.nanoTime() - startTime);
+		} else {
+			runBatch();
+		}
+	}
+
+	private void runBatch() {
+		eventQueue.runBatch(rendererResumed ? eventTimeBudgetNs : 0);
+	}
+
+	/**
+	 * Set the target frame rate at which frames are paced on the display vsync, or 0 to draw as
+	 * fast as the backend allows. See {@link FramePacer#SUPPORTED_FRAME_RATES} for the valid values.
+	 * <p>
+	 * Can be called from any thread; the change is applied on the render thread.
+	 */
+	public void setTargetFrameRate(int frameRate) {
+		targetFrameRate = frameRate;
+		queueEvent(() -> {
+			framePacer.setTargetFrameRate(frameRate);
+			updateRenderMode();
+		});
+	}
+
+	/**
+	 * Update the vsync period estimate of the frame pacer from the display refresh rate.
+	 */
+	public void setRefreshRate(float refreshRate) {
+		framePacer.setRefreshRate(refreshRate);
+	}
+
+	/**
+	 * Invoked by the {@link IdleRenderController} to switch between continuous and on-demand
+	 * rendering.
+	 */
+	@Override
+	public void setRenderContinuously(boolean continuously) {
+		renderContinuously = continuously;
+		updateRenderMode();
+	}
+
+	@Override
+	public void requestRender() {
+		final GodotRenderThread thread = renderThread;
+		if (thread != null) {
+			thread.requestRender();
+		}
+	}
+
+	@Override
+	public void requestRenderDelayed(long delayMs) {
+		final GodotRenderThread thread = renderThread;
+		if (thread != null) {
+			thread.requestRenderDelayed(delayMs);
+		}
+	}
+
+	/**
+	 * Paced frames are drawn on request, one per frame slot opened by the {@link FramePacer}.
+	 */
+	private void updateRenderMode() {
+		final boolean paced = renderContinuously && framePacer.isEnabled();
+		final GodotRenderThread thread = renderThread;
+		if (thread != null) {
+			thread.setRenderContinuously(renderContinuously && !paced);
+		}
+		if (paced && rendererResumed) {
+			framePacer.start();
+		} else {
+			framePacer.stop();
+		}
+	}
+
+	/**
+	 * Invoked by the render thread when the renderer resumes, with a valid surface.
+	 */
+	void onRendererResumed() {
+		GodotLib.onRendererResumed();
+		frameMetrics.discardPreviousFrameTime();
+		dynamicResolutionController.resetFrameTimes();
+		rendererResumed = true;
+		updateRenderMode();
+	}
+
+	/**
+	 * Invoked by the render thread when the renderer pauses.
+	 */
+	void onRendererPaused() {
+		rendererResumed = false;
+		framePacer.stop();
+		GodotLib.onRendererPaused();
+	}
+
+	/**
+	 * Invoked by the render thread when it exits.
+	 */
+	void onRendererDestroyed() {
+		framePacer.quit();
+	}
+
+	/**
+	 * Iterate the engine and draw the current frame.
+	 *
+	 * @param plugins Plugins to invoke the draw frame callback of
+	 * @param pluginDrawCallback Invokes the API specific draw frame callback of each plugin
+	 */
+	public void drawFrame(GodotPlugin[] plugins, PluginDrawCallback pluginDrawCallback) {
+		dynamicResolutionController.onFrameStart();
+		final boolean recordMetrics = frameMetrics.isEnabled();
+		if (recordMetrics) {
+			frameMetrics.beginFrame();
+		}
+		inputHandler.dispatchQueuedInputEvents();
+		if (recordMetrics) {
+			frameMetrics.endPhase(FrameMetrics.PHASE_INPUT);
+		}
+		final boolean frameDrawn = GodotLib.step();
+		// The engine sleeps at the end of the step to honor its frame rate limit, and Vulkan waits
+		// within the step for the frame to be presented.
+		final long frameDelayNs = dynamicResolutionController.isEnabled() ? GodotLib.getFrameDelay() * 1000L : 0;
+		inputHandler.onFrameProcessed();
+		idleRenderController.onFrameStepped(frameDrawn);
+		if (frameDrawn) {
+			StartupTrace.onFrameDrawn();
+		}
+		if (recordMetrics) {
+			frameMetrics.endPhase(FrameMetrics.PHASE_STEP);
+		}
+		for (GodotPlugin plugin : plugins) {
+			pluginDrawCallback.onPluginDrawFrame(plugin);
+			if (recordMetrics) {
+				frameMetrics.endPlugin(plugin.getPluginName());
+			}
+		}
+		if (recordMetrics) {
+			frameMetrics.endFrame();
+		}
+		dynamicResolutionController.onFrameEnd(frameDelayNs);
+		framePacer.onFrameDrawn();
+	}
+}
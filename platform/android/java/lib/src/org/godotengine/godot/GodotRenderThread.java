@@ -0,0 +1,471 @@
+/*************************************************************************/
+/*  GodotRenderThread.java                                               */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot;
+
+import android.util.Log;
+import android.view.SurfaceHolder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Render thread of a {@link GodotRenderLoop}, shared by the GL and Vulkan render views.
+ * <p>
+ * The thread runs the events queued on the render loop, tracks the pause/resume and surface
+ * state reported by the render view, and drives the {@link GodotRenderLoop.Backend} through the
+ * surface lifecycle and the frames it's asked to draw. It's modeled after
+ * {@link android.opengl.GLSurfaceView}'s GLThread.
+ *
+ * <h3>Threading</h3>
+ * The state setters are called from the UI thread, or from any thread for the render requests;
+ * the backend is only invoked on this thread.
+ */
+class GodotRenderThread extends Thread {
+	private static final String TAG = GodotRenderThread.class.getSimpleName();
+
+	// Actions picked under the lock and run without holding onto it.
+	private static final int ACTION_RELEASE_SURFACE = 0;
+	private static final int ACTION_RUN_EVENTS = 1;
+	private static final int ACTION_CREATE_SURFACE = 2;
+	private static final int ACTION_CHANGE_SURFACE = 3;
+	private static final int ACTION_RESUME = 4;
+	private static final int ACTION_PAUSE = 5;
+	private static final int ACTION_DRAW_FRAME = 6;
+
+	private final GodotRenderLoop renderLoop;
+	private final GodotRenderLoop.Backend backend;
+
+	/**
+	 * Used to synchronize interaction with other threads (e.g: main thread).
+	 */
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition lockCondition = lock.newCondition();
+
+	// Guarded by the lock.
+	private boolean shouldExit = false;
+	private boolean exited = false;
+	private boolean resumed = false;
+	private SurfaceHolder surfaceHolder;
+	private boolean hasSurface = false;
+	private boolean surfaceChanged = false;
+	private int width = 0;
+	private int height = 0;
+	/**
+	 * Set when the backend can't use the current surface; cleared when a new surface is provided.
+	 */
+	private boolean surfaceBad = false;
+
+	/**
+	 * When false, frames are only drawn on request, see {@link #requestRender()}.
+	 */
+	private boolean renderContinuously = true;
+	private boolean renderRequested = false;
+	/**
+	 * {@link System#nanoTime()} at which a delayed render request fires, or 0.
+	 */
+	private long renderRequestTimeNs = 0;
+
+	/**
+	 * Set by the thread once it has released the surface after {@link #onSurfaceDestroyed()}.
+	 */
+	private boolean surfaceReleased = true;
+	/**
+	 * Whether the backend holds onto the surface; only written on this thread.
+	 */
+	private boolean backendHasSurface = false;
+
+	// Only accessed on this thread.
+	private boolean rendererResumed = false;
+
+	GodotRenderThread(GodotRenderLoop renderLoop, GodotRenderLoop.Backend backend) {
+		super(TAG);
+		this.renderLoop = renderLoop;
+		this.backend = backend;
+	}
+
+	/**
+	 * Determine when drawing can occur on the thread: once the surface is available and usable,
+	 * and the app is resumed.
+	 */
+	private boolean isReadyToDraw() {
+		return hasSurface && !surfaceBad && resumed;
+	}
+
+	/**
+	 * Wake the thread up to run the events queued on the render loop.
+	 */
+	void wake() {
+		lock.lock();
+		try {
+			lockCondition.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Switch between continuous rendering and rendering on request.
+	 */
+	void setRenderContinuously(boolean continuously) {
+		lock.lock();
+		try {
+			if (renderContinuously == continuously) {
+				return;
+			}
+			renderContinuously = continuously;
+			renderRequestTimeNs = 0;
+			lockCondition.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Request a frame to be drawn when rendering on request.
+	 */
+	void requestRender() {
+		lock.lock();
+		try {
+			renderRequested = true;
+			lockCondition.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Request a frame to be drawn after the given delay when rendering on request, replacing any
+	 * previously delayed request.
+	 */
+	void requestRenderDelayed(long delayMs) {
+		lock.lock();
+		try {
+			renderRequestTimeNs = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+			lockCondition.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Request the thread to exit and block until it's done.
+	 */
+	void requestExitAndWait() {
+		lock.lock();
+		try {
+			shouldExit = true;
+			lockCondition.signalAll();
+			while (!exited) {
+				try {
+					Log.i(TAG, "Waiting on exit for " + getName());
+					lockCondition.await();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Invoked when the app resumes.
+	 */
+	void onResume() {
+		lock.lock();
+		try {
+			resumed = true;
+			renderRequested = true;
+			lockCondition.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Invoked when the app pauses.
+	 */
+	void onPause() {
+		lock.lock();
+		try {
+			resumed = false;
+			lockCondition.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Invoked when the {@link android.view.Surface} has been created.
+	 */
+	void onSurfaceCreated(SurfaceHolder holder) {
+		lock.lock();
+		try {
+			surfaceHolder = holder;
+			// Drawing starts with the size provided by the following onSurfaceChanged().
+			surfaceBad = false;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Invoked following structural updates to the {@link android.view.Surface}.
+	 */
+	void onSurfaceChanged(SurfaceHolder holder, int width, int height) {
+		lock.lock();
+		try {
+			surfaceHolder = holder;
+			hasSurface = true;
+			surfaceReleased = false;
+			surfaceChanged = true;
+			surfaceBad = false;
+			renderRequested = true;
+			this.width = width;
+			this.height = height;
+			lockCondition.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Invoked when the {@link android.view.Surface} is about to be destroyed; blocks until the
+	 * thread has released it.
+	 */
+	void onSurfaceDestroyed() {
+		lock.lock();
+		try {
+			hasSurface = false;
+			surfaceReleased = false;
+			lockCondition.signalAll();
+			while (!surfaceReleased && !exited) {
+				try {
+					lockCondition.await();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void run() {
+		try {
+			// Whether a batch of events already ran since the last frame was drawn.
+			boolean ranEventsThisFrame = false;
+			while (true) {
+				// The backend and the render loop are invoked without holding onto the lock, so the
+				// engine can't block the UI thread while it runs.
+				int action;
+				SurfaceHolder holder;
+				int surfaceWidth;
+				int surfaceHeight;
+				lock.lock();
+				try {
+					while (true) {
+						// Code path for exiting the thread loop.
+						if (shouldExit) {
+							return;
+						}
+
+						// The surface is going away: release it before onSurfaceDestroyed() returns.
+						if (!hasSurface && !surfaceReleased) {
+							if (rendererResumed || backendHasSurface) {
+								action = ACTION_RELEASE_SURFACE;
+								break;
+							}
+							surfaceReleased = true;
+							lockCondition.signalAll();
+						}
+
+						// Check for events and execute them outside of the loop if found to avoid
+						// blocking the thread lifecycle by holding onto the lock.
+						// Only one batch runs between two frames so events can't starve drawing, unless
+						// no frame is due yet (rendering on request, e.g. while the render loop paces
+						// frames or is idle).
+						if (!renderContinuously && renderRequestTimeNs != 0 && System.nanoTime() >= renderRequestTimeNs) {
+							renderRequestTimeNs = 0;
+							renderRequested = true;
+						}
+						final boolean frameWanted = renderContinuously || renderRequested;
+						final boolean readyToDraw = isReadyToDraw();
+						if (renderLoop.getEventQueue().swapBatch() && (!ranEventsThisFrame || !readyToDraw || !frameWanted)) {
+							action = ACTION_RUN_EVENTS;
+							break;
+						}
+
+						if (readyToDraw) {
+							if (!backendHasSurface) {
+								action = ACTION_CREATE_SURFACE;
+								break;
+							}
+							if (surfaceChanged) {
+								surfaceChanged = false;
+								action = ACTION_CHANGE_SURFACE;
+								break;
+							}
+							// The renderer resumes once it has a surface to draw on.
+							if (!rendererResumed) {
+								action = ACTION_RESUME;
+								break;
+							}
+							if (frameWanted) {
+								renderRequested = false;
+								action = ACTION_DRAW_FRAME;
+								break;
+							}
+						} else if (rendererResumed) {
+							// If we aren't ready to draw but are resumed, that means we either lost a surface
+							// or the app was paused.
+							action = ACTION_PAUSE;
+							break;
+						}
+
+						// We only reach this state if we are not ready to draw, or waiting for a render
+						// request, and have no queued events, so we wait.
+						// On state change, the thread will be awoken using the lock and its condition, and
+						// we will resume execution.
+						if (!renderContinuously && renderRequestTimeNs != 0) {
+							lockCondition.awaitNanos(renderRequestTimeNs - System.nanoTime());
+						} else {
+							lockCondition.await();
+						}
+					}
+					holder = surfaceHolder;
+					surfaceWidth = width;
+					surfaceHeight = height;
+				} finally {
+					lock.unlock();
+				}
+
+				switch (action) {
+					case ACTION_RELEASE_SURFACE:
+						pauseRenderer();
+						releaseSurface();
+						break;
+
+					case ACTION_RUN_EVENTS:
+						// Run the queued events, within the time budget.
+						renderLoop.runQueuedEvents();
+						ranEventsThisFrame = true;
+						break;
+
+					case ACTION_CREATE_SURFACE: {
+						final boolean created = backend.onSurfaceCreated(holder);
+						lock.lock();
+						try {
+							if (created) {
+								backendHasSurface = true;
+								surfaceChanged = true;
+							} else {
+								// Wait for a new surface.
+								surfaceBad = true;
+							}
+						} finally {
+							lock.unlock();
+						}
+					} break;
+
+					case ACTION_CHANGE_SURFACE:
+						backend.onSurfaceChanged(holder, surfaceWidth, surfaceHeight);
+						break;
+
+					case ACTION_RESUME:
+						rendererResumed = true;
+						renderLoop.onRendererResumed();
+						break;
+
+					case ACTION_PAUSE:
+						pauseRenderer();
+						break;
+
+					case ACTION_DRAW_FRAME:
+						if (!backend.onDrawFrame()) {
+							// The backend released the surface it could no longer draw to; it's created
+							// again before the next frame.
+							setBackendHasSurface(false);
+						}
+						ranEventsThisFrame = false;
+						break;
+				}
+			}
+		} catch (InterruptedException ex) {
+			Log.i(TAG, "InterruptedException", ex);
+		} finally {
+			threadExiting();
+		}
+	}
+
+	private void pauseRenderer() {
+		if (rendererResumed) {
+			rendererResumed = false;
+			renderLoop.onRendererPaused();
+		}
+	}
+
+	private void releaseSurface() {
+		if (backendHasSurface) {
+			backend.onSurfaceDestroyed();
+			setBackendHasSurface(false);
+		}
+	}
+
+	private void setBackendHasSurface(boolean hasSurface) {
+		lock.lock();
+		try {
+			backendHasSurface = hasSurface;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void threadExiting() {
+		try {
+			pauseRenderer();
+			releaseSurface();
+			backend.onRenderThreadExiting();
+			renderLoop.onRendererDestroyed();
+		} finally {
+			lock.lock();
+			try {
+				exited = true;
+				lockCondition.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+}
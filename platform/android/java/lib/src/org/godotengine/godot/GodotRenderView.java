@@ -34,6 +34,8 @@ import org.godotengine.godot.input.GodotInputHandler;
 
 import android.view.SurfaceView;
 
+import androidx.annotation.Nullable;
+
 public interface GodotRenderView {
 	SurfaceView getView();
 
@@ -48,5 +50,18 @@ public interface GodotRenderView {
 
 	GodotInputHandler getInputHandler();
 
+	GodotRenderLoop getRenderLoop();
+
+	/**
+	 * Returns the controller scaling the resolution of the view, or null if the view doesn't
+	 * support it.
+	 */
+	@Nullable
+	default DynamicResolutionController getDynamicResolutionController() {
+		return null;
+	}
+
+	IdleRenderController getIdleRenderController();
+
 	void setPointerIcon(int pointerType);
 }
@@ -32,57 +32,165 @@ package org.godotengine.godot;
 
 import org.godotengine.godot.plugin.GodotPlugin;
 import org.godotengine.godot.plugin.GodotPluginRegistry;
-import org.godotengine.godot.utils.GLUtils;
 
 import android.opengl.GLSurfaceView;
+import android.util.Log;
+import android.view.SurfaceHolder;
 
+import javax.microedition.khronos.egl.EGL10;
+import javax.microedition.khronos.egl.EGL11;
 import javax.microedition.khronos.egl.EGLConfig;
+import javax.microedition.khronos.egl.EGLContext;
+import javax.microedition.khronos.egl.EGLDisplay;
+import javax.microedition.khronos.egl.EGLSurface;
 import javax.microedition.khronos.opengles.GL10;
 
 /**
- * Godot's renderer implementation.
+ * Godot's renderer implementation, the GL backend of the {@link GodotRenderLoop}.
+ * <p>
+ * The renderer manages the EGL display, context and window surface of the
+ * {@link GodotGLRenderView}. The context is kept while the app is paused or the surface is
+ * recreated, and only released when the render thread exits or the context is lost.
  */
-class GodotRenderer implements GLSurfaceView.Renderer {
+class GodotRenderer implements GodotRenderLoop.Backend, GodotRenderLoop.PluginDrawCallback {
+	private static final String TAG = GodotRenderer.class.getSimpleName();
+
 	private final GodotPluginRegistry pluginRegistry;
-	private boolean activityJustResumed = false;
+	private final GodotRenderLoop renderLoop;
+	private final GLSurfaceView.EGLConfigChooser configChooser;
+	private final GLSurfaceView.EGLContextFactory contextFactory;
+	private final GLSurfaceView.EGLWindowSurfaceFactory windowSurfaceFactory;
+
+	// Only accessed on the render thread.
+	private EGL10 egl;
+	private EGLDisplay eglDisplay = EGL10.EGL_NO_DISPLAY;
+	private EGLConfig eglConfig;
+	private EGLContext eglContext = EGL10.EGL_NO_CONTEXT;
+	private EGLSurface eglSurface = EGL10.EGL_NO_SURFACE;
+	private GL10 gl;
 
-	GodotRenderer() {
+	GodotRenderer(GodotRenderLoop renderLoop, GLSurfaceView.EGLConfigChooser configChooser,
+			GLSurfaceView.EGLContextFactory contextFactory, GLSurfaceView.EGLWindowSurfaceFactory windowSurfaceFactory) {
 		this.pluginRegistry = GodotPluginRegistry.getPluginRegistry();
+		this.renderLoop = renderLoop;
+		this.configChooser = configChooser;
+		this.contextFactory = contextFactory;
+		this.windowSurfaceFactory = windowSurfaceFactory;
 	}
 
-	public void onDrawFrame(GL10 gl) {
-		if (activityJustResumed) {
-			GodotLib.onRendererResumed();
-			activityJustResumed = false;
+	@Override
+	public boolean onSurfaceCreated(SurfaceHolder holder) {
+		final boolean contextCreated = eglContext == EGL10.EGL_NO_CONTEXT;
+		if (contextCreated) {
+			createContext();
+		}
+
+		eglSurface = windowSurfaceFactory.createWindowSurface(egl, eglDisplay, eglConfig, holder);
+		if (eglSurface == null || eglSurface == EGL10.EGL_NO_SURFACE) {
+			eglSurface = EGL10.EGL_NO_SURFACE;
+			if (egl.eglGetError() == EGL10.EGL_BAD_NATIVE_WINDOW) {
+				Log.e(TAG, "createWindowSurface returned EGL_BAD_NATIVE_WINDOW.");
+			}
+			return false;
 		}
 
-		GodotLib.step();
-		for (GodotPlugin plugin : pluginRegistry.getAllPlugins()) {
-			plugin.onGLDrawFrame(gl);
+		if (!egl.eglMakeCurrent(eglDisplay, eglSurface, eglSurface, eglContext)) {
+			Log.w(TAG, String.format("eglMakeCurrent failed: EGL error: 0x%x", egl.eglGetError()));
+			destroySurface();
+			return false;
 		}
+
+		if (contextCreated) {
+			GodotLib.newcontext(null);
+			for (GodotPlugin plugin : pluginRegistry.getGLSurfaceCreatedPlugins()) {
+				plugin.onGLSurfaceCreated(gl, eglConfig);
+			}
+		}
+		return true;
 	}
 
-	public void onSurfaceChanged(GL10 gl, int width, int height) {
+	@Override
+	public void onSurfaceChanged(SurfaceHolder holder, int width, int height) {
 		GodotLib.resize(null, width, height);
-		for (GodotPlugin plugin : pluginRegistry.getAllPlugins()) {
+		for (GodotPlugin plugin : pluginRegistry.getGLSurfaceChangedPlugins()) {
 			plugin.onGLSurfaceChanged(gl, width, height);
 		}
 	}
 
-	public void onSurfaceCreated(GL10 gl, EGLConfig config) {
-		GodotLib.newcontext(null);
-		for (GodotPlugin plugin : pluginRegistry.getAllPlugins()) {
-			plugin.onGLSurfaceCreated(gl, config);
+	@Override
+	public boolean onDrawFrame() {
+		renderLoop.drawFrame(pluginRegistry.getGLDrawFramePlugins(), this);
+
+		if (egl.eglSwapBuffers(eglDisplay, eglSurface)) {
+			return true;
 		}
+
+		final int error = egl.eglGetError();
+		destroySurface();
+		if (error == EGL11.EGL_CONTEXT_LOST) {
+			// The context is created again along with the surface, and the engine notified.
+			Log.i(TAG, "EGL context lost");
+			destroyContext();
+		} else {
+			Log.w(TAG, String.format("eglSwapBuffers failed: EGL error: 0x%x", error));
+		}
+		return false;
+	}
+
+	@Override
+	public void onPluginDrawFrame(GodotPlugin plugin) {
+		plugin.onGLDrawFrame(gl);
+	}
+
+	@Override
+	public void onSurfaceDestroyed() {
+		destroySurface();
 	}
 
-	void onActivityResumed() {
-		// We defer invoking GodotLib.onRendererResumed() until the first draw frame call.
-		// This ensures we have a valid GL context and surface when we do so.
-		activityJustResumed = true;
+	@Override
+	public void onRenderThreadExiting() {
+		destroySurface();
+		destroyContext();
 	}
 
-	void onActivityPaused() {
-		GodotLib.onRendererPaused();
+	private void createContext() {
+		egl = (EGL10)EGLContext.getEGL();
+		eglDisplay = egl.eglGetDisplay(EGL10.EGL_DEFAULT_DISPLAY);
+		if (eglDisplay == EGL10.EGL_NO_DISPLAY) {
+			throw new RuntimeException("eglGetDisplay failed");
+		}
+
+		int[] version = new int[2];
+		if (!egl.eglInitialize(eglDisplay, version)) {
+			throw new RuntimeException("eglInitialize failed");
+		}
+
+		eglConfig = configChooser.chooseConfig(egl, eglDisplay);
+		eglContext = contextFactory.createContext(egl, eglDisplay, eglConfig);
+		if (eglContext == null || eglContext == EGL10.EGL_NO_CONTEXT) {
+			eglContext = EGL10.EGL_NO_CONTEXT;
+			throw new RuntimeException(String.format("createContext failed: EGL error: 0x%x", egl.eglGetError()));
+		}
+		gl = (GL10)eglContext.getGL();
+	}
+
+	private void destroySurface() {
+		if (eglSurface != EGL10.EGL_NO_SURFACE) {
+			egl.eglMakeCurrent(eglDisplay, EGL10.EGL_NO_SURFACE, EGL10.EGL_NO_SURFACE, EGL10.EGL_NO_CONTEXT);
+			windowSurfaceFactory.destroySurface(egl, eglDisplay, eglSurface);
+			eglSurface = EGL10.EGL_NO_SURFACE;
+		}
+	}
+
+	private void destroyContext() {
+		if (eglContext != EGL10.EGL_NO_CONTEXT) {
+			contextFactory.destroyContext(egl, eglDisplay, eglContext);
+			eglContext = EGL10.EGL_NO_CONTEXT;
+			gl = null;
+		}
+		if (eglDisplay != EGL10.EGL_NO_DISPLAY) {
+			egl.eglTerminate(eglDisplay);
+			eglDisplay = EGL10.EGL_NO_DISPLAY;
+		}
 	}
 }
@@ -0,0 +1,116 @@
+/*************************************************************************/
+/*  GodotStartup.java                                                    */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot;
+
+import org.godotengine.godot.utils.StartupTrace;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the independent steps of the Godot startup on background threads, so they overlap with
+ * each other and with the work which must stay on the main thread.
+ *
+ * The main thread keeps the ordering into {@link GodotLib#initialize} by awaiting the result of
+ * each step right before it's needed, see {@link #await(Future)}.
+ */
+class GodotStartup {
+	private static final String TAG = GodotStartup.class.getSimpleName();
+
+	private static final int THREAD_COUNT = 3;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT, runnable -> new Thread(runnable, TAG));
+
+	/**
+	 * Start running a startup step in the background, traced as a {@link StartupTrace} section.
+	 */
+	<T> Future<T> submit(String name, Callable<T> step) {
+		return executor.submit(() -> {
+			StartupTrace.beginSection(name);
+			try {
+				return step.call();
+			} finally {
+				StartupTrace.endSection();
+			}
+		});
+	}
+
+	/**
+	 * Returns the executor running the startup steps, for the components splitting their own
+	 * work across it.
+	 */
+	ExecutorService getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Let the steps already submitted complete, and release the threads afterward.
+	 */
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Wait for a startup step to complete, and return its result.
+	 *
+	 * Errors and runtime exceptions thrown by the step are rethrown as-is, so a failure (e.g. an
+	 * {@link UnsatisfiedLinkError} when loading the native library) surfaces on the calling
+	 * thread as it did when the step ran there.
+	 */
+	static <T> T await(Future<T> future) {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					return future.get();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof Error) {
+				throw (Error)cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException)cause;
+			}
+			throw new IllegalStateException("Startup step failed", cause);
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -33,24 +33,29 @@ package org.godotengine.godot;
 import org.godotengine.godot.input.GodotGestureHandler;
 import org.godotengine.godot.input.GodotInputHandler;
 import org.godotengine.godot.vulkan.VkRenderer;
-import org.godotengine.godot.vulkan.VkSurfaceView;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.os.Build;
+import android.view.Display;
 import android.view.GestureDetector;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 import android.view.PointerIcon;
+import android.view.SurfaceHolder;
 import android.view.SurfaceView;
 
 import androidx.annotation.Keep;
 
-public class GodotVulkanRenderView extends VkSurfaceView implements GodotRenderView {
+/**
+ * A SurfaceView sub-class displaying the Vulkan rendering done on the render thread of a
+ * {@link GodotRenderLoop}, through a {@link VkRenderer}.
+ */
+public class GodotVulkanRenderView extends SurfaceView implements GodotRenderView, SurfaceHolder.Callback {
 	private final Godot godot;
 	private final GodotInputHandler mInputHandler;
 	private final GestureDetector mGestureDetector;
-	private final VkRenderer mRenderer;
+	private final GodotRenderLoop mRenderLoop;
 	private PointerIcon pointerIcon;
 
 	public GodotVulkanRenderView(Context context, Godot godot) {
@@ -59,12 +64,14 @@ public class GodotVulkanRenderView extends VkSurfaceView implements GodotRenderV
 		this.godot = godot;
 		mInputHandler = new GodotInputHandler(this);
 		mGestureDetector = new GestureDetector(context, new GodotGestureHandler(this));
-		mRenderer = new VkRenderer();
+		mRenderLoop = new GodotRenderLoop(mInputHandler, godot.getFrameMetrics(), new DynamicResolutionController(this, mInputHandler));
 		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
 			pointerIcon = PointerIcon.getSystemIcon(getContext(), PointerIcon.TYPE_DEFAULT);
 		}
+		setClickable(true);
 		setFocusableInTouchMode(true);
-		startRenderer(mRenderer);
+		getHolder().addCallback(this);
+		mRenderLoop.start(new VkRenderer(mRenderLoop));
 	}
 
 	@Override
@@ -79,17 +86,69 @@ public class GodotVulkanRenderView extends VkSurfaceView implements GodotRenderV
 
 	@Override
 	public void queueOnRenderThread(Runnable event) {
-		queueOnVkThread(event);
+		mRenderLoop.queueEvent(event);
+	}
+
+	@Override
+	public GodotRenderLoop getRenderLoop() {
+		return mRenderLoop;
+	}
+
+	@Override
+	public DynamicResolutionController getDynamicResolutionController() {
+		return mRenderLoop.getDynamicResolutionController();
+	}
+
+	@Override
+	public IdleRenderController getIdleRenderController() {
+		return mRenderLoop.getIdleRenderController();
+	}
+
+	@Override
+	public void surfaceCreated(SurfaceHolder holder) {
+		mRenderLoop.onSurfaceCreated(holder);
+	}
+
+	@Override
+	public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+		final Display display = getDisplay();
+		if (display != null) {
+			mRenderLoop.setRefreshRate(display.getRefreshRate());
+		}
+		mRenderLoop.onSurfaceChanged(holder, width, height);
+	}
+
+	@Override
+	public void surfaceDestroyed(SurfaceHolder holder) {
+		mRenderLoop.onSurfaceDestroyed();
+	}
+
+	@Override
+	protected void onAttachedToWindow() {
+		super.onAttachedToWindow();
+		mRenderLoop.onAttachedToWindow();
+	}
+
+	@Override
+	protected void onDetachedFromWindow() {
+		mRenderLoop.onDetachedFromWindow();
+		super.onDetachedFromWindow();
+	}
+
+	@Override
+	protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+		super.onSizeChanged(w, h, oldw, oldh);
+		mRenderLoop.getDynamicResolutionController().onViewSizeChanged();
 	}
 
 	@Override
 	public void onActivityPaused() {
-		onPause();
+		mRenderLoop.onPause();
 	}
 
 	@Override
 	public void onActivityResumed() {
-		onResume();
+		mRenderLoop.onResume();
 	}
 
 	@Override
@@ -144,26 +203,4 @@ public class GodotVulkanRenderView extends VkSurfaceView implements GodotRenderV
 	public PointerIcon onResolvePointerIcon(MotionEvent me, int pointerIndex) {
 		return pointerIcon;
 	}
-
-	@Override
-	public void onResume() {
-		super.onResume();
-
-		queueOnVkThread(() -> {
-			// Resume the renderer
-			mRenderer.onVkResume();
-			GodotLib.focusin();
-		});
-	}
-
-	@Override
-	public void onPause() {
-		super.onPause();
-
-		queueOnVkThread(() -> {
-			GodotLib.focusout();
-			// Pause the renderer
-			mRenderer.onVkPause();
-		});
-	}
 }
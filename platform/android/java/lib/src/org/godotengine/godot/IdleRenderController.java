@@ -0,0 +1,181 @@
+/*************************************************************************/
+/*  IdleRenderController.java                                            */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stops the render loop from redrawing identical frames when the engine runs in low processor
+ * usage mode and nothing changed.
+ * <p>
+ * After each engine iteration, the renderer reports whether a frame was drawn. Once several
+ * iterations in a row drew nothing, the render loop switches to on-demand rendering, and only
+ * iterates again when woken up by {@link #requestFrame()} (input, events queued on the render
+ * thread, plugin requests...) or by the heartbeat, which keeps timers and animations started from
+ * scripts running. As soon as an iteration draws a frame, the render loop goes back to
+ * continuous rendering.
+ * <p>
+ * The controller is disabled by default.
+ */
+public class IdleRenderController {
+	/**
+	 * Number of iterations in a row without a drawn frame before the render loop goes idle.
+	 */
+	private static final int IDLE_FRAMES_THRESHOLD = 3;
+
+	private static final long DEFAULT_HEARTBEAT_MS = 100;
+
+	/**
+	 * Render loop driven by the controller.
+	 */
+	public interface RenderLoop {
+		/**
+		 * Switch between continuous and on-demand rendering.
+		 */
+		void setRenderContinuously(boolean continuously);
+
+		/**
+		 * Request a single frame while rendering on demand.
+		 */
+		void requestRender();
+
+		/**
+		 * Request a single frame after the given delay while rendering on demand, replacing any
+		 * previously delayed request.
+		 */
+		void requestRenderDelayed(long delayMs);
+	}
+
+	private final RenderLoop renderLoop;
+
+	private volatile boolean enabled = false;
+	private volatile long heartbeatMs = DEFAULT_HEARTBEAT_MS;
+	private volatile boolean idle = false;
+	/**
+	 * Set on each frame request and consumed by the next iteration, so a request racing with the
+	 * switch to on-demand rendering isn't lost.
+	 */
+	private final AtomicBoolean frameRequested = new AtomicBoolean(false);
+
+	// Only accessed on the render thread.
+	private int idleFrames = 0;
+
+	public IdleRenderController(RenderLoop renderLoop) {
+		this.renderLoop = renderLoop;
+	}
+
+	/**
+	 * Enable or disable on-demand rendering; disabling it resumes continuous rendering.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		if (!enabled && idle) {
+			idle = false;
+			renderLoop.setRenderContinuously(true);
+		}
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Set the interval at which the engine iterates while rendering on demand, in milliseconds, or
+	 * 0 to only iterate when woken up.
+	 */
+	public void setHeartbeat(long heartbeatMs) {
+		this.heartbeatMs = Math.max(0, heartbeatMs);
+	}
+
+	/**
+	 * Returns true while the render loop renders on demand.
+	 */
+	public boolean isIdle() {
+		return idle;
+	}
+
+	/**
+	 * Wake the render loop up for one iteration if it's idle.
+	 *
+	 * Can be called from any thread.
+	 */
+	public void requestFrame() {
+		// The flag is set before reading the idle state, while the render thread sets the idle
+		// state before consuming the flag, so at least one of them issues the wake-up. Frames
+		// aren't requested while rendering continuously, as it would break the frame pacing.
+		frameRequested.set(true);
+		if (idle) {
+			renderLoop.requestRender();
+		}
+	}
+
+	/**
+	 * Invoked on the render thread after each engine iteration.
+	 *
+	 * @param frameDrawn Whether the iteration drew a frame
+	 */
+	public void onFrameStepped(boolean frameDrawn) {
+		// Consumed on every iteration: while rendering continuously or idle, the request is already
+		// served by the next iteration, so it only matters when switching to on-demand rendering.
+		boolean requested = frameRequested.getAndSet(false);
+		if (!enabled) {
+			return;
+		}
+
+		if (frameDrawn) {
+			idleFrames = 0;
+			if (idle) {
+				idle = false;
+				renderLoop.setRenderContinuously(true);
+			}
+			return;
+		}
+
+		if (!idle) {
+			if (++idleFrames < IDLE_FRAMES_THRESHOLD) {
+				return;
+			}
+			idle = true;
+			renderLoop.setRenderContinuously(false);
+			// Catch the requests made before the idle state was visible to their thread.
+			requested |= frameRequested.getAndSet(false);
+			if (requested) {
+				renderLoop.requestRender();
+				return;
+			}
+		}
+
+		final long heartbeat = heartbeatMs;
+		if (heartbeat > 0) {
+			renderLoop.requestRenderDelayed(heartbeat);
+		}
+	}
+}
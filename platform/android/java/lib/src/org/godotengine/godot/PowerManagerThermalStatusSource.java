@@ -0,0 +1,77 @@
+/*************************************************************************/
+/*  PowerManagerThermalStatusSource.java                                 */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot;
+
+import android.os.Build;
+import android.os.PowerManager;
+
+/**
+ * {@link ThermalGovernor.ThermalStatusSource} backed by the {@link PowerManager} thermal APIs.
+ * <p>
+ * The thermal status is available from Android 10 and the headroom forecast from Android 11;
+ * older devices always report {@link ThermalGovernor#THERMAL_STATUS_NONE}.
+ */
+class PowerManagerThermalStatusSource implements ThermalGovernor.ThermalStatusSource {
+	/**
+	 * How far ahead the thermal headroom is forecast, in seconds.
+	 */
+	private static final int HEADROOM_FORECAST_SECONDS = 10;
+
+	private final PowerManager powerManager;
+
+	PowerManagerThermalStatusSource(PowerManager powerManager) {
+		this.powerManager = powerManager;
+	}
+
+	/**
+	 * Returns true if the device reports its thermal status.
+	 */
+	static boolean isSupported() {
+		return Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q;
+	}
+
+	@Override
+	public int getThermalStatus() {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+			return powerManager.getCurrentThermalStatus();
+		}
+		return ThermalGovernor.THERMAL_STATUS_NONE;
+	}
+
+	@Override
+	public float getThermalHeadroom() {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+			// NaN when unsupported, or when polled more often than once per second.
+			return powerManager.getThermalHeadroom(HEADROOM_FORECAST_SECONDS);
+		}
+		return Float.NaN;
+	}
+}
@@ -0,0 +1,224 @@
+/*************************************************************************/
+/*  RenderEventQueue.java                                                */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot;
+
+import java.util.Arrays;
+
+/**
+ * Queue of the events scheduled on the render thread, see {@link GodotRenderLoop}.
+ * <p>
+ * Events are queued by other threads into a pending batch, which the render thread swaps out as a
+ * whole with a single lock acquisition, then runs without holding the lock. Running a batch can
+ * be bounded by a time budget so a flood of events can't delay the next frame; the events left
+ * over are run, in order, before the next batch.
+ *
+ * <h3>Threading</h3>
+ * {@link #queueEvent(Runnable)} can be called from any thread; {@link #swapBatch()} and
+ * {@link #runBatch(long)} must only be called on the render thread. The metrics can be read from
+ * any thread.
+ */
+public class RenderEventQueue {
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final Object pendingLock = new Object();
+
+	// Events queued since the last swap, guarded by the pending lock.
+	private Runnable[] pendingEvents = new Runnable[INITIAL_CAPACITY];
+	private long[] pendingTimes = new long[INITIAL_CAPACITY];
+	private int pendingCount = 0;
+
+	// Batch being run, only accessed on the render thread.
+	private Runnable[] batchEvents = new Runnable[INITIAL_CAPACITY];
+	private long[] batchTimes = new long[INITIAL_CAPACITY];
+	private int batchCount = 0;
+	private int batchIndex = 0;
+
+	private volatile int lastBatchSize = 0;
+	private volatile int maxBatchSize = 0;
+	private volatile long eventCount = 0;
+	private volatile long totalWaitTimeNs = 0;
+	private volatile long maxWaitTimeNs = 0;
+	private volatile int budgetExceededCount = 0;
+
+	/**
+	 * Number of events in the last swapped batch.
+	 */
+	public int getLastBatchSize() {
+		return lastBatchSize;
+	}
+
+	/**
+	 * Largest batch swapped since the last {@link #resetMetrics()}.
+	 */
+	public int getMaxBatchSize() {
+		return maxBatchSize;
+	}
+
+	/**
+	 * Number of events run since the last {@link #resetMetrics()}.
+	 */
+	public long getEventCount() {
+		return eventCount;
+	}
+
+	/**
+	 * Max time events waited in the queue before being run since the last {@link #resetMetrics()},
+	 * in nanoseconds.
+	 */
+	public long getMaxWaitTimeNs() {
+		return maxWaitTimeNs;
+	}
+
+	/**
+	 * Average time events waited in the queue before being run, in nanoseconds.
+	 */
+	public long getAverageWaitTimeNs() {
+		final long count = eventCount;
+		return count == 0 ? 0 : totalWaitTimeNs / count;
+	}
+
+	/**
+	 * Number of times the time budget deferred events to the next frame since the last
+	 * {@link #resetMetrics()}.
+	 */
+	public int getBudgetExceededCount() {
+		return budgetExceededCount;
+	}
+
+	public void resetMetrics() {
+		maxBatchSize = 0;
+		eventCount = 0;
+		totalWaitTimeNs = 0;
+		maxWaitTimeNs = 0;
+		budgetExceededCount = 0;
+	}
+
+	/**
+	 * Queue an event; can be called from any thread.
+	 */
+	public void queueEvent(Runnable event) {
+		synchronized (pendingLock) {
+			if (pendingCount == pendingEvents.length) {
+				pendingEvents = Arrays.copyOf(pendingEvents, pendingCount * 2);
+				pendingTimes = Arrays.copyOf(pendingTimes, pendingCount * 2);
+			}
+			pendingEvents[pendingCount] = event;
+			pendingTimes[pendingCount] = System.nanoTime();
+			pendingCount++;
+		}
+	}
+
+	/**
+	 * Whether the given event is the last one queued and not yet swapped; can be called from any
+	 * thread. Lets a caller append work to its queued event without reordering it past later ones.
+	 */
+	public boolean isLastPending(Runnable event) {
+		synchronized (pendingLock) {
+			return pendingCount > 0 && pendingEvents[pendingCount - 1] == event;
+		}
+	}
+
+	/**
+	 * Whether events from the current batch are left to run.
+	 */
+	public boolean hasBatch() {
+		return batchIndex < batchCount;
+	}
+
+	/**
+	 * Swap the pending events in as the batch to run, if the current batch is done; must be called
+	 * on the render thread.
+	 *
+	 * @return true if there are events to run
+	 */
+	public boolean swapBatch() {
+		if (hasBatch()) {
+			return true;
+		}
+
+		synchronized (pendingLock) {
+			if (pendingCount == 0) {
+				return false;
+			}
+
+			final Runnable[] events = batchEvents;
+			final long[] times = batchTimes;
+			batchEvents = pendingEvents;
+			batchTimes = pendingTimes;
+			batchCount = pendingCount;
+			batchIndex = 0;
+			pendingEvents = events;
+			pendingTimes = times;
+			pendingCount = 0;
+		}
+
+		lastBatchSize = batchCount;
+		if (batchCount > maxBatchSize) {
+			maxBatchSize = batchCount;
+		}
+		return true;
+	}
+
+	/**
+	 * Run the events of the current batch; must be called on the render thread.
+	 *
+	 * @param timeBudgetNs Time after which the remaining events are deferred, or 0 to run the whole batch
+	 */
+	public void runBatch(long timeBudgetNs) {
+		final long startTime = System.nanoTime();
+		long now = startTime;
+		int ranEvents = 0;
+		while (batchIndex < batchCount) {
+			// Always make progress, even if a single event exceeds the budget.
+			if (timeBudgetNs > 0 && ranEvents > 0 && now - startTime >= timeBudgetNs) {
+				budgetExceededCount++;
+				return;
+			}
+
+			final Runnable event = batchEvents[batchIndex];
+			final long waitTime = now - batchTimes[batchIndex];
+			batchEvents[batchIndex] = null;
+			batchIndex++;
+
+			eventCount++;
+			totalWaitTimeNs += waitTime;
+			if (waitTime > maxWaitTimeNs) {
+				maxWaitTimeNs = waitTime;
+			}
+
+			if (event != null) {
+				event.run();
+			}
+			ranEvents++;
+			now = System.nanoTime();
+		}
+	}
+}
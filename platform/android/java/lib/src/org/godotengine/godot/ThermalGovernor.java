@@ -0,0 +1,227 @@
+/*************************************************************************/
+/*  ThermalGovernor.java                                                 */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot;
+
+/**
+ * Steps the engine's frame rate and render scale down as the device heats up, before thermal
+ * throttling makes the frame rate collapse, and back up once it cools down.
+ * <p>
+ * The thermal state is read from a {@link ThermalStatusSource}, which reports both the current
+ * thermal status and, when available, the thermal headroom forecast so the governor can act ahead
+ * of throttling. Each evaluation maps the thermal state to a throttle level, from
+ * {@link #LEVEL_NONE} to {@link #LEVEL_MAX}, each with its own frame rate cap and render scale
+ * cap:
+ * <ul>
+ * <li>the level is raised as soon as the thermal state calls for it,</li>
+ * <li>the level is lowered one step at a time, and only once the thermal state has called for a
+ * lower level for the whole step-up delay.</li>
+ * </ul>
+ * The policy doesn't depend on the Android framework: the time is passed to {@link #update(long)}
+ * and the caps are applied through a {@link Listener}, so it can run against a simulated thermal
+ * trace on a JVM.
+ */
+public class ThermalGovernor {
+	/**
+	 * Thermal status values, matching the <code>PowerManager.THERMAL_STATUS_*</code> constants.
+	 */
+	public static final int THERMAL_STATUS_NONE = 0;
+	public static final int THERMAL_STATUS_LIGHT = 1;
+	public static final int THERMAL_STATUS_MODERATE = 2;
+	public static final int THERMAL_STATUS_SEVERE = 3;
+
+	public static final int LEVEL_NONE = 0;
+	public static final int LEVEL_MAX = 3;
+
+	/**
+	 * Thermal headroom at or above which each throttle level is applied; a headroom of 1.0 means
+	 * the device is about to be throttled severely.
+	 */
+	private static final float[] HEADROOM_THRESHOLDS = { 0f, 0.7f, 0.85f, 0.95f };
+
+	private static final int[] DEFAULT_MAX_FPS = { 0, 60, 45, 30 };
+	private static final float[] DEFAULT_RENDER_SCALE = { 1f, 0.85f, 0.7f, 0.5f };
+	private static final long DEFAULT_STEP_UP_DELAY_MS = 30000;
+
+	/**
+	 * Provides the device's thermal state.
+	 */
+	public interface ThermalStatusSource {
+		/**
+		 * Returns the current thermal status, one of the <code>THERMAL_STATUS_*</code> values or
+		 * higher.
+		 */
+		int getThermalStatus();
+
+		/**
+		 * Returns the forecast thermal headroom, where 1.0 means severe throttling, or
+		 * {@link Float#NaN} if unavailable.
+		 */
+		float getThermalHeadroom();
+	}
+
+	/**
+	 * Applies the caps of the throttle level.
+	 */
+	public interface Listener {
+		/**
+		 * Invoked when the throttle level changes.
+		 *
+		 * @param level New throttle level
+		 * @param maxFps Frame rate cap, or 0 for no cap
+		 * @param maxRenderScale Render scale cap, as a fraction of the full resolution
+		 */
+		void onThrottleLevelChanged(int level, int maxFps, float maxRenderScale);
+	}
+
+	private final ThermalStatusSource source;
+	private final Listener listener;
+
+	private int[] maxFpsSteps = DEFAULT_MAX_FPS;
+	private float[] renderScaleSteps = DEFAULT_RENDER_SCALE;
+	private long stepUpDelayMs = DEFAULT_STEP_UP_DELAY_MS;
+
+	private int level = LEVEL_NONE;
+	/**
+	 * Time since which the thermal state has called for a lower level, or -1.
+	 */
+	private long coolingSinceMs = -1;
+
+	public ThermalGovernor(ThermalStatusSource source, Listener listener) {
+		this.source = source;
+		this.listener = listener;
+	}
+
+	/**
+	 * Set the frame rate cap (0 for none) and render scale cap of each throttle level, from
+	 * {@link #LEVEL_NONE} to {@link #LEVEL_MAX}.
+	 */
+	public synchronized void setSteps(int[] maxFps, float[] renderScale) {
+		if (maxFps.length != LEVEL_MAX + 1 || renderScale.length != LEVEL_MAX + 1) {
+			throw new IllegalArgumentException("Expected " + (LEVEL_MAX + 1) + " steps");
+		}
+		maxFpsSteps = maxFps.clone();
+		renderScaleSteps = renderScale.clone();
+	}
+
+	/**
+	 * Set how long the thermal state must call for a lower level before stepping back up.
+	 */
+	public synchronized void setStepUpDelay(long delayMs) {
+		stepUpDelayMs = delayMs;
+	}
+
+	public synchronized int getThrottleLevel() {
+		return level;
+	}
+
+	/**
+	 * Returns the throttle level the given thermal state calls for.
+	 */
+	static int computeTargetLevel(int thermalStatus, float thermalHeadroom) {
+		int target;
+		if (thermalStatus >= THERMAL_STATUS_SEVERE) {
+			target = LEVEL_MAX;
+		} else if (thermalStatus == THERMAL_STATUS_MODERATE) {
+			target = 2;
+		} else if (thermalStatus == THERMAL_STATUS_LIGHT) {
+			target = 1;
+		} else {
+			target = LEVEL_NONE;
+		}
+
+		if (!Float.isNaN(thermalHeadroom)) {
+			for (int i = LEVEL_MAX; i > target; i--) {
+				if (thermalHeadroom >= HEADROOM_THRESHOLDS[i]) {
+					target = i;
+					break;
+				}
+			}
+		}
+		return target;
+	}
+
+	/**
+	 * Evaluate the thermal state and update the throttle level.
+	 *
+	 * @param nowMs Current time, in milliseconds, from a monotonic clock
+	 * @return the throttle level
+	 */
+	public int update(long nowMs) {
+		final int target = computeTargetLevel(source.getThermalStatus(), source.getThermalHeadroom());
+		final int newLevel;
+		final int maxFps;
+		final float maxRenderScale;
+		synchronized (this) {
+			if (target > level) {
+				coolingSinceMs = -1;
+				newLevel = target;
+			} else if (target < level) {
+				if (coolingSinceMs < 0) {
+					coolingSinceMs = nowMs;
+				}
+				if (nowMs - coolingSinceMs >= stepUpDelayMs) {
+					// Restart the delay for the next step.
+					coolingSinceMs = nowMs;
+					newLevel = level - 1;
+				} else {
+					newLevel = level;
+				}
+			} else {
+				coolingSinceMs = -1;
+				newLevel = level;
+			}
+
+			if (newLevel == level) {
+				return level;
+			}
+			level = newLevel;
+			maxFps = maxFpsSteps[newLevel];
+			maxRenderScale = renderScaleSteps[newLevel];
+		}
+
+		listener.onThrottleLevelChanged(newLevel, maxFps, maxRenderScale);
+		return newLevel;
+	}
+
+	/**
+	 * Return to {@link #LEVEL_NONE}, e.g: when the governor is disabled.
+	 */
+	public void reset() {
+		synchronized (this) {
+			coolingSinceMs = -1;
+			if (level == LEVEL_NONE) {
+				return;
+			}
+			level = LEVEL_NONE;
+		}
+		listener.onThrottleLevelChanged(LEVEL_NONE, maxFpsSteps[LEVEL_NONE], renderScaleSteps[LEVEL_NONE]);
+	}
+}
@@ -30,7 +30,6 @@
 
 package org.godotengine.godot.input;
 
-import org.godotengine.godot.GodotLib;
 import org.godotengine.godot.GodotRenderView;
 
 import android.view.GestureDetector;
@@ -75,7 +74,7 @@ public class GodotGestureHandler extends GestureDetector.SimpleOnGestureListener
 		final int x = Math.round(event.getX());
 		final int y = Math.round(event.getY());
 		final int buttonMask = event.getButtonState();
-		GodotLib.doubleTap(buttonMask, x, y);
+		mRenderView.getInputHandler().getInputEventBuffer().queueDoubleTapEvent(event.getEventTime(), buttonMask, x, y);
 		return true;
 	}
 
@@ -84,7 +83,7 @@ public class GodotGestureHandler extends GestureDetector.SimpleOnGestureListener
 		//Log.i("GodotGesture", "onScroll");
 		final int x = Math.round(distanceX);
 		final int y = Math.round(distanceY);
-		GodotLib.scroll(x, y);
+		mRenderView.getInputHandler().getInputEventBuffer().queueScrollEvent(e2.getEventTime(), x, y);
 		return true;
 	}
 
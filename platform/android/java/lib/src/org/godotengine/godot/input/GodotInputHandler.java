@@ -34,8 +34,10 @@ import static org.godotengine.godot.utils.GLUtils.DEBUG;
 
 import org.godotengine.godot.GodotLib;
 import org.godotengine.godot.GodotRenderView;
+import org.godotengine.godot.IdleRenderController;
 import org.godotengine.godot.input.InputManagerCompat.InputDeviceListener;
 
+import android.hardware.Sensor;
 import android.os.Build;
 import android.util.Log;
 import android.util.SparseArray;
@@ -45,9 +47,11 @@ import android.view.InputDevice.MotionRange;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -62,10 +66,36 @@ public class GodotInputHandler implements InputDeviceListener {
 	private final SparseIntArray mJoystickIds = new SparseIntArray(4);
 	private final SparseArray<Joystick> mJoysticksDevices = new SparseArray<>(4);
 
+	private final InputLatencyTracker mInputLatencyTracker = new InputLatencyTracker();
+	private final InputEventBuffer mInputEventBuffer = new InputEventBuffer(mInputLatencyTracker);
+	private final JoypadStateBuffer mJoypadStateBuffer = new JoypadStateBuffer();
+
+	private final SensorValueSlot mAccelerometerSlot = new SensorValueSlot();
+	private final SensorValueSlot mGravitySlot = new SensorValueSlot();
+	private final SensorValueSlot mMagnetometerSlot = new SensorValueSlot();
+	private final SensorValueSlot mGyroscopeSlot = new SensorValueSlot();
+
+	/**
+	 * Whether the historical samples batched into move events are forwarded to the engine.
+	 */
+	private volatile boolean mUseHistoricalSamples = true;
+
 	public GodotInputHandler(GodotRenderView godotView) {
 		mRenderView = godotView;
 		mInputManager = InputManagerCompat.Factory.getInputManager(mRenderView.getView().getContext());
 		mInputManager.registerInputDeviceListener(this, null);
+		mInputEventBuffer.setOnEventQueuedListener(this::wakeRenderLoop);
+		LegacyInputEvents.setInputHandler(this);
+	}
+
+	/**
+	 * Wake the render loop up if it's idle, so the queued input is processed.
+	 */
+	void wakeRenderLoop() {
+		final IdleRenderController idleRenderController = mRenderView.getIdleRenderController();
+		if (idleRenderController != null) {
+			idleRenderController.requestFrame();
+		}
 	}
 
 	private boolean isKeyEvent_GameDevice(int source) {
@@ -92,12 +122,12 @@ public class GodotInputHandler implements InputDeviceListener {
 			if (mJoystickIds.indexOfKey(deviceId) >= 0) {
 				final int button = getGodotButton(keyCode);
 				final int godotJoyId = mJoystickIds.get(deviceId);
-				GodotLib.joybutton(godotJoyId, button, false);
+				mInputEventBuffer.queueJoyButtonEvent(event.getEventTime(), godotJoyId, button, false);
 			}
 		} else {
 			final int scanCode = event.getScanCode();
 			final int chr = event.getUnicodeChar(0);
-			GodotLib.key(keyCode, scanCode, chr, false);
+			mInputEventBuffer.queueKeyEvent(event.getEventTime(), keyCode, scanCode, chr, false);
 		}
 
 		return true;
@@ -127,12 +157,12 @@ public class GodotInputHandler implements InputDeviceListener {
 			if (mJoystickIds.indexOfKey(deviceId) >= 0) {
 				final int button = getGodotButton(keyCode);
 				final int godotJoyId = mJoystickIds.get(deviceId);
-				GodotLib.joybutton(godotJoyId, button, true);
+				mInputEventBuffer.queueJoyButtonEvent(event.getEventTime(), godotJoyId, button, true);
 			}
 		} else {
 			final int scanCode = event.getScanCode();
 			final int chr = event.getUnicodeChar(0);
-			GodotLib.key(keyCode, scanCode, chr, true);
+			mInputEventBuffer.queueKeyEvent(event.getEventTime(), keyCode, scanCode, chr, true);
 		}
 
 		return true;
@@ -154,13 +184,6 @@ public class GodotInputHandler implements InputDeviceListener {
 			return true;
 
 		if (mRenderView != null) {
-			final float[] arr = new float[event.getPointerCount() * 3]; // pointerId1, x1, y1, pointerId2, etc...
-
-			for (int i = 0; i < event.getPointerCount(); i++) {
-				arr[i * 3 + 0] = event.getPointerId(i);
-				arr[i * 3 + 1] = event.getX(i);
-				arr[i * 3 + 2] = event.getY(i);
-			}
 			final int action = event.getActionMasked();
 			final int pointer_idx = event.getPointerId(event.getActionIndex());
 
@@ -171,7 +194,7 @@ public class GodotInputHandler implements InputDeviceListener {
 				case MotionEvent.ACTION_MOVE:
 				case MotionEvent.ACTION_POINTER_UP:
 				case MotionEvent.ACTION_POINTER_DOWN: {
-					GodotLib.touch(event.getSource(), action, pointer_idx, evcount, arr);
+					mInputEventBuffer.queueTouchEvent(event, action, pointer_idx, mUseHistoricalSamples);
 				} break;
 			}
 		}
@@ -183,40 +206,24 @@ public class GodotInputHandler implements InputDeviceListener {
 			// Check if the device exists
 			final int deviceId = event.getDeviceId();
 			if (mJoystickIds.indexOfKey(deviceId) >= 0) {
-				final int godotJoyId = mJoystickIds.get(deviceId);
 				Joystick joystick = mJoysticksDevices.get(deviceId);
-
-				for (int i = 0; i < joystick.axes.size(); i++) {
-					final int axis = joystick.axes.get(i);
-					final float value = event.getAxisValue(axis);
-					/**
-					 * As all axes are polled for each event, only fire an axis event if the value has actually changed.
-					 * Prevents flooding Godot with repeated events.
-					 */
-					if (joystick.axesValues.indexOfKey(axis) < 0 || (float)joystick.axesValues.get(axis) != value) {
-						// save value to prevent repeats
-						joystick.axesValues.put(axis, value);
-						final int godotAxisIdx = i;
-						GodotLib.joyaxis(godotJoyId, godotAxisIdx, value);
-					}
-				}
+				mJoypadStateBuffer.update(joystick, event);
 
 				if (joystick.hasAxisHat) {
 					final int hatX = Math.round(event.getAxisValue(MotionEvent.AXIS_HAT_X));
 					final int hatY = Math.round(event.getAxisValue(MotionEvent.AXIS_HAT_Y));
 					if (joystick.hatX != hatX || joystick.hatY != hatY) {
+						// Hat changes are queued as events so a press and release within a frame aren't lost.
 						joystick.hatX = hatX;
 						joystick.hatY = hatY;
-						GodotLib.joyhat(godotJoyId, hatX, hatY);
+						mInputEventBuffer.queueJoyHatEvent(event.getEventTime(), mJoystickIds.get(deviceId), hatX, hatY);
 					}
 				}
+				wakeRenderLoop();
 				return true;
 			}
 		} else if (event.isFromSource(InputDevice.SOURCE_STYLUS)) {
-			final float x = event.getX();
-			final float y = event.getY();
-			final int type = event.getAction();
-			GodotLib.hover(type, x, y);
+			queueHoverEvent(event);
 			return true;
 
 		} else if (event.isFromSource(InputDevice.SOURCE_MOUSE) || event.isFromSource(InputDevice.SOURCE_MOUSE_RELATIVE)) {
@@ -228,6 +235,117 @@ public class GodotInputHandler implements InputDeviceListener {
 		return false;
 	}
 
+	/**
+	 * Enable or disable forwarding of the historical samples batched by Android into touch, mouse
+	 * and stylus move events.
+	 * <p>
+	 * When enabled, every sample is delivered to the engine in chronological order as part of the
+	 * per-frame batch, instead of only the latest one.
+	 */
+	public void setUseHistoricalSamples(boolean useHistoricalSamples) {
+		mUseHistoricalSamples = useHistoricalSamples;
+	}
+
+	/**
+	 * Set the scale from the view coordinates to the render surface coordinates, used when the
+	 * surface is rendered at a lower resolution than the view's size.
+	 */
+	public void setCoordinateScale(float scaleX, float scaleY) {
+		mInputEventBuffer.setCoordinateScale(scaleX, scaleY);
+	}
+
+	/**
+	 * Update the latest value of the given sensor; only the latest value is forwarded to the
+	 * engine at the start of the next frame.
+	 * @param sensorType One of {@link Sensor#TYPE_ACCELEROMETER}, {@link Sensor#TYPE_GRAVITY},
+	 * {@link Sensor#TYPE_MAGNETIC_FIELD} or {@link Sensor#TYPE_GYROSCOPE}
+	 *
+	 * Must be called on the UI thread.
+	 */
+	public void setSensorValue(int sensorType, float x, float y, float z) {
+		switch (sensorType) {
+			case Sensor.TYPE_ACCELEROMETER:
+				mAccelerometerSlot.set(x, y, z);
+				break;
+			case Sensor.TYPE_GRAVITY:
+				mGravitySlot.set(x, y, z);
+				break;
+			case Sensor.TYPE_MAGNETIC_FIELD:
+				mMagnetometerSlot.set(x, y, z);
+				break;
+			case Sensor.TYPE_GYROSCOPE:
+				mGyroscopeSlot.set(x, y, z);
+				break;
+		}
+		wakeRenderLoop();
+	}
+
+	InputEventBuffer getInputEventBuffer() {
+		return mInputEventBuffer;
+	}
+
+	JoypadStateBuffer getJoypadStateBuffer() {
+		return mJoypadStateBuffer;
+	}
+
+	/**
+	 * Returns the tracker measuring the latency of the input events handled by this view.
+	 */
+	public InputLatencyTracker getInputLatencyTracker() {
+		return mInputLatencyTracker;
+	}
+
+	/**
+	 * Configure how joypad axis motion is filtered before being forwarded to the engine.
+	 * @param deadzone Axis values whose magnitude is below this threshold are reported as 0
+	 * @param epsilon Minimum change of an axis value for it to be reported
+	 */
+	public void setJoypadAxisThresholds(float deadzone, float epsilon) {
+		mJoypadStateBuffer.setAxisThresholds(deadzone, epsilon);
+	}
+
+	/**
+	 * Forward the input events queued since the last frame, and the latest joypad and sensor
+	 * state, to the native layer.
+	 *
+	 * Must be called on the render thread, prior to {@link GodotLib#step()}.
+	 */
+	public void dispatchQueuedInputEvents() {
+		mInputEventBuffer.dispatch();
+		mJoypadStateBuffer.dispatch();
+		dispatchSensorValues();
+	}
+
+	private void dispatchSensorValues() {
+		float[] value = mAccelerometerSlot.poll();
+		if (value != null) {
+			GodotLib.accelerometer(value[0], value[1], value[2]);
+		}
+		value = mGravitySlot.poll();
+		if (value != null) {
+			GodotLib.gravity(value[0], value[1], value[2]);
+		}
+		value = mMagnetometerSlot.poll();
+		if (value != null) {
+			GodotLib.magnetometer(value[0], value[1], value[2]);
+		}
+		value = mGyroscopeSlot.poll();
+		if (value != null) {
+			GodotLib.gyroscope(value[0], value[1], value[2]);
+		}
+	}
+
+	/**
+	 * Notify that the engine is done with the frame which processed the dispatched input events.
+	 *
+	 * Must be called on the render thread, after {@link GodotLib#step()}.
+	 */
+	public void onFrameProcessed() {
+		if (mInputLatencyTracker.isEnabled()) {
+			mInputLatencyTracker.onFrameEnd(System.nanoTime());
+		}
+	}
+
 	public void initInputDevices() {
 		/* initially add input devices*/
 		int[] deviceIds = mInputManager.getInputDeviceIds();
@@ -282,6 +400,7 @@ public class GodotInputHandler implements InputDeviceListener {
 		Log.i(tag, "=== New Input Device: " + joystick.name);
 
 		Set<Integer> already = new HashSet<>();
+		List<Integer> axes = new ArrayList<>();
 		for (InputDevice.MotionRange range : device.getMotionRanges()) {
 			boolean isJoystick = range.isFromSource(InputDevice.SOURCE_JOYSTICK);
 			boolean isGamepad = range.isFromSource(InputDevice.SOURCE_GAMEPAD);
@@ -295,18 +414,22 @@ public class GodotInputHandler implements InputDeviceListener {
 			} else {
 				if (!already.contains(axis)) {
 					already.add(axis);
-					joystick.axes.add(axis);
+					axes.add(axis);
 				} else {
 					Log.w(tag, " - DUPLICATE AXIS VALUE IN LIST: " + axis);
 				}
 			}
 		}
-		Collections.sort(joystick.axes);
-		for (int idx = 0; idx < joystick.axes.size(); idx++) {
+		Collections.sort(axes);
+		joystick.axes = new int[axes.size()];
+		joystick.axesValues = new float[axes.size()];
+		for (int idx = 0; idx < axes.size(); idx++) {
+			joystick.axes[idx] = axes.get(idx);
 			//Helps with creating new joypad mappings.
-			Log.i(tag, " - Mapping Android axis " + joystick.axes.get(idx) + " to Godot axis " + idx);
+			Log.i(tag, " - Mapping Android axis " + joystick.axes[idx] + " to Godot axis " + idx);
 		}
 		mJoysticksDevices.put(deviceId, joystick);
+		mJoypadStateBuffer.addJoystick(id, joystick);
 
 		GodotLib.joyconnectionchanged(id, true, joystick.name);
 	}
@@ -320,6 +443,7 @@ public class GodotInputHandler implements InputDeviceListener {
 		final int godotJoyId = mJoystickIds.get(deviceId);
 		mJoystickIds.delete(deviceId);
 		mJoysticksDevices.delete(deviceId);
+		mJoypadStateBuffer.removeJoystick(godotJoyId);
 		GodotLib.joyconnectionchanged(godotJoyId, false, "");
 	}
 
@@ -401,25 +525,38 @@ public class GodotInputHandler implements InputDeviceListener {
 		return button;
 	}
 
+	private void queueHoverEvent(final MotionEvent event) {
+		final int type = event.getAction();
+		if (mUseHistoricalSamples && event.getActionMasked() == MotionEvent.ACTION_HOVER_MOVE) {
+			final int historySize = event.getHistorySize();
+			for (int h = 0; h < historySize; h++) {
+				mInputEventBuffer.queueHoverEvent(event.getHistoricalEventTime(h), type, event.getHistoricalX(h), event.getHistoricalY(h));
+			}
+		}
+		mInputEventBuffer.queueHoverEvent(event.getEventTime(), type, event.getX(), event.getY());
+	}
+
 	private boolean handleMouseEvent(final MotionEvent event) {
 		switch (event.getActionMasked()) {
 			case MotionEvent.ACTION_HOVER_ENTER:
 			case MotionEvent.ACTION_HOVER_MOVE:
 			case MotionEvent.ACTION_HOVER_EXIT: {
-				final float x = event.getX();
-				final float y = event.getY();
-				final int type = event.getAction();
-				GodotLib.hover(type, x, y);
+				queueHoverEvent(event);
 				return true;
 			}
 			case MotionEvent.ACTION_BUTTON_PRESS:
 			case MotionEvent.ACTION_BUTTON_RELEASE:
 			case MotionEvent.ACTION_MOVE: {
-				final float x = event.getX();
-				final float y = event.getY();
+				final int source = event.getSource();
 				final int buttonsMask = event.getButtonState();
 				final int action = event.getAction();
-				GodotLib.touch(event.getSource(), action, 0, 1, new float[] { 0, x, y }, buttonsMask);
+				if (mUseHistoricalSamples && event.getActionMasked() == MotionEvent.ACTION_MOVE) {
+					final int historySize = event.getHistorySize();
+					for (int h = 0; h < historySize; h++) {
+						mInputEventBuffer.queueMouseEvent(event.getHistoricalEventTime(h), source, action, buttonsMask, event.getHistoricalX(h), event.getHistoricalY(h), 0, 0);
+					}
+				}
+				mInputEventBuffer.queueMouseEvent(event.getEventTime(), source, action, buttonsMask, event.getX(), event.getY(), 0, 0);
 				return true;
 			}
 			case MotionEvent.ACTION_SCROLL: {
@@ -429,7 +566,7 @@ public class GodotInputHandler implements InputDeviceListener {
 				final int action = event.getAction();
 				final float verticalFactor = event.getAxisValue(MotionEvent.AXIS_VSCROLL);
 				final float horizontalFactor = event.getAxisValue(MotionEvent.AXIS_HSCROLL);
-				GodotLib.touch(event.getSource(), action, 0, 1, new float[] { 0, x, y }, buttonsMask, verticalFactor, horizontalFactor);
+				mInputEventBuffer.queueMouseEvent(event.getEventTime(), event.getSource(), action, buttonsMask, x, y, verticalFactor, horizontalFactor);
 			}
 			case MotionEvent.ACTION_DOWN:
 			case MotionEvent.ACTION_UP: {
@@ -33,6 +33,7 @@ package org.godotengine.godot.input;
 import org.godotengine.godot.*;
 
 import android.content.Context;
+import android.os.SystemClock;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.KeyEvent;
@@ -41,6 +42,8 @@ import android.view.inputmethod.InputMethodManager;
 import android.widget.TextView;
 import android.widget.TextView.OnEditorActionListener;
 
+import java.util.Arrays;
+
 public class GodotTextInputWrapper implements TextWatcher, OnEditorActionListener {
 	// ===========================================================
 	// Constants
@@ -54,6 +57,7 @@ public class GodotTextInputWrapper implements TextWatcher, OnEditorActionListene
 	private final GodotEditText mEdit;
 	private String mOriginText;
 	private boolean mHasSelection;
+	private int mPendingDeleteCount;
 
 	// ===========================================================
 	// Constructors
@@ -94,14 +98,11 @@ public class GodotTextInputWrapper implements TextWatcher, OnEditorActionListene
 	public void beforeTextChanged(final CharSequence pCharSequence, final int start, final int count, final int after) {
 		//Log.d(TAG, "beforeTextChanged(" + pCharSequence + ")start: " + start + ",count: " + count + ",after: " + after);
 
-		for (int i = 0; i < count; ++i) {
-			GodotLib.key(KeyEvent.KEYCODE_DEL, KeyEvent.KEYCODE_DEL, 0, true);
-			GodotLib.key(KeyEvent.KEYCODE_DEL, KeyEvent.KEYCODE_DEL, 0, false);
-
-			if (mHasSelection) {
-				mHasSelection = false;
-				break;
-			}
+		// The deletion is forwarded along with the inserted text by onTextChanged.
+		mPendingDeleteCount = count;
+		if (count > 0 && mHasSelection) {
+			mHasSelection = false;
+			mPendingDeleteCount = 1;
 		}
 	}
 
@@ -109,39 +110,23 @@ public class GodotTextInputWrapper implements TextWatcher, OnEditorActionListene
 	public void onTextChanged(final CharSequence pCharSequence, final int start, final int before, final int count) {
 		//Log.d(TAG, "onTextChanged(" + pCharSequence + ")start: " + start + ",count: " + count + ",before: " + before);
 
-		final int[] newChars = new int[count];
-		for (int i = start; i < start + count; ++i) {
-			newChars[i - start] = pCharSequence.charAt(i);
-		}
-		for (int i = 0; i < count; ++i) {
-			int key = newChars[i];
-			if ((key == '\n') && !mEdit.isMultiline()) {
-				// Return keys are handled through action events
-				continue;
-			}
-			GodotLib.key(0, 0, key, true);
-			GodotLib.key(0, 0, key, false);
-		}
+		// Return keys are handled through action events
+		final boolean skipNewLines = !mEdit.isMultiline();
+		queueTextCommit(toCodepoints(pCharSequence, start, start + count, skipNewLines), mPendingDeleteCount);
+		mPendingDeleteCount = 0;
 	}
 
 	@Override
 	public boolean onEditorAction(final TextView pTextView, final int pActionID, final KeyEvent pKeyEvent) {
 		if (mEdit == pTextView && isFullScreenEdit()) {
 			final String characters = pKeyEvent.getCharacters();
-
-			for (int i = 0; i < characters.length(); i++) {
-				final int ch = characters.codePointAt(i);
-				GodotLib.key(0, 0, ch, true);
-				GodotLib.key(0, 0, ch, false);
-			}
+			queueTextCommit(toCodepoints(characters, 0, characters.length(), false), 0);
 		}
 
 		if (pActionID == EditorInfo.IME_ACTION_DONE) {
 			// Enter key has been pressed
-			mRenderView.queueOnRenderThread(() -> {
-				GodotLib.key(KeyEvent.KEYCODE_ENTER, KeyEvent.KEYCODE_ENTER, 0, true);
-				GodotLib.key(KeyEvent.KEYCODE_ENTER, KeyEvent.KEYCODE_ENTER, 0, false);
-			});
+			queueKeyEvent(KeyEvent.KEYCODE_ENTER, KeyEvent.KEYCODE_ENTER, 0, true);
+			queueKeyEvent(KeyEvent.KEYCODE_ENTER, KeyEvent.KEYCODE_ENTER, 0, false);
 			mRenderView.getView().requestFocus();
 			return true;
 		}
@@ -152,6 +137,34 @@ public class GodotTextInputWrapper implements TextWatcher, OnEditorActionListene
 	// Methods
 	// ===========================================================
 
+	/**
+	 * Returns the Unicode codepoints of the given range of text.
+	 */
+	static int[] toCodepoints(final CharSequence text, final int start, final int end, final boolean skipNewLines) {
+		int[] codepoints = new int[Character.codePointCount(text, start, end)];
+		int count = 0;
+		for (int i = start; i < end;) {
+			final int codepoint = Character.codePointAt(text, i);
+			i += Character.charCount(codepoint);
+			if (skipNewLines && codepoint == '\n') {
+				continue;
+			}
+			codepoints[count++] = codepoint;
+		}
+		return count == codepoints.length ? codepoints : Arrays.copyOf(codepoints, count);
+	}
+
+	private void queueTextCommit(int[] codepoints, int deleteCount) {
+		if (codepoints.length == 0 && deleteCount == 0) {
+			return;
+		}
+		mRenderView.getInputHandler().getInputEventBuffer().queueTextCommit(SystemClock.uptimeMillis(), codepoints, deleteCount);
+	}
+
+	private void queueKeyEvent(int keycode, int scancode, int unicodeChar, boolean pressed) {
+		mRenderView.getInputHandler().getInputEventBuffer().queueKeyEvent(SystemClock.uptimeMillis(), keycode, scancode, unicodeChar, pressed);
+	}
+
 	// ===========================================================
 	// Inner and Anonymous Classes
 	// ===========================================================
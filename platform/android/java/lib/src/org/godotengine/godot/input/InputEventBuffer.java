@@ -0,0 +1,509 @@
+/*************************************************************************/
+/*  InputEventBuffer.java                                                */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot.input;
+
+import static org.godotengine.godot.utils.GLUtils.DEBUG;
+
+import org.godotengine.godot.GodotLib;
+
+import android.util.Log;
+import android.view.MotionEvent;
+
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Single-producer / single-consumer ring buffer used to hand input events from the UI thread to
+ * the render thread.
+ * <p>
+ * Events are written as primitive records into a direct {@link ByteBuffer} which is shared with
+ * the native layer, so queuing an event doesn't allocate and draining the buffer only takes a
+ * single JNI call per frame, regardless of the number of queued events.
+ * <p>
+ * The record layouts must be kept in sync with the ones declared in
+ * 'platform/android/android_input_handler.h'.
+ */
+class InputEventBuffer {
+	private static final String TAG = InputEventBuffer.class.getSimpleName();
+
+	// Record types.
+	static final int EVENT_TYPE_PADDING = 0;
+	static final int EVENT_TYPE_TOUCH = 1;
+	static final int EVENT_TYPE_HOVER = 2;
+	static final int EVENT_TYPE_JOY_HAT = 3;
+	static final int EVENT_TYPE_KEY = 4;
+	static final int EVENT_TYPE_JOY_BUTTON = 5;
+	static final int EVENT_TYPE_DOUBLE_TAP = 6;
+	static final int EVENT_TYPE_SCROLL = 7;
+	static final int EVENT_TYPE_TEXT_COMMIT = 8;
+
+	/**
+	 * Common header for all the records: type (int), size in bytes (int), event time in ns (long),
+	 * enqueue time in ns (long).
+	 */
+	private static final int HEADER_SIZE = 24;
+
+	/**
+	 * Touch record: header, source, action, action pointer id, pointer count, buttons mask,
+	 * vertical factor, horizontal factor, reserved, followed by 'pointer count' (id, x, y) entries.
+	 */
+	private static final int TOUCH_EVENT_SIZE = HEADER_SIZE + 32;
+	private static final int TOUCH_POINT_SIZE = 12;
+
+	/**
+	 * Hover record: header, type, x, y, reserved.
+	 */
+	private static final int HOVER_EVENT_SIZE = HEADER_SIZE + 16;
+
+	/**
+	 * Key, joypad button, joypad hat, double tap and scroll records: header, followed by four ints.
+	 * - Key: keycode, scancode, unicode char, pressed.
+	 * - Joypad button: Godot device id, button, pressed, reserved.
+	 * - Joypad hat: Godot device id, hat x, hat y, reserved.
+	 * - Double tap: buttons mask, x, y, reserved.
+	 * - Scroll: x, y, reserved, reserved.
+	 * - Text commit: codepoint count, delete count, reserved, reserved. This record only marks the
+	 *   position of the commit in the event stream; the text itself is kept on the Java side and
+	 *   forwarded with {@link GodotLib#textCommit(int[], int)}.
+	 */
+	private static final int INT_EVENT_SIZE = HEADER_SIZE + 16;
+
+	/**
+	 * Records are 8 bytes aligned so the native layer can read the 64 bits event time in place.
+	 */
+	private static final int RECORD_ALIGNMENT = 8;
+
+	private static final int DEFAULT_CAPACITY = 64 * 1024;
+
+	/**
+	 * History position used to refer to the current sample of a {@link MotionEvent}.
+	 */
+	static final int CURRENT_SAMPLE = -1;
+
+	private final ByteBuffer buffer;
+	private final int capacity;
+	private final int mask;
+	private final InputLatencyTracker latencyTracker;
+
+	/**
+	 * Monotonic byte indices; only the UI thread writes {@link #writeIndex} and only the render
+	 * thread writes {@link #readIndex}.
+	 */
+	private volatile int writeIndex = 0;
+	private volatile int readIndex = 0;
+
+	/**
+	 * Scale from the view coordinates to the surface buffer coordinates, when the buffer doesn't
+	 * match the view's size.
+	 */
+	private volatile float coordinateScaleX = 1f;
+	private volatile float coordinateScaleY = 1f;
+
+	/**
+	 * Invoked on the UI thread when a record is queued, or null.
+	 */
+	private volatile Runnable onEventQueued;
+
+	/**
+	 * Text of the queued {@link #EVENT_TYPE_TEXT_COMMIT} records, in order.
+	 */
+	private final ConcurrentLinkedQueue<TextCommit> pendingTextCommits = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Index of the record being written, published by {@link #commit(int)}.
+	 */
+	private int pendingIndex = 0;
+	private int droppedEvents = 0;
+
+	InputEventBuffer(InputLatencyTracker latencyTracker) {
+		this(DEFAULT_CAPACITY, latencyTracker);
+	}
+
+	InputEventBuffer(int capacity, InputLatencyTracker latencyTracker) {
+		if (capacity <= 0 || (capacity & (capacity - 1)) != 0) {
+			throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+		}
+		this.capacity = capacity;
+		this.mask = capacity - 1;
+		this.buffer = ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+		this.latencyTracker = latencyTracker;
+	}
+
+	private static int alignRecordSize(int size) {
+		return (size + RECORD_ALIGNMENT - 1) & ~(RECORD_ALIGNMENT - 1);
+	}
+
+	/**
+	 * Reserve space for a record of the given (aligned) size.
+	 *
+	 * Must be called on the UI thread.
+	 * @return the offset of the record in the buffer, or -1 if the buffer is full.
+	 */
+	private int reserve(int type, int size, long eventTimeNs) {
+		int write = writeIndex;
+		int offset = write & mask;
+		int contiguous = capacity - offset;
+		int needed = contiguous < size ? contiguous + size : size;
+		if (capacity - (write - readIndex) < needed) {
+			// The render thread isn't keeping up (e.g: it's paused); drop the event.
+			droppedEvents++;
+			if (DEBUG) {
+				Log.w(TAG, "Input event buffer full, dropped " + droppedEvents + " events.");
+			}
+			return -1;
+		}
+
+		if (contiguous < size) {
+			// Records never wrap around; pad the end of the buffer and start over.
+			buffer.putInt(offset, EVENT_TYPE_PADDING);
+			buffer.putInt(offset + 4, contiguous);
+			write += contiguous;
+			offset = 0;
+		}
+
+		buffer.putInt(offset, type);
+		buffer.putInt(offset + 4, size);
+		buffer.putLong(offset + 8, eventTimeNs);
+		buffer.putLong(offset + 16, System.nanoTime());
+		pendingIndex = write;
+		return offset;
+	}
+
+	/**
+	 * Publish the record reserved last to the render thread.
+	 */
+	private void commit(int size) {
+		writeIndex = pendingIndex + size;
+
+		final Runnable listener = onEventQueued;
+		if (listener != null) {
+			listener.run();
+		}
+	}
+
+	/**
+	 * Set the listener invoked on the UI thread every time a record is queued.
+	 */
+	void setOnEventQueuedListener(@Nullable Runnable listener) {
+		onEventQueued = listener;
+	}
+
+	/**
+	 * Queue the touch event described by the given {@link MotionEvent}.
+	 * <p>
+	 * When <code>includeHistory</code> is true, the historical samples batched by Android into
+	 * move events are queued first, in chronological order, so the native layer replays the full
+	 * resolution motion.
+	 *
+	 * Must be called on the UI thread.
+	 */
+	void queueTouchEvent(MotionEvent event, int action, int actionPointerId, boolean includeHistory) {
+		if (includeHistory && action == MotionEvent.ACTION_MOVE) {
+			final int historySize = event.getHistorySize();
+			for (int h = 0; h < historySize; h++) {
+				queueTouchSample(event, action, actionPointerId, h);
+			}
+		}
+		queueTouchSample(event, action, actionPointerId, CURRENT_SAMPLE);
+	}
+
+	/**
+	 * Queue a single sample of the given {@link MotionEvent}.
+	 * @param historyPos Index of the historical sample to queue, or {@link #CURRENT_SAMPLE}.
+	 */
+	private void queueTouchSample(MotionEvent event, int action, int actionPointerId, int historyPos) {
+		final boolean current = historyPos == CURRENT_SAMPLE;
+		final int pointerCount = event.getPointerCount();
+		final int size = alignRecordSize(TOUCH_EVENT_SIZE + pointerCount * TOUCH_POINT_SIZE);
+		final long eventTimeMs = current ? event.getEventTime() : event.getHistoricalEventTime(historyPos);
+		final int offset = reserve(EVENT_TYPE_TOUCH, size, eventTimeMs * 1000000L);
+		if (offset < 0) {
+			return;
+		}
+
+		putTouchHeader(offset, event.getSource(), action, actionPointerId, pointerCount, 0, 0f, 0f);
+		final float scaleX = coordinateScaleX;
+		final float scaleY = coordinateScaleY;
+		int pointOffset = offset + TOUCH_EVENT_SIZE;
+		for (int i = 0; i < pointerCount; i++) {
+			buffer.putInt(pointOffset, event.getPointerId(i));
+			buffer.putFloat(pointOffset + 4, (current ? event.getX(i) : event.getHistoricalX(i, historyPos)) * scaleX);
+			buffer.putFloat(pointOffset + 8, (current ? event.getY(i) : event.getHistoricalY(i, historyPos)) * scaleY);
+			pointOffset += TOUCH_POINT_SIZE;
+		}
+		commit(size);
+	}
+
+	/**
+	 * Set the scale applied to the coordinates of the queued events.
+	 */
+	void setCoordinateScale(float scaleX, float scaleY) {
+		coordinateScaleX = scaleX;
+		coordinateScaleY = scaleY;
+	}
+
+	/**
+	 * Queue a single pointer mouse event.
+	 *
+	 * Must be called on the UI thread.
+	 */
+	void queueMouseEvent(long eventTimeMs, int source, int action, int buttonsMask, float x, float y, float verticalFactor, float horizontalFactor) {
+		final int size = alignRecordSize(TOUCH_EVENT_SIZE + TOUCH_POINT_SIZE);
+		final int offset = reserve(EVENT_TYPE_TOUCH, size, eventTimeMs * 1000000L);
+		if (offset < 0) {
+			return;
+		}
+
+		putTouchHeader(offset, source, action, 0, 1, buttonsMask, verticalFactor, horizontalFactor);
+		final int pointOffset = offset + TOUCH_EVENT_SIZE;
+		buffer.putInt(pointOffset, 0);
+		buffer.putFloat(pointOffset + 4, x * coordinateScaleX);
+		buffer.putFloat(pointOffset + 8, y * coordinateScaleY);
+		commit(size);
+	}
+
+	/**
+	 * Queue a touch or mouse event from its pointer positions, laid out as (id, x, y) triplets.
+	 *
+	 * Must be called on the UI thread.
+	 */
+	void queueTouchPoints(long eventTimeMs, int source, int action, int actionPointerId, int pointerCount, float[] positions, int buttonsMask, float verticalFactor, float horizontalFactor) {
+		final int size = alignRecordSize(TOUCH_EVENT_SIZE + pointerCount * TOUCH_POINT_SIZE);
+		final int offset = reserve(EVENT_TYPE_TOUCH, size, eventTimeMs * 1000000L);
+		if (offset < 0) {
+			return;
+		}
+
+		putTouchHeader(offset, source, action, actionPointerId, pointerCount, buttonsMask, verticalFactor, horizontalFactor);
+		int pointOffset = offset + TOUCH_EVENT_SIZE;
+		for (int i = 0; i < pointerCount; i++) {
+			buffer.putInt(pointOffset, (int)positions[i * 3]);
+			buffer.putFloat(pointOffset + 4, positions[i * 3 + 1] * coordinateScaleX);
+			buffer.putFloat(pointOffset + 8, positions[i * 3 + 2] * coordinateScaleY);
+			pointOffset += TOUCH_POINT_SIZE;
+		}
+		commit(size);
+	}
+
+	private void putTouchHeader(int offset, int source, int action, int actionPointerId, int pointerCount, int buttonsMask, float verticalFactor, float horizontalFactor) {
+		buffer.putInt(offset + HEADER_SIZE, source);
+		buffer.putInt(offset + HEADER_SIZE + 4, action);
+		buffer.putInt(offset + HEADER_SIZE + 8, actionPointerId);
+		buffer.putInt(offset + HEADER_SIZE + 12, pointerCount);
+		buffer.putInt(offset + HEADER_SIZE + 16, buttonsMask);
+		buffer.putFloat(offset + HEADER_SIZE + 20, verticalFactor);
+		buffer.putFloat(offset + HEADER_SIZE + 24, horizontalFactor);
+		buffer.putInt(offset + HEADER_SIZE + 28, 0);
+	}
+
+	/**
+	 * Queue a hover event.
+	 *
+	 * Must be called on the UI thread.
+	 */
+	void queueHoverEvent(long eventTimeMs, int type, float x, float y) {
+		final int offset = reserve(EVENT_TYPE_HOVER, HOVER_EVENT_SIZE, eventTimeMs * 1000000L);
+		if (offset < 0) {
+			return;
+		}
+
+		buffer.putInt(offset + HEADER_SIZE, type);
+		buffer.putFloat(offset + HEADER_SIZE + 4, x * coordinateScaleX);
+		buffer.putFloat(offset + HEADER_SIZE + 8, y * coordinateScaleY);
+		buffer.putInt(offset + HEADER_SIZE + 12, 0);
+		commit(HOVER_EVENT_SIZE);
+	}
+
+	/**
+	 * Queue a key event.
+	 *
+	 * Must be called on the UI thread.
+	 */
+	void queueKeyEvent(long eventTimeMs, int keycode, int scancode, int unicodeChar, boolean pressed) {
+		queueIntEvent(EVENT_TYPE_KEY, eventTimeMs, keycode, scancode, unicodeChar, pressed ? 1 : 0);
+	}
+
+	/**
+	 * Queue a joypad button event.
+	 *
+	 * Must be called on the UI thread.
+	 */
+	void queueJoyButtonEvent(long eventTimeMs, int device, int button, boolean pressed) {
+		queueIntEvent(EVENT_TYPE_JOY_BUTTON, eventTimeMs, device, button, pressed ? 1 : 0, 0);
+	}
+
+	/**
+	 * Queue a joypad hat event, with the hat x and y axes values in [-1, 1].
+	 *
+	 * Must be called on the UI thread.
+	 */
+	void queueJoyHatEvent(long eventTimeMs, int device, int hatX, int hatY) {
+		queueIntEvent(EVENT_TYPE_JOY_HAT, eventTimeMs, device, hatX, hatY, 0);
+	}
+
+	/**
+	 * Queue a double tap event.
+	 *
+	 * Must be called on the UI thread.
+	 */
+	void queueDoubleTapEvent(long eventTimeMs, int buttonsMask, int x, int y) {
+		queueIntEvent(EVENT_TYPE_DOUBLE_TAP, eventTimeMs, buttonsMask, Math.round(x * coordinateScaleX), Math.round(y * coordinateScaleY), 0);
+	}
+
+	/**
+	 * Queue a scroll event.
+	 *
+	 * Must be called on the UI thread.
+	 */
+	void queueScrollEvent(long eventTimeMs, int x, int y) {
+		queueIntEvent(EVENT_TYPE_SCROLL, eventTimeMs, Math.round(x * coordinateScaleX), Math.round(y * coordinateScaleY), 0, 0);
+	}
+
+	/**
+	 * Queue a text commit from the soft keyboard or IME: <code>deleteCount</code> characters are
+	 * deleted before the given codepoints are inserted.
+	 *
+	 * Must be called on the UI thread.
+	 */
+	void queueTextCommit(long eventTimeMs, int[] codepoints, int deleteCount) {
+		final int offset = reserve(EVENT_TYPE_TEXT_COMMIT, INT_EVENT_SIZE, eventTimeMs * 1000000L);
+		if (offset < 0) {
+			return;
+		}
+
+		buffer.putInt(offset + HEADER_SIZE, codepoints.length);
+		buffer.putInt(offset + HEADER_SIZE + 4, deleteCount);
+		buffer.putInt(offset + HEADER_SIZE + 8, 0);
+		buffer.putInt(offset + HEADER_SIZE + 12, 0);
+		// Must be queued before the record is published.
+		pendingTextCommits.add(new TextCommit(codepoints, deleteCount));
+		commit(INT_EVENT_SIZE);
+	}
+
+	private void queueIntEvent(int type, long eventTimeMs, int value0, int value1, int value2, int value3) {
+		final int offset = reserve(type, INT_EVENT_SIZE, eventTimeMs * 1000000L);
+		if (offset < 0) {
+			return;
+		}
+
+		buffer.putInt(offset + HEADER_SIZE, value0);
+		buffer.putInt(offset + HEADER_SIZE + 4, value1);
+		buffer.putInt(offset + HEADER_SIZE + 8, value2);
+		buffer.putInt(offset + HEADER_SIZE + 12, value3);
+		commit(INT_EVENT_SIZE);
+	}
+
+	/**
+	 * Forward all the queued events to the native layer.
+	 * <p>
+	 * The events are kept queued if the engine isn't ready to process them yet.
+	 *
+	 * Must be called on the render thread.
+	 */
+	void dispatch() {
+		final int read = readIndex;
+		final int write = writeIndex;
+		if (read == write) {
+			return;
+		}
+
+		final long dispatchTimeNs = System.nanoTime();
+		int segmentStart = read;
+		if (!pendingTextCommits.isEmpty()) {
+			// Forward the text commits in order with the surrounding events.
+			int index = read;
+			while (index != write) {
+				final int offset = index & mask;
+				final int type = buffer.getInt(offset);
+				index += buffer.getInt(offset + 4);
+				if (type == EVENT_TYPE_TEXT_COMMIT) {
+					if (!dispatchRange(segmentStart, index, dispatchTimeNs)) {
+						return;
+					}
+					final TextCommit textCommit = pendingTextCommits.poll();
+					if (textCommit != null) {
+						GodotLib.textCommit(textCommit.codepoints, textCommit.deleteCount);
+					}
+					segmentStart = index;
+				}
+			}
+		}
+		dispatchRange(segmentStart, write, dispatchTimeNs);
+	}
+
+	/**
+	 * Forward the records in the given range to the native layer.
+	 * @return false if the engine isn't ready to process them yet.
+	 */
+	private boolean dispatchRange(int read, int write, long dispatchTimeNs) {
+		if (read == write) {
+			return true;
+		}
+
+		if (!GodotLib.dispatchInputEvents(buffer, read, write)) {
+			return false;
+		}
+
+		if (latencyTracker.isEnabled()) {
+			trackDispatchedEvents(read, write, dispatchTimeNs);
+		}
+		readIndex = write;
+		return true;
+	}
+
+	/**
+	 * Report the timestamps of the dispatched records to the latency tracker.
+	 */
+	private void trackDispatchedEvents(int read, int write, long dispatchTimeNs) {
+		while (read != write) {
+			final int offset = read & mask;
+			final int type = buffer.getInt(offset);
+			final int size = buffer.getInt(offset + 4);
+			if (type != EVENT_TYPE_PADDING) {
+				latencyTracker.onEventDispatched(type, buffer.getLong(offset + 8), buffer.getLong(offset + 16), dispatchTimeNs);
+			}
+			read += size;
+		}
+	}
+
+	private static class TextCommit {
+		final int[] codepoints;
+		final int deleteCount;
+
+		TextCommit(int[] codepoints, int deleteCount) {
+			this.codepoints = codepoints;
+			this.deleteCount = deleteCount;
+		}
+	}
+}
@@ -0,0 +1,337 @@
+/*************************************************************************/
+/*  InputLatencyTracker.java                                             */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot.input;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Measures how long input events take to travel from capture to the frame in which the engine
+ * processes them.
+ * <p>
+ * Each event queued in the {@link InputEventBuffer} is timestamped at four points:
+ * <ul>
+ * <li>capture: the event time reported by Android (e.g: {@link android.view.MotionEvent#getEventTime()}),</li>
+ * <li>enqueue: when the UI thread queues the event,</li>
+ * <li>dispatch: when the render thread forwards the event to the native layer,</li>
+ * <li>frame: when the engine is done with the frame in which the event was processed.</li>
+ * </ul>
+ * All the timestamps use the {@link System#nanoTime()} time base, which on Android is the same
+ * monotonic clock as {@link android.os.SystemClock#uptimeMillis()}.
+ * <p>
+ * Latencies are kept over a rolling window of the most recent events, for all the events and for
+ * each event type, from which the p50, p95 and p99 values are computed on demand. A per-event
+ * trace can optionally be recorded and dumped as CSV.
+ * <p>
+ * Tracking is disabled by default; recording only happens on the render thread, while queries can
+ * be made from any thread.
+ */
+public class InputLatencyTracker {
+	/**
+	 * Capture to enqueue latency.
+	 */
+	public static final int STAGE_ENQUEUE = 0;
+	/**
+	 * Enqueue to native dispatch latency.
+	 */
+	public static final int STAGE_DISPATCH = 1;
+	/**
+	 * Native dispatch to end of frame latency.
+	 */
+	public static final int STAGE_FRAME = 2;
+	/**
+	 * Capture to end of frame latency.
+	 */
+	public static final int STAGE_TOTAL = 3;
+	private static final int STAGE_COUNT = 4;
+
+	/**
+	 * Event types the latencies can be queried for.
+	 */
+	public static final int EVENT_TYPE_ALL = 0;
+	public static final int EVENT_TYPE_TOUCH = InputEventBuffer.EVENT_TYPE_TOUCH;
+	public static final int EVENT_TYPE_HOVER = InputEventBuffer.EVENT_TYPE_HOVER;
+	public static final int EVENT_TYPE_KEY = InputEventBuffer.EVENT_TYPE_KEY;
+	public static final int EVENT_TYPE_JOY_BUTTON = InputEventBuffer.EVENT_TYPE_JOY_BUTTON;
+	public static final int EVENT_TYPE_DOUBLE_TAP = InputEventBuffer.EVENT_TYPE_DOUBLE_TAP;
+	public static final int EVENT_TYPE_SCROLL = InputEventBuffer.EVENT_TYPE_SCROLL;
+	public static final int EVENT_TYPE_TEXT_COMMIT = InputEventBuffer.EVENT_TYPE_TEXT_COMMIT;
+	public static final int EVENT_TYPE_JOY_HAT = InputEventBuffer.EVENT_TYPE_JOY_HAT;
+	private static final int EVENT_TYPE_COUNT = 9;
+
+	/**
+	 * Percentiles reported by {@link #getPercentilesUs(int, int, long[])}.
+	 */
+	public static final int PERCENTILE_COUNT = 3;
+	private static final float[] PERCENTILES = { 0.50f, 0.95f, 0.99f };
+
+	private static final int DEFAULT_WINDOW_SIZE = 1024;
+	private static final int DEFAULT_TRACE_SIZE = 4096;
+
+	private volatile boolean enabled = false;
+
+	// Rolling windows indexed by event type then stage; the windows of a type are created the first
+	// time an event of that type is recorded.
+	private final RollingWindow[][] windows = new RollingWindow[EVENT_TYPE_COUNT][];
+	// Shared by all the windows, so queries don't allocate.
+	private final long[] sortScratch = new long[DEFAULT_WINDOW_SIZE];
+
+	// Timestamps of the events processed in the current frame.
+	private int[] frameTypes = new int[64];
+	private long[] frameCaptureTimes = new long[64];
+	private long[] frameDispatchTimes = new long[64];
+	private int frameEventCount = 0;
+
+	private boolean traceEnabled = false;
+	private int[] traceTypes;
+	private long[] traceCaptureTimes;
+	private long[] traceEnqueueTimes;
+	private long[] traceDispatchTimes;
+	private long[] traceFrameTimes;
+	private int traceCount = 0;
+	private int traceFrameStart = 0;
+
+	InputLatencyTracker() {
+		windows[EVENT_TYPE_ALL] = createStageWindows();
+	}
+
+	private static RollingWindow[] createStageWindows() {
+		RollingWindow[] stageWindows = new RollingWindow[STAGE_COUNT];
+		for (int i = 0; i < STAGE_COUNT; i++) {
+			stageWindows[i] = new RollingWindow(DEFAULT_WINDOW_SIZE);
+		}
+		return stageWindows;
+	}
+
+	/**
+	 * Enable or disable latency tracking.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enable or disable the recording of the per-event trace.
+	 * <p>
+	 * The trace keeps the timestamps of the most recent events, and is only recorded while
+	 * tracking is enabled.
+	 */
+	public synchronized void setTraceEnabled(boolean traceEnabled) {
+		if (traceEnabled && traceTypes == null) {
+			traceTypes = new int[DEFAULT_TRACE_SIZE];
+			traceCaptureTimes = new long[DEFAULT_TRACE_SIZE];
+			traceEnqueueTimes = new long[DEFAULT_TRACE_SIZE];
+			traceDispatchTimes = new long[DEFAULT_TRACE_SIZE];
+			traceFrameTimes = new long[DEFAULT_TRACE_SIZE];
+		}
+		this.traceEnabled = traceEnabled;
+		traceCount = 0;
+		traceFrameStart = 0;
+	}
+
+	/**
+	 * Clear the latencies and trace recorded so far.
+	 */
+	public synchronized void reset() {
+		for (RollingWindow[] stageWindows : windows) {
+			if (stageWindows == null) {
+				continue;
+			}
+			for (RollingWindow window : stageWindows) {
+				window.clear();
+			}
+		}
+		frameEventCount = 0;
+		traceCount = 0;
+		traceFrameStart = 0;
+	}
+
+	/**
+	 * Returns the number of latency samples currently held for the given event type and stage.
+	 * @param eventType One of the <code>EVENT_TYPE_*</code> constants
+	 * @param stage One of the <code>STAGE_*</code> constants
+	 */
+	public synchronized int getSampleCount(int eventType, int stage) {
+		final RollingWindow[] stageWindows = windows[eventType];
+		return stageWindows == null ? 0 : stageWindows[stage].size();
+	}
+
+	/**
+	 * Computes the p50, p95 and p99 latencies of the given event type and stage, in microseconds,
+	 * over the rolling window of the most recent events.
+	 * <p>
+	 * Doesn't allocate, so it can be polled every frame.
+	 * @param eventType One of the <code>EVENT_TYPE_*</code> constants
+	 * @param stage One of the <code>STAGE_*</code> constants
+	 * @param outPercentilesUs Array of at least {@link #PERCENTILE_COUNT} elements receiving the
+	 *         p50, p95 and p99 latencies, or zeros if no event was recorded
+	 */
+	public synchronized void getPercentilesUs(int eventType, int stage, long[] outPercentilesUs) {
+		final RollingWindow[] stageWindows = windows[eventType];
+		if (stageWindows == null) {
+			Arrays.fill(outPercentilesUs, 0, PERCENTILE_COUNT, 0L);
+			return;
+		}
+		stageWindows[stage].getPercentilesUs(PERCENTILES, sortScratch, outPercentilesUs);
+	}
+
+	/**
+	 * Write the per-event trace as CSV, one line per event with its type and its capture, enqueue,
+	 * dispatch and frame timestamps in nanoseconds.
+	 * <p>
+	 * A frame timestamp of 0 means the frame which processes the event hasn't completed yet.
+	 */
+	public synchronized void dumpTrace(Writer writer) throws IOException {
+		writer.write("type,capture_ns,enqueue_ns,dispatch_ns,frame_ns\n");
+		if (traceTypes == null) {
+			return;
+		}
+
+		final int size = traceTypes.length;
+		final int count = Math.min(traceCount, size);
+		for (int i = traceCount - count; i < traceCount; i++) {
+			final int index = i % size;
+			writer.write(traceTypes[index] + "," + traceCaptureTimes[index] + "," + traceEnqueueTimes[index] + "," + traceDispatchTimes[index] + "," + traceFrameTimes[index] + "\n");
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Record the timestamps of an event forwarded to the native layer.
+	 *
+	 * Must be called on the render thread.
+	 */
+	synchronized void onEventDispatched(int type, long captureTimeNs, long enqueueTimeNs, long dispatchTimeNs) {
+		if (type <= EVENT_TYPE_ALL || type >= EVENT_TYPE_COUNT) {
+			return;
+		}
+		if (windows[type] == null) {
+			windows[type] = createStageWindows();
+		}
+		addLatency(type, STAGE_ENQUEUE, enqueueTimeNs - captureTimeNs);
+		addLatency(type, STAGE_DISPATCH, dispatchTimeNs - enqueueTimeNs);
+
+		if (frameEventCount == frameCaptureTimes.length) {
+			frameTypes = Arrays.copyOf(frameTypes, frameEventCount * 2);
+			frameCaptureTimes = Arrays.copyOf(frameCaptureTimes, frameEventCount * 2);
+			frameDispatchTimes = Arrays.copyOf(frameDispatchTimes, frameEventCount * 2);
+		}
+		frameTypes[frameEventCount] = type;
+		frameCaptureTimes[frameEventCount] = captureTimeNs;
+		frameDispatchTimes[frameEventCount] = dispatchTimeNs;
+		frameEventCount++;
+
+		if (traceEnabled) {
+			final int index = traceCount % traceTypes.length;
+			traceTypes[index] = type;
+			traceCaptureTimes[index] = captureTimeNs;
+			traceEnqueueTimes[index] = enqueueTimeNs;
+			traceDispatchTimes[index] = dispatchTimeNs;
+			traceFrameTimes[index] = 0;
+			traceCount++;
+		}
+	}
+
+	/**
+	 * Record the end of the frame which processed the events dispatched since the last call.
+	 *
+	 * Must be called on the render thread.
+	 */
+	synchronized void onFrameEnd(long frameTimeNs) {
+		for (int i = 0; i < frameEventCount; i++) {
+			addLatency(frameTypes[i], STAGE_FRAME, frameTimeNs - frameDispatchTimes[i]);
+			addLatency(frameTypes[i], STAGE_TOTAL, frameTimeNs - frameCaptureTimes[i]);
+		}
+		frameEventCount = 0;
+
+		if (traceEnabled) {
+			final int size = traceTypes.length;
+			for (int i = Math.max(traceFrameStart, traceCount - size); i < traceCount; i++) {
+				traceFrameTimes[i % size] = frameTimeNs;
+			}
+			traceFrameStart = traceCount;
+		}
+	}
+
+	private void addLatency(int type, int stage, long latencyNs) {
+		windows[EVENT_TYPE_ALL][stage].add(latencyNs);
+		windows[type][stage].add(latencyNs);
+	}
+
+	/**
+	 * Fixed size window over the most recent latency samples.
+	 */
+	private static class RollingWindow {
+		private final long[] samples;
+		private int count = 0;
+
+		RollingWindow(int size) {
+			samples = new long[size];
+		}
+
+		void add(long latencyNs) {
+			samples[count % samples.length] = latencyNs;
+			count++;
+			if (count == 2 * samples.length) {
+				// Keep the counter bounded, the window is full either way.
+				count = samples.length;
+			}
+		}
+
+		void clear() {
+			count = 0;
+		}
+
+		int size() {
+			return Math.min(count, samples.length);
+		}
+
+		void getPercentilesUs(float[] percentiles, long[] sortScratch, long[] outPercentilesUs) {
+			final int size = size();
+			if (size == 0) {
+				Arrays.fill(outPercentilesUs, 0, percentiles.length, 0L);
+				return;
+			}
+
+			System.arraycopy(samples, 0, sortScratch, 0, size);
+			Arrays.sort(sortScratch, 0, size);
+			for (int i = 0; i < percentiles.length; i++) {
+				final int rank = Math.min(size - 1, (int)Math.ceil(percentiles[i] * size) - 1);
+				outPercentilesUs[i] = sortScratch[Math.max(rank, 0)] / 1000L;
+			}
+		}
+	}
+}
@@ -0,0 +1,175 @@
+/*************************************************************************/
+/*  JoypadStateBuffer.java                                               */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot.input;
+
+import org.godotengine.godot.GodotLib;
+
+import android.util.SparseArray;
+import android.view.MotionEvent;
+
+/**
+ * Accumulates the axes state of the connected joypads on the UI thread, and forwards a snapshot of
+ * the pads that changed to the native layer once per rendered frame.
+ * <p>
+ * Polling every axis on each {@link MotionEvent} and forwarding each change as its
+ * own JNI call doesn't scale with local multiplayer; instead only the latest value of each axis
+ * is kept, and a single {@link GodotLib#joypadState(int, int[], float[])} call is made per frame.
+ * <p>
+ * Hat changes are edges, like button presses, so they're queued as events in the
+ * {@link InputEventBuffer} instead.
+ */
+class JoypadStateBuffer {
+	/**
+	 * Number of ints used to describe each pad in the snapshot: Godot device id and axis count.
+	 */
+	static final int PAD_STATE_STRIDE = 2;
+
+	private final SparseArray<Joystick> joysticks = new SparseArray<>(4);
+
+	private float axisDeadzone = 0f;
+	private float axisEpsilon = 0f;
+
+	// Only accessed on the render thread.
+	private int[] padStates = new int[4 * PAD_STATE_STRIDE];
+	private float[] axisValues = new float[4 * 8];
+
+	/**
+	 * Set the deadzone below which the axis values are reported as 0, and the minimum change
+	 * required for an axis value to be reported to the engine.
+	 */
+	synchronized void setAxisThresholds(float deadzone, float epsilon) {
+		axisDeadzone = Math.max(0f, Math.min(deadzone, 0.99f));
+		axisEpsilon = Math.max(0f, epsilon);
+	}
+
+	synchronized void addJoystick(int godotJoyId, Joystick joystick) {
+		joysticks.put(godotJoyId, joystick);
+	}
+
+	synchronized void removeJoystick(int godotJoyId) {
+		joysticks.delete(godotJoyId);
+	}
+
+	/**
+	 * Update the state of the given joystick with the axis values of the given event.
+	 *
+	 * Must be called on the UI thread.
+	 */
+	synchronized void update(Joystick joystick, MotionEvent event) {
+		final int[] axes = joystick.axes;
+		final float[] values = joystick.axesValues;
+		for (int i = 0; i < axes.length; i++) {
+			final float value = applyDeadzone(event.getAxisValue(axes[i]));
+			final float previous = values[i];
+			/*
+			 * As all axes are polled for each event, only report an axis if the value has changed
+			 * by more than the epsilon. Resting and extreme positions are always reported so
+			 * they're never lost to the epsilon.
+			 */
+			if (value != previous && (Math.abs(value - previous) >= axisEpsilon || value == 0f || Math.abs(value) == 1f)) {
+				values[i] = value;
+				joystick.axesDirty = true;
+			}
+		}
+	}
+
+	/**
+	 * Set the value of a single axis of the given joypad, as is.
+	 *
+	 * @return false if the joypad or the axis doesn't exist
+	 */
+	synchronized boolean setAxisValue(int godotJoyId, int axis, float value) {
+		final Joystick joystick = joysticks.get(godotJoyId);
+		if (joystick == null || axis < 0 || axis >= joystick.axesValues.length) {
+			return false;
+		}
+		if (joystick.axesValues[axis] != value) {
+			joystick.axesValues[axis] = value;
+			joystick.axesDirty = true;
+		}
+		return true;
+	}
+
+	private float applyDeadzone(float value) {
+		final float magnitude = Math.abs(value);
+		if (magnitude <= axisDeadzone) {
+			return 0f;
+		}
+		if (axisDeadzone == 0f) {
+			return value;
+		}
+		// Rescale so the full range of the axis is still reachable.
+		return Math.signum(value) * Math.min(1f, (magnitude - axisDeadzone) / (1f - axisDeadzone));
+	}
+
+	/**
+	 * Forward the state of the joypads that changed since the last call to the native layer.
+	 *
+	 * Must be called on the render thread.
+	 */
+	void dispatch() {
+		int padCount = 0;
+		synchronized (this) {
+			int axisCount = 0;
+			for (int i = 0; i < joysticks.size(); i++) {
+				final Joystick joystick = joysticks.valueAt(i);
+				if (!joystick.axesDirty) {
+					continue;
+				}
+
+				final float[] values = joystick.axesValues;
+				final int padOffset = padCount * PAD_STATE_STRIDE;
+				if (padOffset + PAD_STATE_STRIDE > padStates.length) {
+					int[] newPadStates = new int[padStates.length * 2];
+					System.arraycopy(padStates, 0, newPadStates, 0, padStates.length);
+					padStates = newPadStates;
+				}
+				if (axisCount + values.length > axisValues.length) {
+					float[] newAxisValues = new float[Math.max(axisValues.length * 2, axisCount + values.length)];
+					System.arraycopy(axisValues, 0, newAxisValues, 0, axisCount);
+					axisValues = newAxisValues;
+				}
+
+				padStates[padOffset] = joysticks.keyAt(i);
+				padStates[padOffset + 1] = values.length;
+				System.arraycopy(values, 0, axisValues, axisCount, values.length);
+				axisCount += values.length;
+
+				joystick.axesDirty = false;
+				padCount++;
+			}
+		}
+
+		if (padCount > 0) {
+			GodotLib.joypadState(padCount, padStates, axisValues);
+		}
+	}
+}
@@ -30,23 +30,26 @@
 
 package org.godotengine.godot.input;
 
-import android.util.SparseArray;
-
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * POJO class to represent a Joystick input device.
  */
 class Joystick {
 	int device_id;
 	String name;
-	List<Integer> axes = new ArrayList<>();
+	/*
+	 * Android axis codes, sorted. The index in this array is the Godot axis index.
+	 */
+	int[] axes = new int[0];
 	protected boolean hasAxisHat = false;
 	/*
 	 * Keep track of values so we can prevent flooding the engine with useless events.
+	 * Guarded by the owning {@link JoypadStateBuffer}.
 	 */
-	protected final SparseArray<Float> axesValues = new SparseArray<>(4);
+	protected float[] axesValues = new float[0];
 	protected int hatX;
 	protected int hatY;
+	/*
+	 * Set when the axes values changed since the last snapshot sent to the engine.
+	 */
+	protected boolean axesDirty;
 }
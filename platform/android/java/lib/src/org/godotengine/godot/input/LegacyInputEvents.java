@@ -0,0 +1,153 @@
+/*************************************************************************/
+/*  LegacyInputEvents.java                                               */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot.input;
+
+import org.godotengine.godot.GodotLib;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Queues the events forwarded by the deprecated {@link GodotLib} input methods into the buffers of
+ * the current {@link GodotInputHandler}, so they're dispatched in order with the other input.
+ * <p>
+ * The {@link InputEventBuffer} only has a single producer, so the events sent from other threads
+ * are queued on the UI thread. Events sent before a render view is created are dropped.
+ */
+public final class LegacyInputEvents {
+	private static final Handler uiHandler = new Handler(Looper.getMainLooper());
+
+	// Weak, so the render view isn't leaked past its activity.
+	private static volatile WeakReference<GodotInputHandler> inputHandler = new WeakReference<>(null);
+
+	private LegacyInputEvents() {
+	}
+
+	static void setInputHandler(GodotInputHandler handler) {
+		inputHandler = new WeakReference<>(handler);
+	}
+
+	private static void runOnUiThread(Runnable action) {
+		if (Looper.myLooper() == Looper.getMainLooper()) {
+			action.run();
+		} else {
+			uiHandler.post(action);
+		}
+	}
+
+	private static InputEventBuffer getInputEventBuffer() {
+		final GodotInputHandler handler = inputHandler.get();
+		return handler == null ? null : handler.getInputEventBuffer();
+	}
+
+	public static void touch(int inputDevice, int event, int pointer, int pointerCount, float[] positions, int buttonsMask, float verticalFactor, float horizontalFactor) {
+		final long eventTime = SystemClock.uptimeMillis();
+		// The positions can be reused by the caller once this returns.
+		final float[] points = positions.clone();
+		runOnUiThread(() -> {
+			final InputEventBuffer buffer = getInputEventBuffer();
+			if (buffer != null) {
+				buffer.queueTouchPoints(eventTime, inputDevice, event, pointer, pointerCount, points, buttonsMask, verticalFactor, horizontalFactor);
+			}
+		});
+	}
+
+	public static void hover(int type, float x, float y) {
+		final long eventTime = SystemClock.uptimeMillis();
+		runOnUiThread(() -> {
+			final InputEventBuffer buffer = getInputEventBuffer();
+			if (buffer != null) {
+				buffer.queueHoverEvent(eventTime, type, x, y);
+			}
+		});
+	}
+
+	public static void doubleTap(int buttonMask, int x, int y) {
+		final long eventTime = SystemClock.uptimeMillis();
+		runOnUiThread(() -> {
+			final InputEventBuffer buffer = getInputEventBuffer();
+			if (buffer != null) {
+				buffer.queueDoubleTapEvent(eventTime, buttonMask, x, y);
+			}
+		});
+	}
+
+	public static void scroll(int x, int y) {
+		final long eventTime = SystemClock.uptimeMillis();
+		runOnUiThread(() -> {
+			final InputEventBuffer buffer = getInputEventBuffer();
+			if (buffer != null) {
+				buffer.queueScrollEvent(eventTime, x, y);
+			}
+		});
+	}
+
+	public static void key(int keycode, int scancode, int unicodeChar, boolean pressed) {
+		final long eventTime = SystemClock.uptimeMillis();
+		runOnUiThread(() -> {
+			final InputEventBuffer buffer = getInputEventBuffer();
+			if (buffer != null) {
+				buffer.queueKeyEvent(eventTime, keycode, scancode, unicodeChar, pressed);
+			}
+		});
+	}
+
+	public static void joyButton(int device, int button, boolean pressed) {
+		final long eventTime = SystemClock.uptimeMillis();
+		runOnUiThread(() -> {
+			final InputEventBuffer buffer = getInputEventBuffer();
+			if (buffer != null) {
+				buffer.queueJoyButtonEvent(eventTime, device, button, pressed);
+			}
+		});
+	}
+
+	public static void joyHat(int device, int hatX, int hatY) {
+		final long eventTime = SystemClock.uptimeMillis();
+		runOnUiThread(() -> {
+			final InputEventBuffer buffer = getInputEventBuffer();
+			if (buffer != null) {
+				buffer.queueJoyHatEvent(eventTime, device, hatX, hatY);
+			}
+		});
+	}
+
+	public static void joyAxis(int device, int axis, float value) {
+		// The joypad state is synchronized, so it's updated from any thread.
+		final GodotInputHandler handler = inputHandler.get();
+		if (handler != null && handler.getJoypadStateBuffer().setAxisValue(device, axis, value)) {
+			handler.wakeRenderLoop();
+		}
+	}
+}
@@ -0,0 +1,86 @@
+/*************************************************************************/
+/*  SensorValueSlot.java                                                 */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot.input;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free, allocation-free slot holding the latest value of a 3-axis sensor.
+ * <p>
+ * The UI thread overwrites the value as sensor events come in, and the render thread reads it
+ * once per frame. This is implemented as a triple buffer: the writer and the reader each own a
+ * buffer, and the third one is atomically exchanged to publish or consume the latest value, so
+ * neither side ever blocks or observes a partially written value.
+ */
+class SensorValueSlot {
+	private static final int INDEX_MASK = 0x3;
+	private static final int DIRTY_BIT = 0x4;
+
+	private final float[][] buffers = new float[3][3];
+
+	/**
+	 * Index of the buffer in the middle, and whether it holds a value not consumed yet.
+	 */
+	private final AtomicInteger middle = new AtomicInteger(1);
+
+	// Only accessed on the UI thread.
+	private int backIndex = 0;
+	// Only accessed on the render thread.
+	private int frontIndex = 2;
+
+	/**
+	 * Publish a new value.
+	 *
+	 * Must be called on the UI thread.
+	 */
+	void set(float x, float y, float z) {
+		final float[] back = buffers[backIndex];
+		back[0] = x;
+		back[1] = y;
+		back[2] = z;
+		backIndex = middle.getAndSet(backIndex | DIRTY_BIT) & INDEX_MASK;
+	}
+
+	/**
+	 * Fetch the latest value, if it changed since the last call.
+	 *
+	 * Must be called on the render thread.
+	 * @return the latest value, or null if it hasn't changed. The returned array is only valid
+	 * until the next call.
+	 */
+	float[] poll() {
+		if ((middle.get() & DIRTY_BIT) == 0) {
+			return null;
+		}
+		frontIndex = middle.getAndSet(frontIndex) & INDEX_MASK;
+		return buffers[frontIndex];
+	}
+}
@@ -48,10 +48,12 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.microedition.khronos.egl.EGLConfig;
 import javax.microedition.khronos.opengles.GL10;
@@ -82,8 +84,13 @@ import javax.microedition.khronos.opengles.GL10;
 public abstract class GodotPlugin {
 	private static final String TAG = GodotPlugin.class.getSimpleName();
 
+	// Shared by the instance and static emissions of a plugin, so its signals stay in order.
+	private static final ConcurrentHashMap<String, SignalBuffer> signalBuffers = new ConcurrentHashMap<>();
+
 	private final Godot godot;
 	private final ConcurrentHashMap<String, SignalInfo> registeredSignals = new ConcurrentHashMap<>();
+	// Lazy plugins can be reached from both the registration of the plugins and their first call.
+	private final AtomicBoolean registeredWithGodotNative = new AtomicBoolean();
 
 	public GodotPlugin(Godot godot) {
 		this.godot = godot;
@@ -105,11 +112,15 @@ public abstract class GodotPlugin {
 	}
 
 	/**
-	 * Register the plugin with Godot native code.
+	 * Register the plugin with Godot native code; the plugin is only registered once, so lazy
+	 * plugins can be registered from whichever path reaches them first.
 	 *
 	 * This method is invoked on the render thread.
 	 */
 	public final void onRegisterPluginWithGodotNative() {
+		if (!registeredWithGodotNative.compareAndSet(false, true)) {
+			return;
+		}
 		registeredSignals.putAll(
 				registerPluginWithGodotNative(this, getPluginName(), getPluginMethods(), getPluginSignals(),
 						getPluginGDNativeLibrariesPaths()));
@@ -133,10 +144,110 @@ public abstract class GodotPlugin {
 	private static Map<String, SignalInfo> registerPluginWithGodotNative(Object pluginObject,
 			String pluginName, List<String> pluginMethods, Set<SignalInfo> pluginSignals,
 			Set<String> pluginGDNativeLibrariesPaths) {
-		nativeRegisterSingleton(pluginName, pluginObject);
+		GodotPluginMethodTable methodTable = loadMethodTable(pluginObject.getClass());
+		Map<String, SignalInfo> registeredSignals;
+		if (nativeRegisterSingleton(pluginName, pluginObject)) {
+			// Lazy plugin, its methods and declared signals are already registered.
+			registeredSignals = registerSignals(pluginName, pluginSignals, null);
+			if (methodTable != null) {
+				for (SignalInfo signalInfo : methodTable.getSignals()) {
+					registeredSignals.put(signalInfo.getName(), signalInfo);
+				}
+			}
+		} else {
+			registerMethods(pluginObject.getClass(), pluginName, pluginMethods, methodTable);
+			registeredSignals = registerSignals(pluginName, pluginSignals, methodTable);
+		}
+
+		// Get the list of gdnative libraries to register.
+		if (!pluginGDNativeLibrariesPaths.isEmpty()) {
+			nativeRegisterGDNativeLibraries(pluginGDNativeLibrariesPaths.toArray(new String[0]));
+		}
+
+		return registeredSignals;
+	}
+
+	/**
+	 * Register the given signals along with the ones declared in the method table.
+	 */
+	private static Map<String, SignalInfo> registerSignals(String pluginName, Set<SignalInfo> pluginSignals, @Nullable GodotPluginMethodTable methodTable) {
+		Set<SignalInfo> signals = pluginSignals;
+		if (methodTable != null && methodTable.getSignals().length > 0) {
+			signals = new LinkedHashSet<>(pluginSignals);
+			Collections.addAll(signals, methodTable.getSignals());
+		}
+
+		Map<String, SignalInfo> registeredSignals = new HashMap<>();
+		if (!signals.isEmpty()) {
+			String[] signalNames = new String[signals.size()];
+			int[] signalParamCounts = new int[signals.size()];
+			List<String> signalParamTypes = new ArrayList<>();
+			int i = 0;
+			for (SignalInfo signalInfo : signals) {
+				String signalName = signalInfo.getName();
+				String[] paramTypes = signalInfo.getParamTypesNames();
+				signalNames[i] = signalName;
+				signalParamCounts[i] = paramTypes.length;
+				Collections.addAll(signalParamTypes, paramTypes);
+				registeredSignals.put(signalName, signalInfo);
+				i++;
+			}
+			nativeRegisterSignals(pluginName, signalNames, signalParamCounts,
+					signalParamTypes.toArray(new String[0]));
+		}
+		return registeredSignals;
+	}
+
+	/**
+	 * Register a lazy plugin with Godot native code ahead of its creation, so it's created on the
+	 * first call to one of its {@link UsedByGodot} methods.
+	 * <p>
+	 * The signals declared with {@link GodotSignal} are registered right away, so scripts can
+	 * connect to them before the plugin is created. The signals returned by
+	 * {@link #getPluginSignals()} and the gdnative libraries are registered once it's created,
+	 * through {@link #onRegisterPluginWithGodotNative()}.
+	 *
+	 * This method must be invoked on the render thread.
+	 */
+	public static void registerLazyPluginWithGodotNative(String pluginName, Class<? extends GodotPlugin> pluginClass) {
+		nativeRegisterLazySingleton(pluginName, pluginClass);
+		GodotPluginMethodTable methodTable = loadMethodTable(pluginClass);
+		registerMethods(pluginClass, pluginName, Collections.emptyList(), methodTable);
+		registerSignals(pluginName, Collections.emptySet(), methodTable);
+	}
+
+	private static void registerMethods(Class<?> clazz, String pluginName, List<String> pluginMethods, @Nullable GodotPluginMethodTable methodTable) {
+		// The methods listed by the deprecated <pluginMethods> argument can only be found through
+		// reflection, so the generated method table is only used without them.
+		if (methodTable != null && pluginMethods.isEmpty()) {
+			nativeRegisterMethods(pluginName, methodTable.getMethodNames(), methodTable.getMethodSignatures(),
+					methodTable.getMethodReturnTypes(), methodTable.getMethodParamCounts(),
+					methodTable.getMethodParamTypes());
+		} else {
+			registerMethodsWithReflection(clazz, pluginName, pluginMethods);
+		}
+	}
 
+	/**
+	 * Loads the {@link GodotPluginMethodTable} generated for the given class.
+	 *
+	 * @return null if the class wasn't built with the Godot plugin annotation processor
+	 */
+	@Nullable
+	private static GodotPluginMethodTable loadMethodTable(Class<?> clazz) {
+		try {
+			Class<?> tableClass = Class.forName(clazz.getName() + GodotPluginMethodTable.CLASS_SUFFIX, true, clazz.getClassLoader());
+			return (GodotPluginMethodTable)tableClass.getDeclaredConstructor().newInstance();
+		} catch (ClassNotFoundException e) {
+			return null;
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			Log.w(TAG, "Unable to load the method table of " + clazz.getName(), e);
+			return null;
+		}
+	}
+
+	private static void registerMethodsWithReflection(Class<?> clazz, String pluginName, List<String> pluginMethods) {
 		Set<Method> filteredMethods = new HashSet<>();
-		Class<?> clazz = pluginObject.getClass();
 
 		Method[] methods = clazz.getDeclaredMethods();
 		for (Method method : methods) {
@@ -167,21 +278,6 @@ public abstract class GodotPlugin {
 
 			nativeRegisterMethod(pluginName, method.getName(), method.getReturnType().getName(), pt);
 		}
-
-		// Register the signals for this plugin.
-		Map<String, SignalInfo> registeredSignals = new HashMap<>();
-		for (SignalInfo signalInfo : pluginSignals) {
-			String signalName = signalInfo.getName();
-			nativeRegisterSignal(pluginName, signalName, signalInfo.getParamTypesNames());
-			registeredSignals.put(signalName, signalInfo);
-		}
-
-		// Get the list of gdnative libraries to register.
-		if (!pluginGDNativeLibrariesPaths.isEmpty()) {
-			nativeRegisterGDNativeLibraries(pluginGDNativeLibrariesPaths.toArray(new String[0]));
-		}
-
-		return registeredSignals;
 	}
 
 	/**
@@ -346,23 +442,124 @@ public abstract class GodotPlugin {
 
 	/**
 	 * Emit a registered Godot signal.
+	 * <p>
+	 * Consecutive signals are buffered, and sent to Godot together in a single render thread event.
 	 * @param signalName Name of the signal to emit. It will be validated against the set of registered signals.
 	 * @param signalArgs Arguments used to populate the emitted signal. The arguments will be validated against the {@link SignalInfo} matching the registered signalName parameter.
 	 */
 	protected void emitSignal(final String signalName, final Object... signalArgs) {
 		try {
-			// Check that the given signal is among the registered set.
-			SignalInfo signalInfo = registeredSignals.get(signalName);
-			if (signalInfo == null) {
+			validateSignalArgs(getRegisteredSignal(signalName), signalArgs);
+			getSignalBuffer(godot, getPluginName()).emit(signalName, signalArgs);
+		} catch (IllegalArgumentException exception) {
+			Log.w(TAG, exception.getMessage());
+			if (BuildConfig.DEBUG) {
+				throw exception;
+			}
+		}
+	}
+
+	/**
+	 * Emit a registered Godot signal with a single int argument, without boxing it.
+	 * @see #emitSignal(String, Object...)
+	 */
+	protected void emitSignalValue(final String signalName, final int value) {
+		if (isValidSignalArg(signalName, int.class, Integer.class)) {
+			getSignalBuffer(godot, getPluginName()).emit(signalName, value);
+		}
+	}
+
+	/**
+	 * Emit a registered Godot signal with a single long argument, without boxing it.
+	 * @see #emitSignal(String, Object...)
+	 */
+	protected void emitSignalValue(final String signalName, final long value) {
+		if (isValidSignalArg(signalName, long.class, Long.class)) {
+			getSignalBuffer(godot, getPluginName()).emit(signalName, value);
+		}
+	}
+
+	/**
+	 * Emit a registered Godot signal with a single float argument, without boxing it.
+	 * @see #emitSignal(String, Object...)
+	 */
+	protected void emitSignalValue(final String signalName, final float value) {
+		if (isValidSignalArg(signalName, float.class, Float.class)) {
+			getSignalBuffer(godot, getPluginName()).emit(signalName, value);
+		}
+	}
+
+	/**
+	 * Emit a registered Godot signal with a single double argument, without boxing it.
+	 * @see #emitSignal(String, Object...)
+	 */
+	protected void emitSignalValue(final String signalName, final double value) {
+		if (isValidSignalArg(signalName, double.class, Double.class)) {
+			getSignalBuffer(godot, getPluginName()).emit(signalName, value);
+		}
+	}
+
+	private static SignalBuffer getSignalBuffer(Godot godot, String pluginName) {
+		SignalBuffer signalBuffer = signalBuffers.get(pluginName);
+		if (signalBuffer == null || signalBuffer.getGodot() != godot) {
+			// The plugins are registered again with a new Godot instance when the engine restarts.
+			signalBuffer = signalBuffers.compute(pluginName, (name, buffer) -> buffer != null && buffer.getGodot() == godot ? buffer : new SignalBuffer(godot, name));
+		}
+		return signalBuffer;
+	}
+
+	private SignalInfo getRegisteredSignal(String signalName) {
+		// Check that the given signal is among the registered set.
+		SignalInfo signalInfo = registeredSignals.get(signalName);
+		if (signalInfo == null) {
+			throw new IllegalArgumentException(
+					"Signal " + signalName + " is not registered for this plugin.");
+		}
+		return signalInfo;
+	}
+
+	/**
+	 * Check that the registered signal takes a single argument of the given type.
+	 */
+	private boolean isValidSignalArg(String signalName, Class<?> primitiveType, Class<?> boxedType) {
+		try {
+			Class<?>[] signalParamTypes = getRegisteredSignal(signalName).getParamTypes();
+			if (signalParamTypes.length != 1) {
 				throw new IllegalArgumentException(
-						"Signal " + signalName + " is not registered for this plugin.");
+						"Invalid arguments count. Should be " + signalParamTypes.length + "  but is 1");
 			}
-			emitSignal(getGodot(), getPluginName(), signalInfo, signalArgs);
+			if (signalParamTypes[0] != primitiveType && !signalParamTypes[0].isAssignableFrom(boxedType)) {
+				throw new IllegalArgumentException(
+						"Invalid type for argument #0. Should be of type " + signalParamTypes[0].getName());
+			}
+			return true;
 		} catch (IllegalArgumentException exception) {
 			Log.w(TAG, exception.getMessage());
 			if (BuildConfig.DEBUG) {
 				throw exception;
 			}
+			return false;
+		}
+	}
+
+	private static void validateSignalArgs(SignalInfo signalInfo, Object[] signalArgs) {
+		if (signalInfo == null) {
+			throw new IllegalArgumentException("Signal must be non null.");
+		}
+
+		// Validate the arguments count.
+		Class<?>[] signalParamTypes = signalInfo.getParamTypes();
+		if (signalArgs.length != signalParamTypes.length) {
+			throw new IllegalArgumentException(
+					"Invalid arguments count. Should be " + signalParamTypes.length + "  but is " + signalArgs.length);
+		}
+
+		// Validate the argument's types.
+		for (int i = 0; i < signalParamTypes.length; i++) {
+			if (!signalParamTypes[i].isInstance(signalArgs[i])) {
+				throw new IllegalArgumentException(
+						"Invalid type for argument #" + i + ". Should be of type " + signalParamTypes[i].getName());
+			}
 		}
 	}
 
@@ -375,26 +572,8 @@ public abstract class GodotPlugin {
 	 */
 	public static void emitSignal(Godot godot, String pluginName, SignalInfo signalInfo, final Object... signalArgs) {
 		try {
-			if (signalInfo == null) {
-				throw new IllegalArgumentException("Signal must be non null.");
-			}
-
-			// Validate the arguments count.
-			Class<?>[] signalParamTypes = signalInfo.getParamTypes();
-			if (signalArgs.length != signalParamTypes.length) {
-				throw new IllegalArgumentException(
-						"Invalid arguments count. Should be " + signalParamTypes.length + "  but is " + signalArgs.length);
-			}
-
-			// Validate the argument's types.
-			for (int i = 0; i < signalParamTypes.length; i++) {
-				if (!signalParamTypes[i].isInstance(signalArgs[i])) {
-					throw new IllegalArgumentException(
-							"Invalid type for argument #" + i + ". Should be of type " + signalParamTypes[i].getName());
-				}
-			}
-
-			godot.runOnRenderThread(() -> nativeEmitSignal(pluginName, signalInfo.getName(), signalArgs));
+			validateSignalArgs(signalInfo, signalArgs);
+			getSignalBuffer(godot, pluginName).emit(signalInfo.getName(), signalArgs);
 
 		} catch (IllegalArgumentException exception) {
 			Log.w(TAG, exception.getMessage());
@@ -407,8 +586,16 @@ public abstract class GodotPlugin {
 	/**
 	 * Used to setup a {@link GodotPlugin} instance.
 	 * @param p_name Name of the instance.
+	 * @return true if the instance was registered ahead of its creation as a lazy plugin
+	 */
+	private static native boolean nativeRegisterSingleton(String p_name, Object object);
+
+	/**
+	 * Used to setup a lazy {@link GodotPlugin} before its instance is created.
+	 * @param pluginName Name of the plugin
+	 * @param pluginClass Class of the plugin, used to look up its methods
 	 */
-	private static native void nativeRegisterSingleton(String p_name, Object object);
+	private static native void nativeRegisterLazySingleton(String pluginName, Class<?> pluginClass);
 
 	/**
 	 * Used to complete registration of the {@link GodotPlugin} instance's methods.
@@ -419,6 +606,17 @@ public abstract class GodotPlugin {
 	 */
 	private static native void nativeRegisterMethod(String p_sname, String p_name, String p_ret, String[] p_params);
 
+	/**
+	 * Used to complete registration of the {@link GodotPlugin} instance's methods in bulk.
+	 * @param pluginName Name of the plugin
+	 * @param methodNames Names of the methods to register
+	 * @param methodSignatures JNI signatures of the methods
+	 * @param methodReturnTypes Return types of the methods
+	 * @param methodParamCounts Parameters count of each method
+	 * @param methodParamTypes Parameters types of all the methods, in order
+	 */
+	private static native void nativeRegisterMethods(String pluginName, String[] methodNames, String[] methodSignatures, String[] methodReturnTypes, int[] methodParamCounts, String[] methodParamTypes);
+
 	/**
 	 * Used to register gdnative libraries bundled by the plugin.
 	 * @param gdnlibPaths Paths to the libraries relative to the 'assets' directory.
@@ -426,18 +624,23 @@ public abstract class GodotPlugin {
 	private static native void nativeRegisterGDNativeLibraries(String[] gdnlibPaths);
 
 	/**
-	 * Used to complete registration of the {@link GodotPlugin} instance's methods.
+	 * Used to register the {@link GodotPlugin} instance's signals in bulk.
 	 * @param pluginName Name of the plugin
-	 * @param signalName Name of the signal to register
-	 * @param signalParamTypes Signal parameters types
+	 * @param signalNames Names of the signals to register
+	 * @param signalParamCounts Parameters count of each signal
+	 * @param signalParamTypes Parameters types of all the signals, in order
 	 */
-	private static native void nativeRegisterSignal(String pluginName, String signalName, String[] signalParamTypes);
+	private static native void nativeRegisterSignals(String pluginName, String[] signalNames, int[] signalParamCounts, String[] signalParamTypes);
 
 	/**
-	 * Used to emit signal by {@link GodotPlugin} instance.
+	 * Used to emit the signals buffered by a {@link SignalBuffer} in bulk.
 	 * @param pluginName Name of the plugin
-	 * @param signalName Name of the signal to emit
-	 * @param signalParams Signal parameters
-	 */
-	private static native void nativeEmitSignal(String pluginName, String signalName, Object[] signalParams);
+	 * @param signalNames Names of the emitted signals
+	 * @param emissionCount Number of emissions
+	 * @param records For each emission, the index of its signal name, its arguments count and the type of each argument
+	 * @param longs Values of the integer arguments, in order
+	 * @param doubles Values of the floating-point arguments, in order
+	 * @param objects Values of the other arguments, in order
+	 */
+	static native void nativeEmitSignals(String pluginName, String[] signalNames, int emissionCount, int[] records, long[] longs, double[] doubles, Object[] objects);
 }
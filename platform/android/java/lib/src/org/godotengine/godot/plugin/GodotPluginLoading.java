@@ -0,0 +1,68 @@
+/*************************************************************************/
+/*  GodotPluginLoading.java                                              */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot.plugin;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation to declare how a {@link GodotPlugin} class is created.
+ *
+ * Plugins without this annotation are eager: they're created on the main thread along with
+ * Godot, one after the other.
+ */
+@Target({ ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface GodotPluginLoading {
+	/**
+	 * Whether the plugin is created on first use rather than along with Godot.
+	 * <p>
+	 * A lazy plugin is created on the UI thread, on the first call to one of its
+	 * {@link UsedByGodot} methods from the game logic, on the first
+	 * {@link GodotPluginRegistry#getPlugin(String)} call, or before the first activity result,
+	 * permissions result or back press when it overrides the matching callback. Once created, it
+	 * receives {@link GodotPlugin#onMainResume()} if the activity is resumed, then the callbacks
+	 * that occur from its creation on.
+	 * <p>
+	 * Its {@link GodotSignal} signals are registered along with Godot, the ones returned by
+	 * {@link GodotPlugin#getPluginSignals()} once it's created. It can't use the deprecated
+	 * {@link GodotPlugin#getPluginMethods()}.
+	 */
+	boolean lazy() default false;
+
+	/**
+	 * Whether the plugin constructor can run on a background thread, in parallel with the
+	 * creation of the other plugins. Only applies to eager plugins.
+	 */
+	boolean threadSafe() default false;
+}
@@ -0,0 +1,72 @@
+/*************************************************************************/
+/*  GodotPluginMethodTable.java                                          */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot.plugin;
+
+/**
+ * Table of the {@link UsedByGodot} methods and {@link GodotSignal} signals of a class, generated
+ * at build time by the Godot plugin annotation processor ('platform/android/java/processor').
+ * <p>
+ * The table of a class is named after it with the {@link #CLASS_SUFFIX} suffix, and allows
+ * registering its methods in bulk without reflection, and its signals without an instance.
+ */
+public interface GodotPluginMethodTable {
+	String CLASS_SUFFIX = "_GodotMethodTable";
+
+	/**
+	 * Returns the names of the methods.
+	 */
+	String[] getMethodNames();
+
+	/**
+	 * Returns the JNI signatures used to look up the methods.
+	 */
+	String[] getMethodSignatures();
+
+	/**
+	 * Returns the return type names of the methods, as returned by {@link Class#getName()}.
+	 */
+	String[] getMethodReturnTypes();
+
+	/**
+	 * Returns the parameters count of each method.
+	 */
+	int[] getMethodParamCounts();
+
+	/**
+	 * Returns the parameter type names of all the methods, in order.
+	 */
+	String[] getMethodParamTypes();
+
+	/**
+	 * Returns the signals declared with {@link GodotSignal}.
+	 */
+	SignalInfo[] getSignals();
+}
@@ -31,20 +31,40 @@
 package org.godotengine.godot.plugin;
 
 import org.godotengine.godot.Godot;
+import org.godotengine.godot.utils.StartupTrace;
 
-import android.app.Activity;
+import android.content.Context;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.text.TextUtils;
 import android.util.Log;
+import android.view.Surface;
 
+import androidx.annotation.Keep;
 import androidx.annotation.Nullable;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.microedition.khronos.egl.EGLConfig;
+import javax.microedition.khronos.opengles.GL10;
 
 /**
  * Registry used to load and access the registered Godot Android plugins.
@@ -54,31 +74,238 @@ public final class GodotPluginRegistry {
 
 	private static final String GODOT_PLUGIN_V1_NAME_PREFIX = "org.godotengine.plugin.v1.";
 
+	private static final GodotPlugin[] NO_PLUGINS = new GodotPlugin[0];
+
+	// How long another thread waits for a lazy plugin to be created on the UI thread. The wait is
+	// bounded since the UI thread can itself be waiting on the render thread.
+	private static final long LAZY_PLUGIN_CREATION_TIMEOUT_MS = 2000;
+
 	private static GodotPluginRegistry instance;
+	private final Godot godot;
 	private final ConcurrentHashMap<String, GodotPlugin> registry;
+	// Lazy plugins which haven't been created yet.
+	private final ConcurrentHashMap<String, Class<GodotPlugin>> lazyPluginClasses = new ConcurrentHashMap<>();
+	private final Handler uiHandler = new Handler(Looper.getMainLooper());
+	@Nullable
+	private volatile OnLazyPluginCreatedListener lazyPluginCreatedListener;
+
+	// Plugins overriding each of the render thread callbacks.
+	private volatile GodotPlugin[] glDrawFramePlugins = NO_PLUGINS;
+	private volatile GodotPlugin[] glSurfaceChangedPlugins = NO_PLUGINS;
+	private volatile GodotPlugin[] glSurfaceCreatedPlugins = NO_PLUGINS;
+	private volatile GodotPlugin[] vkDrawFramePlugins = NO_PLUGINS;
+	private volatile GodotPlugin[] vkSurfaceChangedPlugins = NO_PLUGINS;
+	private volatile GodotPlugin[] vkSurfaceCreatedPlugins = NO_PLUGINS;
+
+	/**
+	 * Listener notified when a lazy plugin is created.
+	 */
+	public interface OnLazyPluginCreatedListener {
+		/**
+		 * Invoked on the UI thread, once the plugin is part of the registry.
+		 */
+		void onLazyPluginCreated(GodotPlugin plugin);
+	}
 
-	private GodotPluginRegistry(Godot godot) {
+	private GodotPluginRegistry(Godot godot, Map<String, Class<GodotPlugin>> pluginClasses, @Nullable ExecutorService executor) {
+		this.godot = godot;
 		registry = new ConcurrentHashMap<>();
-		loadPlugins(godot);
+		loadPlugins(pluginClasses, executor);
+		updateRenderCallbackPlugins();
 	}
 
 	/**
 	 * Retrieve the plugin tied to the given plugin name.
+	 * <p>
+	 * A lazy plugin which hasn't been created yet is created on the UI thread. Other threads wait
+	 * for its creation for up to {@link #LAZY_PLUGIN_CREATION_TIMEOUT_MS}.
 	 * @param pluginName Name of the plugin
 	 * @return {@link GodotPlugin} handle if it exists, null otherwise.
 	 */
 	@Nullable
 	public GodotPlugin getPlugin(String pluginName) {
-		return registry.get(pluginName);
+		GodotPlugin plugin = registry.get(pluginName);
+		if (plugin == null && lazyPluginClasses.containsKey(pluginName)) {
+			plugin = createLazyPlugin(pluginName);
+		}
+		return plugin;
 	}
 
 	/**
-	 * Retrieve the full set of loaded plugins.
+	 * Retrieve the full set of created plugins.
+	 * <p>
+	 * The lazy plugins are only included once they're created.
 	 */
 	public Collection<GodotPlugin> getAllPlugins() {
 		return registry.values();
 	}
 
+	/**
+	 * Retrieve the classes of the lazy plugins which haven't been created yet, keyed by plugin name.
+	 */
+	public Map<String, Class<GodotPlugin>> getLazyPluginClasses() {
+		return Collections.unmodifiableMap(lazyPluginClasses);
+	}
+
+	public void setOnLazyPluginCreatedListener(@Nullable OnLazyPluginCreatedListener listener) {
+		lazyPluginCreatedListener = listener;
+	}
+
+	/**
+	 * Create the lazy plugins overriding the given {@link GodotPlugin} lifecycle callback, so they
+	 * receive it.
+	 *
+	 * This method must be invoked on the UI thread.
+	 */
+	public void createLazyPluginsOverriding(String callbackName, Class<?>... parameterTypes) {
+		for (Map.Entry<String, Class<GodotPlugin>> entry : lazyPluginClasses.entrySet()) {
+			if (overridesCallback(entry.getValue(), callbackName, parameterTypes)) {
+				createLazyPluginOnUiThread(entry.getKey());
+			}
+		}
+	}
+
+	@Nullable
+	private GodotPlugin createLazyPlugin(String pluginName) {
+		if (Looper.myLooper() == Looper.getMainLooper()) {
+			return createLazyPluginOnUiThread(pluginName);
+		}
+
+		FutureTask<GodotPlugin> creation = new FutureTask<>(() -> createLazyPluginOnUiThread(pluginName));
+		uiHandler.post(creation);
+		try {
+			return creation.get(LAZY_PLUGIN_CREATION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			Log.w(TAG, "Unable to load Godot plugin " + pluginName, e.getCause());
+		} catch (TimeoutException e) {
+			// The plugin is still created, and available once the UI thread gets to it.
+			Log.w(TAG, "Timed out waiting for the UI thread to create Godot plugin " + pluginName);
+		}
+		return null;
+	}
+
+	@Nullable
+	private GodotPlugin createLazyPluginOnUiThread(String pluginName) {
+		GodotPlugin plugin = registry.get(pluginName);
+		if (plugin != null) {
+			return plugin;
+		}
+
+		Class<GodotPlugin> pluginClass = lazyPluginClasses.get(pluginName);
+		if (pluginClass == null) {
+			return null;
+		}
+
+		plugin = createPlugin(pluginName, pluginClass);
+		if (plugin != null) {
+			registry.put(pluginName, plugin);
+		}
+		lazyPluginClasses.remove(pluginName);
+
+		if (plugin != null) {
+			updateRenderCallbackPlugins();
+			OnLazyPluginCreatedListener listener = lazyPluginCreatedListener;
+			if (listener != null) {
+				listener.onLazyPluginCreated(plugin);
+			}
+		}
+		return plugin;
+	}
+
+	/**
+	 * Used by the native code (godot_plugin_jni.cpp) on the first call to a method of a lazy
+	 * plugin, on the render thread. The call fails if the plugin isn't created in time.
+	 */
+	@Keep
+	private static void onLazyPluginCalled(String pluginName) {
+		GodotPlugin plugin = instance == null ? null : instance.getPlugin(pluginName);
+		if (plugin != null) {
+			// Complete the registration right away, so the pending call goes through; the
+			// registration queued by the lazy plugin created listener is then skipped.
+			plugin.onRegisterPluginWithGodotNative();
+		}
+	}
+
+	/**
+	 * Retrieve the plugins overriding {@link GodotPlugin#onGLDrawFrame(GL10)}.
+	 * <p>
+	 * The render thread callbacks getters return arrays computed once when the plugins are
+	 * loaded, so the render loops can iterate them without allocating and skip the plugins that
+	 * don't use the callback. The returned arrays must not be modified.
+	 */
+	public GodotPlugin[] getGLDrawFramePlugins() {
+		return glDrawFramePlugins;
+	}
+
+	/**
+	 * Retrieve the plugins overriding {@link GodotPlugin#onGLSurfaceChanged(GL10, int, int)}.
+	 */
+	public GodotPlugin[] getGLSurfaceChangedPlugins() {
+		return glSurfaceChangedPlugins;
+	}
+
+	/**
+	 * Retrieve the plugins overriding {@link GodotPlugin#onGLSurfaceCreated(GL10, EGLConfig)}.
+	 */
+	public GodotPlugin[] getGLSurfaceCreatedPlugins() {
+		return glSurfaceCreatedPlugins;
+	}
+
+	/**
+	 * Retrieve the plugins overriding {@link GodotPlugin#onVkDrawFrame()}.
+	 */
+	public GodotPlugin[] getVkDrawFramePlugins() {
+		return vkDrawFramePlugins;
+	}
+
+	/**
+	 * Retrieve the plugins overriding {@link GodotPlugin#onVkSurfaceChanged(Surface, int, int)}.
+	 */
+	public GodotPlugin[] getVkSurfaceChangedPlugins() {
+		return vkSurfaceChangedPlugins;
+	}
+
+	/**
+	 * Retrieve the plugins overriding {@link GodotPlugin#onVkSurfaceCreated(Surface)}.
+	 */
+	public GodotPlugin[] getVkSurfaceCreatedPlugins() {
+		return vkSurfaceCreatedPlugins;
+	}
+
+	/**
+	 * Compute the plugins overriding each render thread callback.
+	 */
+	private void updateRenderCallbackPlugins() {
+		glDrawFramePlugins = filterPlugins("onGLDrawFrame", GL10.class);
+		glSurfaceChangedPlugins = filterPlugins("onGLSurfaceChanged", GL10.class, int.class, int.class);
+		glSurfaceCreatedPlugins = filterPlugins("onGLSurfaceCreated", GL10.class, EGLConfig.class);
+		vkDrawFramePlugins = filterPlugins("onVkDrawFrame");
+		vkSurfaceChangedPlugins = filterPlugins("onVkSurfaceChanged", Surface.class, int.class, int.class);
+		vkSurfaceCreatedPlugins = filterPlugins("onVkSurfaceCreated", Surface.class);
+	}
+
+	private GodotPlugin[] filterPlugins(String callbackName, Class<?>... parameterTypes) {
+		List<GodotPlugin> plugins = new ArrayList<>();
+		for (GodotPlugin plugin : registry.values()) {
+			if (overridesCallback(plugin.getClass(), callbackName, parameterTypes)) {
+				plugins.add(plugin);
+			}
+		}
+		return plugins.isEmpty() ? NO_PLUGINS : plugins.toArray(NO_PLUGINS);
+	}
+
+	private static boolean overridesCallback(Class<?> pluginClass, String callbackName, Class<?>... parameterTypes) {
+		try {
+			// The callbacks are public, so this resolves to the most derived implementation.
+			return pluginClass.getMethod(callbackName, parameterTypes).getDeclaringClass() != GodotPlugin.class;
+		} catch (NoSuchMethodException e) {
+			Log.w(TAG, "Unable to resolve " + callbackName + " for Godot plugin " + pluginClass.getName(), e);
+			return true;
+		}
+	}
+
 	/**
 	 * Parse the manifest file and load all included Godot Android plugins.
 	 * <p>
@@ -90,8 +317,31 @@ public final class GodotPluginRegistry {
 	 * of each Godot Android plugins is available at runtime.
 	 */
 	public static GodotPluginRegistry initializePluginRegistry(Godot godot) {
+		return initializePluginRegistry(godot, loadPluginClasses(godot.getActivity()));
+	}
+
+	/**
+	 * Initialize the plugin registry from plugin classes already loaded by
+	 * {@link GodotPluginRegistry#loadPluginClasses(Context)}.
+	 *
+	 * @return A singleton instance of {@link GodotPluginRegistry}.
+	 */
+	public static GodotPluginRegistry initializePluginRegistry(Godot godot, Map<String, Class<GodotPlugin>> pluginClasses) {
+		return initializePluginRegistry(godot, pluginClasses, null);
+	}
+
+	/**
+	 * Initialize the plugin registry from plugin classes already loaded by
+	 * {@link GodotPluginRegistry#loadPluginClasses(Context)}.
+	 *
+	 * @param executor Used to create the eager plugins declared thread-safe by
+	 * {@link GodotPluginLoading#threadSafe()} in parallel. When null, they're created on the calling
+	 * thread.
+	 * @return A singleton instance of {@link GodotPluginRegistry}.
+	 */
+	public static GodotPluginRegistry initializePluginRegistry(Godot godot, Map<String, Class<GodotPlugin>> pluginClasses, @Nullable ExecutorService executor) {
 		if (instance == null) {
-			instance = new GodotPluginRegistry(godot);
+			instance = new GodotPluginRegistry(godot, pluginClasses, executor);
 		}
 
 		return instance;
@@ -111,54 +361,42 @@ public final class GodotPluginRegistry {
 		return instance;
 	}
 
-	private void loadPlugins(Godot godot) {
+	/**
+	 * Load the classes of the Godot plugins declared in the manifest file, keyed by plugin name.
+	 *
+	 * The classes are loaded without being initialized, so this can be invoked on a background
+	 * thread ahead of {@link GodotPluginRegistry#initializePluginRegistry(Godot, Map)}.
+	 */
+	public static Map<String, Class<GodotPlugin>> loadPluginClasses(Context context) {
+		final Map<String, Class<GodotPlugin>> pluginClasses = new LinkedHashMap<>();
 		try {
-			final Activity activity = godot.getActivity();
-			ApplicationInfo appInfo = activity
+			ApplicationInfo appInfo = context
 											  .getPackageManager()
-											  .getApplicationInfo(activity.getPackageName(),
+											  .getApplicationInfo(context.getPackageName(),
 													  PackageManager.GET_META_DATA);
 			Bundle metaData = appInfo.metaData;
 			if (metaData == null || metaData.isEmpty()) {
-				return;
+				return pluginClasses;
 			}
 
+			final ClassLoader classLoader = GodotPluginRegistry.class.getClassLoader();
 			int godotPluginV1NamePrefixLength = GODOT_PLUGIN_V1_NAME_PREFIX.length();
 			for (String metaDataName : metaData.keySet()) {
 				// Parse the meta-data looking for entry with the Godot plugin name prefix.
 				if (metaDataName.startsWith(GODOT_PLUGIN_V1_NAME_PREFIX)) {
 					String pluginName = metaDataName.substring(godotPluginV1NamePrefixLength).trim();
-					Log.i(TAG, "Initializing Godot plugin " + pluginName);
 
 					// Retrieve the plugin class full name.
 					String pluginHandleClassFullName = metaData.getString(metaDataName);
 					if (!TextUtils.isEmpty(pluginHandleClassFullName)) {
 						try {
-							// Attempt to create the plugin init class via reflection.
+							// Load the plugin init class; it's initialized when the plugin is created.
 							@SuppressWarnings("unchecked")
 							Class<GodotPlugin> pluginClass = (Class<GodotPlugin>)Class
-																	 .forName(pluginHandleClassFullName);
-							Constructor<GodotPlugin> pluginConstructor = pluginClass
-																				 .getConstructor(Godot.class);
-							GodotPlugin pluginHandle = pluginConstructor.newInstance(godot);
-
-							// Load the plugin initializer into the registry using the plugin name as key.
-							if (!pluginName.equals(pluginHandle.getPluginName())) {
-								Log.w(TAG,
-										"Meta-data plugin name does not match the value returned by the plugin handle: " + pluginName + " =/= " + pluginHandle.getPluginName());
-							}
-							registry.put(pluginName, pluginHandle);
-							Log.i(TAG, "Completed initialization for Godot plugin " + pluginHandle.getPluginName());
+																	 .forName(pluginHandleClassFullName, false, classLoader);
+							pluginClasses.put(pluginName, pluginClass);
 						} catch (ClassNotFoundException e) {
 							Log.w(TAG, "Unable to load Godot plugin " + pluginName, e);
-						} catch (IllegalAccessException e) {
-							Log.w(TAG, "Unable to load Godot plugin " + pluginName, e);
-						} catch (InstantiationException e) {
-							Log.w(TAG, "Unable to load Godot plugin " + pluginName, e);
-						} catch (NoSuchMethodException e) {
-							Log.w(TAG, "Unable to load Godot plugin " + pluginName, e);
-						} catch (InvocationTargetException e) {
-							Log.w(TAG, "Unable to load Godot plugin " + pluginName, e);
 						}
 					} else {
 						Log.w(TAG, "Invalid plugin loader class for " + pluginName);
@@ -168,5 +406,85 @@ public final class GodotPluginRegistry {
 		} catch (PackageManager.NameNotFoundException e) {
 			Log.e(TAG, "Unable load Godot Android plugins from the manifest file.", e);
 		}
+		return pluginClasses;
+	}
+
+	private void loadPlugins(Map<String, Class<GodotPlugin>> pluginClasses, @Nullable ExecutorService executor) {
+		final Map<String, Class<GodotPlugin>> callingThreadPlugins = new LinkedHashMap<>();
+		final Map<String, Future<GodotPlugin>> backgroundPlugins = new LinkedHashMap<>();
+		for (Map.Entry<String, Class<GodotPlugin>> entry : pluginClasses.entrySet()) {
+			final String pluginName = entry.getKey();
+			final Class<GodotPlugin> pluginClass = entry.getValue();
+			GodotPluginLoading loading = pluginClass.getAnnotation(GodotPluginLoading.class);
+			if (loading != null && loading.lazy()) {
+				Log.i(TAG, "Deferring initialization of lazy Godot plugin " + pluginName);
+				lazyPluginClasses.put(pluginName, pluginClass);
+			} else if (loading != null && loading.threadSafe() && executor != null) {
+				backgroundPlugins.put(pluginName, executor.submit(() -> createPlugin(pluginName, pluginClass)));
+			} else {
+				callingThreadPlugins.put(pluginName, pluginClass);
+			}
+		}
+
+		// Create the other plugins while the thread-safe ones are created in the background.
+		for (Map.Entry<String, Class<GodotPlugin>> entry : callingThreadPlugins.entrySet()) {
+			GodotPlugin pluginHandle = createPlugin(entry.getKey(), entry.getValue());
+			if (pluginHandle != null) {
+				registry.put(entry.getKey(), pluginHandle);
+			}
+		}
+
+		boolean interrupted = false;
+		for (Map.Entry<String, Future<GodotPlugin>> entry : backgroundPlugins.entrySet()) {
+			GodotPlugin pluginHandle = null;
+			while (true) {
+				try {
+					pluginHandle = entry.getValue().get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					Log.w(TAG, "Unable to load Godot plugin " + entry.getKey(), e.getCause());
+					break;
+				}
+			}
+			if (pluginHandle != null) {
+				registry.put(entry.getKey(), pluginHandle);
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Nullable
+	private GodotPlugin createPlugin(String pluginName, Class<GodotPlugin> pluginClass) {
+		Log.i(TAG, "Initializing Godot plugin " + pluginName);
+		StartupTrace.beginSection("Create plugin " + pluginName);
+		final long startTime = SystemClock.elapsedRealtime();
+		try {
+			// Attempt to create the plugin init class via reflection.
+			Constructor<GodotPlugin> pluginConstructor = pluginClass.getConstructor(Godot.class);
+			GodotPlugin pluginHandle = pluginConstructor.newInstance(godot);
+
+			// Load the plugin initializer into the registry using the plugin name as key.
+			if (!pluginName.equals(pluginHandle.getPluginName())) {
+				Log.w(TAG,
+						"Meta-data plugin name does not match the value returned by the plugin handle: " + pluginName + " =/= " + pluginHandle.getPluginName());
+			}
+			Log.i(TAG, "Completed initialization for Godot plugin " + pluginHandle.getPluginName() + " in " + (SystemClock.elapsedRealtime() - startTime) + " ms");
+			return pluginHandle;
+		} catch (IllegalAccessException e) {
+			Log.w(TAG, "Unable to load Godot plugin " + pluginName, e);
+		} catch (InstantiationException e) {
+			Log.w(TAG, "Unable to load Godot plugin " + pluginName, e);
+		} catch (NoSuchMethodException e) {
+			Log.w(TAG, "Unable to load Godot plugin " + pluginName, e);
+		} catch (InvocationTargetException e) {
+			Log.w(TAG, "Unable to load Godot plugin " + pluginName, e);
+		} finally {
+			StartupTrace.endSection();
+		}
+		return null;
 	}
 }
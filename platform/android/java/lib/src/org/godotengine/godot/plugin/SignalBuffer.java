@@ -0,0 +1,201 @@
+/*************************************************************************/
+/*  SignalBuffer.java                                                    */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot.plugin;
+
+import org.godotengine.godot.Godot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Buffers the signals emitted by a {@link GodotPlugin}, so consecutive emissions are sent to the
+ * native code in a single render thread event rather than one event each.
+ * <p>
+ * The arguments are stored in arrays by type, so the typed emissions aren't boxed. Signals can be
+ * emitted from any thread. Emissions are only appended to the batch queued last on the render
+ * thread while no other event was queued after it, so they're run in the order they were queued
+ * relative to the other render thread events.
+ */
+final class SignalBuffer {
+	// Argument type tags, must match the ones in 'platform/android/plugin/godot_plugin_jni.cpp'.
+	static final int ARG_OBJECT = 0;
+	static final int ARG_LONG = 1;
+	static final int ARG_DOUBLE = 2;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Emissions sent to the native code together, when the batch is run on the render thread.
+	 *
+	 * Each emission is recorded as the index of its signal name, its arguments count, then the type
+	 * tag of each argument. The argument values are stored in the array matching their tag.
+	 */
+	private final class Batch implements Runnable {
+		final List<String> signalNames = new ArrayList<>();
+		final Map<String, Integer> signalIndices = new HashMap<>();
+		int emissionCount = 0;
+
+		int[] records = new int[INITIAL_CAPACITY * 3];
+		int recordsSize = 0;
+		long[] longs = new long[INITIAL_CAPACITY];
+		int longsSize = 0;
+		double[] doubles = new double[INITIAL_CAPACITY];
+		int doublesSize = 0;
+		Object[] objects = new Object[INITIAL_CAPACITY];
+		int objectsSize = 0;
+
+		@Override
+		public void run() {
+			flush(this);
+		}
+
+		void beginEmission(String signalName, int argCount) {
+			Integer signalIndex = signalIndices.get(signalName);
+			if (signalIndex == null) {
+				signalIndex = signalNames.size();
+				signalNames.add(signalName);
+				signalIndices.put(signalName, signalIndex);
+			}
+
+			if (recordsSize + 2 + argCount > records.length) {
+				records = Arrays.copyOf(records, Math.max(records.length * 2, recordsSize + 2 + argCount));
+			}
+			records[recordsSize++] = signalIndex;
+			records[recordsSize++] = argCount;
+			emissionCount++;
+		}
+
+		void addLong(long value) {
+			if (longsSize == longs.length) {
+				longs = Arrays.copyOf(longs, longs.length * 2);
+			}
+			records[recordsSize++] = ARG_LONG;
+			longs[longsSize++] = value;
+		}
+
+		void addDouble(double value) {
+			if (doublesSize == doubles.length) {
+				doubles = Arrays.copyOf(doubles, doubles.length * 2);
+			}
+			records[recordsSize++] = ARG_DOUBLE;
+			doubles[doublesSize++] = value;
+		}
+
+		void addObject(Object value) {
+			if (objectsSize == objects.length) {
+				objects = Arrays.copyOf(objects, objects.length * 2);
+			}
+			records[recordsSize++] = ARG_OBJECT;
+			objects[objectsSize++] = value;
+		}
+
+		void clear() {
+			signalNames.clear();
+			signalIndices.clear();
+			emissionCount = 0;
+			recordsSize = 0;
+			longsSize = 0;
+			doublesSize = 0;
+			// Release the references to the arguments.
+			Arrays.fill(objects, 0, objectsSize, null);
+			objectsSize = 0;
+		}
+	}
+
+	private final Godot godot;
+	private final String pluginName;
+
+	// Batch queued last by this buffer, and a flushed one kept to be reused; guarded by this.
+	private Batch queued = null;
+	private Batch spare = null;
+
+	SignalBuffer(Godot godot, String pluginName) {
+		this.godot = godot;
+		this.pluginName = pluginName;
+	}
+
+	Godot getGodot() {
+		return godot;
+	}
+
+	synchronized void emit(String signalName, long value) {
+		beginEmission(signalName, 1).addLong(value);
+	}
+
+	synchronized void emit(String signalName, double value) {
+		beginEmission(signalName, 1).addDouble(value);
+	}
+
+	synchronized void emit(String signalName, Object[] args) {
+		Batch batch = beginEmission(signalName, args.length);
+		for (Object arg : args) {
+			batch.addObject(arg);
+		}
+	}
+
+	private Batch beginEmission(String signalName, int argCount) {
+		Batch batch = queued;
+		// The batch can't be run while this holds the lock, so the emission makes it in time.
+		if (batch == null || !godot.isLastQueuedOnRenderThread(batch)) {
+			batch = spare != null ? spare : new Batch();
+			spare = null;
+			queued = batch;
+			godot.runOnRenderThread(batch);
+		}
+		batch.beginEmission(signalName, argCount);
+		return batch;
+	}
+
+	/**
+	 * Send the batch's emissions to the native code. Invoked on the render thread.
+	 */
+	private void flush(Batch batch) {
+		synchronized (this) {
+			// No more emissions can be appended to the batch from here on.
+			if (queued == batch) {
+				queued = null;
+			}
+		}
+
+		if (batch.emissionCount > 0) {
+			GodotPlugin.nativeEmitSignals(pluginName, batch.signalNames.toArray(new String[0]),
+					batch.emissionCount, batch.records, batch.longs, batch.doubles, batch.objects);
+		}
+		batch.clear();
+
+		synchronized (this) {
+			spare = batch;
+		}
+	}
+}
@@ -39,6 +39,17 @@ import java.lang.annotation.Target;
  * Annotation to indicate a method is being invoked from the Godot game logic.
  *
  * At runtime, annotated plugin methods are detected and automatically registered.
+ *
+ * Plugins built with the Godot plugin annotation processor ('platform/android/java/processor')
+ * have their annotated methods registered from the {@link GodotPluginMethodTable} generated at
+ * build time, instead of looking them up through reflection. The processor is generated in the
+ * Godot bin directory as 'godot-processor.jar' along with the Godot android library archives, and
+ * enabled with <code>annotationProcessor files('godot-processor.jar')</code> in the plugin's
+ * 'build.gradle' dependencies.
+ *
+ * Besides the primitive arrays, large data can be exchanged through direct {@link java.nio.ByteBuffer}
+ * and {@link java.nio.FloatBuffer} parameters and return values. A buffer parameter holds a copy of
+ * the Godot packed array.
  */
 @Target({ ElementType.METHOD })
 @Retention(RetentionPolicy.RUNTIME)
@@ -0,0 +1,134 @@
+/*************************************************************************/
+/*  CachedConfigChooser.java                                             */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot.utils;
+
+import org.godotengine.godot.xr.XRMode;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.opengl.GLSurfaceView;
+import android.os.Build;
+import android.util.Log;
+
+import javax.microedition.khronos.egl.EGL10;
+import javax.microedition.khronos.egl.EGLConfig;
+import javax.microedition.khronos.egl.EGLDisplay;
+
+/**
+ * Caches the egl config selected by another chooser across launches.
+ *
+ * The selected config is persisted by its EGL_CONFIG_ID, for the device build, egl driver, XR
+ * mode and chooser it was selected with. The chooser is identified by its
+ * {@link CacheableConfigChooser#getCacheKey()}, so changing the config it requests invalidates
+ * the cache. On the next launches, the cached config is retrieved and
+ * validated with a single eglChooseConfig call, and the full config enumeration of the wrapped
+ * chooser only runs when the cache misses.
+ */
+public class CachedConfigChooser implements GLSurfaceView.EGLConfigChooser {
+	private static final String TAG = CachedConfigChooser.class.getSimpleName();
+
+	private static final String PREFS_NAME = "egl_config_cache";
+	private static final String KEY_SIGNATURE = "_signature";
+	private static final String KEY_CONFIG_ID = "_config_id";
+
+	private final Context context;
+	private final XRMode xrMode;
+	private final CacheableConfigChooser chooser;
+
+	/**
+	 * Chooser whose selected config can be cached by a {@link CachedConfigChooser}.
+	 */
+	public interface CacheableConfigChooser extends GLSurfaceView.EGLConfigChooser {
+		/**
+		 * Describes the config requested by the chooser (e.g: color, depth and stencil sizes); it
+		 * must change whenever the chooser could select a different config.
+		 */
+		String getCacheKey();
+	}
+
+	public CachedConfigChooser(Context context, XRMode xrMode, CacheableConfigChooser chooser) {
+		this.context = context.getApplicationContext();
+		this.xrMode = xrMode;
+		this.chooser = chooser;
+	}
+
+	@Override
+	public EGLConfig chooseConfig(EGL10 egl, EGLDisplay display) {
+		final SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+		final String signature = getSignature(egl, display);
+		final String keyPrefix = xrMode.name();
+
+		if (signature.equals(prefs.getString(keyPrefix + KEY_SIGNATURE, null))) {
+			final EGLConfig config = findConfig(egl, display, prefs.getInt(keyPrefix + KEY_CONFIG_ID, -1));
+			if (config != null) {
+				return config;
+			}
+			Log.w(TAG, "Cached egl config is no longer available");
+		}
+
+		final EGLConfig config = chooser.chooseConfig(egl, display);
+		if (config != null) {
+			final int[] value = new int[1];
+			if (egl.eglGetConfigAttrib(display, config, EGL10.EGL_CONFIG_ID, value)) {
+				prefs.edit()
+						.putString(keyPrefix + KEY_SIGNATURE, signature)
+						.putInt(keyPrefix + KEY_CONFIG_ID, value[0])
+						.apply();
+			}
+		}
+		return config;
+	}
+
+	/**
+	 * Returns the config with the given id, or null if the driver no longer exposes it.
+	 */
+	private static EGLConfig findConfig(EGL10 egl, EGLDisplay display, int configId) {
+		if (configId < 0) {
+			return null;
+		}
+
+		// All the other attributes are ignored when EGL_CONFIG_ID is specified.
+		final int[] attribs = { EGL10.EGL_CONFIG_ID, configId, EGL10.EGL_NONE };
+		final EGLConfig[] configs = new EGLConfig[1];
+		final int[] numConfig = new int[1];
+		if (!egl.eglChooseConfig(display, attribs, configs, 1, numConfig) || numConfig[0] != 1) {
+			return null;
+		}
+		return configs[0];
+	}
+
+	/**
+	 * Identifies the device build, egl driver and chooser parameters a cached config is valid for.
+	 */
+	private String getSignature(EGL10 egl, EGLDisplay display) {
+		return Build.FINGERPRINT + '|' + egl.eglQueryString(display, EGL10.EGL_VENDOR) + '|' + egl.eglQueryString(display, EGL10.EGL_VERSION) + '|' + chooser.getCacheKey();
+	}
+}
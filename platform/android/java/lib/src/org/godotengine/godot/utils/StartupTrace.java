@@ -0,0 +1,252 @@
+/*************************************************************************/
+/*  StartupTrace.java                                                    */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot.utils;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Traces the Godot cold start, from {@link org.godotengine.godot.Godot#onCreate} to the first
+ * frame drawn by the engine main loop.
+ * <p>
+ * Each startup phase is emitted as an {@link android.os.Trace} section, so it shows up in Perfetto
+ * and systrace captures, and is recorded in a timeline. Once the first frame is drawn, recording
+ * stops and the timeline is written to the cache dir as {@value #REPORT_FILE_NAME}, in the Chrome
+ * trace event format, so it can be tracked across builds or opened in the Perfetto UI.
+ * <p>
+ * Recording is off unless {@link #start(Context)} is called, which Godot does in debug builds, or
+ * when the {@value #COMMAND_LINE_ARG} command line argument is given; in the latter case, the
+ * steps started before the command line is parsed aren't recorded.
+ * <p>
+ * Sections must be ended on the thread they were begun on. Only the first start of the process is
+ * recorded.
+ */
+public final class StartupTrace {
+	private static final String TAG = StartupTrace.class.getSimpleName();
+
+	public static final String REPORT_FILE_NAME = "godot_startup_trace.json";
+	public static final String COMMAND_LINE_ARG = "--startup_trace";
+
+	private static final int MAX_SECTION_NAME_LENGTH = 127;
+
+	private static final class Event {
+		final String name;
+		final int threadId;
+		final long startNs;
+		long durationNs = -1;
+
+		Event(String name, int threadId, long startNs) {
+			this.name = name;
+			this.threadId = threadId;
+			this.startNs = startNs;
+		}
+	}
+
+	private static final Object lock = new Object();
+	private static final ThreadLocal<ArrayDeque<Event>> openSections = new ThreadLocal<ArrayDeque<Event>>() {
+		@Override
+		protected ArrayDeque<Event> initialValue() {
+			return new ArrayDeque<>();
+		}
+	};
+
+	// Guarded by the lock.
+	private static final List<Event> events = new ArrayList<>();
+	private static Context appContext;
+
+	private static volatile boolean recording = false;
+	private static volatile boolean mainLoopStarted = false;
+
+	private StartupTrace() {
+	}
+
+	/**
+	 * Start recording the startup timeline; does nothing after the first start of the process.
+	 */
+	public static void start(Context context) {
+		synchronized (lock) {
+			if (appContext != null) {
+				return;
+			}
+			appContext = context.getApplicationContext();
+			recording = true;
+		}
+	}
+
+	public static boolean isRecording() {
+		return recording;
+	}
+
+	/**
+	 * Begin a startup phase on the calling thread.
+	 */
+	public static void beginSection(String name) {
+		if (!recording) {
+			return;
+		}
+		Trace.beginSection(name.length() > MAX_SECTION_NAME_LENGTH ? name.substring(0, MAX_SECTION_NAME_LENGTH) : name);
+		openSections.get().push(new Event(name, Process.myTid(), SystemClock.elapsedRealtimeNanos()));
+	}
+
+	/**
+	 * End the last startup phase begun on the calling thread.
+	 */
+	public static void endSection() {
+		final Event event = openSections.get().poll();
+		if (event == null) {
+			return;
+		}
+		Trace.endSection();
+		event.durationNs = SystemClock.elapsedRealtimeNanos() - event.startNs;
+		synchronized (lock) {
+			if (recording) {
+				events.add(event);
+			}
+		}
+	}
+
+	/**
+	 * Record a startup milestone.
+	 */
+	public static void mark(String name) {
+		if (!recording) {
+			return;
+		}
+		// Empty section, so the milestone also shows up in trace captures.
+		Trace.beginSection(name);
+		Trace.endSection();
+		final Event event = new Event(name, Process.myTid(), SystemClock.elapsedRealtimeNanos());
+		synchronized (lock) {
+			if (recording) {
+				events.add(event);
+			}
+		}
+	}
+
+	/**
+	 * Record that the engine main loop started; the trace finishes on the next drawn frame.
+	 */
+	public static void markMainLoopStarted() {
+		mark("Main loop started");
+		mainLoopStarted = true;
+	}
+
+	/**
+	 * Invoked on the render thread when the engine draws a frame.
+	 */
+	public static void onFrameDrawn() {
+		if (!recording || !mainLoopStarted) {
+			return;
+		}
+		mark("First frame drawn");
+
+		final List<Event> recordedEvents;
+		final Context context;
+		synchronized (lock) {
+			if (!recording) {
+				return;
+			}
+			recording = false;
+			recordedEvents = new ArrayList<>(events);
+			events.clear();
+			context = appContext;
+		}
+		new Thread(() -> writeReport(context, recordedEvents), TAG).start();
+	}
+
+	private static void writeReport(Context context, List<Event> recordedEvents) {
+		final File reportFile = new File(context.getCacheDir(), REPORT_FILE_NAME);
+		final File tempFile = new File(context.getCacheDir(), REPORT_FILE_NAME + ".tmp");
+		try (Writer writer = new FileWriter(tempFile)) {
+			writeJson(context, recordedEvents, writer);
+		} catch (IOException e) {
+			Log.w(TAG, "Unable to write the startup trace", e);
+			return;
+		}
+		if (!tempFile.renameTo(reportFile)) {
+			Log.w(TAG, "Unable to write the startup trace to " + reportFile);
+		}
+	}
+
+	private static void writeJson(Context context, List<Event> recordedEvents, Writer writer) throws IOException {
+		String versionName = "";
+		int versionCode = 0;
+		try {
+			PackageInfo packageInfo = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+			versionName = packageInfo.versionName;
+			versionCode = packageInfo.versionCode;
+		} catch (PackageManager.NameNotFoundException e) {
+			Log.w(TAG, "Unable to retrieve the package version", e);
+		}
+		final long processStartUs = Build.VERSION.SDK_INT >= Build.VERSION_CODES.N ? Process.getStartElapsedRealtime() * 1000 : -1;
+
+		StringBuilder json = new StringBuilder("{\"metadata\":{");
+		JsonUtils.appendString(json.append("\"package\":"), context.getPackageName());
+		JsonUtils.appendString(json.append(",\"version_name\":"), String.valueOf(versionName));
+		json.append(",\"version_code\":").append(versionCode);
+		JsonUtils.appendString(json.append(",\"device\":"), Build.MANUFACTURER + " " + Build.MODEL);
+		JsonUtils.appendString(json.append(",\"fingerprint\":"), Build.FINGERPRINT);
+		json.append(",\"sdk_int\":").append(Build.VERSION.SDK_INT);
+		json.append(",\"process_start_us\":").append(processStartUs);
+		json.append("},\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+
+		final int pid = Process.myPid();
+		for (int i = 0; i < recordedEvents.size(); i++) {
+			final Event event = recordedEvents.get(i);
+			json.append(i == 0 ? "{" : ",{");
+			JsonUtils.appendString(json.append("\"name\":"), event.name);
+			json.append(",\"pid\":").append(pid).append(",\"tid\":").append(event.threadId);
+			json.append(",\"ts\":").append(event.startNs / 1000);
+			if (event.durationNs < 0) {
+				json.append(",\"ph\":\"i\",\"s\":\"p\"}");
+			} else {
+				json.append(",\"ph\":\"X\",\"dur\":").append(event.durationNs / 1000).append('}');
+			}
+		}
+		json.append("]}");
+		writer.write(json.toString());
+		writer.flush();
+	}
+}
@@ -31,78 +31,77 @@
 @file:JvmName("VkRenderer")
 package org.godotengine.godot.vulkan
 
-import android.view.Surface
+import android.view.SurfaceHolder
 
-import org.godotengine.godot.Godot
 import org.godotengine.godot.GodotLib
-import org.godotengine.godot.plugin.GodotPlugin
+import org.godotengine.godot.GodotRenderLoop
 import org.godotengine.godot.plugin.GodotPluginRegistry
 
 /**
- * Responsible to setting up and driving the Vulkan rendering logic.
+ * Responsible to setting up and driving the Vulkan rendering logic, as the Vulkan backend of the
+ * [GodotRenderLoop].
  *
  * <h3>Threading</h3>
- * The renderer will be called on a separate thread, so that rendering
- * performance is decoupled from the UI thread. Clients typically need to
- * communicate with the renderer from the UI thread, because that's where
- * input events are received. Clients can communicate using any of the
- * standard Java techniques for cross-thread communication, or they can
- * use the  [VkSurfaceView.queueOnVkThread] convenience method.
+ * The renderer is called on the render thread owned by the [GodotRenderLoop], so that rendering
+ * performance is decoupled from the UI thread. Clients can communicate with the renderer from
+ * other threads using [GodotRenderLoop.queueEvent].
  *
- * @see [VkSurfaceView.startRenderer]
+ * @see [GodotRenderLoop.start]
  */
-internal class VkRenderer {
+internal class VkRenderer(private val renderLoop: GodotRenderLoop) : GodotRenderLoop.Backend {
 	private val pluginRegistry: GodotPluginRegistry = GodotPluginRegistry.getPluginRegistry()
+	private val pluginDrawCallback = GodotRenderLoop.PluginDrawCallback { it.onVkDrawFrame() }
 
 	/**
-	 * Called when the surface is created and signals the beginning of rendering.
+	 * Whether the engine has been handed its first surface. Later surfaces are handed over by
+	 * [onSurfaceChanged].
 	 */
-	fun onVkSurfaceCreated(surface: Surface) {
-		GodotLib.newcontext(surface)
-
-		for (plugin in pluginRegistry.getAllPlugins()) {
-			plugin.onVkSurfaceCreated(surface)
-		}
-	}
+	private var initialized = false
 
 	/**
-	 * Called after the surface is created and whenever its size changes.
+	 * Called when a surface is available, and signals the beginning of rendering the first time.
 	 */
-	fun onVkSurfaceChanged(surface: Surface, width: Int, height: Int) {
-		GodotLib.resize(surface, width, height)
+	override fun onSurfaceCreated(holder: SurfaceHolder): Boolean {
+		if (!initialized) {
+			initialized = true
+			GodotLib.newcontext(holder.surface)
 
-		for (plugin in pluginRegistry.getAllPlugins()) {
-			plugin.onVkSurfaceChanged(surface, width, height)
+			for (plugin in pluginRegistry.vkSurfaceCreatedPlugins) {
+				plugin.onVkSurfaceCreated(holder.surface)
+			}
 		}
+		return true
 	}
 
 	/**
-	 * Called to draw the current frame.
+	 * Called after the surface is created and whenever its size changes.
 	 */
-	fun onVkDrawFrame() {
-		GodotLib.step()
-		for (plugin in pluginRegistry.getAllPlugins()) {
-			plugin.onVkDrawFrame()
+	override fun onSurfaceChanged(holder: SurfaceHolder, width: Int, height: Int) {
+		GodotLib.resize(holder.surface, width, height)
+
+		for (plugin in pluginRegistry.vkSurfaceChangedPlugins) {
+			plugin.onVkSurfaceChanged(holder.surface, width, height)
 		}
 	}
 
 	/**
-	 * Called when the rendering thread is resumed.
+	 * Called to draw the current frame; the engine presents it to its swapchain.
 	 */
-	fun onVkResume() {
-		GodotLib.onRendererResumed()
+	override fun onDrawFrame(): Boolean {
+		renderLoop.drawFrame(pluginRegistry.vkDrawFramePlugins, pluginDrawCallback)
+		return true
 	}
 
 	/**
-	 * Called when the rendering thread is paused.
+	 * Called before the surface is destroyed. The engine keeps its swapchain until it's handed the
+	 * next surface by [onSurfaceChanged], and doesn't draw in the meantime.
 	 */
-	fun onVkPause() {
-		GodotLib.onRendererPaused()
+	override fun onSurfaceDestroyed() {
 	}
 
 	/**
-	 * Called when the rendering thread is destroyed and used as signal to tear down the Vulkan logic.
+	 * Called when the rendering thread exits.
 	 */
-	fun onVkDestroy() {
+	override fun onRenderThreadExiting() {
 	}
 }
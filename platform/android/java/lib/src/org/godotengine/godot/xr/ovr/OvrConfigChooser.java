@@ -30,8 +30,11 @@
 
 package org.godotengine.godot.xr.ovr;
 
+import org.godotengine.godot.utils.CachedConfigChooser;
+
 import android.opengl.EGLExt;
-import android.opengl.GLSurfaceView;
+
+import java.util.Arrays;
 
 import javax.microedition.khronos.egl.EGL10;
 import javax.microedition.khronos.egl.EGLConfig;
@@ -40,7 +43,7 @@ import javax.microedition.khronos.egl.EGLDisplay;
 /**
  * EGL config chooser for the Oculus Mobile VR SDK.
  */
-public class OvrConfigChooser implements GLSurfaceView.EGLConfigChooser {
+public class OvrConfigChooser implements CachedConfigChooser.CacheableConfigChooser {
 	private static final int[] CONFIG_ATTRIBS = {
 		EGL10.EGL_RED_SIZE, 8,
 		EGL10.EGL_GREEN_SIZE, 8,
@@ -109,4 +112,12 @@ public class OvrConfigChooser implements GLSurfaceView.EGLConfigChooser {
 		}
 		return null;
 	}
+
+	/**
+	 * Describes the requested config, see {@link CachedConfigChooser}.
+	 */
+	@Override
+	public String getCacheKey() {
+		return getClass().getSimpleName() + Arrays.toString(CONFIG_ATTRIBS);
+	}
 }
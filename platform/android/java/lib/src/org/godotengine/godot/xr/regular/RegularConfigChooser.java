@@ -30,10 +30,9 @@
 
 package org.godotengine.godot.xr.regular;
 
+import org.godotengine.godot.utils.CachedConfigChooser;
 import org.godotengine.godot.utils.GLUtils;
 
-import android.opengl.GLSurfaceView;
-
 import javax.microedition.khronos.egl.EGL10;
 import javax.microedition.khronos.egl.EGLConfig;
 import javax.microedition.khronos.egl.EGLDisplay;
@@ -41,7 +40,7 @@ import javax.microedition.khronos.egl.EGLDisplay;
 /**
  * Used to select the egl config for pancake games.
  */
-public class RegularConfigChooser implements GLSurfaceView.EGLConfigChooser {
+public class RegularConfigChooser implements CachedConfigChooser.CacheableConfigChooser {
 	private static final String TAG = RegularConfigChooser.class.getSimpleName();
 
 	private int[] mValue = new int[1];
@@ -133,6 +132,14 @@ public class RegularConfigChooser implements GLSurfaceView.EGLConfigChooser {
 		return defaultValue;
 	}
 
+	/**
+	 * Describes the requested config, see {@link CachedConfigChooser}.
+	 */
+	@Override
+	public String getCacheKey() {
+		return getClass().getSimpleName() + "(" + mRedSize + ", " + mGreenSize + ", " + mBlueSize + ", " + mAlphaSize + ", " + mDepthSize + ", " + mStencilSize + ")";
+	}
+
 	// Subclasses can adjust these values:
 	protected int mRedSize;
 	protected int mGreenSize;
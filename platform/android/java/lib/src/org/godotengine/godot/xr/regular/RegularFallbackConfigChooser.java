@@ -58,4 +58,9 @@ public class RegularFallbackConfigChooser extends RegularConfigChooser {
 		}
 		return ec;
 	}
+
+	@Override
+	public String getCacheKey() {
+		return super.getCacheKey() + " -> " + fallback.getCacheKey();
+	}
 }
@@ -0,0 +1,198 @@
+/*************************************************************************/
+/*  ThermalGovernorTest.java                                             */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the {@link ThermalGovernor} policy against simulated thermal traces.
+ */
+public class ThermalGovernorTest {
+	private static final long UPDATE_INTERVAL_MS = 10000;
+	private static final long STEP_UP_DELAY_MS = 30000;
+	private static final float NO_HEADROOM = Float.NaN;
+
+	/**
+	 * Thermal trace replayed by the governor, one sample per update.
+	 */
+	private static class TraceSource implements ThermalGovernor.ThermalStatusSource {
+		private final int[] statuses;
+		private final float[] headrooms;
+		private int sample = 0;
+
+		TraceSource(int[] statuses, float[] headrooms) {
+			this.statuses = statuses;
+			this.headrooms = headrooms;
+		}
+
+		@Override
+		public int getThermalStatus() {
+			return statuses[sample];
+		}
+
+		@Override
+		public float getThermalHeadroom() {
+			return headrooms[sample];
+		}
+	}
+
+	/**
+	 * Records the caps applied by the governor.
+	 */
+	private static class CapsRecorder implements ThermalGovernor.Listener {
+		final List<int[]> changes = new ArrayList<>();
+		int maxFps = 0;
+		float maxRenderScale = 1f;
+
+		@Override
+		public void onThrottleLevelChanged(int level, int maxFps, float maxRenderScale) {
+			changes.add(new int[] { level, maxFps });
+			this.maxFps = maxFps;
+			this.maxRenderScale = maxRenderScale;
+		}
+	}
+
+	/**
+	 * Replays the trace and returns the throttle level after each update.
+	 */
+	private static int[] replay(TraceSource source, ThermalGovernor governor) {
+		final int[] levels = new int[source.statuses.length];
+		for (int i = 0; i < levels.length; i++) {
+			source.sample = i;
+			levels[i] = governor.update(i * UPDATE_INTERVAL_MS);
+		}
+		return levels;
+	}
+
+	private static float[] noHeadroom(int length) {
+		final float[] headrooms = new float[length];
+		Arrays.fill(headrooms, NO_HEADROOM);
+		return headrooms;
+	}
+
+	@Test
+	public void heatsUpAndCoolsDownFromStatus() {
+		// A session heating up to severe throttling, then cooling down once the load drops.
+		final int[] statuses = { 0, 0, 1, 1, 2, 2, 3, 3, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
+		final TraceSource source = new TraceSource(statuses, noHeadroom(statuses.length));
+		final CapsRecorder recorder = new CapsRecorder();
+		final ThermalGovernor governor = new ThermalGovernor(source, recorder);
+		governor.setStepUpDelay(STEP_UP_DELAY_MS);
+
+		final int[] levels = replay(source, governor);
+
+		// Raised as soon as the status calls for it, lowered one step per step-up delay.
+		assertArrayEquals(new int[] { 0, 0, 1, 1, 2, 2, 3, 3, 3, 3, 3, 2, 2, 2, 1, 1, 1, 0, 0, 0 }, levels);
+		assertEquals(ThermalGovernor.LEVEL_NONE, governor.getThrottleLevel());
+		assertEquals(0, recorder.maxFps);
+		assertEquals(1f, recorder.maxRenderScale, 0f);
+		assertEquals(6, recorder.changes.size());
+	}
+
+	@Test
+	public void actsOnHeadroomBeforeThrottling() {
+		// The headroom forecast rises while the status still reports no throttling.
+		final int[] statuses = { 0, 0, 0, 0, 0 };
+		final float[] headrooms = { 0.5f, 0.72f, 0.86f, 0.96f, 0.9f };
+		final TraceSource source = new TraceSource(statuses, headrooms);
+		final CapsRecorder recorder = new CapsRecorder();
+		final ThermalGovernor governor = new ThermalGovernor(source, recorder);
+		governor.setStepUpDelay(STEP_UP_DELAY_MS);
+
+		final int[] levels = replay(source, governor);
+
+		assertArrayEquals(new int[] { 0, 1, 2, 3, 3 }, levels);
+		assertEquals(30, recorder.maxFps);
+		assertEquals(0.5f, recorder.maxRenderScale, 0f);
+	}
+
+	@Test
+	public void ignoresBriefCoolDowns() {
+		// The status drops for less than the step-up delay, twice in a row.
+		final int[] statuses = { 2, 0, 0, 2, 0, 0, 2, 2 };
+		final TraceSource source = new TraceSource(statuses, noHeadroom(statuses.length));
+		final CapsRecorder recorder = new CapsRecorder();
+		final ThermalGovernor governor = new ThermalGovernor(source, recorder);
+		governor.setStepUpDelay(STEP_UP_DELAY_MS);
+
+		final int[] levels = replay(source, governor);
+
+		assertArrayEquals(new int[] { 2, 2, 2, 2, 2, 2, 2, 2 }, levels);
+		assertEquals(1, recorder.changes.size());
+	}
+
+	@Test
+	public void appliesConfiguredSteps() {
+		final int[] statuses = { 1, 3 };
+		final TraceSource source = new TraceSource(statuses, noHeadroom(statuses.length));
+		final CapsRecorder recorder = new CapsRecorder();
+		final ThermalGovernor governor = new ThermalGovernor(source, recorder);
+		governor.setSteps(new int[] { 0, 90, 60, 24 }, new float[] { 1f, 0.9f, 0.8f, 0.6f });
+
+		replay(source, governor);
+
+		assertArrayEquals(new int[] { 1, 90 }, recorder.changes.get(0));
+		assertArrayEquals(new int[] { 3, 24 }, recorder.changes.get(1));
+		assertEquals(0.6f, recorder.maxRenderScale, 0f);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsMissingSteps() {
+		final ThermalGovernor governor = new ThermalGovernor(new TraceSource(new int[1], new float[1]), new CapsRecorder());
+		governor.setSteps(new int[] { 0, 60 }, new float[] { 1f, 0.5f });
+	}
+
+	@Test
+	public void resetLiftsTheCaps() {
+		final int[] statuses = { 3 };
+		final TraceSource source = new TraceSource(statuses, noHeadroom(statuses.length));
+		final CapsRecorder recorder = new CapsRecorder();
+		final ThermalGovernor governor = new ThermalGovernor(source, recorder);
+
+		replay(source, governor);
+		governor.reset();
+
+		assertEquals(ThermalGovernor.LEVEL_NONE, governor.getThrottleLevel());
+		assertEquals(0, recorder.maxFps);
+		assertEquals(1f, recorder.maxRenderScale, 0f);
+
+		// Already at the lowest level, so there's nothing to notify.
+		governor.reset();
+		assertEquals(2, recorder.changes.size());
+	}
+}
@@ -0,0 +1,66 @@
+/*************************************************************************/
+/*  JsonUtilsTest.java                                                   */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Checks the strings written by {@link JsonUtils}.
+ */
+public class JsonUtilsTest {
+	private static String quote(String value) {
+		return JsonUtils.appendString(new StringBuilder(), value).toString();
+	}
+
+	@Test
+	public void plainString() {
+		assertEquals("\"Godot.onCreate\"", quote("Godot.onCreate"));
+		assertEquals("\"\"", quote(""));
+	}
+
+	@Test
+	public void quotesAndBackslashes() {
+		assertEquals("\"a\\\"b\\\\c\"", quote("a\"b\\c"));
+	}
+
+	@Test
+	public void controlCharacters() {
+		assertEquals("\"\\b\\f\\n\\r\\t\"", quote("\b\f\n\r\t"));
+		assertEquals("\"\\u0000\\u001f\\u0001\"", quote("\u0000\u001f\u0001"));
+	}
+
+	@Test
+	public void nonAsciiCharacters() {
+		assertEquals("\"\u00e9\u4e2d\"", quote("\u00e9\u4e2d"));
+	}
+}
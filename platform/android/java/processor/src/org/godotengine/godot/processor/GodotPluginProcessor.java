@@ -0,0 +1,326 @@
+/*************************************************************************/
+/*  GodotPluginProcessor.java                                            */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+package org.godotengine.godot.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates the method table of each class with {@code UsedByGodot} methods or {@code GodotSignal}
+ * signals, so the methods are registered with the Godot native code in bulk and without
+ * reflection, and the signals without creating the plugin.
+ * <p>
+ * The table of the 'com.example.MyPlugin' class is generated as the
+ * 'com.example.MyPlugin_GodotMethodTable' class, which implements
+ * {@code org.godotengine.godot.plugin.GodotPluginMethodTable}.
+ */
+@SupportedAnnotationTypes({ GodotPluginProcessor.USED_BY_GODOT, GodotPluginProcessor.GODOT_SIGNAL, GodotPluginProcessor.GODOT_SIGNALS })
+public class GodotPluginProcessor extends AbstractProcessor {
+	static final String USED_BY_GODOT = "org.godotengine.godot.plugin.UsedByGodot";
+	static final String GODOT_SIGNAL = "org.godotengine.godot.plugin.GodotSignal";
+	static final String GODOT_SIGNALS = "org.godotengine.godot.plugin.GodotSignal.List";
+
+	private static final String METHOD_TABLE = "org.godotengine.godot.plugin.GodotPluginMethodTable";
+	private static final String SIGNAL_INFO = "org.godotengine.godot.plugin.SignalInfo";
+	// Must match GodotPluginMethodTable#CLASS_SUFFIX.
+	private static final String METHOD_TABLE_SUFFIX = "_GodotMethodTable";
+
+	private static final String OBJECT_CLASS = "java.lang.Object";
+	// Types with a JNI signature, mirrors 'get_jni_sig' in 'platform/android/jni_utils.cpp'.
+	// Other types are looked up as 'java.lang.Object'.
+	private static final Set<String> SUPPORTED_TYPES = new HashSet<>(Arrays.asList(
+			"void",
+			"boolean",
+			"int",
+			"float",
+			"double",
+			"java.lang.String",
+			"org.godotengine.godot.Dictionary",
+			"[I",
+			"[B",
+			"[F",
+			"[J",
+			"[D",
+			"[Ljava.lang.String;",
+			"java.nio.ByteBuffer",
+			"java.nio.FloatBuffer"));
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		Map<TypeElement, List<ExecutableElement>> methodsByClass = new LinkedHashMap<>();
+		for (TypeElement annotation : annotations) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element.getKind() == ElementKind.CLASS) {
+					// Declares signals, the class gets a table even without methods.
+					methodsByClass.computeIfAbsent((TypeElement)element, k -> new ArrayList<>());
+					continue;
+				}
+				if (element.getKind() != ElementKind.METHOD) {
+					continue;
+				}
+
+				ExecutableElement method = (ExecutableElement)element;
+				if (method.getModifiers().contains(Modifier.STATIC)) {
+					processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+							"Static methods can't be invoked by Godot.", method);
+				}
+				methodsByClass.computeIfAbsent((TypeElement)method.getEnclosingElement(), k -> new ArrayList<>()).add(method);
+			}
+		}
+
+		for (Map.Entry<TypeElement, List<ExecutableElement>> entry : methodsByClass.entrySet()) {
+			try {
+				writeMethodTable(entry.getKey(), entry.getValue());
+			} catch (IOException e) {
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+						"Unable to generate the Godot method table: " + e.getMessage(), entry.getKey());
+			}
+		}
+		return true;
+	}
+
+	private void writeMethodTable(TypeElement clazz, List<ExecutableElement> methods) throws IOException {
+		List<String> names = new ArrayList<>();
+		List<String> signatures = new ArrayList<>();
+		List<String> returnTypes = new ArrayList<>();
+		List<String> paramCounts = new ArrayList<>();
+		List<String> paramTypes = new ArrayList<>();
+
+		for (ExecutableElement method : methods) {
+			StringBuilder signature = new StringBuilder("(");
+			for (VariableElement param : method.getParameters()) {
+				String paramType = getClassName(param.asType());
+				signature.append(getJniSignature(paramType, method));
+				paramTypes.add(paramType);
+			}
+			String returnType = getClassName(method.getReturnType());
+			signature.append(')').append(getJniSignature(returnType, method));
+
+			names.add(method.getSimpleName().toString());
+			signatures.add(signature.toString());
+			returnTypes.add(returnType);
+			paramCounts.add(String.valueOf(method.getParameters().size()));
+		}
+
+		PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(clazz);
+		String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+		String binaryName = processingEnv.getElementUtils().getBinaryName(clazz).toString();
+		String tableName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + METHOD_TABLE_SUFFIX;
+
+		try (Writer writer = processingEnv.getFiler().createSourceFile(binaryName + METHOD_TABLE_SUFFIX, clazz).openWriter()) {
+			writer.write("// Generated by the Godot plugin annotation processor, do not edit.\n");
+			if (!packageName.isEmpty()) {
+				writer.write("package " + packageName + ";\n");
+			}
+			writer.write("\n");
+			writer.write("public final class " + tableName + " implements " + METHOD_TABLE + " {\n");
+			writeArray(writer, "String", "METHOD_NAMES", names, true);
+			writeArray(writer, "String", "METHOD_SIGNATURES", signatures, true);
+			writeArray(writer, "String", "METHOD_RETURN_TYPES", returnTypes, true);
+			writeArray(writer, "int", "METHOD_PARAM_COUNTS", paramCounts, false);
+			writeArray(writer, "String", "METHOD_PARAM_TYPES", paramTypes, true);
+			writeArray(writer, SIGNAL_INFO, "SIGNALS", getSignals(clazz), false);
+			writeGetter(writer, "String", "getMethodNames", "METHOD_NAMES");
+			writeGetter(writer, "String", "getMethodSignatures", "METHOD_SIGNATURES");
+			writeGetter(writer, "String", "getMethodReturnTypes", "METHOD_RETURN_TYPES");
+			writeGetter(writer, "int", "getMethodParamCounts", "METHOD_PARAM_COUNTS");
+			writeGetter(writer, "String", "getMethodParamTypes", "METHOD_PARAM_TYPES");
+			writeGetter(writer, SIGNAL_INFO, "getSignals", "SIGNALS");
+			writer.write("}\n");
+		}
+	}
+
+	/**
+	 * Returns the expressions creating the SignalInfo of each signal declared on the class.
+	 */
+	private List<String> getSignals(TypeElement clazz) {
+		List<String> signals = new ArrayList<>();
+		for (AnnotationMirror annotation : clazz.getAnnotationMirrors()) {
+			String annotationName = ((TypeElement)annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+			if (GODOT_SIGNAL.equals(annotationName)) {
+				signals.add(getSignal(annotation));
+			} else if (GODOT_SIGNALS.equals(annotationName)) {
+				for (Object signal : (List<?>)getAnnotationValue(annotation, "value", Collections.emptyList())) {
+					signals.add(getSignal((AnnotationMirror)((AnnotationValue)signal).getValue()));
+				}
+			}
+		}
+		return signals;
+	}
+
+	private String getSignal(AnnotationMirror signal) {
+		StringBuilder expression = new StringBuilder("new " + SIGNAL_INFO + "(\"");
+		expression.append(getAnnotationValue(signal, "name", "")).append('"');
+		for (Object paramType : (List<?>)getAnnotationValue(signal, "paramTypes", Collections.emptyList())) {
+			TypeMirror type = (TypeMirror)((AnnotationValue)paramType).getValue();
+			expression.append(", ").append(processingEnv.getTypeUtils().erasure(type)).append(".class");
+		}
+		return expression.append(')').toString();
+	}
+
+	private static Object getAnnotationValue(AnnotationMirror annotation, String name, Object defaultValue) {
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+			if (entry.getKey().getSimpleName().contentEquals(name)) {
+				return entry.getValue().getValue();
+			}
+		}
+		return defaultValue;
+	}
+
+	private static void writeArray(Writer writer, String type, String name, List<String> values, boolean quoted) throws IOException {
+		writer.write("\tprivate static final " + type + "[] " + name + " = {");
+		for (int i = 0; i < values.size(); i++) {
+			writer.write(i == 0 ? " " : ", ");
+			writer.write(quoted ? "\"" + values.get(i) + "\"" : values.get(i));
+		}
+		writer.write(" };\n");
+	}
+
+	private static void writeGetter(Writer writer, String type, String name, String field) throws IOException {
+		writer.write("\n\t@Override\n");
+		writer.write("\tpublic " + type + "[] " + name + "() {\n");
+		writer.write("\t\treturn " + field + ";\n");
+		writer.write("\t}\n");
+	}
+
+	/**
+	 * Returns the JNI signature used by the Godot native code to look up a method with a parameter
+	 * or return value of the given type.
+	 */
+	private String getJniSignature(String className, ExecutableElement method) {
+		if (SUPPORTED_TYPES.contains(className)) {
+			return className.startsWith("[") ? className.replace('.', '/') : getDescriptor(className);
+		}
+		if (!OBJECT_CLASS.equals(className)) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+					"Type " + className + " isn't supported by Godot, the method can't be invoked.", method);
+		}
+		return "L" + OBJECT_CLASS.replace('.', '/') + ";";
+	}
+
+	/**
+	 * Returns the name of the given type, as returned by {@link Class#getName()}.
+	 */
+	private String getClassName(TypeMirror type) {
+		switch (type.getKind()) {
+			case BOOLEAN:
+				return "boolean";
+			case BYTE:
+				return "byte";
+			case CHAR:
+				return "char";
+			case SHORT:
+				return "short";
+			case INT:
+				return "int";
+			case LONG:
+				return "long";
+			case FLOAT:
+				return "float";
+			case DOUBLE:
+				return "double";
+			case VOID:
+				return "void";
+			case ARRAY:
+				return getArrayDescriptor((ArrayType)type).replace('/', '.');
+			default:
+				TypeMirror erasure = processingEnv.getTypeUtils().erasure(type);
+				Element element = processingEnv.getTypeUtils().asElement(erasure);
+				if (element instanceof TypeElement) {
+					return processingEnv.getElementUtils().getBinaryName((TypeElement)element).toString();
+				}
+				return OBJECT_CLASS;
+		}
+	}
+
+	private String getArrayDescriptor(ArrayType type) {
+		TypeMirror componentType = type.getComponentType();
+		if (componentType instanceof ArrayType) {
+			return "[" + getArrayDescriptor((ArrayType)componentType);
+		}
+		return "[" + getDescriptor(getClassName(componentType));
+	}
+
+	private static String getDescriptor(String className) {
+		switch (className) {
+			case "boolean":
+				return "Z";
+			case "byte":
+				return "B";
+			case "char":
+				return "C";
+			case "short":
+				return "S";
+			case "int":
+				return "I";
+			case "long":
+				return "J";
+			case "float":
+				return "F";
+			case "double":
+				return "D";
+			case "void":
+				return "V";
+			default:
+				return "L" + className.replace('.', '/') + ";";
+		}
+	}
+}
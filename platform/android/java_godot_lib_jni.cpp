@@ -65,11 +65,36 @@ static bool initialized = false;
 static SafeNumeric<int> step; // Shared between UI and render threads
 
 static Size2 new_size;
-static Vector3 accelerometer;
-static Vector3 gravity;
-static Vector3 magnetometer;
-static Vector3 gyroscope;
 
+// Sensors in use by the project, see `_update_sensor_usage()`. Only accessed on the render thread.
+static const int SENSOR_COUNT = 4;
+static uint32_t active_sensors = 0;
+static uint64_t sensor_last_query_msec[SENSOR_COUNT] = {};
+static uint64_t sensor_idle_timeout_msec = 0;
+
+// Tracks which sensors are read through Input, and notifies the Java side when a sensor
+// starts being used, or hasn't been used for longer than the idle timeout, so sensors are
+// only registered while needed.
+static void _update_sensor_usage(JNIEnv *env) {
+	const uint32_t queried_sensors = Input::get_singleton()->take_queried_sensors();
+	const uint64_t now = OS::get_singleton()->get_ticks_msec();
+
+	uint32_t sensors = active_sensors;
+	for (int i = 0; i < SENSOR_COUNT; i++) {
+		const uint32_t sensor = 1 << i;
+		if (queried_sensors & sensor) {
+			sensor_last_query_msec[i] = now;
+			sensors |= sensor;
+		} else if ((sensors & sensor) && sensor_idle_timeout_msec > 0 && now - sensor_last_query_msec[i] > sensor_idle_timeout_msec) {
+			sensors &= ~sensor;
+		}
+	}
+
+	if (sensors != active_sensors) {
+		active_sensors = sensors;
+		godot_java->on_sensor_usage_changed(active_sensors, env);
+	}
+}
 extern "C" {
 
 JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_setVirtualKeyboardHeight(JNIEnv *env, jclass clazz, jint p_height) {
@@ -89,6 +114,7 @@ JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_initialize(JNIEnv *en
 	godot_io_java = new GodotIOJavaWrapper(env, godot_java->get_member_object("io", "Lorg/godotengine/godot/GodotIO;", env));
 
 	init_thread_jandroid(jvm, env);
+	init_jni_utils(env);
 
 	jobject amgr = env->NewGlobalRef(p_asset_manager);
 
@@ -209,9 +235,9 @@ JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_back(JNIEnv *env, jcl
 	}
 }
 
-JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_step(JNIEnv *env, jclass clazz) {
+JNIEXPORT jboolean JNICALL Java_org_godotengine_godot_GodotLib_step(JNIEnv *env, jclass clazz) {
 	if (step.get() == -1) {
-		return;
+		return true;
 	}
 
 	if (step.get() == 0) {
@@ -220,150 +246,75 @@ JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_step(JNIEnv *env, jcl
 		Main::setup2(Thread::get_caller_id());
 		input_handler = new AndroidInputHandler();
 		step.increment();
-		return;
+		return true;
 	}
 
 	if (step.get() == 1) {
 		if (!Main::start()) {
-			return; // should exit instead and print the error
+			return true; // should exit instead and print the error
 		}
 
 		godot_java->on_godot_setup_completed(env);
+		sensor_idle_timeout_msec = (uint64_t)MAX(0, (int)GLOBAL_GET("input_devices/sensors/android/idle_timeout_msec"));
 		os_android->main_loop_begin();
 		godot_java->on_godot_main_loop_started(env);
 		step.increment();
 	}
 
-	DisplayServerAndroid::get_singleton()->process_accelerometer(accelerometer);
-	DisplayServerAndroid::get_singleton()->process_gravity(gravity);
-	DisplayServerAndroid::get_singleton()->process_magnetometer(magnetometer);
-	DisplayServerAndroid::get_singleton()->process_gyroscope(gyroscope);
-
+	const uint64_t frames_drawn = Engine::get_singleton()->get_frames_drawn();
 	if (os_android->main_loop_iterate()) {
 		godot_java->force_quit(env);
 	}
-}
 
-void touch_preprocessing(JNIEnv *env, jclass clazz, jint input_device, jint ev, jint pointer, jint pointer_count, jfloatArray positions, jint buttons_mask, jfloat vertical_factor, jfloat horizontal_factor) {
-	if (step.get() <= 0) {
-		return;
-	}
-
-	Vector<AndroidInputHandler::TouchPos> points;
-	for (int i = 0; i < pointer_count; i++) {
-		jfloat p[3];
-		env->GetFloatArrayRegion(positions, i * 3, 3, p);
-		AndroidInputHandler::TouchPos tp;
-		tp.pos = Point2(p[1], p[2]);
-		tp.id = (int)p[0];
-		points.push_back(tp);
-	}
-	if ((input_device & AINPUT_SOURCE_MOUSE) == AINPUT_SOURCE_MOUSE || (input_device & AINPUT_SOURCE_MOUSE_RELATIVE) == AINPUT_SOURCE_MOUSE_RELATIVE) {
-		input_handler->process_mouse_event(input_device, ev, buttons_mask, points[0].pos, vertical_factor, horizontal_factor);
-	} else {
-		input_handler->process_touch(ev, pointer, points);
-	}
-}
-
-// Called on the UI thread
-JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_touch__IIII_3F(JNIEnv *env, jclass clazz, jint input_device, jint ev, jint pointer, jint pointer_count, jfloatArray position) {
-	touch_preprocessing(env, clazz, input_device, ev, pointer, pointer_count, position);
-}
+	_update_sensor_usage(env);
 
-// Called on the UI thread
-JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_touch__IIII_3FI(JNIEnv *env, jclass clazz, jint input_device, jint ev, jint pointer, jint pointer_count, jfloatArray position, jint buttons_mask) {
-	touch_preprocessing(env, clazz, input_device, ev, pointer, pointer_count, position, buttons_mask);
+	// In low processor usage mode, frames are only drawn when something changed.
+	return Engine::get_singleton()->get_frames_drawn() != frames_drawn;
 }
 
-// Called on the UI thread
-JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_touch__IIII_3FIFF(JNIEnv *env, jclass clazz, jint input_device, jint ev, jint pointer, jint pointer_count, jfloatArray position, jint buttons_mask, jfloat vertical_factor, jfloat horizontal_factor) {
-	touch_preprocessing(env, clazz, input_device, ev, pointer, pointer_count, position, buttons_mask, vertical_factor, horizontal_factor);
+JNIEXPORT jlong JNICALL Java_org_godotengine_godot_GodotLib_getFrameDelay(JNIEnv *env, jclass clazz) {
+	return (jlong)os_android->get_frame_delay_usec();
 }
 
-// Called on the UI thread
-JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_hover(JNIEnv *env, jclass clazz, jint p_type, jfloat p_x, jfloat p_y) {
+// Called on the render thread
+JNIEXPORT jboolean JNICALL Java_org_godotengine_godot_GodotLib_dispatchInputEvents(JNIEnv *env, jclass clazz, jobject p_buffer, jint p_read_index, jint p_write_index) {
 	if (step.get() <= 0) {
-		return;
+		// Keep the events queued until the engine is ready to process them.
+		return false;
 	}
 
-	input_handler->process_hover(p_type, Point2(p_x, p_y));
-}
-
-// Called on the UI thread
-JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_doubleTap(JNIEnv *env, jclass clazz, jint p_button_mask, jint p_x, jint p_y) {
-	if (step.get() <= 0) {
-		return;
-	}
+	const uint8_t *buffer = static_cast<const uint8_t *>(env->GetDirectBufferAddress(p_buffer));
+	const jlong capacity = env->GetDirectBufferCapacity(p_buffer);
+	ERR_FAIL_COND_V(buffer == nullptr || capacity <= 0, true);
 
-	input_handler->process_double_tap(p_button_mask, Point2(p_x, p_y));
+	input_handler->process_input_events(buffer, (uint32_t)capacity, (uint32_t)p_read_index, (uint32_t)p_write_index);
+	return true;
 }
 
-// Called on the UI thread
-JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_scroll(JNIEnv *env, jclass clazz, jint p_x, jint p_y) {
+// Called on the render thread
+JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_textCommit(JNIEnv *env, jclass clazz, jintArray p_codepoints, jint p_delete_count) {
 	if (step.get() <= 0) {
 		return;
 	}
 
-	input_handler->process_scroll(Point2(p_x, p_y));
+	jint *codepoints = env->GetIntArrayElements(p_codepoints, nullptr);
+	input_handler->process_text_commit(codepoints, env->GetArrayLength(p_codepoints), p_delete_count);
+	env->ReleaseIntArrayElements(p_codepoints, codepoints, JNI_ABORT);
 }
 
-// Called on the UI thread
-JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_joybutton(JNIEnv *env, jclass clazz, jint p_device, jint p_button, jboolean p_pressed) {
+// Called on the render thread
+JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_joypadState(JNIEnv *env, jclass clazz, jint p_pad_count, jintArray p_pad_states, jfloatArray p_axis_values) {
 	if (step.get() <= 0) {
 		return;
 	}
 
-	AndroidInputHandler::JoypadEvent jevent;
-	jevent.device = p_device;
-	jevent.type = AndroidInputHandler::JOY_EVENT_BUTTON;
-	jevent.index = p_button;
-	jevent.pressed = p_pressed;
-
-	input_handler->process_joy_event(jevent);
-}
-
-// Called on the UI thread
-JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_joyaxis(JNIEnv *env, jclass clazz, jint p_device, jint p_axis, jfloat p_value) {
-	if (step.get() <= 0) {
-		return;
-	}
+	jint *pad_states = env->GetIntArrayElements(p_pad_states, nullptr);
+	jfloat *axis_values = env->GetFloatArrayElements(p_axis_values, nullptr);
 
-	AndroidInputHandler::JoypadEvent jevent;
-	jevent.device = p_device;
-	jevent.type = AndroidInputHandler::JOY_EVENT_AXIS;
-	jevent.index = p_axis;
-	jevent.value = p_value;
+	input_handler->process_joypad_state(p_pad_count, pad_states, env->GetArrayLength(p_pad_states), axis_values, env->GetArrayLength(p_axis_values));
 
-	input_handler->process_joy_event(jevent);
-}
-
-// Called on the UI thread
-JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_joyhat(JNIEnv *env, jclass clazz, jint p_device, jint p_hat_x, jint p_hat_y) {
-	if (step.get() <= 0) {
-		return;
-	}
-
-	AndroidInputHandler::JoypadEvent jevent;
-	jevent.device = p_device;
-	jevent.type = AndroidInputHandler::JOY_EVENT_HAT;
-	HatMask hat = HatMask::CENTER;
-	if (p_hat_x != 0) {
-		if (p_hat_x < 0) {
-			hat |= HatMask::LEFT;
-		} else {
-			hat |= HatMask::RIGHT;
-		}
-	}
-	if (p_hat_y != 0) {
-		if (p_hat_y < 0) {
-			hat |= HatMask::UP;
-		} else {
-			hat |= HatMask::DOWN;
-		}
-	}
-	jevent.hat = hat;
-
-	input_handler->process_joy_event(jevent);
+	env->ReleaseFloatArrayElements(p_axis_values, axis_values, JNI_ABORT);
+	env->ReleaseIntArrayElements(p_pad_states, pad_states, JNI_ABORT);
 }
 
 // Called on the UI thread
@@ -374,29 +325,36 @@ JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_joyconnectionchanged(
 	}
 }
 
-// Called on the UI thread
-JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_key(JNIEnv *env, jclass clazz, jint p_keycode, jint p_scancode, jint p_unicode_char, jboolean p_pressed) {
+JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_accelerometer(JNIEnv *env, jclass clazz, jfloat x, jfloat y, jfloat z) {
 	if (step.get() <= 0) {
 		return;
 	}
 
-	input_handler->process_key_event(p_keycode, p_scancode, p_unicode_char, p_pressed);
-}
-
-JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_accelerometer(JNIEnv *env, jclass clazz, jfloat x, jfloat y, jfloat z) {
-	accelerometer = Vector3(x, y, z);
+	input_handler->process_sensor_event(AndroidInputHandler::SENSOR_TYPE_ACCELEROMETER, Vector3(x, y, z));
 }
 
 JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_gravity(JNIEnv *env, jclass clazz, jfloat x, jfloat y, jfloat z) {
-	gravity = Vector3(x, y, z);
+	if (step.get() <= 0) {
+		return;
+	}
+
+	input_handler->process_sensor_event(AndroidInputHandler::SENSOR_TYPE_GRAVITY, Vector3(x, y, z));
 }
 
 JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_magnetometer(JNIEnv *env, jclass clazz, jfloat x, jfloat y, jfloat z) {
-	magnetometer = Vector3(x, y, z);
+	if (step.get() <= 0) {
+		return;
+	}
+
+	input_handler->process_sensor_event(AndroidInputHandler::SENSOR_TYPE_MAGNETIC_FIELD, Vector3(x, y, z));
 }
 
 JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_gyroscope(JNIEnv *env, jclass clazz, jfloat x, jfloat y, jfloat z) {
-	gyroscope = Vector3(x, y, z);
+	if (step.get() <= 0) {
+		return;
+	}
+
+	input_handler->process_sensor_event(AndroidInputHandler::SENSOR_TYPE_GYROSCOPE, Vector3(x, y, z));
 }
 
 JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_focusin(JNIEnv *env, jclass clazz) {
@@ -491,6 +449,15 @@ JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_requestPermissionResu
 	}
 }
 
+JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_setMaxFps(JNIEnv *env, jclass clazz, jint p_max_fps) {
+	if (step.get() <= 0) {
+		return;
+	}
+
+	// Kept apart from the engine's target FPS, so the project's limit is left untouched.
+	os_android->set_max_fps(p_max_fps);
+}
+
 JNIEXPORT void JNICALL Java_org_godotengine_godot_GodotLib_onRendererResumed(JNIEnv *env, jclass clazz) {
 	if (step.get() <= 0) {
 		return;
@@ -77,6 +77,7 @@ GodotJavaWrapper::GodotJavaWrapper(JNIEnv *p_env, jobject p_activity, jobject p_
 	_get_input_fallback_mapping = p_env->GetMethodID(godot_class, "getInputFallbackMapping", "()Ljava/lang/String;");
 	_on_godot_setup_completed = p_env->GetMethodID(godot_class, "onGodotSetupCompleted", "()V");
 	_on_godot_main_loop_started = p_env->GetMethodID(godot_class, "onGodotMainLoopStarted", "()V");
+	_on_sensor_usage_changed = p_env->GetMethodID(godot_class, "onSensorUsageChanged", "(I)V");
 
 	// get some Activity method pointers...
 	_get_class_loader = p_env->GetMethodID(activity_class, "getClassLoader", "()Ljava/lang/ClassLoader;");
@@ -158,6 +159,16 @@ void GodotJavaWrapper::on_godot_main_loop_started(JNIEnv *p_env) {
 	}
 }
 
+void GodotJavaWrapper::on_sensor_usage_changed(uint32_t p_sensor_mask, JNIEnv *p_env) {
+	if (_on_sensor_usage_changed) {
+		if (p_env == nullptr) {
+			p_env = get_jni_env();
+		}
+		ERR_FAIL_COND(p_env == nullptr);
+		p_env->CallVoidMethod(godot_instance, _on_sensor_usage_changed, (jint)p_sensor_mask);
+	}
+}
+
 void GodotJavaWrapper::restart(JNIEnv *p_env) {
 	if (_restart) {
 		if (p_env == nullptr) {
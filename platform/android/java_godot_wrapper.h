@@ -69,6 +69,7 @@ private:
 	jmethodID _get_input_fallback_mapping = 0;
 	jmethodID _on_godot_setup_completed = 0;
 	jmethodID _on_godot_main_loop_started = 0;
+	jmethodID _on_sensor_usage_changed = 0;
 	jmethodID _get_class_loader = 0;
 
 public:
@@ -103,6 +104,7 @@ public:
 	bool is_activity_resumed();
 	void vibrate(int p_duration_ms);
 	String get_input_fallback_mapping();
+	void on_sensor_usage_changed(uint32_t p_sensor_mask, JNIEnv *p_env = nullptr);
 };
 
 #endif /* !JAVA_GODOT_WRAPPER_H */
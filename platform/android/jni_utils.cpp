@@ -30,34 +30,283 @@
 
 #include "jni_utils.h"
 
+// Java classes and methods used by the conversions, looked up once by `init_jni_utils()` rather
+// than on each conversion. They're kept for the lifetime of the process.
+static jclass object_class = nullptr;
+static jclass string_class = nullptr;
+static jclass boolean_class = nullptr;
+static jclass integer_class = nullptr;
+static jclass long_class = nullptr;
+static jclass float_class = nullptr;
+static jclass double_class = nullptr;
+static jclass dictionary_class = nullptr;
+static jclass hash_map_class = nullptr;
+static jclass string_array_class = nullptr;
+static jclass object_array_class = nullptr;
+static jclass int_array_class = nullptr;
+static jclass byte_array_class = nullptr;
+static jclass float_array_class = nullptr;
+static jclass double_array_class = nullptr;
+static jclass long_array_class = nullptr;
+static jclass byte_buffer_class = nullptr;
+static jclass float_buffer_class = nullptr;
+static jobject native_byte_order = nullptr;
+
+static jmethodID boolean_init = nullptr;
+static jmethodID boolean_value = nullptr;
+static jmethodID integer_init = nullptr;
+static jmethodID double_init = nullptr;
+static jmethodID number_long_value = nullptr;
+static jmethodID number_double_value = nullptr;
+static jmethodID dictionary_init = nullptr;
+static jmethodID dictionary_get_keys = nullptr;
+static jmethodID dictionary_get_values = nullptr;
+static jmethodID dictionary_set_keys = nullptr;
+static jmethodID dictionary_set_values = nullptr;
+static jmethodID map_key_set = nullptr;
+static jmethodID map_get = nullptr;
+static jmethodID collection_to_array = nullptr;
+static jmethodID buffer_position = nullptr;
+static jmethodID buffer_limit = nullptr;
+static jmethodID byte_buffer_allocate_direct = nullptr;
+static jmethodID byte_buffer_as_read_only = nullptr;
+static jmethodID byte_buffer_order = nullptr;
+static jmethodID byte_buffer_as_float_buffer = nullptr;
+static jmethodID float_buffer_order = nullptr;
+
+enum JavaType {
+	JAVA_TYPE_UNKNOWN,
+	JAVA_TYPE_STRING,
+	JAVA_TYPE_BOOLEAN,
+	JAVA_TYPE_INTEGER,
+	JAVA_TYPE_FLOAT,
+	JAVA_TYPE_DICTIONARY,
+	JAVA_TYPE_HASH_MAP,
+	JAVA_TYPE_STRING_ARRAY,
+	JAVA_TYPE_OBJECT_ARRAY,
+	JAVA_TYPE_INT_ARRAY,
+	JAVA_TYPE_BYTE_ARRAY,
+	JAVA_TYPE_FLOAT_ARRAY,
+	JAVA_TYPE_DOUBLE_ARRAY,
+	JAVA_TYPE_LONG_ARRAY,
+};
+
+// Converted types, matched by class identity, so subclasses aren't converted. Ordered by how
+// common the types are.
+static const struct {
+	jclass *cls;
+	JavaType type;
+} java_types[] = {
+	{ &string_class, JAVA_TYPE_STRING },
+	{ &integer_class, JAVA_TYPE_INTEGER },
+	{ &long_class, JAVA_TYPE_INTEGER },
+	{ &float_class, JAVA_TYPE_FLOAT },
+	{ &double_class, JAVA_TYPE_FLOAT },
+	{ &boolean_class, JAVA_TYPE_BOOLEAN },
+	{ &dictionary_class, JAVA_TYPE_DICTIONARY },
+	{ &string_array_class, JAVA_TYPE_STRING_ARRAY },
+	{ &object_array_class, JAVA_TYPE_OBJECT_ARRAY },
+	{ &int_array_class, JAVA_TYPE_INT_ARRAY },
+	{ &byte_array_class, JAVA_TYPE_BYTE_ARRAY },
+	{ &float_array_class, JAVA_TYPE_FLOAT_ARRAY },
+	{ &double_array_class, JAVA_TYPE_DOUBLE_ARRAY },
+	{ &long_array_class, JAVA_TYPE_LONG_ARRAY },
+	{ &hash_map_class, JAVA_TYPE_HASH_MAP },
+};
+
+static jclass _find_class(JNIEnv *env, const char *p_name) {
+	jclass cls = env->FindClass(p_name);
+	if (!cls) {
+		env->ExceptionClear();
+		ERR_FAIL_V_MSG(nullptr, "Unable to find Java class " + String(p_name) + ".");
+	}
+	jclass global_cls = (jclass)env->NewGlobalRef(cls);
+	env->DeleteLocalRef(cls);
+	return global_cls;
+}
+
+void init_jni_utils(JNIEnv *env) {
+	if (object_class) {
+		return;
+	}
+
+	object_class = _find_class(env, "java/lang/Object");
+	string_class = _find_class(env, "java/lang/String");
+	boolean_class = _find_class(env, "java/lang/Boolean");
+	integer_class = _find_class(env, "java/lang/Integer");
+	long_class = _find_class(env, "java/lang/Long");
+	float_class = _find_class(env, "java/lang/Float");
+	double_class = _find_class(env, "java/lang/Double");
+	dictionary_class = _find_class(env, "org/godotengine/godot/Dictionary");
+	hash_map_class = _find_class(env, "java/util/HashMap");
+	string_array_class = _find_class(env, "[Ljava/lang/String;");
+	object_array_class = _find_class(env, "[Ljava/lang/Object;");
+	int_array_class = _find_class(env, "[I");
+	byte_array_class = _find_class(env, "[B");
+	float_array_class = _find_class(env, "[F");
+	double_array_class = _find_class(env, "[D");
+	long_array_class = _find_class(env, "[J");
+	byte_buffer_class = _find_class(env, "java/nio/ByteBuffer");
+	float_buffer_class = _find_class(env, "java/nio/FloatBuffer");
+
+	boolean_init = env->GetMethodID(boolean_class, "<init>", "(Z)V");
+	boolean_value = env->GetMethodID(boolean_class, "booleanValue", "()Z");
+	integer_init = env->GetMethodID(integer_class, "<init>", "(I)V");
+	double_init = env->GetMethodID(double_class, "<init>", "(D)V");
+
+	jclass number_class = env->FindClass("java/lang/Number");
+	number_long_value = env->GetMethodID(number_class, "longValue", "()J");
+	number_double_value = env->GetMethodID(number_class, "doubleValue", "()D");
+	env->DeleteLocalRef(number_class);
+
+	// java.util.HashMap has no bulk accessors, so its entries are read through the Map interface.
+	jclass map_class = env->FindClass("java/util/Map");
+	map_key_set = env->GetMethodID(map_class, "keySet", "()Ljava/util/Set;");
+	map_get = env->GetMethodID(map_class, "get", "(Ljava/lang/Object;)Ljava/lang/Object;");
+	env->DeleteLocalRef(map_class);
+
+	jclass collection_class = env->FindClass("java/util/Collection");
+	collection_to_array = env->GetMethodID(collection_class, "toArray", "()[Ljava/lang/Object;");
+	env->DeleteLocalRef(collection_class);
+
+	jclass buffer_class = env->FindClass("java/nio/Buffer");
+	buffer_position = env->GetMethodID(buffer_class, "position", "()I");
+	buffer_limit = env->GetMethodID(buffer_class, "limit", "()I");
+	env->DeleteLocalRef(buffer_class);
+
+	byte_buffer_allocate_direct = env->GetStaticMethodID(byte_buffer_class, "allocateDirect", "(I)Ljava/nio/ByteBuffer;");
+	byte_buffer_as_read_only = env->GetMethodID(byte_buffer_class, "asReadOnlyBuffer", "()Ljava/nio/ByteBuffer;");
+	byte_buffer_order = env->GetMethodID(byte_buffer_class, "order", "(Ljava/nio/ByteOrder;)Ljava/nio/ByteBuffer;");
+	byte_buffer_as_float_buffer = env->GetMethodID(byte_buffer_class, "asFloatBuffer", "()Ljava/nio/FloatBuffer;");
+	float_buffer_order = env->GetMethodID(float_buffer_class, "order", "()Ljava/nio/ByteOrder;");
+
+	jclass byte_order_class = env->FindClass("java/nio/ByteOrder");
+	jmethodID native_order = env->GetStaticMethodID(byte_order_class, "nativeOrder", "()Ljava/nio/ByteOrder;");
+	jobject byte_order = env->CallStaticObjectMethod(byte_order_class, native_order);
+	native_byte_order = env->NewGlobalRef(byte_order);
+	env->DeleteLocalRef(byte_order);
+	env->DeleteLocalRef(byte_order_class);
+
+	if (dictionary_class) {
+		dictionary_init = env->GetMethodID(dictionary_class, "<init>", "()V");
+		dictionary_get_keys = env->GetMethodID(dictionary_class, "get_keys", "()[Ljava/lang/String;");
+		dictionary_get_values = env->GetMethodID(dictionary_class, "get_values", "()[Ljava/lang/Object;");
+		dictionary_set_keys = env->GetMethodID(dictionary_class, "set_keys", "([Ljava/lang/String;)V");
+		dictionary_set_values = env->GetMethodID(dictionary_class, "set_values", "([Ljava/lang/Object;)V");
+	}
+}
+
+static JavaType _get_java_type(JNIEnv *env, jobject p_obj) {
+	jclass cls = env->GetObjectClass(p_obj);
+	JavaType type = JAVA_TYPE_UNKNOWN;
+	for (const auto &java_type : java_types) {
+		if (*java_type.cls && env->IsSameObject(cls, *java_type.cls)) {
+			type = java_type.type;
+			break;
+		}
+	}
+	env->DeleteLocalRef(cls);
+	return type;
+}
+
+// Returns a direct buffer holding a copy of the given memory. With `p_zero_copy` the memory is
+// wrapped instead, read-only since Godot may share it, so it must outlive every use of the buffer.
+static jobject _new_direct_byte_buffer(JNIEnv *env, const void *p_data, int64_t p_size, bool p_zero_copy) {
+	ERR_FAIL_COND_V_MSG(p_size > INT32_MAX, nullptr, "Packed arrays larger than 2 GiB can't be passed as a direct buffer.");
+
+	if (p_zero_copy && p_size > 0) {
+		jobject buffer = env->NewDirectByteBuffer(const_cast<void *>(p_data), p_size);
+		jobject read_only_buffer = env->CallObjectMethod(buffer, byte_buffer_as_read_only);
+		env->DeleteLocalRef(buffer);
+		return read_only_buffer;
+	}
+
+	jobject buffer = env->CallStaticObjectMethod(byte_buffer_class, byte_buffer_allocate_direct, (jint)p_size);
+	if (p_size > 0) {
+		memcpy(env->GetDirectBufferAddress(buffer), p_data, p_size);
+	}
+	return buffer;
+}
+
+jvalret _variant_to_direct_buffer(JNIEnv *env, Variant::Type p_type, const Variant *p_arg, bool p_zero_copy) {
+	jvalret v;
+	// Only an argument already of the expected type outlives the call, a converted one is copied.
+	const bool zero_copy = p_zero_copy && p_arg->get_type() == p_type;
+
+	if (p_type == Variant::PACKED_FLOAT32_ARRAY) {
+		PackedFloat32Array array = *p_arg;
+		jobject byte_buffer = _new_direct_byte_buffer(env, array.ptr(), (int64_t)array.size() * sizeof(float), zero_copy);
+		if (!byte_buffer) {
+			return v;
+		}
+		jobject ordered_buffer = env->CallObjectMethod(byte_buffer, byte_buffer_order, native_byte_order);
+		jobject float_buffer = env->CallObjectMethod(ordered_buffer, byte_buffer_as_float_buffer);
+		env->DeleteLocalRef(ordered_buffer);
+		env->DeleteLocalRef(byte_buffer);
+		v.val.l = float_buffer;
+		v.obj = float_buffer;
+	} else {
+		PackedByteArray array = *p_arg;
+		jobject byte_buffer = _new_direct_byte_buffer(env, array.ptr(), array.size(), zero_copy);
+		v.val.l = byte_buffer;
+		v.obj = byte_buffer;
+	}
+	return v;
+}
+
+// Copies the remaining elements of a direct buffer, in a single pass.
+static Variant _direct_buffer_to_variant(JNIEnv *env, jobject p_buffer, Variant::Type p_type) {
+	const uint8_t *address = (const uint8_t *)env->GetDirectBufferAddress(p_buffer);
+	ERR_FAIL_NULL_V_MSG(address, Variant(), "Only direct buffers can be converted.");
+
+	const jint position = env->CallIntMethod(p_buffer, buffer_position);
+	const jint limit = env->CallIntMethod(p_buffer, buffer_limit);
+	const int count = MAX(limit - position, 0);
+
+	if (p_type == Variant::PACKED_FLOAT32_ARRAY) {
+		PackedFloat32Array array;
+		array.resize(count);
+		memcpy(array.ptrw(), address + position * sizeof(float), count * sizeof(float));
+
+		jobject order = env->CallObjectMethod(p_buffer, float_buffer_order);
+		if (!env->IsSameObject(order, native_byte_order)) {
+			uint32_t *w = reinterpret_cast<uint32_t *>(array.ptrw());
+			for (int i = 0; i < count; i++) {
+				w[i] = BSWAP32(w[i]);
+			}
+		}
+		env->DeleteLocalRef(order);
+		return array;
+	}
+
+	PackedByteArray array;
+	array.resize(count);
+	memcpy(array.ptrw(), address + position, count);
+	return array;
+}
+
 jvalret _variant_to_jvalue(JNIEnv *env, Variant::Type p_type, const Variant *p_arg, bool force_jobject) {
 	jvalret v;
 
 	switch (p_type) {
 		case Variant::BOOL: {
 			if (force_jobject) {
-				jclass bclass = env->FindClass("java/lang/Boolean");
-				jmethodID ctor = env->GetMethodID(bclass, "<init>", "(Z)V");
 				jvalue val;
 				val.z = (bool)(*p_arg);
-				jobject obj = env->NewObjectA(bclass, ctor, &val);
+				jobject obj = env->NewObjectA(boolean_class, boolean_init, &val);
 				v.val.l = obj;
 				v.obj = obj;
-				env->DeleteLocalRef(bclass);
 			} else {
 				v.val.z = *p_arg;
 			}
 		} break;
 		case Variant::INT: {
 			if (force_jobject) {
-				jclass bclass = env->FindClass("java/lang/Integer");
-				jmethodID ctor = env->GetMethodID(bclass, "<init>", "(I)V");
 				jvalue val;
 				val.i = (int)(*p_arg);
-				jobject obj = env->NewObjectA(bclass, ctor, &val);
+				jobject obj = env->NewObjectA(integer_class, integer_init, &val);
 				v.val.l = obj;
 				v.obj = obj;
-				env->DeleteLocalRef(bclass);
 
 			} else {
 				v.val.i = *p_arg;
@@ -65,14 +314,11 @@ jvalret _variant_to_jvalue(JNIEnv *env, Variant::Type p_type, const Variant *p_a
 		} break;
 		case Variant::FLOAT: {
 			if (force_jobject) {
-				jclass bclass = env->FindClass("java/lang/Double");
-				jmethodID ctor = env->GetMethodID(bclass, "<init>", "(D)V");
 				jvalue val;
 				val.d = (double)(*p_arg);
-				jobject obj = env->NewObjectA(bclass, ctor, &val);
+				jobject obj = env->NewObjectA(double_class, double_init, &val);
 				v.val.l = obj;
 				v.obj = obj;
-				env->DeleteLocalRef(bclass);
 
 			} else {
 				v.val.f = *p_arg;
@@ -86,7 +332,7 @@ jvalret _variant_to_jvalue(JNIEnv *env, Variant::Type p_type, const Variant *p_a
 		} break;
 		case Variant::PACKED_STRING_ARRAY: {
 			Vector<String> sarray = *p_arg;
-			jobjectArray arr = env->NewObjectArray(sarray.size(), env->FindClass("java/lang/String"), env->NewStringUTF(""));
+			jobjectArray arr = env->NewObjectArray(sarray.size(), string_class, nullptr);
 
 			for (int j = 0; j < sarray.size(); j++) {
 				jstring str = env->NewStringUTF(sarray[j].utf8().get_data());
@@ -100,26 +346,23 @@ jvalret _variant_to_jvalue(JNIEnv *env, Variant::Type p_type, const Variant *p_a
 
 		case Variant::DICTIONARY: {
 			Dictionary dict = *p_arg;
-			jclass dclass = env->FindClass("org/godotengine/godot/Dictionary");
-			jmethodID ctor = env->GetMethodID(dclass, "<init>", "()V");
-			jobject jdict = env->NewObject(dclass, ctor);
+			jobject jdict = env->NewObject(dictionary_class, dictionary_init);
 
 			Array keys = dict.keys();
 
-			jobjectArray jkeys = env->NewObjectArray(keys.size(), env->FindClass("java/lang/String"), env->NewStringUTF(""));
+			jobjectArray jkeys = env->NewObjectArray(keys.size(), string_class, nullptr);
 			for (int j = 0; j < keys.size(); j++) {
 				jstring str = env->NewStringUTF(String(keys[j]).utf8().get_data());
 				env->SetObjectArrayElement(jkeys, j, str);
 				env->DeleteLocalRef(str);
 			}
 
-			jmethodID set_keys = env->GetMethodID(dclass, "set_keys", "([Ljava/lang/String;)V");
 			jvalue val;
 			val.l = jkeys;
-			env->CallVoidMethodA(jdict, set_keys, &val);
+			env->CallVoidMethodA(jdict, dictionary_set_keys, &val);
 			env->DeleteLocalRef(jkeys);
 
-			jobjectArray jvalues = env->NewObjectArray(keys.size(), env->FindClass("java/lang/Object"), nullptr);
+			jobjectArray jvalues = env->NewObjectArray(keys.size(), object_class, nullptr);
 
 			for (int j = 0; j < keys.size(); j++) {
 				Variant var = dict[keys[j]];
@@ -130,11 +373,9 @@ jvalret _variant_to_jvalue(JNIEnv *env, Variant::Type p_type, const Variant *p_a
 				}
 			}
 
-			jmethodID set_values = env->GetMethodID(dclass, "set_values", "([Ljava/lang/Object;)V");
 			val.l = jvalues;
-			env->CallVoidMethodA(jdict, set_values, &val);
+			env->CallVoidMethodA(jdict, dictionary_set_values, &val);
 			env->DeleteLocalRef(jvalues);
-			env->DeleteLocalRef(dclass);
 
 			v.val.l = jdict;
 			v.obj = jdict;
@@ -167,9 +408,24 @@ jvalret _variant_to_jvalue(JNIEnv *env, Variant::Type p_type, const Variant *p_a
 			v.obj = arr;
 
 		} break;
-#ifndef _MSC_VER
-#warning This is missing 64 bits arrays, I have no idea how to do it in JNI
-#endif
+		case Variant::PACKED_INT64_ARRAY: {
+			Vector<int64_t> array = *p_arg;
+			jlongArray arr = env->NewLongArray(array.size());
+			const int64_t *r = array.ptr();
+			env->SetLongArrayRegion(arr, 0, array.size(), reinterpret_cast<const jlong *>(r));
+			v.val.l = arr;
+			v.obj = arr;
+
+		} break;
+		case Variant::PACKED_FLOAT64_ARRAY: {
+			Vector<double> array = *p_arg;
+			jdoubleArray arr = env->NewDoubleArray(array.size());
+			const double *r = array.ptr();
+			env->SetDoubleArrayRegion(arr, 0, array.size(), r);
+			v.val.l = arr;
+			v.obj = arr;
+
+		} break;
 
 		default: {
 			v.val.i = 0;
@@ -178,163 +434,173 @@ jvalret _variant_to_jvalue(JNIEnv *env, Variant::Type p_type, const Variant *p_a
 	return v;
 }
 
-String _get_class_name(JNIEnv *env, jclass cls, bool *array) {
-	jclass cclass = env->FindClass("java/lang/Class");
-	jmethodID getName = env->GetMethodID(cclass, "getName", "()Ljava/lang/String;");
-	jstring clsName = (jstring)env->CallObjectMethod(cls, getName);
-
-	if (array) {
-		jmethodID isArray = env->GetMethodID(cclass, "isArray", "()Z");
-		jboolean isarr = env->CallBooleanMethod(cls, isArray);
-		(*array) = isarr ? true : false;
-	}
-	String name = jstring_to_string(clsName, env);
-	env->DeleteLocalRef(clsName);
-
-	return name;
-}
-
 Variant _jobject_to_variant(JNIEnv *env, jobject obj) {
 	if (obj == nullptr) {
 		return Variant();
 	}
 
-	jclass c = env->GetObjectClass(obj);
-	bool array;
-	String name = _get_class_name(env, c, &array);
+	const JavaType type = _get_java_type(env, obj);
+	switch (type) {
+		case JAVA_TYPE_STRING: {
+			return jstring_to_string((jstring)obj, env);
+		}
 
-	if (name == "java.lang.String") {
-		return jstring_to_string((jstring)obj, env);
-	}
+		case JAVA_TYPE_STRING_ARRAY: {
+			jobjectArray arr = (jobjectArray)obj;
+			int stringCount = env->GetArrayLength(arr);
+			Vector<String> sarr;
 
-	if (name == "[Ljava.lang.String;") {
-		jobjectArray arr = (jobjectArray)obj;
-		int stringCount = env->GetArrayLength(arr);
-		Vector<String> sarr;
+			for (int i = 0; i < stringCount; i++) {
+				jstring string = (jstring)env->GetObjectArrayElement(arr, i);
+				sarr.push_back(jstring_to_string(string, env));
+				env->DeleteLocalRef(string);
+			}
 
-		for (int i = 0; i < stringCount; i++) {
-			jstring string = (jstring)env->GetObjectArrayElement(arr, i);
-			sarr.push_back(jstring_to_string(string, env));
-			env->DeleteLocalRef(string);
+			return sarr;
 		}
 
-		return sarr;
-	}
+		case JAVA_TYPE_BOOLEAN: {
+			bool ret = env->CallBooleanMethod(obj, boolean_value);
+			return ret;
+		}
 
-	if (name == "java.lang.Boolean") {
-		jmethodID boolValue = env->GetMethodID(c, "booleanValue", "()Z");
-		bool ret = env->CallBooleanMethod(obj, boolValue);
-		return ret;
-	}
+		case JAVA_TYPE_INTEGER: {
+			jlong ret = env->CallLongMethod(obj, number_long_value);
+			return ret;
+		}
 
-	if (name == "java.lang.Integer" || name == "java.lang.Long") {
-		jclass nclass = env->FindClass("java/lang/Number");
-		jmethodID longValue = env->GetMethodID(nclass, "longValue", "()J");
-		jlong ret = env->CallLongMethod(obj, longValue);
-		return ret;
-	}
+		case JAVA_TYPE_INT_ARRAY: {
+			jintArray arr = (jintArray)obj;
+			int fCount = env->GetArrayLength(arr);
+			Vector<int> sarr;
+			sarr.resize(fCount);
 
-	if (name == "[I") {
-		jintArray arr = (jintArray)obj;
-		int fCount = env->GetArrayLength(arr);
-		Vector<int> sarr;
-		sarr.resize(fCount);
+			int *w = sarr.ptrw();
+			env->GetIntArrayRegion(arr, 0, fCount, w);
+			return sarr;
+		}
 
-		int *w = sarr.ptrw();
-		env->GetIntArrayRegion(arr, 0, fCount, w);
-		return sarr;
-	}
+		case JAVA_TYPE_BYTE_ARRAY: {
+			jbyteArray arr = (jbyteArray)obj;
+			int fCount = env->GetArrayLength(arr);
+			Vector<uint8_t> sarr;
+			sarr.resize(fCount);
 
-	if (name == "[B") {
-		jbyteArray arr = (jbyteArray)obj;
-		int fCount = env->GetArrayLength(arr);
-		Vector<uint8_t> sarr;
-		sarr.resize(fCount);
+			uint8_t *w = sarr.ptrw();
+			env->GetByteArrayRegion(arr, 0, fCount, reinterpret_cast<signed char *>(w));
+			return sarr;
+		}
 
-		uint8_t *w = sarr.ptrw();
-		env->GetByteArrayRegion(arr, 0, fCount, reinterpret_cast<signed char *>(w));
-		return sarr;
-	}
+		case JAVA_TYPE_FLOAT: {
+			double ret = env->CallDoubleMethod(obj, number_double_value);
+			return ret;
+		}
 
-	if (name == "java.lang.Float" || name == "java.lang.Double") {
-		jclass nclass = env->FindClass("java/lang/Number");
-		jmethodID doubleValue = env->GetMethodID(nclass, "doubleValue", "()D");
-		double ret = env->CallDoubleMethod(obj, doubleValue);
-		return ret;
-	}
+		case JAVA_TYPE_LONG_ARRAY: {
+			jlongArray arr = (jlongArray)obj;
+			int fCount = env->GetArrayLength(arr);
+			PackedInt64Array sarr;
+			sarr.resize(fCount);
+
+			int64_t *w = sarr.ptrw();
+			env->GetLongArrayRegion(arr, 0, fCount, reinterpret_cast<jlong *>(w));
+			return sarr;
+		}
 
-	if (name == "[D") {
-		jdoubleArray arr = (jdoubleArray)obj;
-		int fCount = env->GetArrayLength(arr);
-		PackedFloat32Array sarr;
-		sarr.resize(fCount);
+		case JAVA_TYPE_DOUBLE_ARRAY: {
+			jdoubleArray arr = (jdoubleArray)obj;
+			int fCount = env->GetArrayLength(arr);
+			PackedFloat32Array sarr;
+			sarr.resize(fCount);
 
-		real_t *w = sarr.ptrw();
+			float *w = sarr.ptrw();
+			jdouble *r = env->GetDoubleArrayElements(arr, nullptr);
+			for (int i = 0; i < fCount; i++) {
+				w[i] = r[i];
+			}
+			env->ReleaseDoubleArrayElements(arr, r, JNI_ABORT);
+			return sarr;
+		}
 
-		for (int i = 0; i < fCount; i++) {
-			double n;
-			env->GetDoubleArrayRegion(arr, i, 1, &n);
-			w[i] = n;
+		case JAVA_TYPE_FLOAT_ARRAY: {
+			jfloatArray arr = (jfloatArray)obj;
+			int fCount = env->GetArrayLength(arr);
+			PackedFloat32Array sarr;
+			sarr.resize(fCount);
+
+			float *w = sarr.ptrw();
+			env->GetFloatArrayRegion(arr, 0, fCount, w);
+			return sarr;
 		}
-		return sarr;
-	}
 
-	if (name == "[F") {
-		jfloatArray arr = (jfloatArray)obj;
-		int fCount = env->GetArrayLength(arr);
-		PackedFloat32Array sarr;
-		sarr.resize(fCount);
+		case JAVA_TYPE_OBJECT_ARRAY: {
+			jobjectArray arr = (jobjectArray)obj;
+			int objCount = env->GetArrayLength(arr);
+			Array varr;
 
-		real_t *w = sarr.ptrw();
+			for (int i = 0; i < objCount; i++) {
+				jobject jobj = env->GetObjectArrayElement(arr, i);
+				Variant v = _jobject_to_variant(env, jobj);
+				varr.push_back(v);
+				env->DeleteLocalRef(jobj);
+			}
 
-		for (int i = 0; i < fCount; i++) {
-			float n;
-			env->GetFloatArrayRegion(arr, i, 1, &n);
-			w[i] = n;
+			return varr;
 		}
-		return sarr;
-	}
 
-	if (name == "[Ljava.lang.Object;") {
-		jobjectArray arr = (jobjectArray)obj;
-		int objCount = env->GetArrayLength(arr);
-		Array varr;
+		case JAVA_TYPE_HASH_MAP: {
+			Dictionary ret;
+			jobject key_set = env->CallObjectMethod(obj, map_key_set);
+			jobjectArray keys = (jobjectArray)env->CallObjectMethod(key_set, collection_to_array);
+			env->DeleteLocalRef(key_set);
+
+			const int key_count = env->GetArrayLength(keys);
+			for (int i = 0; i < key_count; i++) {
+				jobject key = env->GetObjectArrayElement(keys, i);
+				jobject value = env->CallObjectMethod(obj, map_get, key);
+				ret[_jobject_to_variant(env, key)] = _jobject_to_variant(env, value);
+				env->DeleteLocalRef(value);
+				env->DeleteLocalRef(key);
+			}
+			env->DeleteLocalRef(keys);
 
-		for (int i = 0; i < objCount; i++) {
-			jobject jobj = env->GetObjectArrayElement(arr, i);
-			Variant v = _jobject_to_variant(env, jobj);
-			varr.push_back(v);
-			env->DeleteLocalRef(jobj);
+			return ret;
 		}
 
-		return varr;
-	}
+		case JAVA_TYPE_DICTIONARY: {
+			Dictionary ret;
+			jobjectArray arr = (jobjectArray)env->CallObjectMethod(obj, dictionary_get_keys);
 
-	if (name == "java.util.HashMap" || name == "org.godotengine.godot.Dictionary") {
-		Dictionary ret;
-		jclass oclass = c;
-		jmethodID get_keys = env->GetMethodID(oclass, "get_keys", "()[Ljava/lang/String;");
-		jobjectArray arr = (jobjectArray)env->CallObjectMethod(obj, get_keys);
+			PackedStringArray keys = _jobject_to_variant(env, arr);
+			env->DeleteLocalRef(arr);
 
-		PackedStringArray keys = _jobject_to_variant(env, arr);
-		env->DeleteLocalRef(arr);
+			arr = (jobjectArray)env->CallObjectMethod(obj, dictionary_get_values);
 
-		jmethodID get_values = env->GetMethodID(oclass, "get_values", "()[Ljava/lang/Object;");
-		arr = (jobjectArray)env->CallObjectMethod(obj, get_values);
+			Array vals = _jobject_to_variant(env, arr);
+			env->DeleteLocalRef(arr);
 
-		Array vals = _jobject_to_variant(env, arr);
-		env->DeleteLocalRef(arr);
+			for (int i = 0; i < keys.size(); i++) {
+				ret[keys[i]] = vals[i];
+			}
 
-		for (int i = 0; i < keys.size(); i++) {
-			ret[keys[i]] = vals[i];
+			return ret;
 		}
 
-		return ret;
+		default: {
+			// The buffer classes are abstract, so they're matched by instance.
+			if (env->IsInstanceOf(obj, byte_buffer_class)) {
+				return _direct_buffer_to_variant(env, obj, Variant::PACKED_BYTE_ARRAY);
+			}
+			if (env->IsInstanceOf(obj, float_buffer_class)) {
+				return _direct_buffer_to_variant(env, obj, Variant::PACKED_FLOAT32_ARRAY);
+			}
+			return Variant();
+		}
 	}
+}
 
-	env->DeleteLocalRef(c);
-
-	return Variant();
+bool is_jni_direct_buffer(const String &p_type) {
+	return p_type == "java.nio.ByteBuffer" || p_type == "java.nio.FloatBuffer";
 }
 
 Variant::Type get_jni_type(const String &p_type) {
@@ -351,7 +617,11 @@ Variant::Type get_jni_type(const String &p_type) {
 		{ "[I", Variant::PACKED_INT32_ARRAY },
 		{ "[B", Variant::PACKED_BYTE_ARRAY },
 		{ "[F", Variant::PACKED_FLOAT32_ARRAY },
+		{ "[J", Variant::PACKED_INT64_ARRAY },
+		{ "[D", Variant::PACKED_FLOAT64_ARRAY },
 		{ "[Ljava.lang.String;", Variant::PACKED_STRING_ARRAY },
+		{ "java.nio.ByteBuffer", Variant::PACKED_BYTE_ARRAY },
+		{ "java.nio.FloatBuffer", Variant::PACKED_FLOAT32_ARRAY },
 		{ "org.godotengine.godot.Dictionary", Variant::DICTIONARY },
 		{ nullptr, Variant::NIL }
 	};
@@ -369,6 +639,14 @@ Variant::Type get_jni_type(const String &p_type) {
 	return Variant::NIL;
 }
 
+Variant::Type get_jni_value_type(const String &p_type) {
+	// A double[] received from Java is narrowed into a PackedFloat32Array, see _jobject_to_variant.
+	if (p_type == "[D") {
+		return Variant::PACKED_FLOAT32_ARRAY;
+	}
+	return get_jni_type(p_type);
+}
+
 const char *get_jni_sig(const String &p_type) {
 	static struct {
 		const char *name;
@@ -384,7 +662,11 @@ const char *get_jni_sig(const String &p_type) {
 		{ "[I", "[I" },
 		{ "[B", "[B" },
 		{ "[F", "[F" },
+		{ "[J", "[J" },
+		{ "[D", "[D" },
 		{ "[Ljava.lang.String;", "[Ljava/lang/String;" },
+		{ "java.nio.ByteBuffer", "Ljava/nio/ByteBuffer;" },
+		{ "java.nio.FloatBuffer", "Ljava/nio/FloatBuffer;" },
 		{ nullptr, "V" }
 	};
 
@@ -42,14 +42,25 @@ struct jvalret {
 	jvalret() { obj = nullptr; }
 };
 
+// Must be invoked once on a thread with access to the Godot classes, before any conversion.
+void init_jni_utils(JNIEnv *env);
+
 jvalret _variant_to_jvalue(JNIEnv *env, Variant::Type p_type, const Variant *p_arg, bool force_jobject = false);
 
-String _get_class_name(JNIEnv *env, jclass cls, bool *array);
+// Passes a packed array argument as a direct java.nio buffer holding a copy of its data. With
+// `p_zero_copy` the array's memory is wrapped read-only instead, when the argument is already of
+// the expected type; the buffer is then only valid while the argument is.
+jvalret _variant_to_direct_buffer(JNIEnv *env, Variant::Type p_type, const Variant *p_arg, bool p_zero_copy = false);
 
 Variant _jobject_to_variant(JNIEnv *env, jobject obj);
 
+bool is_jni_direct_buffer(const String &p_type);
+
 Variant::Type get_jni_type(const String &p_type);
 
+// Type of the Variant a value of the given Java type converts to, for return and signal values.
+Variant::Type get_jni_value_type(const String &p_type);
+
 const char *get_jni_sig(const String &p_type);
 
 #endif // JNI_UTILS_H
@@ -0,0 +1,77 @@
+/*************************************************************************/
+/*  jni_utils_benchmark.cpp                                              */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+// Native side of the JNI conversion benchmarks, run as instrumented tests from
+// 'java/lib/androidTest'. Only built with `tests=yes`.
+
+#include "jni_utils.h"
+
+extern "C" {
+
+// Converts the given Java object `p_iterations` times, and returns the type of the resulting
+// Variant so the caller can check the conversion.
+JNIEXPORT jint JNICALL Java_org_godotengine_godot_JniConversionBenchmark_nativeToVariant(JNIEnv *env, jclass clazz, jobject p_value, jint p_iterations) {
+	init_jni_utils(env);
+
+	Variant::Type type = Variant::NIL;
+	for (int i = 0; i < p_iterations; i++) {
+		type = _jobject_to_variant(env, p_value).get_type();
+	}
+	return type;
+}
+
+// Passes a packed array of `p_size` bytes to Java `p_iterations` times, either as a direct buffer
+// or as a Java array, the way plugin method arguments are passed. `p_zero_copy` wraps the array's
+// memory in the direct buffer instead of copying it.
+JNIEXPORT void JNICALL Java_org_godotengine_godot_JniConversionBenchmark_nativeFromPackedArray(JNIEnv *env, jclass clazz, jboolean p_float, jint p_size, jboolean p_direct_buffer, jboolean p_zero_copy, jint p_iterations) {
+	init_jni_utils(env);
+
+	Variant array;
+	Variant::Type type;
+	if (p_float) {
+		PackedFloat32Array floats;
+		floats.resize(p_size / sizeof(float));
+		floats.fill(0);
+		array = floats;
+		type = Variant::PACKED_FLOAT32_ARRAY;
+	} else {
+		PackedByteArray bytes;
+		bytes.resize(p_size);
+		bytes.fill(0);
+		array = bytes;
+		type = Variant::PACKED_BYTE_ARRAY;
+	}
+
+	for (int i = 0; i < p_iterations; i++) {
+		jvalret arg = p_direct_buffer ? _variant_to_direct_buffer(env, type, &array, p_zero_copy) : _variant_to_jvalue(env, type, &array);
+		env->DeleteLocalRef(arg.obj);
+	}
+}
+}
@@ -173,7 +173,10 @@ bool OS_Android::main_loop_iterate() {
 		return false;
 	}
 	DisplayServerAndroid::get_singleton()->process_events();
-	return Main::iteration();
+	frame_delay_usec = 0;
+	const bool quit = Main::iteration();
+	frame_delay_usec += DisplayServerAndroid::get_singleton()->take_present_wait_usec();
+	return quit;
 }
 
 void OS_Android::main_loop_end() {
@@ -187,6 +190,36 @@ void OS_Android::main_loop_focusout() {
 	audio_driver_android.set_pause(true);
 }
 
+void OS_Android::add_frame_delay(bool p_can_draw) {
+	const uint64_t delay_begin = get_ticks_usec();
+	OS_Unix::add_frame_delay(p_can_draw);
+
+	// The cap only ever lowers the frame rate, so it's applied after the engine's own delay, with
+	// its own frame pacing.
+	if (max_fps > 0) {
+		const uint64_t frame_usec = 1000000 / max_fps;
+		max_fps_target_ticks += frame_usec;
+		uint64_t current_ticks = get_ticks_usec();
+
+		if (current_ticks < max_fps_target_ticks) {
+			delay_usec(max_fps_target_ticks - current_ticks);
+		}
+
+		current_ticks = get_ticks_usec();
+		max_fps_target_ticks = MIN(MAX(max_fps_target_ticks, current_ticks - frame_usec), current_ticks + frame_usec);
+	}
+
+	frame_delay_usec = get_ticks_usec() - delay_begin;
+}
+
+uint64_t OS_Android::get_frame_delay_usec() const {
+	return frame_delay_usec;
+}
+
+void OS_Android::set_max_fps(int p_max_fps) {
+	max_fps = MAX(0, p_max_fps);
+}
+
 void OS_Android::main_loop_focusin() {
 	DisplayServerAndroid::get_singleton()->send_window_event(DisplayServer::WINDOW_EVENT_FOCUS_IN);
 	audio_driver_android.set_pause(false);
@@ -62,6 +62,14 @@ private:
 
 	MainLoop *main_loop;
 
+	// Time the last iteration waited rather than worked: slept in the frame delay, or waited for
+	// the GPU and the display to present the frame.
+	uint64_t frame_delay_usec = 0;
+
+	// Frame rate cap applied on top of the engine's target FPS, e.g: by the thermal governor.
+	int max_fps = 0;
+	uint64_t max_fps_target_ticks = 0;
+
 	GodotJavaWrapper *godot_java;
 	GodotIOJavaWrapper *godot_io_java;
 
@@ -99,6 +107,11 @@ public:
 	void main_loop_focusout();
 	void main_loop_focusin();
 
+	virtual void add_frame_delay(bool p_can_draw) override;
+	uint64_t get_frame_delay_usec() const;
+
+	void set_max_fps(int p_max_fps);
+
 	void set_display_size(const Size2i &p_size);
 	Size2i get_display_size() const;
 
@@ -39,16 +39,87 @@
 
 static HashMap<String, JNISingleton *> jni_singletons;
 
+// Argument type tags of the buffered signals, must match the ones in 'SignalBuffer.java'.
+enum {
+	SIGNAL_ARG_OBJECT = 0,
+	SIGNAL_ARG_LONG = 1,
+	SIGNAL_ARG_DOUBLE = 2,
+};
+
+static jclass plugin_registry_class = nullptr;
+static jmethodID on_lazy_plugin_called = nullptr;
+
+// Local references are released right away, so large arrays don't overflow the local reference table.
+static String _get_string_element(JNIEnv *env, jobjectArray p_array, int p_index) {
+	jstring string = (jstring)env->GetObjectArrayElement(p_array, p_index);
+	String result = jstring_to_string(string, env);
+	env->DeleteLocalRef(string);
+	return result;
+}
+
+// Creates the lazy plugin on the first call to one of its methods. The plugin registers itself
+// before the call returns, which sets the singleton instance.
+static void _create_lazy_plugin(const String &p_name) {
+	JNIEnv *env = get_jni_env();
+	ERR_FAIL_NULL(env);
+
+	jstring j_plugin_name = env->NewStringUTF(p_name.utf8().get_data());
+	env->CallStaticVoidMethod(plugin_registry_class, on_lazy_plugin_called, j_plugin_name);
+	if (env->ExceptionCheck()) {
+		env->ExceptionDescribe();
+		env->ExceptionClear();
+	}
+	env->DeleteLocalRef(j_plugin_name);
+}
+
+// Returns a local reference to the class used to look up the methods of the singleton.
+static jclass _get_singleton_class(JNIEnv *env, JNISingleton *p_singleton) {
+	if (p_singleton->get_instance()) {
+		return env->GetObjectClass(p_singleton->get_instance());
+	}
+	return (jclass)env->NewLocalRef(p_singleton->get_lazy_instance_class());
+}
+
 extern "C" {
 
-JNIEXPORT void JNICALL Java_org_godotengine_godot_plugin_GodotPlugin_nativeRegisterSingleton(JNIEnv *env, jclass clazz, jstring name, jobject obj) {
+JNIEXPORT jboolean JNICALL Java_org_godotengine_godot_plugin_GodotPlugin_nativeRegisterSingleton(JNIEnv *env, jclass clazz, jstring name, jobject obj) {
 	String singname = jstring_to_string(name, env);
+	if (jni_singletons.has(singname)) {
+		// Lazy plugin registering itself once created.
+		JNISingleton *s = jni_singletons.get(singname);
+		if (!s->get_instance()) {
+			s->set_instance(env->NewGlobalRef(obj));
+		}
+		return s->get_lazy_instance_class() != nullptr;
+	}
+
 	JNISingleton *s = (JNISingleton *)ClassDB::instantiate("JNISingleton");
 	s->set_instance(env->NewGlobalRef(obj));
 	jni_singletons[singname] = s;
 
 	Engine::get_singleton()->add_singleton(Engine::Singleton(singname, s));
 	ProjectSettings::get_singleton()->set(singname, s);
+	return false;
+}
+
+JNIEXPORT void JNICALL Java_org_godotengine_godot_plugin_GodotPlugin_nativeRegisterLazySingleton(JNIEnv *env, jclass clazz, jstring j_plugin_name, jclass j_plugin_class) {
+	String singleton_name = jstring_to_string(j_plugin_name, env);
+	ERR_FAIL_COND(jni_singletons.has(singleton_name));
+
+	if (!plugin_registry_class) {
+		jclass registry_class = env->FindClass("org/godotengine/godot/plugin/GodotPluginRegistry");
+		ERR_FAIL_NULL(registry_class);
+		plugin_registry_class = (jclass)env->NewGlobalRef(registry_class);
+		env->DeleteLocalRef(registry_class);
+		on_lazy_plugin_called = env->GetStaticMethodID(plugin_registry_class, "onLazyPluginCalled", "(Ljava/lang/String;)V");
+	}
+
+	JNISingleton *singleton = (JNISingleton *)ClassDB::instantiate("JNISingleton");
+	singleton->set_lazy_instance(singleton_name, (jclass)env->NewGlobalRef(j_plugin_class), _create_lazy_plugin);
+	jni_singletons[singleton_name] = singleton;
+
+	Engine::get_singleton()->add_singleton(Engine::Singleton(singleton_name, singleton));
+	ProjectSettings::get_singleton()->set(singleton_name, singleton);
 }
 
 JNIEXPORT void JNICALL Java_org_godotengine_godot_plugin_GodotPlugin_nativeRegisterMethod(JNIEnv *env, jclass clazz, jstring sname, jstring name, jstring ret, jobjectArray args) {
@@ -61,6 +132,7 @@ JNIEXPORT void JNICALL Java_org_godotengine_godot_plugin_GodotPlugin_nativeRegis
 	String mname = jstring_to_string(name, env);
 	String retval = jstring_to_string(ret, env);
 	Vector<Variant::Type> types;
+	uint64_t direct_buffer_args = 0;
 	String cs = "(";
 
 	int stringCount = env->GetArrayLength(args);
@@ -69,63 +141,187 @@ JNIEXPORT void JNICALL Java_org_godotengine_godot_plugin_GodotPlugin_nativeRegis
 		jstring string = (jstring)env->GetObjectArrayElement(args, i);
 		const String rawString = jstring_to_string(string, env);
 		types.push_back(get_jni_type(rawString));
+		if (i < 64 && is_jni_direct_buffer(rawString)) {
+			direct_buffer_args |= 1ULL << i;
+		}
 		cs += get_jni_sig(rawString);
 	}
 
 	cs += ")";
 	cs += get_jni_sig(retval);
-	jclass cls = env->GetObjectClass(s->get_instance());
+	jclass cls = _get_singleton_class(env, s);
 	jmethodID mid = env->GetMethodID(cls, mname.ascii().get_data(), cs.ascii().get_data());
 	if (!mid) {
 		print_line("Failed getting method ID " + mname);
+		if (env->ExceptionCheck()) {
+			env->ExceptionClear();
+		}
 	}
+	env->DeleteLocalRef(cls);
 
-	s->add_method(mname, mid, types, get_jni_type(retval));
+	s->add_method(mname, mid, types, get_jni_value_type(retval), direct_buffer_args);
 }
 
-JNIEXPORT void JNICALL Java_org_godotengine_godot_plugin_GodotPlugin_nativeRegisterSignal(JNIEnv *env, jclass clazz, jstring j_plugin_name, jstring j_signal_name, jobjectArray j_signal_param_types) {
+JNIEXPORT void JNICALL Java_org_godotengine_godot_plugin_GodotPlugin_nativeRegisterMethods(JNIEnv *env, jclass clazz, jstring j_plugin_name, jobjectArray j_method_names, jobjectArray j_method_signatures, jobjectArray j_method_return_types, jintArray j_method_param_counts, jobjectArray j_method_param_types) {
 	String singleton_name = jstring_to_string(j_plugin_name, env);
 
 	ERR_FAIL_COND(!jni_singletons.has(singleton_name));
 
 	JNISingleton *singleton = jni_singletons.get(singleton_name);
 
-	String signal_name = jstring_to_string(j_signal_name, env);
-	Vector<Variant::Type> types;
+	int method_count = env->GetArrayLength(j_method_names);
+	ERR_FAIL_COND(env->GetArrayLength(j_method_signatures) != method_count);
+	ERR_FAIL_COND(env->GetArrayLength(j_method_return_types) != method_count);
+	ERR_FAIL_COND(env->GetArrayLength(j_method_param_counts) != method_count);
 
-	int stringCount = env->GetArrayLength(j_signal_param_types);
+	int param_type_count = env->GetArrayLength(j_method_param_types);
+	jint *param_counts = env->GetIntArrayElements(j_method_param_counts, nullptr);
+	jclass cls = _get_singleton_class(env, singleton);
 
-	for (int i = 0; i < stringCount; i++) {
-		jstring j_signal_param_type = (jstring)env->GetObjectArrayElement(j_signal_param_types, i);
-		const String signal_param_type = jstring_to_string(j_signal_param_type, env);
-		types.push_back(get_jni_type(signal_param_type));
+	int param_index = 0;
+	for (int i = 0; i < method_count; i++) {
+		const String method_name = _get_string_element(env, j_method_names, i);
+		const String signature = _get_string_element(env, j_method_signatures, i);
+		const String return_type = _get_string_element(env, j_method_return_types, i);
+
+		if (param_counts[i] < 0 || param_index + param_counts[i] > param_type_count) {
+			ERR_PRINT("Invalid parameters count for method " + method_name);
+			break;
+		}
+
+		Vector<Variant::Type> types;
+		uint64_t direct_buffer_args = 0;
+		for (int j = 0; j < param_counts[i]; j++) {
+			const String param_type = _get_string_element(env, j_method_param_types, param_index++);
+			types.push_back(get_jni_type(param_type));
+			if (j < 64 && is_jni_direct_buffer(param_type)) {
+				direct_buffer_args |= 1ULL << j;
+			}
+		}
+
+		jmethodID mid = env->GetMethodID(cls, method_name.ascii().get_data(), signature.ascii().get_data());
+		if (!mid) {
+			print_line("Failed getting method ID " + method_name);
+			if (env->ExceptionCheck()) {
+				env->ExceptionClear();
+			}
+		}
+
+		singleton->add_method(method_name, mid, types, get_jni_value_type(return_type), direct_buffer_args);
 	}
 
-	singleton->add_signal(signal_name, types);
+	env->DeleteLocalRef(cls);
+	env->ReleaseIntArrayElements(j_method_param_counts, param_counts, JNI_ABORT);
 }
 
-JNIEXPORT void JNICALL Java_org_godotengine_godot_plugin_GodotPlugin_nativeEmitSignal(JNIEnv *env, jclass clazz, jstring j_plugin_name, jstring j_signal_name, jobjectArray j_signal_params) {
+JNIEXPORT void JNICALL Java_org_godotengine_godot_plugin_GodotPlugin_nativeRegisterSignals(JNIEnv *env, jclass clazz, jstring j_plugin_name, jobjectArray j_signal_names, jintArray j_signal_param_counts, jobjectArray j_signal_param_types) {
 	String singleton_name = jstring_to_string(j_plugin_name, env);
 
 	ERR_FAIL_COND(!jni_singletons.has(singleton_name));
 
 	JNISingleton *singleton = jni_singletons.get(singleton_name);
 
-	String signal_name = jstring_to_string(j_signal_name, env);
+	int signal_count = env->GetArrayLength(j_signal_names);
+	ERR_FAIL_COND(env->GetArrayLength(j_signal_param_counts) != signal_count);
+
+	int param_type_count = env->GetArrayLength(j_signal_param_types);
+	jint *param_counts = env->GetIntArrayElements(j_signal_param_counts, nullptr);
+
+	int param_index = 0;
+	for (int i = 0; i < signal_count; i++) {
+		const String signal_name = _get_string_element(env, j_signal_names, i);
 
-	int count = env->GetArrayLength(j_signal_params);
+		if (param_counts[i] < 0 || param_index + param_counts[i] > param_type_count) {
+			ERR_PRINT("Invalid parameters count for signal " + signal_name);
+			break;
+		}
+
+		Vector<Variant::Type> types;
+		for (int j = 0; j < param_counts[i]; j++) {
+			types.push_back(get_jni_value_type(_get_string_element(env, j_signal_param_types, param_index++)));
+		}
 
-	Variant *variant_params = (Variant *)alloca(sizeof(Variant) * count);
-	const Variant **args = (const Variant **)alloca(sizeof(Variant *) * count);
+		singleton->add_signal(signal_name, types);
+	}
+
+	env->ReleaseIntArrayElements(j_signal_param_counts, param_counts, JNI_ABORT);
+}
 
-	for (int i = 0; i < count; i++) {
-		jobject j_param = env->GetObjectArrayElement(j_signal_params, i);
-		variant_params[i] = _jobject_to_variant(env, j_param);
-		args[i] = &variant_params[i];
-		env->DeleteLocalRef(j_param);
-	};
+JNIEXPORT void JNICALL Java_org_godotengine_godot_plugin_GodotPlugin_nativeEmitSignals(JNIEnv *env, jclass clazz, jstring j_plugin_name, jobjectArray j_signal_names, jint j_emission_count, jintArray j_records, jlongArray j_longs, jdoubleArray j_doubles, jobjectArray j_objects) {
+	String singleton_name = jstring_to_string(j_plugin_name, env);
+
+	ERR_FAIL_COND(!jni_singletons.has(singleton_name));
+
+	JNISingleton *singleton = jni_singletons.get(singleton_name);
+
+	int signal_name_count = env->GetArrayLength(j_signal_names);
+	Vector<StringName> signal_names;
+	signal_names.resize(signal_name_count);
+	for (int i = 0; i < signal_name_count; i++) {
+		signal_names.write[i] = StringName(_get_string_element(env, j_signal_names, i));
+	}
+
+	const int records_size = env->GetArrayLength(j_records);
+	const int longs_size = env->GetArrayLength(j_longs);
+	const int doubles_size = env->GetArrayLength(j_doubles);
+	const int objects_size = env->GetArrayLength(j_objects);
+
+	jint *records = env->GetIntArrayElements(j_records, nullptr);
+	jlong *longs = env->GetLongArrayElements(j_longs, nullptr);
+	jdouble *doubles = env->GetDoubleArrayElements(j_doubles, nullptr);
+
+	Vector<Variant> variant_params;
+	Vector<const Variant *> args;
+	int record_index = 0;
+	int long_index = 0;
+	int double_index = 0;
+	int object_index = 0;
+	for (int i = 0; i < j_emission_count; i++) {
+		ERR_BREAK(record_index + 2 > records_size);
+		const int signal_index = records[record_index++];
+		const int count = records[record_index++];
+		ERR_BREAK(signal_index < 0 || signal_index >= signal_name_count);
+		ERR_BREAK(count < 0 || record_index + count > records_size);
+
+		variant_params.resize(count);
+		args.resize(count);
+		bool valid = true;
+		for (int j = 0; j < count && valid; j++) {
+			switch (records[record_index++]) {
+				case SIGNAL_ARG_LONG: {
+					valid = long_index < longs_size;
+					if (valid) {
+						variant_params.write[j] = (int64_t)longs[long_index++];
+					}
+				} break;
+				case SIGNAL_ARG_DOUBLE: {
+					valid = double_index < doubles_size;
+					if (valid) {
+						variant_params.write[j] = (double)doubles[double_index++];
+					}
+				} break;
+				case SIGNAL_ARG_OBJECT: {
+					valid = object_index < objects_size;
+					if (valid) {
+						jobject j_param = env->GetObjectArrayElement(j_objects, object_index++);
+						variant_params.write[j] = _jobject_to_variant(env, j_param);
+						env->DeleteLocalRef(j_param);
+					}
+				} break;
+				default: {
+					valid = false;
+				} break;
+			}
+			args.write[j] = &variant_params[j];
+		}
+		ERR_BREAK_MSG(!valid, "Invalid arguments for signal " + String(signal_names[signal_index]));
+
+		singleton->emit_signalp(signal_names[signal_index], args.ptrw(), count);
+	}
 
-	singleton->emit_signalp(StringName(signal_name), args, count);
+	env->ReleaseIntArrayElements(j_records, records, JNI_ABORT);
+	env->ReleaseLongArrayElements(j_longs, longs, JNI_ABORT);
+	env->ReleaseDoubleArrayElements(j_doubles, doubles, JNI_ABORT);
 }
 
 JNIEXPORT void JNICALL Java_org_godotengine_godot_plugin_GodotPlugin_nativeRegisterGDNativeLibraries(JNIEnv *env, jclass clazz, jobjectArray gdnlib_paths) {
@@ -30,6 +30,8 @@
 
 #include "vulkan_context_android.h"
 
+#include "core/os/os.h"
+
 #ifdef USE_VOLK
 #include <volk.h>
 #else
@@ -56,6 +58,28 @@ int VulkanContextAndroid::window_create(ANativeWindow *p_window, DisplayServer::
 	return _window_create(DisplayServer::MAIN_WINDOW_ID, p_vsync_mode, surface, p_width, p_height);
 }
 
+// Acquiring an image blocks until the display releases one, and presenting waits for the GPU to
+// finish the previous frames, neither of which is the CPU's work.
+Error VulkanContextAndroid::prepare_buffers() {
+	const uint64_t begin = OS::get_singleton()->get_ticks_usec();
+	Error err = VulkanContext::prepare_buffers();
+	present_wait_usec += OS::get_singleton()->get_ticks_usec() - begin;
+	return err;
+}
+
+Error VulkanContextAndroid::swap_buffers() {
+	const uint64_t begin = OS::get_singleton()->get_ticks_usec();
+	Error err = VulkanContext::swap_buffers();
+	present_wait_usec += OS::get_singleton()->get_ticks_usec() - begin;
+	return err;
+}
+
+uint64_t VulkanContextAndroid::take_present_wait_usec() {
+	const uint64_t wait_usec = present_wait_usec;
+	present_wait_usec = 0;
+	return wait_usec;
+}
+
 bool VulkanContextAndroid::_use_validation_layers() {
 	uint32_t count = 0;
 	_get_preferred_validation_layers(&count, nullptr);
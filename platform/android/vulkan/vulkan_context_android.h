@@ -36,11 +36,18 @@
 struct ANativeWindow;
 
 class VulkanContextAndroid : public VulkanContext {
+	// Time spent waiting for the swapchain images and presenting them since the last take.
+	uint64_t present_wait_usec = 0;
+
 	virtual const char *_get_platform_surface_extension() const override;
 
 public:
 	int window_create(ANativeWindow *p_window, DisplayServer::VSyncMode p_vsync_mode, int p_width, int p_height);
 
+	Error prepare_buffers() override;
+	Error swap_buffers() override;
+	uint64_t take_present_wait_usec();
+
 	VulkanContextAndroid() = default;
 	~VulkanContextAndroid() override = default;
 
@@ -0,0 +1,110 @@
+/*************************************************************************/
+/*  test_text_paste.h                                                    */
+/*************************************************************************/
+/*                       This file is part of:                           */
+/*                           GODOT ENGINE                                */
+/*                      https://godotengine.org                          */
+/*************************************************************************/
+/* Copyright (c) 2007-2022 Juan Linietsky, Ariel Manzur.                 */
+/* Copyright (c) 2014-2022 Godot Engine contributors (cf. AUTHORS.md).   */
+/*                                                                       */
+/* Permission is hereby granted, free of charge, to any person obtaining */
+/* a copy of this software and associated documentation files (the       */
+/* "Software"), to deal in the Software without restriction, including   */
+/* without limitation the rights to use, copy, modify, merge, publish,   */
+/* distribute, sublicense, and/or sell copies of the Software, and to    */
+/* permit persons to whom the Software is furnished to do so, subject to */
+/* the following conditions:                                             */
+/*                                                                       */
+/* The above copyright notice and this permission notice shall be        */
+/* included in all copies or substantial portions of the Software.       */
+/*                                                                       */
+/* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,       */
+/* EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF    */
+/* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT.*/
+/* IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY  */
+/* CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,  */
+/* TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE     */
+/* SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.                */
+/*************************************************************************/
+
+#ifndef TEST_TEXT_PASTE_H
+#define TEST_TEXT_PASTE_H
+
+#include "core/os/os.h"
+#include "scene/gui/line_edit.h"
+#include "scene/gui/text_edit.h"
+#include "scene/main/window.h"
+
+#include "tests/test_macros.h"
+
+namespace TestTextPaste {
+
+// Pastes the text into the focused control the way the Android soft keyboard and IME text commits do: a key
+// press and a key release carrying the character for every codepoint, with new lines mapped to Enter.
+static uint64_t paste_as_key_events(const String &p_text) {
+	Viewport *root = SceneTree::get_singleton()->get_root();
+	const uint64_t start = OS::get_singleton()->get_ticks_usec();
+	for (int i = 0; i < p_text.length(); i++) {
+		const char32_t unicode = p_text[i];
+		for (int pressed = 1; pressed >= 0; pressed--) {
+			Ref<InputEventKey> ev;
+			ev.instantiate();
+			ev->set_keycode(unicode == '\n' ? Key::ENTER : Key::NONE);
+			ev->set_unicode(unicode);
+			ev->set_pressed(pressed);
+			root->push_input(ev);
+		}
+	}
+	MessageQueue::get_singleton()->flush();
+	return OS::get_singleton()->get_ticks_usec() - start;
+}
+
+static String create_text(int p_size, bool p_multiline) {
+	const String sample = p_multiline ? String::utf8("The quick brown fox jumps over the lazy dog, été 中文.\n") : String::utf8("The quick brown fox jumps over the lazy dog, été 中文. ");
+	String text;
+	while (text.length() < p_size) {
+		text += sample;
+	}
+	return text.substr(0, p_size);
+}
+
+template <class T>
+static void benchmark_paste(const String &p_name, bool p_multiline) {
+	static const int paste_sizes[] = { 256, 1024, 4096 };
+
+	T *control = memnew(T);
+	SceneTree::get_singleton()->get_root()->add_child(control);
+	control->grab_focus();
+
+	for (int size : paste_sizes) {
+		const String text = create_text(size, p_multiline);
+
+		control->set_text("");
+		const uint64_t key_events_usec = paste_as_key_events(text);
+		CHECK(control->get_text() == text);
+
+		// Reference: the whole text inserted at once, as a clipboard paste does.
+		control->set_text("");
+		const uint64_t start = OS::get_singleton()->get_ticks_usec();
+		control->insert_text_at_caret(text);
+		const uint64_t insert_usec = OS::get_singleton()->get_ticks_usec() - start;
+		CHECK(control->get_text() == text);
+
+		MESSAGE(vformat("%s, %d chars: key events %.3f ms, single insert %.3f ms", p_name, size, key_events_usec / 1000.0, insert_usec / 1000.0).utf8().get_data());
+	}
+
+	memdelete(control);
+}
+
+TEST_CASE("[SceneTree][LineEdit] Paste text as key events") {
+	benchmark_paste<LineEdit>("LineEdit", false);
+}
+
+TEST_CASE("[SceneTree][TextEdit] Paste text as key events") {
+	benchmark_paste<TextEdit>("TextEdit", true);
+}
+
+} // namespace TestTextPaste
+
+#endif // TEST_TEXT_PASTE_H
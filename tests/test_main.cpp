@@ -79,6 +79,7 @@
 #include "tests/scene/test_gradient.h"
 #include "tests/scene/test_gui.h"
 #include "tests/scene/test_path_3d.h"
+#include "tests/scene/test_text_paste.h"
 #include "tests/servers/test_physics_2d.h"
 #include "tests/servers/test_physics_3d.h"
 #include "tests/servers/test_render.h"